@@ -0,0 +1,247 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * CSR 投影上的中心性算法：PageRank、抽样 Brandes 介数、度中心性
+ * 均为单线程实现，多个图谱之间由调用方并行
+ */
+public final class Centrality {
+
+    private Centrality() {
+    }
+
+    /**
+     * 抽样介数的结果
+     *
+     * @param scores  按 (n-1)(n-2) 归一化后的介数估计
+     * @param samples 实际完成的源点数（超时后提前停止时小于请求值）
+     */
+    public record Betweenness(double[] scores, int samples) {
+    }
+
+    // ==================== PageRank ====================
+
+    /**
+     * 幂迭代 PageRank，沿入边拉取；无出边节点的分值均匀分配给所有节点
+     *
+     * @param damping   阻尼系数，通常取 0.85
+     * @param maxIter   最大迭代次数
+     * @param tolerance 相邻两次迭代的 L1 差小于该值时提前结束
+     */
+    public static double[] pageRank(CsrGraph g, double damping, int maxIter, double tolerance) {
+        int n = g.nodeCount();
+        if (n == 0) {
+            return new double[0];
+        }
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] share = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        for (int iter = 0; iter < maxIter; iter++) {
+            double dangling = 0;
+            for (int v = 0; v < n; v++) {
+                int out = g.outDegree(v);
+                if (out == 0) {
+                    dangling += rank[v];
+                    share[v] = 0;
+                } else {
+                    share[v] = rank[v] / out;
+                }
+            }
+            double base = (1 - damping) / n + damping * dangling / n;
+            double diff = 0;
+            for (int v = 0; v < n; v++) {
+                double sum = 0;
+                for (int k = g.inStart(v), end = g.inEnd(v); k < end; k++) {
+                    sum += share[g.inSource(k)];
+                }
+                next[v] = base + damping * sum;
+                diff += Math.abs(next[v] - rank[v]);
+            }
+            double[] tmp = rank;
+            rank = next;
+            next = tmp;
+            if (diff < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    // ==================== 介数 ====================
+
+    /**
+     * 抽样 Brandes 介数：随机选取 samples 个源点做有向 BFS，按 n/samples 放大后归一化
+     * samples 不小于节点数时退化为精确计算；超过 deadlineNanos 后按已完成的源点数估计
+     */
+    public static Betweenness betweenness(CsrGraph g, int samples, long seed, long deadlineNanos) {
+        int n = g.nodeCount();
+        double[] scores = new double[n];
+        if (n < 3) {
+            return new Betweenness(scores, 0);
+        }
+
+        int[] sources = new int[n];
+        for (int i = 0; i < n; i++) {
+            sources[i] = i;
+        }
+        int wanted = Math.min(samples, n);
+        Random random = new Random(seed);
+        // 部分 Fisher-Yates 洗牌，前 wanted 个即为无放回样本
+        for (int i = 0; i < wanted; i++) {
+            int j = i + random.nextInt(n - i);
+            int tmp = sources[i];
+            sources[i] = sources[j];
+            sources[j] = tmp;
+        }
+
+        int[] dist = new int[n];
+        double[] sigma = new double[n];
+        double[] delta = new double[n];
+        int[] order = new int[n];
+        Arrays.fill(dist, -1);
+
+        int done = 0;
+        for (; done < wanted; done++) {
+            if (System.nanoTime() > deadlineNanos) {
+                break;
+            }
+            int s = sources[done];
+            int head = 0;
+            int tail = 0;
+            order[tail++] = s;
+            dist[s] = 0;
+            sigma[s] = 1;
+            while (head < tail) {
+                int u = order[head++];
+                for (int k = g.outStart(u), end = g.outEnd(u); k < end; k++) {
+                    int w = g.outTarget(k);
+                    if (dist[w] < 0) {
+                        dist[w] = dist[u] + 1;
+                        order[tail++] = w;
+                    }
+                    if (dist[w] == dist[u] + 1) {
+                        sigma[w] += sigma[u];
+                    }
+                }
+            }
+            // 逆 BFS 序累积依赖，前驱通过入边上的距离关系判定
+            for (int i = tail - 1; i > 0; i--) {
+                int w = order[i];
+                double coefficient = (1 + delta[w]) / sigma[w];
+                for (int k = g.inStart(w), end = g.inEnd(w); k < end; k++) {
+                    int v = g.inSource(k);
+                    if (dist[v] >= 0 && dist[v] == dist[w] - 1) {
+                        delta[v] += sigma[v] * coefficient;
+                    }
+                }
+                scores[w] += delta[w];
+            }
+            for (int i = 0; i < tail; i++) {
+                int v = order[i];
+                dist[v] = -1;
+                sigma[v] = 0;
+                delta[v] = 0;
+            }
+        }
+
+        if (done > 0) {
+            double scale = (double) n / done / ((double) (n - 1) * (n - 2));
+            for (int v = 0; v < n; v++) {
+                scores[v] *= scale;
+            }
+        }
+        return new Betweenness(scores, done);
+    }
+
+    // ==================== 度中心性 ====================
+
+    /**
+     * 度中心性：(入度 + 出度) / (n - 1)
+     */
+    public static double[] degree(CsrGraph g) {
+        int n = g.nodeCount();
+        double[] scores = new double[n];
+        if (n < 2) {
+            return scores;
+        }
+        for (int v = 0; v < n; v++) {
+            scores[v] = (double) g.degree(v) / (n - 1);
+        }
+        return scores;
+    }
+
+    /**
+     * 分值最高的 k 个节点下标（降序，同分按下标升序）
+     */
+    public static int[] topK(double[] scores, int k) {
+        int size = Math.min(k, scores.length);
+        if (size <= 0) {
+            return new int[0];
+        }
+        // 大小为 k 的最小堆，堆顶为当前第 k 名
+        int[] heap = new int[size];
+        int count = 0;
+        for (int v = 0; v < scores.length; v++) {
+            if (count < size) {
+                heap[count] = v;
+                siftUp(heap, count++, scores);
+            } else if (better(v, heap[0], scores)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, scores);
+            }
+        }
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, 0, i, scores);
+        }
+        return result;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static boolean better(int a, int b, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int i, double[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i], scores)) {
+                break;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int i, int size, double[] scores) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(heap[left], heap[right], scores)) {
+                worst = right;
+            }
+            if (!better(heap[i], heap[worst], scores)) {
+                return;
+            }
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+}
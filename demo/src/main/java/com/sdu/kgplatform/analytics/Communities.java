@@ -0,0 +1,232 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * CSR 投影上的社区发现：异步标签传播（忽略关系方向），以及社区摘要统计
+ */
+public final class Communities {
+
+    private Communities() {
+    }
+
+    /**
+     * 标签传播结果
+     *
+     * @param membership 每个节点所属社区编号，按社区规模降序从 0 编号
+     * @param count      社区数
+     * @param iterations 实际执行的迭代轮数
+     * @param converged  是否在迭代上限与时间预算内收敛
+     */
+    public record Result(int[] membership, int count, int iterations, boolean converged) {
+    }
+
+    /**
+     * 社区摘要
+     *
+     * @param id            社区编号
+     * @param size          节点数
+     * @param topMembers    度数最高的若干成员（节点下标）
+     * @param internalEdges 两端都在社区内的关系数
+     * @param neighbors     与其他社区之间的关系数，按数量降序，每项为 {社区编号, 关系数}
+     */
+    public record Summary(int id, int size, int[] topMembers, long internalEdges, List<long[]> neighbors) {
+    }
+
+    // ==================== 标签传播 ====================
+
+    /**
+     * 异步标签传播：每轮按随机顺序访问节点，取邻居中出现次数最多的标签，平票时随机选择
+     * 没有节点改变标签、达到 maxIter 或超过 deadlineNanos 时停止
+     */
+    public static Result labelPropagation(CsrGraph g, int maxIter, long seed, long deadlineNanos) {
+        int n = g.nodeCount();
+        int[] label = new int[n];
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            label[v] = v;
+            order[v] = v;
+        }
+        Random random = new Random(seed);
+
+        // 邻居标签计数：weight 按标签下标累加，touched 记录本次用到的标签以便清零
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, g.degree(v));
+        }
+        int[] weight = new int[n];
+        int[] touched = new int[maxDegree];
+        int[] best = new int[maxDegree];
+
+        int iterations = 0;
+        boolean converged = n == 0;
+        while (!converged && iterations < maxIter && System.nanoTime() <= deadlineNanos) {
+            iterations++;
+            shuffle(order, random);
+            boolean changed = false;
+            for (int v : order) {
+                int distinct = 0;
+                for (int k = g.outStart(v), end = g.outEnd(v); k < end; k++) {
+                    distinct = vote(label[g.outTarget(k)], v, g.outTarget(k), weight, touched, distinct);
+                }
+                for (int k = g.inStart(v), end = g.inEnd(v); k < end; k++) {
+                    distinct = vote(label[g.inSource(k)], v, g.inSource(k), weight, touched, distinct);
+                }
+                if (distinct == 0) {
+                    continue;
+                }
+
+                int max = 0;
+                int candidates = 0;
+                boolean currentIsBest = false;
+                for (int i = 0; i < distinct; i++) {
+                    int l = touched[i];
+                    if (weight[l] > max) {
+                        max = weight[l];
+                        candidates = 0;
+                        currentIsBest = false;
+                    }
+                    if (weight[l] == max) {
+                        best[candidates++] = l;
+                        currentIsBest |= l == label[v];
+                    }
+                }
+                for (int i = 0; i < distinct; i++) {
+                    weight[touched[i]] = 0;
+                }
+                // 当前标签已是最优之一时保持不变，保证收敛判定稳定
+                if (!currentIsBest) {
+                    label[v] = best[candidates == 1 ? 0 : random.nextInt(candidates)];
+                    changed = true;
+                }
+            }
+            converged = !changed;
+        }
+        return compact(label, iterations, converged);
+    }
+
+    // ==================== 社区摘要 ====================
+
+    /**
+     * 统计每个社区的规模、核心成员以及社区间关系数（按规模降序，即按社区编号升序）
+     *
+     * @param topMembers   每个社区返回的核心成员数
+     * @param maxNeighbors 每个社区返回的相邻社区数
+     */
+    public static List<Summary> summarize(CsrGraph g, Result result, int topMembers, int maxNeighbors) {
+        int count = result.count();
+        int[] membership = result.membership();
+        int[] size = new int[count];
+        for (int c : membership) {
+            size[c]++;
+        }
+
+        // 按社区分组的节点下标（计数排序）
+        int[] offset = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            offset[c + 1] = offset[c] + size[c];
+        }
+        int[] members = new int[membership.length];
+        int[] cursor = Arrays.copyOf(offset, count);
+        for (int v = 0; v < membership.length; v++) {
+            members[cursor[membership[v]]++] = v;
+        }
+
+        long[] internal = new long[count];
+        // 社区间关系按 (较小编号, 较大编号) 计数，每对只统计一次
+        HashMap<Long, long[]> between = new HashMap<>();
+        for (int e = 0; e < g.edgeCount(); e++) {
+            int a = membership[g.edgeSource(e)];
+            int b = membership[g.edgeTarget(e)];
+            if (a == b) {
+                internal[a]++;
+            } else {
+                long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+                between.computeIfAbsent(key, k -> new long[1])[0]++;
+            }
+        }
+        List<List<long[]>> neighbors = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            neighbors.add(new ArrayList<>());
+        }
+        between.forEach((key, edges) -> {
+            int a = (int) (key >>> 32);
+            int b = (int) (long) key;
+            neighbors.get(a).add(new long[]{b, edges[0]});
+            neighbors.get(b).add(new long[]{a, edges[0]});
+        });
+
+        List<Summary> summaries = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            int from = offset[c];
+            int to = offset[c + 1];
+            double[] degree = new double[to - from];
+            for (int i = from; i < to; i++) {
+                degree[i - from] = g.degree(members[i]);
+            }
+            int[] top = Centrality.topK(degree, topMembers);
+            for (int i = 0; i < top.length; i++) {
+                top[i] = members[from + top[i]];
+            }
+
+            List<long[]> adjacent = neighbors.get(c);
+            adjacent.sort((x, y) -> x[1] != y[1] ? Long.compare(y[1], x[1]) : Long.compare(x[0], y[0]));
+            summaries.add(new Summary(c, size[c], top, internal[c],
+                    new ArrayList<>(adjacent.subList(0, Math.min(maxNeighbors, adjacent.size())))));
+        }
+        return summaries;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static int vote(int l, int v, int neighbor, int[] weight, int[] touched, int distinct) {
+        // 自环不参与投票
+        if (neighbor == v) {
+            return distinct;
+        }
+        if (weight[l]++ == 0) {
+            touched[distinct++] = l;
+        }
+        return distinct;
+    }
+
+    /**
+     * 将标签重编号为 0..count-1，规模大的社区编号小
+     */
+    private static Result compact(int[] label, int iterations, boolean converged) {
+        int n = label.length;
+        int[] size = new int[n];
+        for (int l : label) {
+            size[l]++;
+        }
+        List<Integer> labels = new ArrayList<>();
+        for (int l = 0; l < n; l++) {
+            if (size[l] > 0) {
+                labels.add(l);
+            }
+        }
+        labels.sort((a, b) -> size[a] != size[b] ? Integer.compare(size[b], size[a]) : Integer.compare(a, b));
+        int[] remap = new int[n];
+        for (int i = 0; i < labels.size(); i++) {
+            remap[labels.get(i)] = i;
+        }
+        int[] membership = new int[n];
+        for (int v = 0; v < n; v++) {
+            membership[v] = remap[label[v]];
+        }
+        return new Result(membership, labels.size(), iterations, converged);
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * CSR 投影上的连通分量：弱连通分量（并查集）与强连通分量（迭代式 Tarjan）
+ */
+public final class Components {
+
+    private Components() {
+    }
+
+    /**
+     * 连通分量结果
+     *
+     * @param component   每个节点所属分量编号，按分量规模降序从 0 编号
+     * @param count       分量数
+     * @param largestSize 最大分量的节点数
+     */
+    public record Result(int[] component, int count, int largestSize) {
+    }
+
+    // ==================== 弱连通分量 ====================
+
+    /**
+     * 忽略关系方向的连通分量，按秩合并 + 路径减半的并查集
+     */
+    public static Result weak(CsrGraph g) {
+        int n = g.nodeCount();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        for (int e = 0; e < g.edgeCount(); e++) {
+            int a = find(parent, g.edgeSource(e));
+            int b = find(parent, g.edgeTarget(e));
+            if (a == b) {
+                continue;
+            }
+            if (size[a] < size[b]) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            parent[b] = a;
+            size[a] += size[b];
+        }
+        int[] root = new int[n];
+        for (int v = 0; v < n; v++) {
+            root[v] = find(parent, v);
+        }
+        return compact(root);
+    }
+
+    // ==================== 强连通分量 ====================
+
+    /**
+     * 按关系方向的强连通分量，迭代实现避免深图栈溢出
+     */
+    public static Result strong(CsrGraph g) {
+        return strong(g.nodeCount(), g::outStart, g::outEnd, g::outTarget);
+    }
+
+    /**
+     * 任意 CSR 有向图（offsets 长度 n+1，targets 为按源节点分组的目标）的强连通分量
+     */
+    public static Result strong(int n, int[] offsets, int[] targets) {
+        return strong(n, v -> offsets[v], v -> offsets[v + 1], k -> targets[k]);
+    }
+
+    private static Result strong(int n, IntUnaryOperator outStart, IntUnaryOperator outEnd,
+                                 IntUnaryOperator outTarget) {
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] label = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+
+        int[] stack = new int[n];
+        int stackSize = 0;
+        // 模拟递归：callStack 保存节点，edgeCursor 保存该节点下一条待处理出边
+        int[] callStack = new int[n];
+        int[] edgeCursor = new int[n];
+        int counter = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            edgeCursor[0] = outStart.applyAsInt(root);
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int v = callStack[depth];
+                if (edgeCursor[depth] < outEnd.applyAsInt(v)) {
+                    int w = outTarget.applyAsInt(edgeCursor[depth]++);
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callStack[depth] = w;
+                        edgeCursor[depth] = outStart.applyAsInt(w);
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                // v 的出边处理完毕，若为分量根则弹出整个分量
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        label[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return compact(label);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * 将任意标签重编号为 0..count-1，规模大的分量编号小
+     */
+    private static Result compact(int[] label) {
+        int n = label.length;
+        int[] size = new int[n];
+        for (int l : label) {
+            size[l]++;
+        }
+        Integer[] labels = new Integer[n];
+        int count = 0;
+        for (int l = 0; l < n; l++) {
+            if (size[l] > 0) {
+                labels[count++] = l;
+            }
+        }
+        Arrays.sort(labels, 0, count, (a, b) -> size[a] != size[b] ? Integer.compare(size[b], size[a])
+                : Integer.compare(a, b));
+        int[] remap = new int[n];
+        for (int i = 0; i < count; i++) {
+            remap[labels[i]] = i;
+        }
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) {
+            component[v] = remap[label[v]];
+        }
+        return new Result(component, count, count > 0 ? size[labels[0]] : 0);
+    }
+}
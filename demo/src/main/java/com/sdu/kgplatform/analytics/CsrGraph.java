@@ -0,0 +1,416 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图谱的内存 CSR（压缩稀疏行）投影
+ * 节点以 0..n-1 的稠密下标表示，边以 0..m-1 的下标表示；
+ * 出边 / 入边各一套 offsets + 邻接数组，节点类型与关系类型编码为 int。
+ * 实例构建后不可变，可被多个线程并发读取
+ */
+public final class CsrGraph {
+
+    private final Integer graphId;
+    private final long version;
+
+    // 节点
+    private final String[] nodeIds;
+    private final String[] names;
+    private final int[] nodeTypes;
+    private final String[] nodeTypeDictionary;
+    private final Map<String, Integer> indexByNodeId;
+
+    // 边
+    private final String[] edgeIds;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeTypes;
+    private final String[] relationTypeDictionary;
+
+    // 出边 CSR：节点 v 的出边位于 [outOffsets[v], outOffsets[v+1])
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outEdges;
+
+    // 入边 CSR：节点 v 的入边位于 [inOffsets[v], inOffsets[v+1])
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inEdges;
+
+    private final long estimatedBytes;
+
+    private CsrGraph(Builder builder) {
+        this.graphId = builder.graphId;
+        this.version = builder.version;
+
+        int n = builder.nodeIds.size();
+        this.nodeIds = builder.nodeIds.toArray(new String[0]);
+        this.names = builder.names.toArray(new String[0]);
+        this.nodeTypes = builder.nodeTypes.toArray();
+        this.nodeTypeDictionary = builder.nodeTypeCodes.dictionary();
+        this.indexByNodeId = builder.indexByNodeId;
+
+        int m = builder.edgeIds.size();
+        this.edgeIds = builder.edgeIds.toArray(new String[0]);
+        this.edgeSources = builder.edgeSources.toArray();
+        this.edgeTargets = builder.edgeTargets.toArray();
+        this.edgeTypes = builder.edgeTypes.toArray();
+        this.relationTypeDictionary = builder.relationTypeCodes.dictionary();
+
+        // 计数排序构建 CSR
+        this.outOffsets = new int[n + 1];
+        this.inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            outOffsets[edgeSources[e] + 1]++;
+            inOffsets[edgeTargets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] += outOffsets[v];
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        this.outTargets = new int[m];
+        this.outEdges = new int[m];
+        this.inSources = new int[m];
+        this.inEdges = new int[m];
+        int[] outCursor = Arrays.copyOf(outOffsets, n);
+        int[] inCursor = Arrays.copyOf(inOffsets, n);
+        for (int e = 0; e < m; e++) {
+            int s = edgeSources[e];
+            int t = edgeTargets[e];
+            int outPos = outCursor[s]++;
+            outTargets[outPos] = t;
+            outEdges[outPos] = e;
+            int inPos = inCursor[t]++;
+            inSources[inPos] = s;
+            inEdges[inPos] = e;
+        }
+        this.estimatedBytes = computeEstimatedBytes();
+    }
+
+    public static Builder builder(Integer graphId, long version) {
+        return new Builder(graphId, version);
+    }
+
+    // ==================== 基本信息 ====================
+
+    public Integer graphId() {
+        return graphId;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    public int edgeCount() {
+        return edgeIds.length;
+    }
+
+    // ==================== 节点 ====================
+
+    /**
+     * 根据业务 nodeId 获取稠密下标，不存在返回 -1
+     */
+    public int indexOf(String nodeId) {
+        Integer index = indexByNodeId.get(nodeId);
+        return index != null ? index : -1;
+    }
+
+    public String nodeId(int v) {
+        return nodeIds[v];
+    }
+
+    public String name(int v) {
+        return names[v];
+    }
+
+    public int nodeTypeCode(int v) {
+        return nodeTypes[v];
+    }
+
+    public String nodeType(int v) {
+        int code = nodeTypes[v];
+        return code >= 0 ? nodeTypeDictionary[code] : null;
+    }
+
+    /**
+     * 节点类型的编码，类型不存在返回 -1
+     */
+    public int nodeTypeCodeOf(String type) {
+        return indexIn(nodeTypeDictionary, type);
+    }
+
+    public List<String> nodeTypeDictionary() {
+        return List.of(nodeTypeDictionary);
+    }
+
+    public int outDegree(int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    public int degree(int v) {
+        return outDegree(v) + inDegree(v);
+    }
+
+    // ==================== 邻接遍历 ====================
+    // 用法：for (int k = g.outStart(v); k < g.outEnd(v); k++) { int w = g.outTarget(k); int e = g.outEdge(k); }
+
+    public int outStart(int v) {
+        return outOffsets[v];
+    }
+
+    public int outEnd(int v) {
+        return outOffsets[v + 1];
+    }
+
+    public int outTarget(int k) {
+        return outTargets[k];
+    }
+
+    public int outEdge(int k) {
+        return outEdges[k];
+    }
+
+    public int inStart(int v) {
+        return inOffsets[v];
+    }
+
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    public int inSource(int k) {
+        return inSources[k];
+    }
+
+    public int inEdge(int k) {
+        return inEdges[k];
+    }
+
+    // ==================== 边 ====================
+
+    public String edgeId(int e) {
+        return edgeIds[e];
+    }
+
+    public int edgeSource(int e) {
+        return edgeSources[e];
+    }
+
+    public int edgeTarget(int e) {
+        return edgeTargets[e];
+    }
+
+    public int edgeTypeCode(int e) {
+        return edgeTypes[e];
+    }
+
+    public String relationType(int e) {
+        int code = edgeTypes[e];
+        return code >= 0 ? relationTypeDictionary[code] : null;
+    }
+
+    /**
+     * 关系类型的编码，类型不存在返回 -1
+     */
+    public int relationTypeCodeOf(String type) {
+        return indexIn(relationTypeDictionary, type);
+    }
+
+    public List<String> relationTypeDictionary() {
+        return List.of(relationTypeDictionary);
+    }
+
+    /**
+     * 把关系类型名集合转换为按编码索引的掩码，null 或空集合返回 null（表示不过滤）
+     */
+    public boolean[] relationTypeMask(Collection<String> types) {
+        if (types == null || types.isEmpty()) {
+            return null;
+        }
+        boolean[] mask = new boolean[relationTypeDictionary.length];
+        for (String type : types) {
+            int code = relationTypeCodeOf(type);
+            if (code >= 0) {
+                mask[code] = true;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 边是否通过类型掩码（mask 为 null 表示全部通过）
+     */
+    public boolean edgeAllowed(int e, boolean[] mask) {
+        if (mask == null) {
+            return true;
+        }
+        int code = edgeTypes[e];
+        return code >= 0 && mask[code];
+    }
+
+    // ==================== 内存估算 ====================
+
+    /**
+     * 估算投影占用的堆内存（字节），用于缓存容量控制
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private long computeEstimatedBytes() {
+        long n = nodeCount();
+        long m = edgeCount();
+        long bytes = 0;
+        // int 数组：nodeTypes + 2 组 offsets + 边的 src/dst/type + 2 组 (邻接 + 边下标)
+        bytes += 4L * (n + 2 * (n + 1) + 3 * m + 4 * m);
+        // 字符串：nodeId / name / edgeId 按平均长度估算（对象头 + 数组 + 字符）
+        bytes += stringsBytes(nodeIds) + stringsBytes(names) + stringsBytes(edgeIds);
+        // HashMap 条目
+        bytes += 48L * n;
+        return bytes;
+    }
+
+    private static long stringsBytes(String[] values) {
+        long bytes = 8L * values.length;
+        for (String value : values) {
+            if (value != null) {
+                bytes += 40L + value.length();
+            }
+        }
+        return bytes;
+    }
+
+    private static int indexIn(String[] dictionary, String value) {
+        if (value == null) {
+            return -1;
+        }
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== 构建器 ====================
+
+    /**
+     * CSR 构建器：先逐个加入节点，再加入边；端点不在投影中的边被忽略
+     */
+    public static final class Builder {
+
+        private final Integer graphId;
+        private final long version;
+
+        private final List<String> nodeIds = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final IntList nodeTypes = new IntList();
+        private final Map<String, Integer> indexByNodeId = new HashMap<>();
+        private final TypeCodes nodeTypeCodes = new TypeCodes();
+
+        private final List<String> edgeIds = new ArrayList<>();
+        private final IntList edgeSources = new IntList();
+        private final IntList edgeTargets = new IntList();
+        private final IntList edgeTypes = new IntList();
+        private final TypeCodes relationTypeCodes = new TypeCodes();
+
+        private Builder(Integer graphId, long version) {
+            this.graphId = graphId;
+            this.version = version;
+        }
+
+        /**
+         * 加入节点，返回其下标；重复的 nodeId 返回已有下标
+         */
+        public int addNode(String nodeId, String name, String type) {
+            Integer existing = indexByNodeId.get(nodeId);
+            if (existing != null) {
+                return existing;
+            }
+            int index = nodeIds.size();
+            nodeIds.add(nodeId);
+            names.add(name);
+            nodeTypes.add(nodeTypeCodes.codeOf(type));
+            indexByNodeId.put(nodeId, index);
+            return index;
+        }
+
+        /**
+         * 加入有向边，返回边下标；任一端点不存在时返回 -1
+         */
+        public int addEdge(String edgeId, String sourceNodeId, String targetNodeId, String type) {
+            Integer source = indexByNodeId.get(sourceNodeId);
+            Integer target = indexByNodeId.get(targetNodeId);
+            if (source == null || target == null) {
+                return -1;
+            }
+            int index = edgeIds.size();
+            edgeIds.add(edgeId);
+            edgeSources.add(source);
+            edgeTargets.add(target);
+            edgeTypes.add(relationTypeCodes.codeOf(type));
+            return index;
+        }
+
+        public CsrGraph build() {
+            return new CsrGraph(this);
+        }
+    }
+
+    /**
+     * 类型字符串到编码的字典，null 编码为 -1
+     */
+    private static final class TypeCodes {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int codeOf(String type) {
+            if (type == null) {
+                return -1;
+            }
+            Integer code = codes.get(type);
+            if (code == null) {
+                code = values.size();
+                codes.put(type, code);
+                values.add(type);
+            }
+            return code;
+        }
+
+        String[] dictionary() {
+            return values.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * 可增长的 int 数组，避免构建期间装箱
+     */
+    private static final class IntList {
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 只读 Cypher 的图谱作用域改写
+ * 词法扫描查询文本（跳过字符串、注释与反引号名称），拒绝写操作、过程调用与扩展函数，
+ * 并给每个节点模式与带方括号的关系模式追加属性谓词 graphId: $scopeGraphId，
+ * 使查询只能匹配到指定图谱内的数据。无法确定是否为节点模式的写法一律拒绝，宁可误拒不可越界
+ */
+public final class CypherScope {
+
+    /** 改写后查询引用的图谱参数名，调用方需以该名称传入 graphId */
+    public static final String GRAPH_PARAM = "scopeGraphId";
+
+    public static final int MAX_LENGTH = 10_000;
+
+    private static final String SCOPE_PREDICATE = "graphId: $" + GRAPH_PARAM;
+
+    private static final Set<String> FORBIDDEN = Set.of(
+            "CREATE", "MERGE", "DELETE", "DETACH", "SET", "REMOVE", "DROP", "CALL", "LOAD", "FOREACH",
+            "USE", "SHOW", "TERMINATE", "GRANT", "DENY", "REVOKE", "ALTER", "RENAME", "START", "STOP",
+            "EXPLAIN", "PROFILE", "INSERT", "ENABLE", "DEALLOCATE", "REALLOCATE");
+
+    /** 其后紧跟的圆括号可能是节点模式的关键字；其余标识符后的圆括号视为函数调用 */
+    private static final Set<String> PATTERN_PRECEDERS = Set.of(
+            "MATCH", "WHERE", "AND", "OR", "XOR", "NOT", "RETURN", "WITH", "UNWIND", "IN", "WHEN", "THEN",
+            "ELSE", "DISTINCT", "UNION", "BY", "SKIP", "LIMIT", "OFFSET", "ANY", "ALL", "SHORTEST", "GROUP",
+            "GROUPS", "PATH", "PATHS", "WALK", "TRAIL", "ACYCLIC", "ELEMENTS", "RELATIONSHIPS");
+
+    private static final Set<String> IS_PREDICATES = Set.of(
+            "NULL", "NOT", "TYPED", "NORMALIZED", "NFC", "NFD", "NFKC", "NFKD");
+
+    private CypherScope() {
+    }
+
+    /**
+     * 校验并改写查询
+     *
+     * @return 限定在 $scopeGraphId 图谱内的查询文本
+     * @throws IllegalArgumentException 查询为空、过长、含写操作或无法安全限定作用域
+     */
+    public static String scope(String cypher) {
+        if (cypher == null || cypher.isBlank()) {
+            throw new IllegalArgumentException("查询不能为空");
+        }
+        if (cypher.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("查询不能超过 " + MAX_LENGTH + " 个字符");
+        }
+        List<Token> tokens = tokenize(cypher);
+        int end = tokens.size();
+        if (end > 0 && tokens.get(end - 1).is(';')) {
+            end--;
+        }
+        if (end == 0) {
+            throw new IllegalArgumentException("查询不能为空");
+        }
+
+        List<int[]> insertions = new ArrayList<>();
+        for (int i = 0; i < end; i++) {
+            Token token = tokens.get(i);
+            Token prev = i > 0 ? tokens.get(i - 1) : null;
+            if (token.kind == Kind.SYMBOL && token.is(';')) {
+                throw new IllegalArgumentException("只允许单条查询语句");
+            }
+            if (token.kind == Kind.WORD && (prev == null || !(prev.is('.') || prev.is(':')))
+                    && FORBIDDEN.contains(token.upper())) {
+                throw new IllegalArgumentException("查询控制台只允许只读查询，不支持 " + token.upper());
+            }
+            if (token.is('(')) {
+                if (prev != null && prev.isName() && !(prev.kind == Kind.WORD
+                        && PATTERN_PRECEDERS.contains(prev.upper()))) {
+                    if (i >= 2 && tokens.get(i - 2).is('.')) {
+                        throw new IllegalArgumentException("不支持调用过程或扩展函数: " + prev.text);
+                    }
+                    continue;
+                }
+                int[] insertion = scopeElement(tokens, i, ')');
+                if (insertion != null) {
+                    insertions.add(insertion);
+                }
+            } else if (token.is('[') && prev != null && prev.is('-')) {
+                int[] insertion = scopeElement(tokens, i, ']');
+                if (insertion == null) {
+                    throw new IllegalArgumentException("无法识别的关系模式");
+                }
+                insertions.add(insertion);
+            }
+        }
+
+        // 嵌套在属性表中的括号可能晚于外层模式被识别，按位置排序后再拼接
+        insertions.sort(Comparator.comparingInt(insertion -> insertion[0]));
+        StringBuilder scoped = new StringBuilder(cypher.length() + insertions.size() * 32);
+        int copied = 0;
+        for (int[] insertion : insertions) {
+            scoped.append(cypher, copied, insertion[0]);
+            scoped.append(insertion[1] == 0 ? " {" + SCOPE_PREDICATE + "}"
+                    : insertion[1] == 1 ? SCOPE_PREDICATE : ", " + SCOPE_PREDICATE);
+            copied = insertion[0];
+        }
+        scoped.append(cypher, copied, tokens.get(end - 1).end);
+        return scoped.toString();
+    }
+
+    // ==================== 模式识别 ====================
+
+    /**
+     * 识别 open 处开始的节点模式（close 为 ')'）或关系模式（close 为 ']'）：
+     * [变量] [:标签或类型表达式] [*长度范围，仅关系] [{属性}] close
+     *
+     * @return {插入位置, 插入形式(0 新建属性表 / 1 空属性表 / 2 追加到属性表)}；不是节点模式时返回 null
+     */
+    private static int[] scopeElement(List<Token> tokens, int open, char close) {
+        int i = open + 1;
+        if (at(tokens, i).isName() && !isLabelKeyword(tokens, i)) {
+            i++;
+        }
+        if (at(tokens, i).is(':') || isLabelKeyword(tokens, i)) {
+            i = labelExpression(tokens, i + 1);
+            if (i < 0) {
+                return null;
+            }
+        }
+        if (close == ']' && at(tokens, i).is('*')) {
+            i++;
+            while (at(tokens, i).kind == Kind.NUMBER || at(tokens, i).is('.')) {
+                i++;
+            }
+        }
+        Token next = at(tokens, i);
+        if (next.kind == Kind.WORD && next.upper().equals("WHERE")) {
+            throw new IllegalArgumentException("不支持模式内 WHERE，请改写到 MATCH 的 WHERE 子句中");
+        }
+        if (next.kind == Kind.PARAM) {
+            throw new IllegalArgumentException("不支持以参数作为模式属性");
+        }
+        if (next.is('{')) {
+            int depth = 0;
+            int j = i;
+            for (; j < tokens.size(); j++) {
+                if (tokens.get(j).is('{')) {
+                    depth++;
+                } else if (tokens.get(j).is('}') && --depth == 0) {
+                    break;
+                }
+            }
+            if (j >= tokens.size() || !at(tokens, j + 1).is(close)) {
+                throw new IllegalArgumentException("无法识别的模式，属性表之后只能是右括号");
+            }
+            return new int[]{tokens.get(j).start, j == i + 1 ? 1 : 2};
+        }
+        if (!next.is(close)) {
+            return null;
+        }
+        return new int[]{next.start, 0};
+    }
+
+    /**
+     * (n IS Person) 形式的标签写法；IS NULL、IS NOT NULL 等为谓词
+     */
+    private static boolean isLabelKeyword(List<Token> tokens, int i) {
+        Token token = at(tokens, i);
+        Token next = at(tokens, i + 1);
+        return token.kind == Kind.WORD && token.upper().equals("IS")
+                && (next.is('%') || next.is('!') || next.kind == Kind.QUOTED
+                || (next.kind == Kind.WORD && !IS_PREDICATES.contains(next.upper())));
+    }
+
+    /**
+     * 标签 / 关系类型表达式：名称以 | & : 连接，可带 ! 与通配 %；带括号分组或动态标签时拒绝
+     *
+     * @return 表达式之后的位置，不是标签表达式时返回 -1
+     */
+    private static int labelExpression(List<Token> tokens, int i) {
+        while (true) {
+            while (at(tokens, i).is('!')) {
+                i++;
+            }
+            Token token = at(tokens, i);
+            if (token.is('(') || token.is('$') || token.kind == Kind.PARAM) {
+                throw new IllegalArgumentException("不支持带括号或参数的标签表达式");
+            }
+            if (!token.isName() && !token.is('%')) {
+                return -1;
+            }
+            i++;
+            Token op = at(tokens, i);
+            if (op.is('|') || op.is('&') || op.is(':')) {
+                i++;
+                if (at(tokens, i).is(':')) {
+                    i++;
+                }
+            } else {
+                return i;
+            }
+        }
+    }
+
+    // ==================== 词法扫描 ====================
+
+    private enum Kind {
+        WORD, QUOTED, STRING, NUMBER, PARAM, SYMBOL, END
+    }
+
+    private record Token(Kind kind, String text, int start, int end) {
+
+        boolean is(char symbol) {
+            return kind == Kind.SYMBOL && text.charAt(0) == symbol;
+        }
+
+        boolean isName() {
+            return kind == Kind.WORD || kind == Kind.QUOTED;
+        }
+
+        String upper() {
+            return text.toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private static final Token END = new Token(Kind.END, "", -1, -1);
+
+    private static Token at(List<Token> tokens, int i) {
+        return i < tokens.size() ? tokens.get(i) : END;
+    }
+
+    private static List<Token> tokenize(String s) {
+        List<Token> tokens = new ArrayList<>();
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            char c = s.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '/' && i + 1 < n && s.charAt(i + 1) == '/') {
+                while (i < n && s.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < n && s.charAt(i + 1) == '*') {
+                int close = s.indexOf("*/", i + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("注释未闭合");
+                }
+                i = close + 2;
+            } else if (c == '\'' || c == '"') {
+                i = skipQuoted(s, i, c, true);
+                tokens.add(new Token(Kind.STRING, s.substring(start, i), start, i));
+            } else if (c == '`') {
+                i = skipQuoted(s, i, c, false);
+                tokens.add(new Token(Kind.QUOTED, s.substring(start, i), start, i));
+            } else if (c == '$' && i + 1 < n && (isNamePart(s.charAt(i + 1)) || s.charAt(i + 1) == '`')) {
+                i = s.charAt(i + 1) == '`' ? skipQuoted(s, i + 1, '`', false) : skipName(s, i + 1);
+                tokens.add(new Token(Kind.PARAM, s.substring(start, i), start, i));
+            } else if (Character.isDigit(c)) {
+                i = skipName(s, i);
+                if (i + 1 < n && s.charAt(i) == '.' && Character.isDigit(s.charAt(i + 1))) {
+                    i = skipName(s, i + 1);
+                }
+                tokens.add(new Token(Kind.NUMBER, s.substring(start, i), start, i));
+            } else if (Character.isLetter(c) || c == '_') {
+                i = skipName(s, i);
+                tokens.add(new Token(Kind.WORD, s.substring(start, i), start, i));
+            } else {
+                i++;
+                tokens.add(new Token(Kind.SYMBOL, String.valueOf(c), start, i));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static int skipName(String s, int i) {
+        while (i < s.length() && isNamePart(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 跳过引号包围的片段；字符串支持反斜杠转义，反引号名称以连续两个反引号转义
+     */
+    private static int skipQuoted(String s, int i, char quote, boolean backslashEscapes) {
+        i++;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                if (!backslashEscapes && i + 1 < s.length() && s.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        throw new IllegalArgumentException("引号未闭合");
+    }
+}
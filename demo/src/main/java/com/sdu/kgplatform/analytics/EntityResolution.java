@@ -0,0 +1,240 @@
+package com.sdu.kgplatform.analytics;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 图谱内实体消解：找出疑似重复的节点对
+ * 分块（blocking）避免两两比较：规范化名称完全相同的节点直接成对，另用 MinHash/LSH 对
+ * 名称字符二元组、描述字符三元组、邻居集合分别分桶取候选；候选对再并行打分，
+ * 综合名称（含缩写，如 "北大" 之于 "北京大学"）、描述与邻居重合度。类型不同的节点不配对
+ */
+public final class EntityResolution {
+
+    private EntityResolution() {
+    }
+
+    /**
+     * 参数
+     *
+     * @param threshold 输出的最低综合得分
+     * @param limit     最多输出的候选对数
+     * @param maxBucket LSH 单桶规模上限，超出的桶视为过于常见的特征而跳过
+     */
+    public record Params(double threshold, int limit, int maxBucket, long seed) {
+    }
+
+    /**
+     * 疑似重复对，keep 为建议保留的节点（度数较大者）
+     */
+    public record Candidate(int keep, int merge, double score, double nameSimilarity, double neighborSimilarity) {
+    }
+
+    private static final int NUM_HASHES = 30;
+    private static final int BANDS = 10;
+    private static final int MIN_DESCRIPTION_LENGTH = 10;
+    private static final double ABBREVIATION_SIMILARITY = 0.6;
+    private static final double EXACT_NAME_SCORE = 0.9;
+
+    /**
+     * 规范化名称：NFKC（全角转半角等）、转小写、去掉空白与标点
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(folded.length());
+        folded.codePoints()
+                .filter(Character::isLetterOrDigit)
+                .forEach(sb::appendCodePoint);
+        return sb.toString();
+    }
+
+    /**
+     * 查找疑似重复节点对，按得分降序
+     *
+     * @param descriptions 节点描述，可为 null 元素
+     * @param types        节点类型，可为 null 元素
+     */
+    public static List<Candidate> findDuplicates(String[] names, String[] descriptions, String[] types,
+                                                 UndirectedAdjacency adj, Params params, boolean parallel) {
+        int n = names.length;
+        String[] normalized = new String[n];
+        int[][] nameShingles = new int[n][];
+        int[][] descriptionShingles = new int[n][];
+        for (int v = 0; v < n; v++) {
+            normalized[v] = normalize(names[v]);
+            nameShingles[v] = MinHash.shingles(normalized[v], 2);
+            String description = normalize(descriptions[v]);
+            descriptionShingles[v] = description.length() >= MIN_DESCRIPTION_LENGTH
+                    ? MinHash.shingles(description, 3) : new int[0];
+        }
+
+        // 分块：名称完全相同 + 三路 LSH
+        MinHash minHash = new MinHash(NUM_HASHES, params.seed());
+        int[][] nameSignatures = new int[n][];
+        int[][] descriptionSignatures = new int[n][];
+        int[][] neighborSignatures = new int[n][];
+        for (int v = 0; v < n; v++) {
+            nameSignatures[v] = minHash.signature(nameShingles[v]);
+            descriptionSignatures[v] = minHash.signature(descriptionShingles[v]);
+            // 只有一个邻居的节点（如挂在同一枢纽上的叶子）邻居集合相同不说明重复
+            if (adj.degree(v) >= 2) {
+                neighborSignatures[v] = minHash.signature(neighbors(adj, v));
+            }
+        }
+        long[] pairs = merge(
+                exactNamePairs(normalized, params.maxBucket()),
+                MinHash.candidatePairs(nameSignatures, BANDS, params.maxBucket()),
+                MinHash.candidatePairs(descriptionSignatures, BANDS, params.maxBucket()),
+                MinHash.candidatePairs(neighborSignatures, BANDS, params.maxBucket()));
+
+        IntStream indexes = IntStream.range(0, pairs.length);
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        List<Candidate> scored = indexes
+                .mapToObj(i -> score((int) (pairs[i] >>> 32), (int) pairs[i], normalized, nameShingles,
+                        descriptionShingles, types, adj))
+                .filter(c -> c != null && c.score() >= params.threshold())
+                .collect(Collectors.toList());
+        scored.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                .thenComparingInt(Candidate::keep)
+                .thenComparingInt(Candidate::merge));
+        return scored.size() > params.limit() ? new ArrayList<>(scored.subList(0, params.limit())) : scored;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static Candidate score(int a, int b, String[] normalized, int[][] nameShingles,
+                                   int[][] descriptionShingles, String[] types, UndirectedAdjacency adj) {
+        if (types[a] != null && types[b] != null && !types[a].equals(types[b])) {
+            return null;
+        }
+        if (normalized[a].isEmpty() || normalized[b].isEmpty()) {
+            return null;
+        }
+        boolean sameName = normalized[a].equals(normalized[b]);
+        double name = sameName ? 1.0 : MinHash.jaccard(nameShingles[a], nameShingles[b]);
+        if (isAbbreviation(normalized[a], normalized[b]) || isAbbreviation(normalized[b], normalized[a])) {
+            name = Math.max(name, ABBREVIATION_SIMILARITY);
+        }
+        double neighbor = neighborJaccard(adj, a, b);
+        double score;
+        if (descriptionShingles[a].length > 0 && descriptionShingles[b].length > 0) {
+            double description = MinHash.jaccard(descriptionShingles[a], descriptionShingles[b]);
+            score = 0.6 * name + 0.15 * description + 0.25 * neighbor;
+        } else {
+            score = 0.7 * name + 0.3 * neighbor;
+        }
+        if (sameName) {
+            score = Math.max(score, EXACT_NAME_SCORE);
+        }
+        boolean keepA = adj.degree(a) > adj.degree(b) || (adj.degree(a) == adj.degree(b) && a < b);
+        return keepA ? new Candidate(a, b, score, name, neighbor) : new Candidate(b, a, score, name, neighbor);
+    }
+
+    /**
+     * shorter 是否为 longer 的缩写：首字相同且各字按顺序出现在 longer 中
+     */
+    private static boolean isAbbreviation(String shorter, String longer) {
+        if (shorter.length() < 2 || shorter.length() >= longer.length()
+                || shorter.codePointAt(0) != longer.codePointAt(0)) {
+            return false;
+        }
+        int j = 0;
+        for (int i = 0; i < longer.length() && j < shorter.length(); i++) {
+            if (longer.charAt(i) == shorter.charAt(j)) {
+                j++;
+            }
+        }
+        return j == shorter.length();
+    }
+
+    /**
+     * 两节点邻居集合（互相排除对方）的 Jaccard 相似度
+     */
+    private static double neighborJaccard(UndirectedAdjacency adj, int a, int b) {
+        int i = adj.start(a);
+        int iEnd = adj.end(a);
+        int j = adj.start(b);
+        int jEnd = adj.end(b);
+        int sizeA = 0;
+        int sizeB = 0;
+        int common = 0;
+        while (i < iEnd || j < jEnd) {
+            int x = i < iEnd ? adj.neighbor(i) : Integer.MAX_VALUE;
+            int y = j < jEnd ? adj.neighbor(j) : Integer.MAX_VALUE;
+            if (x <= y) {
+                i++;
+                if (x != b) {
+                    sizeA++;
+                }
+            }
+            if (y <= x) {
+                j++;
+                if (y != a) {
+                    sizeB++;
+                }
+            }
+            if (x == y) {
+                common++;
+            }
+        }
+        int union = sizeA + sizeB - common;
+        return union > 0 ? (double) common / union : 0;
+    }
+
+    /**
+     * 规范化名称完全相同的节点两两成对
+     */
+    private static long[] exactNamePairs(String[] normalized, int maxBucket) {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int v = 0; v < normalized.length; v++) {
+            if (!normalized[v].isEmpty()) {
+                groups.computeIfAbsent(normalized[v], k -> new ArrayList<>(2)).add(v);
+            }
+        }
+        List<Long> pairs = new ArrayList<>();
+        for (List<Integer> group : groups.values()) {
+            if (group.size() < 2 || group.size() > maxBucket) {
+                continue;
+            }
+            for (int i = 0; i < group.size(); i++) {
+                for (int j = i + 1; j < group.size(); j++) {
+                    pairs.add(((long) group.get(i) << 32) | group.get(j));
+                }
+            }
+        }
+        return pairs.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] merge(long[]... parts) {
+        long[] all = Arrays.stream(parts).filter(Objects::nonNull).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        int size = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (size == 0 || all[size - 1] != all[i]) {
+                all[size++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, size);
+    }
+
+    private static int[] neighbors(UndirectedAdjacency adj, int v) {
+        int[] neighbors = new int[adj.degree(v)];
+        for (int k = 0; k < neighbors.length; k++) {
+            neighbors[k] = adj.neighbor(adj.start(v) + k);
+        }
+        return neighbors;
+    }
+}
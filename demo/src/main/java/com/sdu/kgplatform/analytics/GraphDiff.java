@@ -0,0 +1,149 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * 两个图谱的结构差异
+ * 两侧的节点（或关系）按相同的键升序流式输入，归并连接（merge-join）逐组比较：
+ * 只在一侧出现的键为新增 / 删除，两侧都有但内容不同的为修改。内存占用只与同键的行数有关，
+ * 与图谱规模无关。键比较按 Unicode 码点，与 Neo4j 的字符串排序一致
+ */
+public final class GraphDiff {
+
+    private GraphDiff() {
+    }
+
+    public enum Change {
+        ADDED, REMOVED, CHANGED
+    }
+
+    /**
+     * 节点行，以名称为键，类型或描述不同视为修改
+     */
+    public record NodeRow(String name, String type, String description) {
+    }
+
+    /**
+     * 关系行，源节点名称、关系类型、目标节点名称整体为键
+     */
+    public record EdgeRow(String source, String type, String target) {
+    }
+
+    /**
+     * 一条差异；新增时 before 为 null，删除时 after 为 null
+     */
+    public record Entry<T>(Change change, T before, T after) {
+    }
+
+    public static final Comparator<String> CODE_POINT_ORDER = GraphDiff::compareCodePoints;
+
+    public static final Comparator<NodeRow> NODE_KEY = Comparator.comparing(NodeRow::name, CODE_POINT_ORDER);
+
+    public static final Comparator<EdgeRow> EDGE_KEY = Comparator.comparing(EdgeRow::source, CODE_POINT_ORDER)
+            .thenComparing(EdgeRow::type, CODE_POINT_ORDER)
+            .thenComparing(EdgeRow::target, CODE_POINT_ORDER);
+
+    /**
+     * 归并连接两侧有序输入，差异逐条交给 sink；sink 返回 false 时处理完当前键组后停止
+     *
+     * @return 停止时最后处理的键组中的一行（用作分页游标），两侧都已耗尽时返回 null
+     * @throws IllegalStateException 输入未按键升序排列
+     */
+    public static <T> T diff(Iterator<T> base, Iterator<T> target, Comparator<T> key, Predicate<Entry<T>> sink) {
+        Cursor<T> left = new Cursor<>(base, key);
+        Cursor<T> right = new Cursor<>(target, key);
+        while (left.head != null || right.head != null) {
+            T groupKey;
+            if (right.head == null || (left.head != null && key.compare(left.head, right.head) <= 0)) {
+                groupKey = left.head;
+            } else {
+                groupKey = right.head;
+            }
+            List<T> before = left.takeGroup(groupKey);
+            List<T> after = right.takeGroup(groupKey);
+            if (!emitGroup(before, after, sink)) {
+                return groupKey;
+            }
+        }
+        return null;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 同键的两组行：内容完全相同的先抵消，剩余的按顺序配对为修改，多出的为新增 / 删除
+     */
+    private static <T> boolean emitGroup(List<T> before, List<T> after, Predicate<Entry<T>> sink) {
+        if (before.size() == 1 && after.size() == 1 && before.get(0).equals(after.get(0))) {
+            return true;
+        }
+        List<T> unmatched = new ArrayList<>(after);
+        List<T> removed = new ArrayList<>();
+        for (T row : before) {
+            if (!unmatched.remove(row)) {
+                removed.add(row);
+            }
+        }
+        boolean proceed = true;
+        int paired = Math.min(removed.size(), unmatched.size());
+        for (int i = 0; i < paired; i++) {
+            proceed &= sink.test(new Entry<>(Change.CHANGED, removed.get(i), unmatched.get(i)));
+        }
+        for (int i = paired; i < removed.size(); i++) {
+            proceed &= sink.test(new Entry<>(Change.REMOVED, removed.get(i), null));
+        }
+        for (int i = paired; i < unmatched.size(); i++) {
+            proceed &= sink.test(new Entry<>(Change.ADDED, null, unmatched.get(i)));
+        }
+        return proceed;
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int x = a.codePointAt(i);
+            int y = b.codePointAt(j);
+            if (x != y) {
+                return Integer.compare(x, y);
+            }
+            i += Character.charCount(x);
+            j += Character.charCount(y);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    /**
+     * 单侧输入的前瞻游标，同时校验升序
+     */
+    private static final class Cursor<T> {
+
+        private final Iterator<T> rows;
+        private final Comparator<T> key;
+        private T head;
+
+        Cursor(Iterator<T> rows, Comparator<T> key) {
+            this.rows = rows;
+            this.key = key;
+            this.head = rows.hasNext() ? Objects.requireNonNull(rows.next()) : null;
+        }
+
+        List<T> takeGroup(T groupKey) {
+            List<T> group = new ArrayList<>(1);
+            while (head != null && key.compare(head, groupKey) == 0) {
+                group.add(head);
+                T next = rows.hasNext() ? Objects.requireNonNull(rows.next()) : null;
+                if (next != null && key.compare(next, head) < 0) {
+                    throw new IllegalStateException("输入未按键升序排列: " + next);
+                }
+                head = next;
+            }
+            return group;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+
+/**
+ * 图谱结构健康检查：连通性、孤立节点、自环与重复关系
+ */
+public final class GraphHealth {
+
+    private GraphHealth() {
+    }
+
+    /**
+     * 健康检查结果
+     *
+     * @param duplicateEdges 与同一对节点间已有的同类型关系重复的关系数（每组只保留一条时需删除的数量）
+     */
+    public record Report(int nodeCount, int edgeCount,
+                         int weakComponents, int largestWeakComponent,
+                         int strongComponents, int largestStrongComponent,
+                         int isolatedNodes, int selfLoops, int duplicateEdges) {
+    }
+
+    public static Report analyze(CsrGraph g) {
+        Components.Result weak = Components.weak(g);
+        Components.Result strong = Components.strong(g);
+
+        int isolated = 0;
+        for (int v = 0; v < g.nodeCount(); v++) {
+            if (g.degree(v) == 0) {
+                isolated++;
+            }
+        }
+
+        int selfLoops = 0;
+        for (int e = 0; e < g.edgeCount(); e++) {
+            if (g.edgeSource(e) == g.edgeTarget(e)) {
+                selfLoops++;
+            }
+        }
+
+        return new Report(g.nodeCount(), g.edgeCount(),
+                weak.count(), weak.largestSize(),
+                strong.count(), strong.largestSize(),
+                isolated, selfLoops, duplicateEdges(g));
+    }
+
+    /**
+     * 逐节点把出边编码为 (目标, 类型) 排序后统计相邻重复
+     */
+    static int duplicateEdges(CsrGraph g) {
+        int duplicates = 0;
+        long[] keys = new long[0];
+        for (int v = 0; v < g.nodeCount(); v++) {
+            int start = g.outStart(v);
+            int degree = g.outEnd(v) - start;
+            if (degree < 2) {
+                continue;
+            }
+            if (keys.length < degree) {
+                keys = new long[degree];
+            }
+            for (int i = 0; i < degree; i++) {
+                int k = start + i;
+                // 类型编码为 -1 表示无类型，+1 后保持非负
+                keys[i] = ((long) g.outTarget(k) << 32) | (g.edgeTypeCode(g.outEdge(k)) + 1);
+            }
+            Arrays.sort(keys, 0, degree);
+            for (int i = 1; i < degree; i++) {
+                if (keys[i] == keys[i - 1]) {
+                    duplicates++;
+                }
+            }
+        }
+        return duplicates;
+    }
+}
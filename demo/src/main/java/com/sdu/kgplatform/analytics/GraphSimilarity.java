@@ -0,0 +1,210 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图谱间相似度
+ * 每个图谱的签名分三段：节点名称集合、节点类型直方图、关系类型直方图，各段独立做 MinHash；
+ * 直方图按计数的对数分级展开为集合（数量 c 的类型贡献 floor(log2 c)+1 个特征），
+ * 使 Jaccard 相似度同时反映类型是否出现与数量级是否接近。相似度为三段估计值的加权平均
+ */
+public final class GraphSimilarity {
+
+    private GraphSimilarity() {
+    }
+
+    private static final int NAME_HASHES = 32;
+    private static final int NAME_BANDS = 8;
+    private static final int TYPE_HASHES = 16;
+    private static final int TYPE_BANDS = 4;
+    private static final double[] WEIGHTS = {0.6, 0.2, 0.2};
+
+    private static final MinHash NAME_HASH = new MinHash(NAME_HASHES, 0x4E414D45L);
+    private static final MinHash NODE_TYPE_HASH = new MinHash(TYPE_HASHES, 0x4E545950L);
+    private static final MinHash RELATION_TYPE_HASH = new MinHash(TYPE_HASHES, 0x52545950L);
+
+    /**
+     * 图谱签名，某段为空（如没有关系）时为 null
+     */
+    public record Signature(int[] names, int[] nodeTypes, int[] relationTypes) {
+
+        int[] segment(int i) {
+            return switch (i) {
+                case 0 -> names;
+                case 1 -> nodeTypes;
+                default -> relationTypes;
+            };
+        }
+    }
+
+    public record Match(int id, double similarity) {
+    }
+
+    /**
+     * 两个签名的加权相似度；两边都为空的段不计入权重
+     */
+    public static double similarity(Signature a, Signature b) {
+        double score = 0;
+        double weight = 0;
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            int[] x = a.segment(i);
+            int[] y = b.segment(i);
+            if (x == null && y == null) {
+                continue;
+            }
+            weight += WEIGHTS[i];
+            if (x != null && y != null) {
+                score += WEIGHTS[i] * MinHash.similarity(x, y);
+            }
+        }
+        return weight > 0 ? score / weight : 0;
+    }
+
+    // ==================== 特征收集 ====================
+
+    /**
+     * 逐个节点 / 关系类型计数累加特征，最后生成签名
+     */
+    public static final class Features {
+
+        private int[] names = new int[16];
+        private int nameCount;
+        private final Map<String, Long> nodeTypes = new HashMap<>();
+        private final Map<String, Long> relationTypes = new HashMap<>();
+
+        public void addNode(String name, String type) {
+            String normalized = EntityResolution.normalize(name);
+            if (!normalized.isEmpty()) {
+                if (nameCount == names.length) {
+                    names = Arrays.copyOf(names, nameCount * 2);
+                }
+                names[nameCount++] = MinHash.feature(normalized);
+            }
+            if (type != null && !type.isBlank()) {
+                nodeTypes.merge(type, 1L, Long::sum);
+            }
+        }
+
+        public void addRelations(String type, long count) {
+            if (type != null && !type.isBlank() && count > 0) {
+                relationTypes.merge(type, count, Long::sum);
+            }
+        }
+
+        public Signature sign() {
+            int[] distinctNames = Arrays.stream(names, 0, nameCount).distinct().toArray();
+            return new Signature(
+                    NAME_HASH.signature(distinctNames),
+                    NODE_TYPE_HASH.signature(histogram(nodeTypes)),
+                    RELATION_TYPE_HASH.signature(histogram(relationTypes)));
+        }
+
+        private static int[] histogram(Map<String, Long> counts) {
+            List<Integer> features = new ArrayList<>();
+            counts.forEach((type, count) -> {
+                int levels = 64 - Long.numberOfLeadingZeros(count);
+                for (int level = 0; level < levels; level++) {
+                    features.add(MinHash.feature(type + '\u0000' + level));
+                }
+            });
+            return features.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    // ==================== LSH 索引 ====================
+
+    /**
+     * 可增删的 LSH 索引：签名每段按 band 分桶，查询时取任一桶相同的图谱作为候选再按完整签名打分。
+     * 方法均为同步方法，写入（图谱变更后重算）与查询可来自不同线程
+     */
+    public static final class Index {
+
+        private record Entry(Signature signature, long[] keys) {
+        }
+
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private final Map<Long, Set<Integer>> buckets = new HashMap<>();
+
+        public synchronized void put(int id, Signature signature) {
+            remove(id);
+            long[] keys = keys(signature);
+            entries.put(id, new Entry(signature, keys));
+            for (long key : keys) {
+                buckets.computeIfAbsent(key, k -> new HashSet<>(4)).add(id);
+            }
+        }
+
+        public synchronized void remove(int id) {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return;
+            }
+            for (long key : entry.keys()) {
+                Set<Integer> bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        public synchronized boolean contains(int id) {
+            return entries.containsKey(id);
+        }
+
+        public synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * 与 id 最相似的至多 k 个图谱（不含自身），按相似度降序
+         */
+        public synchronized List<Match> similar(int id, int k, double minSimilarity) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return List.of();
+            }
+            Set<Integer> candidates = new HashSet<>();
+            for (long key : entry.keys()) {
+                candidates.addAll(buckets.get(key));
+            }
+            candidates.remove(id);
+            List<Match> matches = new ArrayList<>(candidates.size());
+            for (Integer candidate : candidates) {
+                double similarity = similarity(entry.signature(), entries.get(candidate).signature());
+                if (similarity >= minSimilarity) {
+                    matches.add(new Match(candidate, similarity));
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::similarity).reversed()
+                    .thenComparingInt(Match::id));
+            return matches.size() > k ? new ArrayList<>(matches.subList(0, k)) : matches;
+        }
+
+        private static long[] keys(Signature signature) {
+            int[] bands = {NAME_BANDS, TYPE_BANDS, TYPE_BANDS};
+            long[] keys = new long[0];
+            for (int i = 0; i < bands.length; i++) {
+                int[] segment = signature.segment(i);
+                if (segment == null) {
+                    continue;
+                }
+                long[] segmentKeys = MinHash.bandKeys(segment, bands[i]);
+                // 不同段的桶键互不相交
+                for (int b = 0; b < segmentKeys.length; b++) {
+                    segmentKeys[b] = segmentKeys[b] * 31 + i;
+                }
+                int size = keys.length;
+                keys = Arrays.copyOf(keys, size + segmentKeys.length);
+                System.arraycopy(segmentKeys, 0, keys, size, segmentKeys.length);
+            }
+            return keys;
+        }
+    }
+}
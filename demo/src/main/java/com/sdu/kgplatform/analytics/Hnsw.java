@@ -0,0 +1,476 @@
+package com.sdu.kgplatform.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * HNSW 近似最近邻索引（余弦相似度，向量需已归一化）
+ * 邻接表按固定容量平铺在一个 int 区：节点 v 第 l 层的槽位为 [数量, 邻居 × 容量]，第 0 层容量 2M，其余 M；
+ * 构建在堆数组上完成，序列化后的文件与内存布局一致，可直接以只读内存映射加载查询
+ */
+public final class Hnsw {
+
+    /**
+     * 构建参数
+     *
+     * @param m              每层的邻居数（第 0 层上限为 2m）
+     * @param efConstruction 构建时的候选列表长度
+     */
+    public record Params(int m, int efConstruction, long seed) {
+    }
+
+    /**
+     * 查询结果
+     */
+    public record Neighbor(int id, float similarity) {
+    }
+
+    private static final int HEADER_INTS = 6;
+    private static final int MAX_LEVEL = 16;
+
+    private final int size;
+    private final int dimensions;
+    private final int m;
+    private final IntBuffer levels;
+    private final IntBuffer offsets;
+    private final IntBuffer links;
+    private final FloatBuffer vectors;
+    private int maxLevel;
+    private int entryPoint;
+
+    private Hnsw(int size, int dimensions, int m, int maxLevel, int entryPoint,
+                 IntBuffer levels, IntBuffer offsets, IntBuffer links, FloatBuffer vectors) {
+        this.size = size;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxLevel = maxLevel;
+        this.entryPoint = entryPoint;
+        this.levels = levels;
+        this.offsets = offsets;
+        this.links = links;
+        this.vectors = vectors;
+    }
+
+    // ==================== 构建 ====================
+
+    /**
+     * 按下标顺序逐个插入构建索引
+     *
+     * @param vectors 行主序、已归一化的向量
+     */
+    public static Hnsw build(float[] vectors, int dimensions, Params params) {
+        int n = vectors.length / dimensions;
+        int m = params.m();
+        SplittableRandom random = new SplittableRandom(params.seed());
+        double levelFactor = 1 / Math.log(m);
+        int[] levels = new int[n];
+        int[] offsets = new int[n];
+        long total = 0;
+        for (int v = 0; v < n; v++) {
+            levels[v] = Math.min(MAX_LEVEL, (int) (-Math.log(1 - random.nextDouble()) * levelFactor));
+            offsets[v] = (int) total;
+            total += 2L * m + 1 + (long) levels[v] * (m + 1);
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("向量数量过多，超出索引容量");
+        }
+        Hnsw index = new Hnsw(n, dimensions, m, -1, -1, IntBuffer.wrap(levels), IntBuffer.wrap(offsets),
+                IntBuffer.wrap(new int[(int) total]), FloatBuffer.wrap(vectors));
+        BitSet visited = new BitSet(n);
+        float[] query = new float[dimensions];
+        for (int v = 0; v < n; v++) {
+            index.insert(v, params.efConstruction(), query, visited);
+        }
+        return index;
+    }
+
+    private void insert(int v, int efConstruction, float[] query, BitSet visited) {
+        int level = levels.get(v);
+        if (entryPoint < 0) {
+            entryPoint = v;
+            maxLevel = level;
+            return;
+        }
+        copyVector(v, query);
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedy(query, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            long[] candidates = searchLayer(query, ep, efConstruction, l, visited);
+            int[] selected = selectNeighbors(candidates, candidates.length, m);
+            int base = linkBase(v, l);
+            links.put(base, selected.length);
+            for (int i = 0; i < selected.length; i++) {
+                links.put(base + 1 + i, selected[i]);
+            }
+            for (int neighbor : selected) {
+                connect(neighbor, v, l);
+            }
+            ep = id(candidates[0]);
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = v;
+        }
+    }
+
+    /**
+     * 为 from 增加指向 to 的邻居，满员时用启发式在原邻居与新邻居中重新选择
+     */
+    private void connect(int from, int to, int level) {
+        int base = linkBase(from, level);
+        int count = links.get(base);
+        int capacity = level == 0 ? 2 * m : m;
+        if (count < capacity) {
+            links.put(base + 1 + count, to);
+            links.put(base, count + 1);
+            return;
+        }
+        long[] candidates = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            int neighbor = links.get(base + 1 + i);
+            candidates[i] = key(distance(from, neighbor), neighbor);
+        }
+        candidates[count] = key(distance(from, to), to);
+        Arrays.sort(candidates);
+        int[] selected = selectNeighbors(candidates, candidates.length, capacity);
+        links.put(base, selected.length);
+        for (int i = 0; i < selected.length; i++) {
+            links.put(base + 1 + i, selected[i]);
+        }
+    }
+
+    /**
+     * 启发式选邻：候选按距离升序，只保留比已选邻居都更接近基点的候选以覆盖不同方向，不足时用被淘汰者补齐
+     */
+    private int[] selectNeighbors(long[] candidates, int count, int limit) {
+        int[] selected = new int[Math.min(limit, count)];
+        boolean[] taken = new boolean[count];
+        int size = 0;
+        for (int i = 0; i < count && size < selected.length; i++) {
+            int c = id(candidates[i]);
+            float d = distance(candidates[i]);
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                if (distance(c, selected[j]) < d) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = c;
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < count && size < selected.length; i++) {
+            if (!taken[i]) {
+                selected[size++] = id(candidates[i]);
+            }
+        }
+        return selected;
+    }
+
+    // ==================== 查询 ====================
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public float[] vector(int id) {
+        float[] result = new float[dimensions];
+        copyVector(id, result);
+        return result;
+    }
+
+    /**
+     * 查询与 query 最相似的 k 个向量（按相似度降序）
+     *
+     * @param ef 查询时的候选列表长度，越大召回越高
+     */
+    public List<Neighbor> search(float[] query, int k, int ef) {
+        return search(query, k, ef, -1);
+    }
+
+    /**
+     * 查询与已索引向量 id 最相似的 k 个其他向量
+     */
+    public List<Neighbor> similarTo(int id, int k, int ef) {
+        return search(vector(id), k, ef, id);
+    }
+
+    private List<Neighbor> search(float[] query, int k, int ef, int exclude) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        int ep = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            ep = greedy(query, ep, l);
+        }
+        long[] candidates = searchLayer(query, ep, Math.max(ef, k + 1), 0, new BitSet(size));
+        List<Neighbor> result = new ArrayList<>(k);
+        for (int i = 0; i < candidates.length && result.size() < k; i++) {
+            int id = id(candidates[i]);
+            if (id != exclude) {
+                result.add(new Neighbor(id, 1 - distance(candidates[i])));
+            }
+        }
+        return result;
+    }
+
+    // ==================== 序列化 ====================
+
+    /**
+     * 序列化后的字节数
+     */
+    public long byteSize() {
+        return 4L * (HEADER_INTS + 2L * size + links.capacity() + (long) size * dimensions);
+    }
+
+    /**
+     * 按小端序写出：头部 [size, dimensions, m, maxLevel, entryPoint, linksLength]、层数、槽位偏移、邻接区、向量区
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        for (int value : new int[]{size, dimensions, m, maxLevel, entryPoint, links.capacity()}) {
+            buffer.putInt(value);
+        }
+        for (IntBuffer section : new IntBuffer[]{levels, offsets, links}) {
+            for (int i = 0; i < section.capacity(); i++) {
+                if (buffer.remaining() < 4) {
+                    flush(buffer, channel);
+                }
+                buffer.putInt(section.get(i));
+            }
+        }
+        for (int i = 0; i < vectors.capacity(); i++) {
+            if (buffer.remaining() < 4) {
+                flush(buffer, channel);
+            }
+            buffer.putFloat(vectors.get(i));
+        }
+        flush(buffer, channel);
+    }
+
+    /**
+     * 在 writeTo 写出的字节上建立索引视图，不复制数据（可传入只读内存映射）
+     */
+    public static Hnsw wrap(ByteBuffer source) {
+        ByteBuffer buffer = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int size = buffer.getInt(0);
+        int dimensions = buffer.getInt(4);
+        int m = buffer.getInt(8);
+        int maxLevel = buffer.getInt(12);
+        int entryPoint = buffer.getInt(16);
+        int linksLength = buffer.getInt(20);
+        int position = HEADER_INTS * 4;
+        IntBuffer levels = section(buffer, position, size).asIntBuffer();
+        position += size * 4;
+        IntBuffer offsets = section(buffer, position, size).asIntBuffer();
+        position += size * 4;
+        IntBuffer links = section(buffer, position, linksLength).asIntBuffer();
+        position += linksLength * 4;
+        FloatBuffer vectors = section(buffer, position, size * dimensions).asFloatBuffer();
+        return new Hnsw(size, dimensions, m, maxLevel, entryPoint, levels, offsets, links, vectors);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static ByteBuffer section(ByteBuffer buffer, int position, int count) {
+        return buffer.slice(position, count * 4).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private int linkBase(int v, int level) {
+        return offsets.get(v) + (level == 0 ? 0 : 2 * m + 1 + (level - 1) * (m + 1));
+    }
+
+    /**
+     * 上层贪心下降：移动到更近的邻居直到局部最优
+     */
+    private int greedy(float[] query, int ep, int level) {
+        float best = distance(query, ep);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int base = linkBase(ep, level);
+            int count = links.get(base);
+            for (int i = 0; i < count; i++) {
+                int neighbor = links.get(base + 1 + i);
+                float d = distance(query, neighbor);
+                if (d < best) {
+                    best = d;
+                    ep = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return ep;
+    }
+
+    /**
+     * 单层最佳优先搜索，返回按距离升序的 (距离, 下标) 编码
+     */
+    private long[] searchLayer(float[] query, int ep, int ef, int level, BitSet visited) {
+        visited.clear();
+        LongHeap candidates = new LongHeap(false);
+        LongHeap results = new LongHeap(true);
+        long start = key(distance(query, ep), ep);
+        visited.set(ep);
+        candidates.push(start);
+        results.push(start);
+        while (candidates.size() > 0) {
+            long current = candidates.pop();
+            if (results.size() >= ef && current > results.peek()) {
+                break;
+            }
+            int base = linkBase(id(current), level);
+            int count = links.get(base);
+            for (int i = 0; i < count; i++) {
+                int neighbor = links.get(base + 1 + i);
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                long candidate = key(distance(query, neighbor), neighbor);
+                if (results.size() < ef || candidate < results.peek()) {
+                    candidates.push(candidate);
+                    results.push(candidate);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        long[] sorted = results.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void copyVector(int v, float[] target) {
+        vectors.get(v * dimensions, target, 0, dimensions);
+    }
+
+    private float distance(float[] query, int v) {
+        int base = v * dimensions;
+        float dot = 0f;
+        for (int d = 0; d < dimensions; d++) {
+            dot += query[d] * vectors.get(base + d);
+        }
+        return Math.max(0f, 1f - dot);
+    }
+
+    private float distance(int a, int b) {
+        int baseA = a * dimensions;
+        int baseB = b * dimensions;
+        float dot = 0f;
+        for (int d = 0; d < dimensions; d++) {
+            dot += vectors.get(baseA + d) * vectors.get(baseB + d);
+        }
+        return Math.max(0f, 1f - dot);
+    }
+
+    /**
+     * 非负 float 的位模式与数值同序，高 32 位放距离、低 32 位放下标，long 比较即按 (距离, 下标) 排序
+     */
+    private static long key(float distance, int id) {
+        return ((long) Float.floatToIntBits(distance) << 32) | id;
+    }
+
+    private static int id(long key) {
+        return (int) key;
+    }
+
+    private static float distance(long key) {
+        return Float.intBitsToFloat((int) (key >>> 32));
+    }
+
+    /**
+     * long 二叉堆，max=true 时堆顶为最大值
+     */
+    private static final class LongHeap {
+        private final boolean max;
+        private long[] heap = new long[16];
+        private int size;
+
+        private LongHeap(boolean max) {
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(value, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!before(heap[child], last)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            if (size > 0) {
+                heap[i] = last;
+            }
+            return top;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(heap, size);
+        }
+
+        private boolean before(long a, long b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 基于邻域相似度的缺失关系预测
+ * 候选限定在两跳邻域内（有公共邻居且尚未直接相连的节点对），每个节点用大小为 k 的堆保留最高分候选
+ */
+public final class LinkPrediction {
+
+    private LinkPrediction() {
+    }
+
+    /**
+     * 相似度指标
+     */
+    public enum Measure {
+        COMMON_NEIGHBORS, ADAMIC_ADAR, JACCARD;
+
+        public static Measure parse(String value) {
+            if (value == null) {
+                return ADAMIC_ADAR;
+            }
+            return switch (value.toLowerCase()) {
+                case "common_neighbors", "cn" -> COMMON_NEIGHBORS;
+                case "jaccard" -> JACCARD;
+                case "adamic_adar", "aa" -> ADAMIC_ADAR;
+                default -> throw new IllegalArgumentException("不支持的相似度指标: " + value);
+            };
+        }
+    }
+
+    /**
+     * 一条候选关系
+     */
+    public record Suggestion(int source, int target, double score, int commonNeighbors) {
+    }
+
+    /**
+     * 全图预测结果
+     *
+     * @param complete 是否在时间预算内处理完所有节点
+     */
+    public record Result(List<Suggestion> suggestions, boolean complete) {
+    }
+
+    private static final Comparator<Suggestion> ORDER = Comparator
+            .comparingDouble(Suggestion::score)
+            .thenComparing(Suggestion::commonNeighbors)
+            .thenComparing(s -> -s.target());
+
+    // ==================== 单节点 ====================
+
+    /**
+     * 为单个节点推荐最可能缺失的 k 条关系（按分值降序）
+     *
+     * @param maxHubDegree 度数超过该值的公共邻居不参与候选生成，避免经由枢纽节点的组合爆炸
+     */
+    public static List<Suggestion> forNode(UndirectedAdjacency adj, int u, Measure measure, int k, int maxHubDegree) {
+        Scorer scorer = new Scorer(adj, measure, maxHubDegree);
+        PriorityQueue<Suggestion> heap = new PriorityQueue<>(k + 1, ORDER);
+        scorer.score(u, false, k, heap);
+        return drain(heap);
+    }
+
+    // ==================== 全图 ====================
+
+    /**
+     * 全图推荐：每个节点取前 perNode 个候选，再合并为全局前 limit 个（每对节点只出现一次）
+     * 超过 deadlineNanos 时返回已处理节点的结果
+     */
+    public static Result forGraph(UndirectedAdjacency adj, Measure measure, int perNode, int limit,
+                                  int maxHubDegree, long deadlineNanos) {
+        Scorer scorer = new Scorer(adj, measure, maxHubDegree);
+        PriorityQueue<Suggestion> global = new PriorityQueue<>(limit + 1, ORDER);
+        PriorityQueue<Suggestion> local = new PriorityQueue<>(perNode + 1, ORDER);
+        boolean complete = true;
+        for (int u = 0; u < adj.nodeCount(); u++) {
+            if ((u & 255) == 0 && System.nanoTime() > deadlineNanos) {
+                complete = false;
+                break;
+            }
+            local.clear();
+            scorer.score(u, true, perNode, local);
+            for (Suggestion suggestion : local) {
+                offer(global, suggestion, limit);
+            }
+        }
+        return new Result(drain(global), complete);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static void offer(PriorityQueue<Suggestion> heap, Suggestion suggestion, int k) {
+        if (heap.size() < k) {
+            heap.add(suggestion);
+        } else if (ORDER.compare(suggestion, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(suggestion);
+        }
+    }
+
+    private static List<Suggestion> drain(PriorityQueue<Suggestion> heap) {
+        List<Suggestion> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 复用累加数组的打分器，touched 记录本轮访问过的候选以便清零
+     */
+    private static final class Scorer {
+        private final UndirectedAdjacency adj;
+        private final Measure measure;
+        private final int maxHubDegree;
+        private final double[] weight;
+        private final int[] common;
+        private final int[] touched;
+
+        private Scorer(UndirectedAdjacency adj, Measure measure, int maxHubDegree) {
+            this.adj = adj;
+            this.measure = measure;
+            this.maxHubDegree = maxHubDegree;
+            this.weight = new double[adj.nodeCount()];
+            this.common = new int[adj.nodeCount()];
+            this.touched = new int[adj.nodeCount()];
+        }
+
+        /**
+         * @param upperOnly 只考虑下标大于 u 的候选（全图模式下每对只计算一次）
+         */
+        private void score(int u, boolean upperOnly, int k, PriorityQueue<Suggestion> heap) {
+            int count = 0;
+            for (int i = adj.start(u), end = adj.end(u); i < end; i++) {
+                int v = adj.neighbor(i);
+                int degree = adj.degree(v);
+                if (degree > maxHubDegree) {
+                    continue;
+                }
+                // 度为 1 的公共邻居不可能存在（v 至少连接 u 和 w），log 不为 0
+                double contribution = 1.0 / Math.log(degree);
+                for (int j = adj.start(v), jEnd = adj.end(v); j < jEnd; j++) {
+                    int w = adj.neighbor(j);
+                    if (w == u || (upperOnly && w < u)) {
+                        continue;
+                    }
+                    if (common[w]++ == 0) {
+                        touched[count++] = w;
+                    }
+                    weight[w] += contribution;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                int w = touched[i];
+                if (!adj.adjacent(u, w)) {
+                    double score = switch (measure) {
+                        case COMMON_NEIGHBORS -> common[w];
+                        case ADAMIC_ADAR -> weight[w];
+                        case JACCARD -> (double) common[w] / (adj.degree(u) + adj.degree(w) - common[w]);
+                    };
+                    offer(heap, new Suggestion(u, w, score, common[w]), k);
+                }
+                weight[w] = 0;
+                common[w] = 0;
+            }
+        }
+    }
+}
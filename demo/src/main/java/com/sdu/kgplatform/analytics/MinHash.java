@@ -0,0 +1,227 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash 签名与 LSH 分桶
+ * 集合元素先哈希为 int，每个哈希函数取元素混合哈希的最小值；两个签名相同位置相等的比例是 Jaccard 相似度的无偏估计。
+ * LSH 把签名切成若干段，任一段完全相同的两个集合成为候选对，相似度阈值约为 (1/段数)^(1/每段行数)
+ */
+public final class MinHash {
+
+    private final long[] seeds;
+
+    public MinHash(int numHashes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextLong() | 1L;
+        }
+    }
+
+    public int numHashes() {
+        return seeds.length;
+    }
+
+    /**
+     * 计算集合的签名，空集合返回 null
+     */
+    public int[] signature(int[] features) {
+        if (features.length == 0) {
+            return null;
+        }
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int feature : features) {
+            for (int i = 0; i < seeds.length; i++) {
+                int h = (int) (mix(feature * seeds[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 由签名估计 Jaccard 相似度
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    // ==================== LSH ====================
+
+    /**
+     * LSH 候选对：签名按 bands 段分桶，同桶的下标两两成对；null 签名不参与。
+     * 规模超过 maxBucket 的桶（多为过于常见的特征）整体跳过，避免平方级爆炸
+     *
+     * @return 升序去重的候选对，编码为 (i << 32) | j，i < j
+     */
+    public static long[] candidatePairs(int[][] signatures, int bands, int maxBucket) {
+        int n = signatures.length;
+        int numHashes = 0;
+        for (int[] signature : signatures) {
+            if (signature != null) {
+                numHashes = signature.length;
+                break;
+            }
+        }
+        int rows = numHashes / Math.max(1, bands);
+        if (rows == 0) {
+            return new long[0];
+        }
+        long[] keys = new long[n];
+        long[] pairs = new long[16];
+        int pairCount = 0;
+        for (int band = 0; band < bands; band++) {
+            int size = 0;
+            for (int v = 0; v < n; v++) {
+                int[] signature = signatures[v];
+                if (signature == null) {
+                    continue;
+                }
+                keys[size++] = (bandKey(signature, band, rows) & 0xFFFFFFFF00000000L) | v;
+            }
+            Arrays.sort(keys, 0, size);
+            int from = 0;
+            while (from < size) {
+                int to = from + 1;
+                while (to < size && (keys[to] >>> 32) == (keys[from] >>> 32)) {
+                    to++;
+                }
+                int bucket = to - from;
+                if (bucket > 1 && bucket <= maxBucket) {
+                    int needed = pairCount + bucket * (bucket - 1) / 2;
+                    if (needed > pairs.length) {
+                        pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, needed));
+                    }
+                    // 同一桶内按下标升序，保证 i < j
+                    for (int i = from; i < to; i++) {
+                        for (int j = i + 1; j < to; j++) {
+                            pairs[pairCount++] = (keys[i] << 32) | (keys[j] & 0xFFFFFFFFL);
+                        }
+                    }
+                }
+                from = to;
+            }
+        }
+        return unique(pairs, pairCount);
+    }
+
+    /**
+     * 签名各段的桶键，供需要增删的 LSH 索引使用；与 candidatePairs 的分桶方式一致
+     */
+    public static long[] bandKeys(int[] signature, int bands) {
+        int rows = signature.length / bands;
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            keys[band] = bandKey(signature, band, rows);
+        }
+        return keys;
+    }
+
+    // ==================== 特征 ====================
+
+    /**
+     * 整个字符串作为一个特征的哈希
+     */
+    public static int feature(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        return hashCodePoints(codePoints, 0, codePoints.length);
+    }
+
+    /**
+     * 字符 n-gram 的哈希集合（升序去重）；文本短于 n 时整体作为一个特征，null 或空串返回空数组
+     */
+    public static int[] shingles(String text, int n) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        int[] codePoints = text.codePoints().toArray();
+        if (codePoints.length <= n) {
+            return new int[]{hashCodePoints(codePoints, 0, codePoints.length)};
+        }
+        int[] result = new int[codePoints.length - n + 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = hashCodePoints(codePoints, i, n);
+        }
+        Arrays.sort(result);
+        int size = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (size == 0 || result[size - 1] != result[i]) {
+                result[size++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 两个升序去重 int 集合的精确 Jaccard 相似度，均为空时返回 0
+     */
+    public static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 0;
+        }
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static long bandKey(int[] signature, int band, int rows) {
+        long h = band;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            h = mix(h * 31 + signature[r]);
+        }
+        return h;
+    }
+
+    private static int hashCodePoints(int[] codePoints, int from, int length) {
+        long h = length;
+        for (int i = from; i < from + length; i++) {
+            h = h * 0x100000001B3L + codePoints[i];
+        }
+        return (int) mix(h);
+    }
+
+    /**
+     * SplitMix64 终混函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long[] unique(long[] values, int size) {
+        Arrays.sort(values, 0, size);
+        int write = 0;
+        for (int i = 0; i < size; i++) {
+            if (write == 0 || values[write - 1] != values[i]) {
+                values[write++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, write);
+    }
+}
@@ -0,0 +1,228 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * DeepWalk 节点嵌入
+ * 在无向视图上做截断均匀随机游走，游走序列边生成边用 skip-gram + 负采样训练，
+ * 参数全部存放在一维 float 数组中；并行时各线程无锁地更新共享参数（Hogwild），
+ * 输出按行 L2 归一化，余弦相似度即为点积
+ */
+public final class NodeEmbedding {
+
+    private NodeEmbedding() {
+    }
+
+    /**
+     * 训练参数
+     *
+     * @param dimensions   向量维度
+     * @param walksPerNode 每个节点作为起点的游走次数
+     * @param walkLength   游走长度（含起点）
+     * @param window       上下文窗口半径
+     * @param negatives    每个正样本的负样本数
+     * @param learningRate 初始学习率，随进度线性衰减
+     */
+    public record Params(int dimensions, int walksPerNode, int walkLength, int window, int negatives,
+                         float learningRate, long seed) {
+    }
+
+    /** 每个并行任务处理的游走数 */
+    private static final int WALK_BLOCK = 256;
+
+    private static final float MAX_EXP = 6f;
+
+    /** sigmoid 查表，覆盖 [-MAX_EXP, MAX_EXP] */
+    private static final int SIGMOID_TABLE_SIZE = 1000;
+    private static final float[] SIGMOID = new float[SIGMOID_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= SIGMOID_TABLE_SIZE; i++) {
+            double x = (2.0 * i / SIGMOID_TABLE_SIZE - 1) * MAX_EXP;
+            SIGMOID[i] = (float) (1 / (1 + Math.exp(-x)));
+        }
+    }
+
+    /**
+     * 训练节点向量，超过 deadlineNanos 时停止并返回当前参数
+     *
+     * @return nodeCount * dimensions 的行主序向量，已归一化
+     */
+    public static float[] train(UndirectedAdjacency adj, Params params, boolean parallel, long deadlineNanos) {
+        int n = adj.nodeCount();
+        int dim = params.dimensions();
+        float[] input = new float[n * dim];
+        float[] output = new float[n * dim];
+        SplittableRandom init = new SplittableRandom(params.seed());
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) ((init.nextDouble() - 0.5) / dim);
+        }
+        if (n == 0) {
+            return input;
+        }
+        int[] negativeTable = negativeTable(adj);
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = init.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        long totalWalks = (long) n * params.walksPerNode();
+        int blocks = (int) ((totalWalks + WALK_BLOCK - 1) / WALK_BLOCK);
+        AtomicLong processed = new AtomicLong();
+        IntStream stream = IntStream.range(0, blocks);
+        if (parallel) {
+            stream = stream.parallel();
+        }
+        stream.forEach(block -> {
+            if (System.nanoTime() > deadlineNanos) {
+                return;
+            }
+            SplittableRandom random = new SplittableRandom(params.seed() * 31 + block);
+            int[] walk = new int[params.walkLength()];
+            float[] gradient = new float[dim];
+            long from = (long) block * WALK_BLOCK;
+            long to = Math.min(totalWalks, from + WALK_BLOCK);
+            float progress = (float) processed.get() / totalWalks;
+            float alpha = params.learningRate() * Math.max(1e-4f, 1f - progress);
+            for (long w = from; w < to; w++) {
+                int length = randomWalk(adj, order[(int) (w % n)], walk, random);
+                trainWalk(walk, length, input, output, dim, params, alpha, negativeTable, gradient, random);
+            }
+            processed.addAndGet(to - from);
+        });
+
+        for (int v = 0; v < n; v++) {
+            double norm = 0;
+            for (int d = 0; d < dim; d++) {
+                norm += (double) input[v * dim + d] * input[v * dim + d];
+            }
+            float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+            for (int d = 0; d < dim; d++) {
+                input[v * dim + d] *= scale;
+            }
+        }
+        return input;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 从 start 出发的均匀随机游走，遇到无邻居节点提前结束，返回实际长度
+     */
+    private static int randomWalk(UndirectedAdjacency adj, int start, int[] walk, SplittableRandom random) {
+        walk[0] = start;
+        int length = 1;
+        int current = start;
+        while (length < walk.length) {
+            int degree = adj.degree(current);
+            if (degree == 0) {
+                break;
+            }
+            current = adj.neighbor(adj.start(current) + random.nextInt(degree));
+            walk[length++] = current;
+        }
+        return length;
+    }
+
+    /**
+     * 对一条游走做 skip-gram 更新：窗口半径随机缩减，每个 (中心, 上下文) 对做一次正样本与若干负样本的逻辑回归
+     */
+    private static void trainWalk(int[] walk, int length, float[] input, float[] output, int dim, Params params,
+                                  float alpha, int[] negativeTable, float[] gradient, SplittableRandom random) {
+        for (int i = 0; i < length; i++) {
+            int center = walk[i];
+            int reduced = params.window() - random.nextInt(params.window());
+            for (int j = Math.max(0, i - reduced); j < Math.min(length, i + reduced + 1); j++) {
+                if (j == i) {
+                    continue;
+                }
+                int contextBase = walk[j] * dim;
+                Arrays.fill(gradient, 0f);
+                for (int s = 0; s <= params.negatives(); s++) {
+                    int target;
+                    float label;
+                    if (s == 0) {
+                        target = center;
+                        label = 1f;
+                    } else {
+                        target = negativeTable[random.nextInt(negativeTable.length)];
+                        if (target == center) {
+                            continue;
+                        }
+                        label = 0f;
+                    }
+                    int targetBase = target * dim;
+                    float dot = dot(input, contextBase, output, targetBase, dim);
+                    float g;
+                    if (dot > MAX_EXP) {
+                        g = (label - 1f) * alpha;
+                    } else if (dot < -MAX_EXP) {
+                        g = label * alpha;
+                    } else {
+                        g = (label - SIGMOID[(int) ((dot + MAX_EXP) * (SIGMOID_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+                    }
+                    for (int d = 0; d < dim; d++) {
+                        gradient[d] += g * output[targetBase + d];
+                        output[targetBase + d] += g * input[contextBase + d];
+                    }
+                }
+                for (int d = 0; d < dim; d++) {
+                    input[contextBase + d] += gradient[d];
+                }
+            }
+        }
+    }
+
+    /**
+     * 四路累加的点积，打破浮点加法的串行依赖
+     */
+    private static float dot(float[] a, int aBase, float[] b, int bBase, int dim) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int d = 0;
+        for (; d + 3 < dim; d += 4) {
+            s0 += a[aBase + d] * b[bBase + d];
+            s1 += a[aBase + d + 1] * b[bBase + d + 1];
+            s2 += a[aBase + d + 2] * b[bBase + d + 2];
+            s3 += a[aBase + d + 3] * b[bBase + d + 3];
+        }
+        for (; d < dim; d++) {
+            s0 += a[aBase + d] * b[bBase + d];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * 负采样表：节点按 度^0.75 占比填充（无向随机游走中节点出现频率正比于度数）
+     */
+    private static int[] negativeTable(UndirectedAdjacency adj) {
+        int n = adj.nodeCount();
+        int size = (int) Math.min(1 << 22, Math.max(1024L, n * 16L));
+        double total = 0;
+        for (int v = 0; v < n; v++) {
+            total += Math.pow(Math.max(1, adj.degree(v)), 0.75);
+        }
+        int[] table = new int[size];
+        int v = 0;
+        double cumulative = Math.pow(Math.max(1, adj.degree(0)), 0.75) / total;
+        for (int i = 0; i < size; i++) {
+            table[i] = v;
+            if ((i + 1) / (double) size > cumulative && v < n - 1) {
+                v++;
+                cumulative += Math.pow(Math.max(1, adj.degree(v)), 0.75) / total;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,336 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 基于 CSR 投影的有界简单路径枚举（两点之间长度不超过 maxLength 的全部简单路径）
+ * 采用双向会合：先从终点反向展开长度不超过 ⌊maxLength/2⌋ 的半程路径并按会合节点建索引，
+ * 再按长度从小到大从起点正向展开 ⌈ℓ/2⌉ 步，与会合节点上长度为 ⌊ℓ/2⌋ 的半程路径拼接，
+ * 每条路径只在唯一的切分点被拼出，不会重复。两侧展开都用到另一端的有界 BFS 距离剪枝，
+ * 每个节点最多展开 fanout 条边，防止枢纽节点导致组合爆炸；结果按长度升序逐条交给回调
+ */
+public final class PathEnumerator {
+
+    public static final int MAX_LENGTH = 8;
+
+    /** 反向半程路径的存储上限，超过后停止展开并标记为已剪枝 */
+    public static final int MAX_HALF_PATHS = 200_000;
+
+    /**
+     * 枚举参数
+     *
+     * @param directed         是否按关系方向搜索，false 时视为无向图
+     * @param relationTypeMask 关系类型掩码，null 表示不过滤
+     * @param maxLength        路径最大边数
+     * @param fanout           每个节点最多展开的边数
+     * @param deadlineNanos    截止时间（System.nanoTime 基准）
+     */
+    public record Options(boolean directed, boolean[] relationTypeMask, int maxLength, int fanout,
+                          long deadlineNanos) {
+    }
+
+    /**
+     * 枚举结果摘要
+     *
+     * @param found     交给回调的路径数
+     * @param truncated 达到结果上限后仍有路径未返回
+     * @param pruned    有节点因 fanout 或半程路径上限未完全展开，结果可能不完整
+     * @param timedOut  超出时间预算提前结束
+     */
+    public record Result(int found, boolean truncated, boolean pruned, boolean timedOut) {
+    }
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final CsrGraph graph;
+    private final int source;
+    private final int target;
+    private final Options options;
+    private final int limit;
+    private final Predicate<ShortestPaths.Path> sink;
+
+    /** backward.get(b)：会合节点 -> 长度为 b 的半程路径 {n0=会合节点 ... nb=终点, e0 ... e(b-1)} */
+    private List<Map<Integer, List<int[]>>> backward;
+    private int halfPaths;
+    private int[] distS;
+    private int[] distT;
+    private final boolean[] onPath;
+    private final int[] stackNodes;
+    private final int[] stackEdges;
+
+    private int found;
+    private boolean truncated;
+    private boolean pruned;
+    private boolean stopped;
+    private int steps;
+
+    private PathEnumerator(CsrGraph graph, int source, int target, Options options, int limit,
+                           Predicate<ShortestPaths.Path> sink) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.options = options;
+        this.limit = limit;
+        this.sink = sink;
+        this.onPath = new boolean[graph.nodeCount()];
+        this.stackNodes = new int[options.maxLength() + 1];
+        this.stackEdges = new int[options.maxLength()];
+    }
+
+    /**
+     * 枚举 source 到 target 的简单路径，按长度升序逐条交给 sink；sink 返回 false 时立即停止
+     *
+     * @param limit 最多交给 sink 的路径数
+     */
+    public static Result enumerate(CsrGraph graph, int source, int target, Options options, int limit,
+                                   Predicate<ShortestPaths.Path> sink) {
+        if (options.maxLength() < 1 || options.maxLength() > MAX_LENGTH) {
+            throw new IllegalArgumentException("路径最大长度必须在 1 到 " + MAX_LENGTH + " 之间");
+        }
+        if (options.fanout() < 1) {
+            throw new IllegalArgumentException("展开上限必须大于 0");
+        }
+        PathEnumerator enumerator = new PathEnumerator(graph, source, target, options, limit, sink);
+        boolean timedOut = false;
+        try {
+            enumerator.run();
+        } catch (SearchTimeoutException e) {
+            timedOut = true;
+        }
+        return new Result(enumerator.found, enumerator.truncated, enumerator.pruned, timedOut);
+    }
+
+    private void run() {
+        if (source == target) {
+            emit(new ShortestPaths.Path(new int[]{source}, new int[0]));
+            return;
+        }
+        int maxLength = options.maxLength();
+        distT = distances(target, false);
+        if (distT[source] < 0) {
+            return;
+        }
+        distS = distances(source, true);
+
+        buildBackward(maxLength / 2);
+        for (int length = distT[source]; length <= maxLength && !stopped; length++) {
+            stackNodes[0] = source;
+            onPath[source] = true;
+            forward(length, (length + 1) / 2, 0);
+            onPath[source] = false;
+        }
+    }
+
+    // ==================== 反向半程 ====================
+
+    private void buildBackward(int half) {
+        backward = new ArrayList<>(half + 1);
+        for (int b = 0; b <= half; b++) {
+            backward.add(new HashMap<>());
+        }
+        stackNodes[0] = target;
+        onPath[target] = true;
+        store(0);
+        backwardFrom(half, 0);
+        onPath[target] = false;
+    }
+
+    /**
+     * 从 stackNodes[depth] 沿反向边继续展开；起点不作为半程路径上的节点（它只能出现在正向一侧）
+     */
+    private void backwardFrom(int half, int depth) {
+        if (depth == half || halfPaths >= MAX_HALF_PATHS) {
+            return;
+        }
+        int v = stackNodes[depth];
+        int expanded = 0;
+        // 先走入边；无向模式下出边同样可走
+        for (int pass = 0; pass < (options.directed() ? 1 : 2); pass++) {
+            boolean incoming = pass == 0;
+            int start = incoming ? graph.inStart(v) : graph.outStart(v);
+            int end = incoming ? graph.inEnd(v) : graph.outEnd(v);
+            for (int k = start; k < end; k++) {
+                int e = incoming ? graph.inEdge(k) : graph.outEdge(k);
+                int w = incoming ? graph.inSource(k) : graph.outTarget(k);
+                if (w == source || onPath[w] || distS[w] < 0 || distS[w] + depth + 1 > options.maxLength()
+                        || !graph.edgeAllowed(e, options.relationTypeMask())) {
+                    continue;
+                }
+                if (expanded == options.fanout() || halfPaths >= MAX_HALF_PATHS) {
+                    pruned = true;
+                    return;
+                }
+                tick();
+                expanded++;
+                stackNodes[depth + 1] = w;
+                stackEdges[depth] = e;
+                onPath[w] = true;
+                // 会合节点到起点的正向段长度为 b 或 b+1，更远的只作为中间节点
+                if (distS[w] <= depth + 2) {
+                    store(depth + 1);
+                }
+                backwardFrom(half, depth + 1);
+                onPath[w] = false;
+            }
+        }
+    }
+
+    /**
+     * 把栈上长度为 depth 的反向路径翻转为会合节点在前的半程路径存入索引
+     */
+    private void store(int depth) {
+        int[] packed = new int[2 * depth + 1];
+        for (int j = 0; j <= depth; j++) {
+            packed[j] = stackNodes[depth - j];
+        }
+        for (int j = 0; j < depth; j++) {
+            packed[depth + 1 + j] = stackEdges[depth - 1 - j];
+        }
+        backward.get(depth).computeIfAbsent(packed[0], key -> new ArrayList<>()).add(packed);
+        halfPaths++;
+    }
+
+    // ==================== 正向展开与拼接 ====================
+
+    /**
+     * 从 stackNodes[depth] 正向展开到第 half 步，在会合节点与长度为 length - half 的半程路径拼接
+     */
+    private void forward(int length, int half, int depth) {
+        int v = stackNodes[depth];
+        if (depth == half) {
+            join(length, half, v);
+            return;
+        }
+        int expanded = 0;
+        // 先走出边；无向模式下入边同样可走
+        for (int pass = 0; pass < (options.directed() ? 1 : 2) && !stopped; pass++) {
+            boolean outgoing = pass == 0;
+            int start = outgoing ? graph.outStart(v) : graph.inStart(v);
+            int end = outgoing ? graph.outEnd(v) : graph.inEnd(v);
+            for (int k = start; k < end && !stopped; k++) {
+                int e = outgoing ? graph.outEdge(k) : graph.inEdge(k);
+                int w = outgoing ? graph.outTarget(k) : graph.inSource(k);
+                if (onPath[w] || distT[w] < 0 || depth + 1 + distT[w] > length
+                        || (w == target && depth + 1 < half)
+                        || !graph.edgeAllowed(e, options.relationTypeMask())) {
+                    continue;
+                }
+                if (expanded == options.fanout()) {
+                    pruned = true;
+                    return;
+                }
+                tick();
+                expanded++;
+                stackNodes[depth + 1] = w;
+                stackEdges[depth] = e;
+                onPath[w] = true;
+                forward(length, half, depth + 1);
+                onPath[w] = false;
+            }
+        }
+    }
+
+    private void join(int length, int half, int meet) {
+        int b = length - half;
+        List<int[]> halves = backward.get(b).get(meet);
+        if (halves == null) {
+            return;
+        }
+        for (int[] packed : halves) {
+            if (stopped) {
+                return;
+            }
+            tick();
+            if (!disjoint(packed, b)) {
+                continue;
+            }
+            int[] nodes = new int[length + 1];
+            int[] edges = new int[length];
+            System.arraycopy(stackNodes, 0, nodes, 0, half + 1);
+            System.arraycopy(stackEdges, 0, edges, 0, half);
+            System.arraycopy(packed, 1, nodes, half + 1, b);
+            System.arraycopy(packed, b + 1, edges, half, b);
+            emit(new ShortestPaths.Path(nodes, edges));
+        }
+    }
+
+    /**
+     * 半程路径除会合节点外不得与正向段相交
+     */
+    private boolean disjoint(int[] packed, int b) {
+        for (int j = 1; j <= b; j++) {
+            if (onPath[packed[j]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void emit(ShortestPaths.Path path) {
+        if (found >= limit) {
+            truncated = true;
+            stopped = true;
+            return;
+        }
+        found++;
+        if (!sink.test(path)) {
+            stopped = true;
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 从 start 出发的有界 BFS 距离；forward = false 时沿反向边（无向模式下两个方向都走）
+     */
+    private int[] distances(int start, boolean forward) {
+        int n = graph.nodeCount();
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        dist[start] = 0;
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        boolean useOut = forward || !options.directed();
+        boolean useIn = !forward || !options.directed();
+        while (head < tail) {
+            int v = queue[head++];
+            if (dist[v] >= options.maxLength()) {
+                continue;
+            }
+            if (useOut) {
+                for (int k = graph.outStart(v); k < graph.outEnd(v); k++) {
+                    int w = graph.outTarget(k);
+                    if (dist[w] < 0 && graph.edgeAllowed(graph.outEdge(k), options.relationTypeMask())) {
+                        tick();
+                        dist[w] = dist[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (useIn) {
+                for (int k = graph.inStart(v); k < graph.inEnd(v); k++) {
+                    int w = graph.inSource(k);
+                    if (dist[w] < 0 && graph.edgeAllowed(graph.inEdge(k), options.relationTypeMask())) {
+                        tick();
+                        dist[w] = dist[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    private void tick() {
+        if (++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - options.deadlineNanos() > 0) {
+            throw new SearchTimeoutException("路径枚举超时");
+        }
+    }
+}
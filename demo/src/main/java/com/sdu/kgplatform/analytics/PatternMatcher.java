@@ -0,0 +1,413 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 CSR 投影的子图模式匹配
+ * 模式由若干节点约束（类型、nodeId、名称、度数）与连接它们的边约束（关系类型、方向、跳数范围）组成。
+ * 编译阶段统计每个节点约束的候选数，从最小的一个出发，每步选择候选数最少的相邻未绑定节点扩展，
+ * 两端都已绑定的边作为校验在绑定后立即执行；执行阶段按该顺序回溯搜索，不同别名绑定不同节点。
+ * 多跳边的跳数按允许关系上的最短距离判断
+ */
+public final class PatternMatcher {
+
+    public static final int MAX_NODES = 8;
+    public static final int MAX_EDGES = 12;
+    public static final int MAX_HOPS = 4;
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    /**
+     * 节点约束，除别名外均可为 null（表示不限制）；nameContains 不区分大小写
+     */
+    public record NodeSpec(String alias, String type, String nodeId, String name, String nameContains,
+                           Integer minDegree, Integer maxDegree) {
+    }
+
+    /**
+     * 边约束：from 与 to 为节点别名，types 为空表示任意关系类型
+     */
+    public record EdgeSpec(String from, String to, List<String> types, int minHops, int maxHops, boolean directed) {
+    }
+
+    /**
+     * 匹配结果
+     *
+     * @param aliases   节点别名，与每条匹配中的下标一一对应
+     * @param order     执行计划中的绑定顺序
+     * @param matches   每条匹配为按 aliases 顺序排列的节点下标
+     * @param truncated 达到结果上限后停止
+     * @param timedOut  超出时间预算后停止，结果不完整
+     */
+    public record Result(List<String> aliases, List<String> order, List<int[]> matches, boolean truncated,
+                         boolean timedOut) {
+    }
+
+    private PatternMatcher() {
+    }
+
+    /**
+     * 编译并执行模式匹配
+     *
+     * @throws IllegalArgumentException 模式不合法（别名重复、引用不存在的别名、不连通、超出规模上限）
+     */
+    public static Result match(CsrGraph graph, List<NodeSpec> nodes, List<EdgeSpec> edges, int limit,
+                               long deadlineNanos) {
+        Map<String, Integer> aliasIndex = validate(nodes, edges);
+        int k = nodes.size();
+        List<String> aliases = new ArrayList<>(k);
+        NodeFilter[] filters = new NodeFilter[k];
+        for (int i = 0; i < k; i++) {
+            aliases.add(nodes.get(i).alias());
+            filters[i] = new NodeFilter(graph, nodes.get(i));
+        }
+        CompiledEdge[] compiled = new CompiledEdge[edges.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            EdgeSpec spec = edges.get(i);
+            compiled[i] = new CompiledEdge(aliasIndex.get(spec.from()), aliasIndex.get(spec.to()),
+                    graph.relationTypeMask(spec.types()), spec.minHops(), spec.maxHops(), spec.directed());
+        }
+
+        Matcher matcher = new Matcher(graph, filters, compiled, limit, deadlineNanos);
+        Step[] plan = matcher.plan();
+        List<String> order = new ArrayList<>(k);
+        for (Step step : plan) {
+            order.add(aliases.get(step.alias));
+        }
+        if (plan.length > 0 && filters[plan[0].alias].possible) {
+            matcher.run(plan);
+        }
+        return new Result(aliases, order, matcher.matches, matcher.truncated, matcher.timedOut);
+    }
+
+    // ==================== 校验与编译 ====================
+
+    private static Map<String, Integer> validate(List<NodeSpec> nodes, List<EdgeSpec> edges) {
+        if (nodes == null || nodes.isEmpty() || nodes.size() > MAX_NODES) {
+            throw new IllegalArgumentException("模式节点数必须在 1 到 " + MAX_NODES + " 之间");
+        }
+        if (edges == null || edges.size() > MAX_EDGES) {
+            throw new IllegalArgumentException("模式边数不能超过 " + MAX_EDGES);
+        }
+        Map<String, Integer> aliasIndex = new HashMap<>();
+        for (NodeSpec node : nodes) {
+            if (node.alias() == null || node.alias().isBlank()) {
+                throw new IllegalArgumentException("模式节点必须指定别名");
+            }
+            if (aliasIndex.putIfAbsent(node.alias(), aliasIndex.size()) != null) {
+                throw new IllegalArgumentException("模式节点别名重复: " + node.alias());
+            }
+        }
+        int[] parent = new int[nodes.size()];
+        Arrays.setAll(parent, i -> i);
+        for (EdgeSpec edge : edges) {
+            Integer from = aliasIndex.get(edge.from());
+            Integer to = aliasIndex.get(edge.to());
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("模式边引用了不存在的别名: " + edge.from() + " -> " + edge.to());
+            }
+            if (from.equals(to)) {
+                throw new IllegalArgumentException("模式边的两端不能是同一别名: " + edge.from());
+            }
+            if (edge.minHops() < 1 || edge.maxHops() < edge.minHops() || edge.maxHops() > MAX_HOPS) {
+                throw new IllegalArgumentException("跳数范围必须满足 1 <= minHops <= maxHops <= " + MAX_HOPS);
+            }
+            parent[find(parent, from)] = find(parent, to);
+        }
+        for (int i = 1; i < nodes.size(); i++) {
+            if (find(parent, i) != find(parent, 0)) {
+                throw new IllegalArgumentException("模式必须连通，节点 " + nodes.get(i).alias() + " 未与其他节点相连");
+            }
+        }
+        return aliasIndex;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * 节点约束编译为类型编码、固定下标等便于逐节点判断的形式
+     */
+    private static final class NodeFilter {
+
+        final boolean anyType;
+        final int typeCode;
+        final int fixed;
+        final String name;
+        final String nameContains;
+        final int minDegree;
+        final int maxDegree;
+        final boolean possible;
+        int candidates;
+
+        NodeFilter(CsrGraph graph, NodeSpec spec) {
+            anyType = spec.type() == null || spec.type().isEmpty();
+            typeCode = anyType ? -1 : graph.nodeTypeCodeOf(spec.type());
+            fixed = spec.nodeId() != null ? graph.indexOf(spec.nodeId()) : -2;
+            name = spec.name();
+            nameContains = spec.nameContains() != null ? spec.nameContains().toLowerCase() : null;
+            minDegree = spec.minDegree() != null ? spec.minDegree() : 0;
+            maxDegree = spec.maxDegree() != null ? spec.maxDegree() : Integer.MAX_VALUE;
+            possible = (anyType || typeCode >= 0) && fixed != -1 && minDegree <= maxDegree;
+        }
+
+        boolean test(CsrGraph graph, int v) {
+            if (!possible || (fixed >= 0 && v != fixed) || (!anyType && graph.nodeTypeCode(v) != typeCode)) {
+                return false;
+            }
+            int degree = graph.degree(v);
+            if (degree < minDegree || degree > maxDegree) {
+                return false;
+            }
+            String nodeName = graph.name(v);
+            if (name != null && !name.equals(nodeName)) {
+                return false;
+            }
+            return nameContains == null || (nodeName != null && nodeName.toLowerCase().contains(nameContains));
+        }
+    }
+
+    private record CompiledEdge(int from, int to, boolean[] mask, int minHops, int maxHops, boolean directed) {
+    }
+
+    /**
+     * 计划中的一步：绑定 alias；首步从候选全集出发，其余沿 via 边从已绑定的 anchor 扩展，
+     * 绑定后执行 checks 中的边校验
+     */
+    private record Step(int alias, int anchor, CompiledEdge via, List<CompiledEdge> checks) {
+    }
+
+    // ==================== 执行 ====================
+
+    private static final class Matcher {
+
+        final CsrGraph graph;
+        final NodeFilter[] filters;
+        final CompiledEdge[] edges;
+        final int limit;
+        final long deadlineNanos;
+        final int[] binding;
+        final List<int[]> matches = new ArrayList<>();
+        boolean truncated;
+        boolean timedOut;
+
+        // BFS 共享的工作数组，只在生成一层候选或执行一次校验期间使用
+        final int[] stamp;
+        final int[] dist;
+        final int[] queue;
+        int currentStamp;
+        int operations;
+
+        Matcher(CsrGraph graph, NodeFilter[] filters, CompiledEdge[] edges, int limit, long deadlineNanos) {
+            this.graph = graph;
+            this.filters = filters;
+            this.edges = edges;
+            this.limit = limit;
+            this.deadlineNanos = deadlineNanos;
+            this.binding = new int[filters.length];
+            int n = graph.nodeCount();
+            this.stamp = new int[n];
+            this.dist = new int[n];
+            this.queue = new int[n];
+        }
+
+        /**
+         * 统计各节点约束的候选数，贪心生成绑定顺序
+         */
+        Step[] plan() {
+            int k = filters.length;
+            for (NodeFilter filter : filters) {
+                if (!filter.possible) {
+                    filter.candidates = 0;
+                } else if (filter.fixed >= 0) {
+                    filter.candidates = filter.test(graph, filter.fixed) ? 1 : 0;
+                }
+            }
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                for (NodeFilter filter : filters) {
+                    if (filter.possible && filter.fixed < 0 && filter.test(graph, v)) {
+                        filter.candidates++;
+                    }
+                }
+            }
+
+            boolean[] bound = new boolean[k];
+            boolean[] used = new boolean[edges.length];
+            Step[] plan = new Step[k];
+            int start = 0;
+            for (int i = 1; i < k; i++) {
+                if (filters[i].candidates < filters[start].candidates) {
+                    start = i;
+                }
+            }
+            bound[start] = true;
+            plan[0] = new Step(start, -1, null, List.of());
+            for (int s = 1; s < k; s++) {
+                int best = -1;
+                for (int e = 0; e < edges.length; e++) {
+                    CompiledEdge edge = edges[e];
+                    if (used[e] || bound[edge.from] == bound[edge.to]) {
+                        continue;
+                    }
+                    if (best < 0 || cost(edge, bound) < cost(edges[best], bound)) {
+                        best = e;
+                    }
+                }
+                CompiledEdge via = edges[best];
+                used[best] = true;
+                int alias = bound[via.from] ? via.to : via.from;
+                int anchor = bound[via.from] ? via.from : via.to;
+                bound[alias] = true;
+                List<CompiledEdge> checks = new ArrayList<>();
+                for (int e = 0; e < edges.length; e++) {
+                    if (!used[e] && bound[edges[e].from] && bound[edges[e].to]) {
+                        used[e] = true;
+                        checks.add(edges[e]);
+                    }
+                }
+                plan[s] = new Step(alias, anchor, via, checks);
+            }
+            return plan;
+        }
+
+        /**
+         * 扩展代价估计：目标别名的候选数，多跳边按跳数放大
+         */
+        private long cost(CompiledEdge edge, boolean[] bound) {
+            int target = bound[edge.from] ? edge.to : edge.from;
+            return (long) filters[target].candidates * edge.maxHops;
+        }
+
+        void run(Step[] plan) {
+            NodeFilter first = filters[plan[0].alias];
+            if (first.fixed >= 0) {
+                if (first.test(graph, first.fixed)) {
+                    bind(plan, 0, first.fixed);
+                }
+                return;
+            }
+            for (int v = 0; v < graph.nodeCount() && !stopped(); v++) {
+                if (first.test(graph, v)) {
+                    bind(plan, 0, v);
+                }
+            }
+        }
+
+        private void bind(Step[] plan, int depth, int v) {
+            Step step = plan[depth];
+            for (int i = 0; i < depth; i++) {
+                if (binding[plan[i].alias] == v) {
+                    return;
+                }
+            }
+            binding[step.alias] = v;
+            for (CompiledEdge check : step.checks) {
+                if (!connected(check, binding[check.from], binding[check.to])) {
+                    return;
+                }
+            }
+            if (depth + 1 == plan.length) {
+                matches.add(binding.clone());
+                if (matches.size() >= limit) {
+                    truncated = true;
+                }
+                return;
+            }
+            Step next = plan[depth + 1];
+            int[] candidates = expand(next.via, binding[next.anchor], next.anchor == next.via.from,
+                    filters[next.alias]);
+            for (int w : candidates) {
+                if (stopped()) {
+                    return;
+                }
+                bind(plan, depth + 1, w);
+            }
+        }
+
+        /**
+         * 从 source 沿边约束可达、且满足节点约束的节点；forward 表示 source 为边约束的 from 端
+         */
+        private int[] expand(CompiledEdge edge, int source, boolean forward, NodeFilter filter) {
+            int tail = bfs(edge, source, forward, -1);
+            int[] candidates = new int[tail - 1];
+            int count = 0;
+            for (int i = 1; i < tail; i++) {
+                int w = queue[i];
+                if (dist[w] >= edge.minHops && filter.test(graph, w)) {
+                    candidates[count++] = w;
+                }
+            }
+            return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+        }
+
+        private boolean connected(CompiledEdge edge, int from, int to) {
+            bfs(edge, from, true, to);
+            return stamp[to] == currentStamp && dist[to] >= edge.minHops;
+        }
+
+        /**
+         * 允许关系上的有界 BFS，queue[1, 返回值) 为距离 1..maxHops 的节点（距离记录在 dist 中）；
+         * stopAt 非负时到达该节点即停止
+         */
+        private int bfs(CompiledEdge edge, int source, boolean forward, int stopAt) {
+            int mark = ++currentStamp;
+            stamp[source] = mark;
+            dist[source] = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            boolean followOut = !edge.directed || forward;
+            boolean followIn = !edge.directed || !forward;
+            while (head < tail) {
+                int v = queue[head++];
+                if (dist[v] == edge.maxHops) {
+                    continue;
+                }
+                if (++operations % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) {
+                    timedOut = true;
+                    break;
+                }
+                if (followOut) {
+                    for (int i = graph.outStart(v); i < graph.outEnd(v); i++) {
+                        int w = graph.outTarget(i);
+                        if (stamp[w] != mark && graph.edgeAllowed(graph.outEdge(i), edge.mask)) {
+                            stamp[w] = mark;
+                            dist[w] = dist[v] + 1;
+                            queue[tail++] = w;
+                            if (w == stopAt) {
+                                return tail;
+                            }
+                        }
+                    }
+                }
+                if (followIn) {
+                    for (int i = graph.inStart(v); i < graph.inEnd(v); i++) {
+                        int w = graph.inSource(i);
+                        if (stamp[w] != mark && graph.edgeAllowed(graph.inEdge(i), edge.mask)) {
+                            stamp[w] = mark;
+                            dist[w] = dist[v] + 1;
+                            queue[tail++] = w;
+                            if (w == stopAt) {
+                                return tail;
+                            }
+                        }
+                    }
+                }
+            }
+            return tail;
+        }
+
+        private boolean stopped() {
+            return truncated || timedOut;
+        }
+    }
+}
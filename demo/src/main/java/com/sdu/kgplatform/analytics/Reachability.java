@@ -0,0 +1,394 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+
+/**
+ * 可达性索引
+ * 先把有向图按强连通分量缩成 DAG，再在 DAG 的 DFS 生成树上按后序编号，
+ * 每个分量保存其全部后代编号压缩成的有序区间表（生成树子树天然连续，非树边补充额外区间）；
+ * 正向与反向各建一份，分别回答后代与祖先查询，判定可达只需一次二分查找。
+ * 对以层级关系为主的分类体系，每个分量通常只有一两个区间
+ */
+public final class Reachability {
+
+    private final int[] component;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final Label forward;
+    private final Label backward;
+    private final long intervalCount;
+
+    private Reachability(int[] component, int[] memberOffsets, int[] members,
+                         Label forward, Label backward) {
+        this.component = component;
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+        this.forward = forward;
+        this.backward = backward;
+        this.intervalCount = forward.intervalCount() + backward.intervalCount();
+    }
+
+    /**
+     * 一个方向上的后序编号与区间表
+     *
+     * @param number     分量 -> 后序编号
+     * @param compAt     后序编号 -> 分量
+     * @param sizePrefix 按编号累计的节点数前缀和，用于 O(区间数) 计数
+     * @param intervals  分量 -> [s0, e0, s1, e1, ...]，闭区间，升序且互不相邻
+     */
+    private record Label(int[] number, int[] compAt, long[] sizePrefix, int[][] intervals) {
+
+        long intervalCount() {
+            long total = 0;
+            for (int[] list : intervals) {
+                total += list.length / 2;
+            }
+            return total;
+        }
+    }
+
+    // ==================== 构建 ====================
+
+    /**
+     * 在 CSR 有向图（offsets 长度 n+1）上构建索引
+     *
+     * @param maxIntervals 两个方向区间总数上限，超出时返回 null（图过于稠密，不适合区间标号）
+     */
+    public static Reachability build(int n, int[] offsets, int[] targets, long maxIntervals) {
+        Components.Result scc = Components.strong(n, offsets, targets);
+        int c = scc.count();
+        int[] component = scc.component();
+
+        int[] memberOffsets = new int[c + 1];
+        for (int v = 0; v < n; v++) {
+            memberOffsets[component[v] + 1]++;
+        }
+        for (int i = 0; i < c; i++) {
+            memberOffsets[i + 1] += memberOffsets[i];
+        }
+        int[] members = new int[n];
+        int[] cursor = Arrays.copyOf(memberOffsets, c);
+        for (int v = 0; v < n; v++) {
+            members[cursor[component[v]]++] = v;
+        }
+
+        // 缩点 DAG，按源分量分组去重
+        int[] dagOffsets = new int[c + 1];
+        int[] dagTargets = new int[targets.length];
+        int[] seen = new int[c];
+        Arrays.fill(seen, -1);
+        int size = 0;
+        for (int cu = 0; cu < c; cu++) {
+            for (int i = memberOffsets[cu]; i < memberOffsets[cu + 1]; i++) {
+                int u = members[i];
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    int cw = component[targets[k]];
+                    if (cw != cu && seen[cw] != cu) {
+                        seen[cw] = cu;
+                        dagTargets[size++] = cw;
+                    }
+                }
+            }
+            dagOffsets[cu + 1] = size;
+        }
+        int[] revOffsets = new int[c + 1];
+        for (int k = 0; k < size; k++) {
+            revOffsets[dagTargets[k] + 1]++;
+        }
+        for (int i = 0; i < c; i++) {
+            revOffsets[i + 1] += revOffsets[i];
+        }
+        int[] revTargets = new int[size];
+        int[] revCursor = Arrays.copyOf(revOffsets, c);
+        for (int cu = 0; cu < c; cu++) {
+            for (int k = dagOffsets[cu]; k < dagOffsets[cu + 1]; k++) {
+                revTargets[revCursor[dagTargets[k]]++] = cu;
+            }
+        }
+
+        Label forward = label(c, dagOffsets, dagTargets, memberOffsets, maxIntervals);
+        if (forward == null) {
+            return null;
+        }
+        Label backward = label(c, revOffsets, revTargets, memberOffsets, maxIntervals - forward.intervalCount());
+        if (backward == null) {
+            return null;
+        }
+        return new Reachability(component, memberOffsets, members, forward, backward);
+    }
+
+    // ==================== 查询 ====================
+
+    public int nodeCount() {
+        return component.length;
+    }
+
+    public int componentCount() {
+        return memberOffsets.length - 1;
+    }
+
+    public long intervalCount() {
+        return intervalCount;
+    }
+
+    /**
+     * 从 u 出发能否到达 v（u == v 时为 true）
+     */
+    public boolean reachable(int u, int v) {
+        int cu = component[u];
+        int cv = component[v];
+        return cu == cv || contains(forward.intervals()[cu], forward.number()[cv]);
+    }
+
+    /**
+     * u 可到达的节点数（不含 u 自身）
+     */
+    public long descendantCount(int u) {
+        return count(forward, component[u]) - 1;
+    }
+
+    /**
+     * 可到达 u 的节点数（不含 u 自身）
+     */
+    public long ancestorCount(int u) {
+        return count(backward, component[u]) - 1;
+    }
+
+    /**
+     * u 可到达的节点（不含 u 自身），最多 limit 个，按后序编号排列
+     */
+    public int[] descendants(int u, int limit) {
+        return collect(forward, u, limit);
+    }
+
+    /**
+     * 可到达 u 的节点（不含 u 自身），最多 limit 个
+     */
+    public int[] ancestors(int u, int limit) {
+        return collect(backward, u, limit);
+    }
+
+    // ==================== 增量维护 ====================
+
+    /**
+     * 加入关系 u -> v 后的索引
+     * 不改变可达性时返回自身；新增的可达对恰为 祖先(u) × 后代(v)，只合并这些分量的区间表（写时复制）；
+     * 形成新环（分量合并）或超出 maxIntervals 时返回 null，由调用方全量重建
+     */
+    public Reachability withEdge(int u, int v, long maxIntervals) {
+        int cu = component[u];
+        int cv = component[v];
+        if (cu == cv || contains(forward.intervals()[cu], forward.number()[cv])) {
+            return this;
+        }
+        if (contains(forward.intervals()[cv], forward.number()[cu])) {
+            return null;
+        }
+        long[] total = {intervalCount};
+        int[][] fwd = spread(forward.intervals(), backward, cu, forward.intervals()[cv], total);
+        int[][] bwd = spread(backward.intervals(), forward, cv, backward.intervals()[cu], total);
+        if (total[0] > maxIntervals) {
+            return null;
+        }
+        return new Reachability(component, memberOffsets, members,
+                new Label(forward.number(), forward.compAt(), forward.sizePrefix(), fwd),
+                new Label(backward.number(), backward.compAt(), backward.sizePrefix(), bwd));
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 把 added 并入 other 方向上从 origin 可达的每个分量（含 origin）的区间表
+     */
+    private static int[][] spread(int[][] intervals, Label other, int origin, int[] added, long[] total) {
+        int[][] result = intervals.clone();
+        int[] reach = other.intervals()[origin];
+        for (int i = 0; i < reach.length; i += 2) {
+            for (int num = reach[i]; num <= reach[i + 1]; num++) {
+                int comp = other.compAt()[num];
+                int[] merged = union(result[comp], added);
+                total[0] += (merged.length - result[comp].length) / 2;
+                result[comp] = merged;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 迭代 DFS 后序编号，再按编号顺序（后继先于前驱）合并后继的区间表
+     */
+    private static Label label(int c, int[] offsets, int[] targets, int[] memberOffsets, long budget) {
+        int[] number = new int[c];
+        int[] low = new int[c];
+        int[] compAt = new int[c];
+        Arrays.fill(number, -1);
+        int[] stack = new int[c];
+        int[] edgeCursor = new int[c];
+        boolean[] entered = new boolean[c];
+        int counter = 0;
+
+        // 先从无前驱的分量出发，使生成树尽量覆盖层级结构
+        int[] inDegree = new int[c];
+        for (int k = 0; k < offsets[c]; k++) {
+            inDegree[targets[k]]++;
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < c; root++) {
+                if (entered[root] || (pass == 0 && inDegree[root] > 0)) {
+                    continue;
+                }
+                int depth = 0;
+                stack[0] = root;
+                edgeCursor[0] = offsets[root];
+                entered[root] = true;
+                low[root] = counter;
+                while (depth >= 0) {
+                    int x = stack[depth];
+                    if (edgeCursor[depth] < offsets[x + 1]) {
+                        int y = targets[edgeCursor[depth]++];
+                        if (!entered[y]) {
+                            entered[y] = true;
+                            low[y] = counter;
+                            depth++;
+                            stack[depth] = y;
+                            edgeCursor[depth] = offsets[y];
+                        }
+                        continue;
+                    }
+                    number[x] = counter;
+                    compAt[counter] = x;
+                    counter++;
+                    depth--;
+                }
+            }
+        }
+
+        int[][] intervals = new int[c][];
+        long[] buffer = new long[16];
+        long total = 0;
+        for (int num = 0; num < c; num++) {
+            int x = compAt[num];
+            int size = 0;
+            buffer[size++] = pack(low[x], num);
+            for (int k = offsets[x]; k < offsets[x + 1]; k++) {
+                int[] child = intervals[targets[k]];
+                // 生成树子树区间已覆盖的后继无需展开
+                if (child.length == 2 && child[0] >= low[x] && child[1] <= num) {
+                    continue;
+                }
+                if (size + child.length / 2 > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + child.length / 2));
+                }
+                for (int i = 0; i < child.length; i += 2) {
+                    buffer[size++] = pack(child[i], child[i + 1]);
+                }
+            }
+            intervals[x] = merge(buffer, size);
+            total += intervals[x].length / 2;
+            if (total > budget) {
+                return null;
+            }
+        }
+
+        long[] sizePrefix = new long[c + 1];
+        for (int num = 0; num < c; num++) {
+            int x = compAt[num];
+            sizePrefix[num + 1] = sizePrefix[num] + memberOffsets[x + 1] - memberOffsets[x];
+        }
+        return new Label(number, compAt, sizePrefix, intervals);
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * 排序并合并重叠或相邻的区间
+     */
+    private static int[] merge(long[] buffer, int size) {
+        Arrays.sort(buffer, 0, size);
+        int[] result = new int[size * 2];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            int start = (int) (buffer[i] >>> 32);
+            int end = (int) buffer[i];
+            if (length > 0 && start <= result[length - 1] + 1) {
+                result[length - 1] = Math.max(result[length - 1], end);
+            } else {
+                result[length++] = start;
+                result[length++] = end;
+            }
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 两个有序区间表的并集
+     */
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            int start;
+            int end;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                start = a[i];
+                end = a[i + 1];
+                i += 2;
+            } else {
+                start = b[j];
+                end = b[j + 1];
+                j += 2;
+            }
+            if (length > 0 && start <= result[length - 1] + 1) {
+                result[length - 1] = Math.max(result[length - 1], end);
+            } else {
+                result[length++] = start;
+                result[length++] = end;
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    private static boolean contains(int[] intervals, int x) {
+        int lo = 0;
+        int hi = intervals.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (intervals[2 * mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi >= 0 && x <= intervals[2 * hi + 1];
+    }
+
+    private long count(Label label, int comp) {
+        int[] intervals = label.intervals()[comp];
+        long total = 0;
+        for (int i = 0; i < intervals.length; i += 2) {
+            total += label.sizePrefix()[intervals[i + 1] + 1] - label.sizePrefix()[intervals[i]];
+        }
+        return total;
+    }
+
+    private int[] collect(Label label, int u, int limit) {
+        int[] intervals = label.intervals()[component[u]];
+        int[] result = new int[(int) Math.min(limit, count(label, component[u]) - 1)];
+        int size = 0;
+        for (int i = 0; i < intervals.length && size < result.length; i += 2) {
+            for (int num = intervals[i]; num <= intervals[i + 1] && size < result.length; num++) {
+                int comp = label.compAt()[num];
+                for (int k = memberOffsets[comp]; k < memberOffsets[comp + 1] && size < result.length; k++) {
+                    if (members[k] != u) {
+                        result[size++] = members[k];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package com.sdu.kgplatform.analytics;
+
+/**
+ * 内存图算法超出时间预算时抛出
+ */
+public class SearchTimeoutException extends RuntimeException {
+
+    public SearchTimeoutException(String message) {
+        super(message);
+    }
+}
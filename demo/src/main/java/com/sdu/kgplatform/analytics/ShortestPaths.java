@@ -0,0 +1,419 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 基于 CSR 投影的无权最短路径算法
+ * - shortest：双向 BFS，每轮扩展较小的一侧
+ * - allShortest：枚举全部等长最短路径（按上限截断）
+ * - kShortest：Yen 算法求前 k 条最短简单路径
+ * 所有搜索都受最大深度与截止时间约束，超时抛出 {@link SearchTimeoutException}
+ */
+public final class ShortestPaths {
+
+    /**
+     * 搜索参数
+     *
+     * @param directed         是否按关系方向搜索，false 时视为无向图
+     * @param relationTypeMask 关系类型掩码，null 表示不过滤
+     * @param maxDepth         路径最大边数
+     * @param deadlineNanos    截止时间（System.nanoTime 基准）
+     */
+    public record Options(boolean directed, boolean[] relationTypeMask, int maxDepth, long deadlineNanos) {
+
+        Options withMaxDepth(int depth) {
+            return new Options(directed, relationTypeMask, depth, deadlineNanos);
+        }
+    }
+
+    /**
+     * 路径：nodes 比 edges 多一个元素，edges[i] 连接 nodes[i] 与 nodes[i+1]
+     */
+    public record Path(int[] nodes, int[] edges) {
+
+        public int length() {
+            return edges.length;
+        }
+    }
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private ShortestPaths() {
+    }
+
+    // ==================== 单条最短路径 ====================
+
+    /**
+     * 双向 BFS 求一条最短路径，不可达或超过最大深度返回 null
+     */
+    public static Path shortest(CsrGraph graph, int source, int target, Options options) {
+        return bidirectional(graph, source, target, options, null, null, new Budget(options.deadlineNanos()));
+    }
+
+    // ==================== 全部最短路径 ====================
+
+    /**
+     * 枚举全部最短路径，最多返回 limit 条
+     */
+    public static List<Path> allShortest(CsrGraph graph, int source, int target, Options options, int limit) {
+        Budget budget = new Budget(options.deadlineNanos());
+        Path first = bidirectional(graph, source, target, options, null, null, budget);
+        List<Path> result = new ArrayList<>();
+        if (first == null) {
+            return result;
+        }
+        int length = first.length();
+        if (length == 0) {
+            result.add(first);
+            return result;
+        }
+
+        // 反向 BFS 得到各节点到终点的距离，只沿距离严格递减的边枚举
+        int[] distToTarget = bfsDistances(graph, target, false, length, options, budget);
+        int[] nodes = new int[length + 1];
+        int[] edges = new int[length];
+        nodes[0] = source;
+        enumerate(graph, options, distToTarget, length, 0, nodes, edges, result, limit, budget);
+        return result;
+    }
+
+    private static void enumerate(CsrGraph graph, Options options, int[] distToTarget, int length, int depth,
+                                  int[] nodes, int[] edges, List<Path> result, int limit, Budget budget) {
+        if (result.size() >= limit) {
+            return;
+        }
+        int v = nodes[depth];
+        if (depth == length) {
+            result.add(new Path(nodes.clone(), edges.clone()));
+            return;
+        }
+        int remaining = length - depth - 1;
+        for (int k = graph.outStart(v); k < graph.outEnd(v) && result.size() < limit; k++) {
+            int e = graph.outEdge(k);
+            int w = graph.outTarget(k);
+            if (distToTarget[w] == remaining && graph.edgeAllowed(e, options.relationTypeMask())) {
+                budget.tick();
+                nodes[depth + 1] = w;
+                edges[depth] = e;
+                enumerate(graph, options, distToTarget, length, depth + 1, nodes, edges, result, limit, budget);
+            }
+        }
+        // 无向模式下入边同样可走
+        if (!options.directed()) {
+            for (int k = graph.inStart(v); k < graph.inEnd(v) && result.size() < limit; k++) {
+                int e = graph.inEdge(k);
+                int w = graph.inSource(k);
+                if (distToTarget[w] == remaining && graph.edgeAllowed(e, options.relationTypeMask())) {
+                    budget.tick();
+                    nodes[depth + 1] = w;
+                    edges[depth] = e;
+                    enumerate(graph, options, distToTarget, length, depth + 1, nodes, edges, result, limit, budget);
+                }
+            }
+        }
+    }
+
+    // ==================== k 条最短路径 ====================
+
+    /**
+     * Yen 算法求前 k 条最短简单路径（按长度升序）
+     */
+    public static List<Path> kShortest(CsrGraph graph, int source, int target, Options options, int k) {
+        Budget budget = new Budget(options.deadlineNanos());
+        List<Path> accepted = new ArrayList<>();
+        Path first = bidirectional(graph, source, target, options, null, null, budget);
+        if (first == null) {
+            return accepted;
+        }
+        accepted.add(first);
+        if (first.length() == 0) {
+            return accepted;
+        }
+
+        PriorityQueue<Path> candidates = new PriorityQueue<>((a, b) -> Integer.compare(a.length(), b.length()));
+        Set<String> seen = new HashSet<>();
+        seen.add(key(first));
+        boolean[] bannedNodes = new boolean[graph.nodeCount()];
+        boolean[] bannedEdges = new boolean[graph.edgeCount()];
+
+        while (accepted.size() < k) {
+            Path previous = accepted.get(accepted.size() - 1);
+            for (int i = 0; i < previous.length(); i++) {
+                int spur = previous.nodes()[i];
+
+                // 屏蔽与当前根路径前缀相同的已选路径的下一条边
+                List<Integer> edgesToBan = new ArrayList<>();
+                for (Path path : accepted) {
+                    if (path.length() > i && samePrefix(path, previous, i)) {
+                        edgesToBan.add(path.edges()[i]);
+                    }
+                }
+                for (int e : edgesToBan) {
+                    bannedEdges[e] = true;
+                }
+                // 根路径上除 spur 外的节点不可再经过，保证路径简单
+                for (int j = 0; j < i; j++) {
+                    bannedNodes[previous.nodes()[j]] = true;
+                }
+
+                Path spurPath = bidirectional(graph, spur, target, options.withMaxDepth(options.maxDepth() - i),
+                        bannedNodes, bannedEdges, budget);
+
+                for (int e : edgesToBan) {
+                    bannedEdges[e] = false;
+                }
+                for (int j = 0; j < i; j++) {
+                    bannedNodes[previous.nodes()[j]] = false;
+                }
+
+                if (spurPath != null) {
+                    Path candidate = concat(previous, i, spurPath);
+                    if (seen.add(key(candidate))) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            accepted.add(candidates.poll());
+        }
+        return accepted;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 双向 BFS；bannedNodes / bannedEdges 为 null 表示无屏蔽
+     */
+    private static Path bidirectional(CsrGraph graph, int source, int target, Options options,
+                                      boolean[] bannedNodes, boolean[] bannedEdges, Budget budget) {
+        if (source == target) {
+            return new Path(new int[]{source}, new int[0]);
+        }
+        int n = graph.nodeCount();
+        int[] distF = new int[n];
+        int[] distB = new int[n];
+        Arrays.fill(distF, -1);
+        Arrays.fill(distB, -1);
+        int[] viaF = new int[n];
+        int[] viaB = new int[n];
+        distF[source] = 0;
+        distB[target] = 0;
+
+        int[] frontF = {source};
+        int sizeF = 1;
+        int[] frontB = {target};
+        int sizeB = 1;
+        int depthF = 0;
+        int depthB = 0;
+
+        while (sizeF > 0 && sizeB > 0 && depthF + depthB < options.maxDepth()) {
+            boolean forward = sizeF <= sizeB;
+            int[] front = forward ? frontF : frontB;
+            int size = forward ? sizeF : sizeB;
+            int[] dist = forward ? distF : distB;
+            int[] other = forward ? distB : distF;
+            int[] via = forward ? viaF : viaB;
+            int depth = forward ? depthF : depthB;
+            boolean useOut = forward || !options.directed();
+            boolean useIn = !forward || !options.directed();
+
+            int[] next = new int[Math.max(16, size * 2)];
+            int nextSize = 0;
+            int meet = -1;
+            int meetLength = Integer.MAX_VALUE;
+
+            for (int i = 0; i < size; i++) {
+                int v = front[i];
+                if (useOut) {
+                    for (int k = graph.outStart(v); k < graph.outEnd(v); k++) {
+                        int w = graph.outTarget(k);
+                        int e = graph.outEdge(k);
+                        if (!visitable(graph, w, e, dist, options, bannedNodes, bannedEdges)) {
+                            continue;
+                        }
+                        budget.tick();
+                        dist[w] = depth + 1;
+                        via[w] = e;
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, next.length * 2);
+                        }
+                        next[nextSize++] = w;
+                        if (other[w] >= 0 && depth + 1 + other[w] < meetLength) {
+                            meet = w;
+                            meetLength = depth + 1 + other[w];
+                        }
+                    }
+                }
+                if (useIn) {
+                    for (int k = graph.inStart(v); k < graph.inEnd(v); k++) {
+                        int w = graph.inSource(k);
+                        int e = graph.inEdge(k);
+                        if (!visitable(graph, w, e, dist, options, bannedNodes, bannedEdges)) {
+                            continue;
+                        }
+                        budget.tick();
+                        dist[w] = depth + 1;
+                        via[w] = e;
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, next.length * 2);
+                        }
+                        next[nextSize++] = w;
+                        if (other[w] >= 0 && depth + 1 + other[w] < meetLength) {
+                            meet = w;
+                            meetLength = depth + 1 + other[w];
+                        }
+                    }
+                }
+            }
+
+            // 完成整层扩展后再取最短的相遇点
+            if (meet >= 0) {
+                return buildPath(graph, source, target, meet, distF, distB, viaF, viaB);
+            }
+            if (forward) {
+                frontF = next;
+                sizeF = nextSize;
+                depthF++;
+            } else {
+                frontB = next;
+                sizeB = nextSize;
+                depthB++;
+            }
+        }
+        return null;
+    }
+
+    private static boolean visitable(CsrGraph graph, int w, int e, int[] dist, Options options,
+                                     boolean[] bannedNodes, boolean[] bannedEdges) {
+        return dist[w] < 0
+                && graph.edgeAllowed(e, options.relationTypeMask())
+                && (bannedNodes == null || !bannedNodes[w])
+                && (bannedEdges == null || !bannedEdges[e]);
+    }
+
+    private static Path buildPath(CsrGraph graph, int source, int target, int meet,
+                                  int[] distF, int[] distB, int[] viaF, int[] viaB) {
+        int length = distF[meet] + distB[meet];
+        int[] nodes = new int[length + 1];
+        int[] edges = new int[length];
+
+        // 前半段：从相遇点沿 viaF 回溯到起点
+        int pos = distF[meet];
+        int x = meet;
+        nodes[pos] = x;
+        while (x != source) {
+            int e = viaF[x];
+            x = otherEnd(graph, e, x);
+            edges[--pos] = e;
+            nodes[pos] = x;
+        }
+        // 后半段：从相遇点沿 viaB 走到终点
+        pos = distF[meet];
+        x = meet;
+        while (x != target) {
+            int e = viaB[x];
+            x = otherEnd(graph, e, x);
+            edges[pos++] = e;
+            nodes[pos] = x;
+        }
+        return new Path(nodes, edges);
+    }
+
+    /**
+     * 从 start 出发的有界 BFS 距离；forward = false 时沿反向边（无向模式下两个方向都走）
+     */
+    private static int[] bfsDistances(CsrGraph graph, int start, boolean forward, int maxDepth,
+                                      Options options, Budget budget) {
+        int n = graph.nodeCount();
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        dist[start] = 0;
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        boolean useOut = forward || !options.directed();
+        boolean useIn = !forward || !options.directed();
+        while (head < tail) {
+            int v = queue[head++];
+            if (dist[v] >= maxDepth) {
+                continue;
+            }
+            if (useOut) {
+                for (int k = graph.outStart(v); k < graph.outEnd(v); k++) {
+                    int w = graph.outTarget(k);
+                    if (dist[w] < 0 && graph.edgeAllowed(graph.outEdge(k), options.relationTypeMask())) {
+                        budget.tick();
+                        dist[w] = dist[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (useIn) {
+                for (int k = graph.inStart(v); k < graph.inEnd(v); k++) {
+                    int w = graph.inSource(k);
+                    if (dist[w] < 0 && graph.edgeAllowed(graph.inEdge(k), options.relationTypeMask())) {
+                        budget.tick();
+                        dist[w] = dist[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static int otherEnd(CsrGraph graph, int edge, int node) {
+        int source = graph.edgeSource(edge);
+        return source == node ? graph.edgeTarget(edge) : source;
+    }
+
+    private static boolean samePrefix(Path path, Path reference, int length) {
+        for (int j = 0; j < length; j++) {
+            if (path.edges()[j] != reference.edges()[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Path concat(Path root, int spurIndex, Path spurPath) {
+        int length = spurIndex + spurPath.length();
+        int[] nodes = new int[length + 1];
+        int[] edges = new int[length];
+        System.arraycopy(root.nodes(), 0, nodes, 0, spurIndex);
+        System.arraycopy(root.edges(), 0, edges, 0, spurIndex);
+        System.arraycopy(spurPath.nodes(), 0, nodes, spurIndex, spurPath.nodes().length);
+        System.arraycopy(spurPath.edges(), 0, edges, spurIndex, spurPath.length());
+        return new Path(nodes, edges);
+    }
+
+    private static String key(Path path) {
+        return Arrays.toString(path.edges());
+    }
+
+    /**
+     * 时间预算：每隔固定步数检查一次截止时间
+     */
+    private static final class Budget {
+        private final long deadlineNanos;
+        private int steps;
+
+        Budget(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void tick() {
+            if (++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0) {
+                throw new SearchTimeoutException("路径搜索超时");
+            }
+        }
+    }
+}
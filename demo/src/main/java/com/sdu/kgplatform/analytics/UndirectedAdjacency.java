@@ -0,0 +1,73 @@
+package com.sdu.kgplatform.analytics;
+
+import java.util.Arrays;
+
+/**
+ * CSR 投影的无向简单图视图：每个节点的邻居去重、去自环并按下标升序排列，
+ * 供邻域相似度、三角形计数等需要有序邻接数组的算法使用
+ */
+public final class UndirectedAdjacency {
+
+    private final int[] offsets;
+    private final int[] neighbors;
+
+    private UndirectedAdjacency(int[] offsets, int[] neighbors) {
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    public static UndirectedAdjacency of(CsrGraph g) {
+        int n = g.nodeCount();
+        int[] offsets = new int[n + 1];
+        // 先写入未去重的邻居，再逐节点排序去重并压缩
+        int[] raw = new int[2 * g.edgeCount()];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            int from = size;
+            for (int k = g.outStart(v), end = g.outEnd(v); k < end; k++) {
+                raw[size++] = g.outTarget(k);
+            }
+            for (int k = g.inStart(v), end = g.inEnd(v); k < end; k++) {
+                raw[size++] = g.inSource(k);
+            }
+            Arrays.sort(raw, from, size);
+            int write = from;
+            for (int i = from; i < size; i++) {
+                int w = raw[i];
+                if (w != v && (write == from || raw[write - 1] != w)) {
+                    raw[write++] = w;
+                }
+            }
+            size = write;
+            offsets[v + 1] = size;
+        }
+        return new UndirectedAdjacency(offsets, Arrays.copyOf(raw, size));
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    public int start(int v) {
+        return offsets[v];
+    }
+
+    public int end(int v) {
+        return offsets[v + 1];
+    }
+
+    public int neighbor(int k) {
+        return neighbors[k];
+    }
+
+    /**
+     * v 与 w 是否相邻（二分查找）
+     */
+    public boolean adjacent(int v, int w) {
+        return Arrays.binarySearch(neighbors, offsets[v], offsets[v + 1], w) >= 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.sdu.kgplatform.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 事务工具类
+ * 把版本递增、变更日志、类型目录等派生状态的更新推迟到写事务提交之后，
+ * 保证读者看到新版本时数据已经可见，事务回滚时派生状态不受影响
+ */
+public final class TransactionUtils {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionUtils.class);
+
+    /**
+     * 提交后回调使用的 NOT_SUPPORTED 模板；未登记时（如单元测试）直接执行回调
+     */
+    private static volatile TransactionTemplate callbackTemplate;
+
+    private TransactionUtils() {
+        // 防止实例化
+    }
+
+    /**
+     * 登记提交后回调访问 MySQL 时使用的事务管理器，由 JpaConfig 创建 JPA 事务管理器时调用
+     */
+    public static void setCallbackTransactionManager(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        callbackTemplate = template;
+    }
+
+    /**
+     * 当前线程有活动事务时在提交后执行 action，回滚则丢弃；没有事务时立即执行
+     * 提交后原事务的资源仍绑定在线程上，默认传播会加入这个已提交的事务，
+     * 因此 action 执行期间挂起原 JPA 事务，其中的 JPA 读写（含同步事件监听器）各自开启新事务并单独提交，
+     * 一个监听器失败回滚不会连带其他监听器的写入。
+     * 提交后数据已落库，action 的异常只记录日志，不再抛给调用方，也不影响后续回调
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    TransactionTemplate template = callbackTemplate;
+                    if (template != null) {
+                        template.executeWithoutResult(status -> action.run());
+                    } else {
+                        action.run();
+                    }
+                } catch (RuntimeException e) {
+                    log.error("事务提交后回调执行失败: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
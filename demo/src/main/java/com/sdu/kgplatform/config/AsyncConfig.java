@@ -0,0 +1,84 @@
+package com.sdu.kgplatform.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 异步执行器配置
+ * 为图谱读路径上的并行子任务（如 MySQL 元数据与 Neo4j 查询并发执行）提供有界线程池，
+ * 并为图谱变更后的延迟维护任务（指标重算等）和内存图分析任务提供独立的线程。
+ * 这些都是按名称注入的专用执行器；@Async 与 MVC 异步请求使用 Boot 的 applicationTaskExecutor，
+ * 见 application.yaml 中的 spring.task.execution.mode
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * 图谱查询并行执行器
+     */
+    @Bean(name = "graphQueryExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor graphQueryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("graph-query-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 图谱长任务执行器（合并等在 Neo4j 内分批执行的任务），队列满时拒绝新任务
+     */
+    @Bean(name = "graphJobExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor graphJobExecutor(@Value("${app.graph.jobs.concurrency:2}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("graph-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 查询控制台执行器，与交互式接口隔离；不排队，并发已满时直接拒绝
+     */
+    @Bean(name = "graphConsoleExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor graphConsoleExecutor(@Value("${app.graph.console.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("graph-console-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 图谱维护任务调度器
+     */
+    @Bean(name = "graphMaintenanceScheduler", destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler graphMaintenanceScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("graph-maintenance-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * 图谱分析计算池（中心性等 CPU 密集任务，多个图谱并行计算）
+     * parallelism 默认取 CPU 核数
+     */
+    @Bean(name = "graphAnalyticsPool", destroyMethod = "shutdown")
+    public ForkJoinPool graphAnalyticsPool(@Value("${app.analytics.parallelism:0}") int parallelism) {
+        int size = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(size);
+    }
+}
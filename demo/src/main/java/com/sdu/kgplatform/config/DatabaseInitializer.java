@@ -34,6 +34,10 @@ public class DatabaseInitializer implements CommandLineRunner {
             createIndex(session, "entity_graphid_index", "Entity", "graphId");
             createIndex(session, "entity_name_index", "Entity", "name");
             createIndex(session, "entity_type_index", "Entity", "type");
+            // 图谱内按名称有序扫描（图谱差异的流式归并）
+            createIndex(session, "entity_graphid_name_index", "Entity", "graphId", "name");
+            // 图谱合并时按匹配键查找目标节点（临时属性，合并完成后移除）
+            createIndex(session, "entity_graphid_mergekey_index", "Entity", "graphId", "mergeKey");
 
             // 3. 创建关系索引 (Neo4j 4.3+)
             // 注意：关系索引语法略有不同，且旧版本可能不支持。这里使用 TRY-CATCH 包裹或检查版本
@@ -62,13 +66,13 @@ public class DatabaseInitializer implements CommandLineRunner {
         }
     }
 
-    private void createIndex(Session session, String indexName, String label, String property) {
+    private void createIndex(Session session, String indexName, String label, String... properties) {
         try {
             String query = String.format(
                     "CREATE INDEX %s IF NOT EXISTS FOR (n:%s) ON (n.%s)",
-                    indexName, label, property);
+                    indexName, label, String.join(", n.", properties));
             session.run(query);
-            log.info("已验证索引: {} (Label: {}, Property: {})", indexName, label, property);
+            log.info("已验证索引: {} (Label: {}, Property: {})", indexName, label, String.join(", ", properties));
         } catch (Exception e) {
             log.warn("创建索引 {} 失败: {}", indexName, e.getMessage());
         }
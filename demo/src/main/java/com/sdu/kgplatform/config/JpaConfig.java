@@ -1,5 +1,6 @@
 package com.sdu.kgplatform.config;
 
+import com.sdu.kgplatform.common.TransactionUtils;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,7 +34,10 @@ public class JpaConfig {
     @Bean
     @Primary
     public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
-        return new JpaTransactionManager(entityManagerFactory);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        // 事务提交后的回调在独立的新事务中访问 MySQL
+        TransactionUtils.setCallbackTransactionManager(transactionManager);
+        return transactionManager;
     }
 }
 
@@ -93,6 +93,9 @@ public class SecurityConfig {
                                                                 "/api/graph/popular", "/api/graph/recommend",
                                                                 "/api/graph/share/**", "/api/graph/user/**",
                                                                 "/api/graph/*/visualization",
+                                                                "/api/graph/*/changes",
+                                                                "/api/graph/*/related",
+                                                                "/api/graph/*/analytics/**",
                                                                 "/api/graph/*/can-edit",
                                                                 "/api/graph/*/favorite/status")
                                                 .permitAll()
@@ -103,9 +106,14 @@ public class SecurityConfig {
                                                                 "/api/graph/*/nodes", "/api/graph/*/nodes/**",
                                                                 "/api/graph/*/relations", "/api/graph/*/relations/**",
                                                                 "/api/graph/*/node-types",
+                                                                "/api/graph/*/path",
+                                                                "/api/graph/*/paths",
                                                                 "/api/graph/*/relation-types",
-                                                                "/api/graph/*/relation-stats")
+                                                                "/api/graph/*/relation-stats",
+                                                                "/api/graph/*/schema")
                                                 .permitAll()
+                                                // 模式查询（只读，请求体为模式描述）
+                                                .requestMatchers(HttpMethod.POST, "/api/graph/*/pattern").permitAll()
                                                 // 帖子浏览（只读）
                                                 .requestMatchers(HttpMethod.GET,
                                                                 "/api/posts", "/api/posts/stats",
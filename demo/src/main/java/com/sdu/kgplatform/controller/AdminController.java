@@ -7,6 +7,10 @@ import com.sdu.kgplatform.entity.User;
 import com.sdu.kgplatform.repository.PostRepository;
 import com.sdu.kgplatform.repository.UserRepository;
 import com.sdu.kgplatform.service.AdminService;
+import com.sdu.kgplatform.service.GraphDegreeService;
+import com.sdu.kgplatform.service.GraphMetricsService;
+import com.sdu.kgplatform.service.GraphProjectionService;
+import com.sdu.kgplatform.service.GraphVisualizationCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -31,13 +35,25 @@ public class AdminController {
     private final AdminService adminService;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final GraphVisualizationCache visualizationCache;
+    private final GraphProjectionService projectionService;
+    private final GraphDegreeService degreeService;
+    private final GraphMetricsService metricsService;
 
     public AdminController(AdminService adminService,
                            PostRepository postRepository,
-                           UserRepository userRepository) {
+                           UserRepository userRepository,
+                           GraphVisualizationCache visualizationCache,
+                           GraphProjectionService projectionService,
+                           GraphDegreeService degreeService,
+                           GraphMetricsService metricsService) {
         this.adminService = adminService;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.visualizationCache = visualizationCache;
+        this.projectionService = projectionService;
+        this.degreeService = degreeService;
+        this.metricsService = metricsService;
     }
 
     /**
@@ -207,4 +223,62 @@ public class AdminController {
         adminService.deleteUser(userId);
         return ResponseEntity.ok(Map.of("success", true, "message", "用户已删除"));
     }
+
+    /**
+     * 可视化缓存统计（命中率、占用字节、淘汰次数）
+     */
+    @GetMapping("/cache/visualization")
+    public ResponseEntity<?> getVisualizationCacheStats() {
+        return ResponseEntity.ok(visualizationCache.stats());
+    }
+
+    /**
+     * 图谱 CSR 投影缓存统计（占用字节、加载与淘汰次数）
+     */
+    @GetMapping("/cache/projection")
+    public ResponseEntity<?> getProjectionCacheStats() {
+        return ResponseEntity.ok(projectionService.stats());
+    }
+
+    /**
+     * 回填所有图谱的节点度数（异步执行）
+     */
+    @PostMapping("/graphs/degrees/backfill")
+    public ResponseEntity<?> backfillDegrees() {
+        if (degreeService.isBackfillRunning()) {
+            return ResponseEntity.ok(Map.of("success", false, "message", "度数回填任务正在执行中"));
+        }
+        degreeService.backfillAll();
+        return ResponseEntity.ok(Map.of("success", true, "message", "度数回填任务已启动"));
+    }
+
+    /**
+     * 重算单个图谱的节点度数
+     */
+    @PostMapping("/graphs/{graphId}/degrees/recompute")
+    public ResponseEntity<?> recomputeDegrees(@PathVariable Integer graphId) {
+        degreeService.recomputeDegrees(graphId);
+        return ResponseEntity.ok(Map.of("success", true, "message", "节点度数已重算"));
+    }
+
+    /**
+     * 重算所有图谱的密度、丰富度与类型分布（异步执行）
+     */
+    @PostMapping("/graphs/metrics/recompute")
+    public ResponseEntity<?> recomputeAllMetrics() {
+        if (metricsService.isRecomputeAllRunning()) {
+            return ResponseEntity.ok(Map.of("success", false, "message", "图谱指标重算任务正在执行中"));
+        }
+        metricsService.recomputeAll();
+        return ResponseEntity.ok(Map.of("success", true, "message", "图谱指标重算任务已启动"));
+    }
+
+    /**
+     * 立即重算单个图谱的指标
+     */
+    @PostMapping("/graphs/{graphId}/metrics/recompute")
+    public ResponseEntity<?> recomputeMetrics(@PathVariable Integer graphId) {
+        metricsService.recompute(graphId);
+        return ResponseEntity.ok(Map.of("success", true, "message", "图谱指标已重算"));
+    }
 }
@@ -231,7 +231,7 @@ public class DownloadController {
                 int[] pos = nodePositions.get(node.getNodeId());
                 if (pos != null) {
                     // 节点颜色
-                    Color nodeColor = getNodeColor(node.getType());
+                    Color nodeColor = getNodeColor(node);
                     g2d.setColor(nodeColor);
                     g2d.fillOval(pos[0] - nodeRadius, pos[1] - nodeRadius, nodeRadius * 2, nodeRadius * 2);
                     
@@ -267,7 +267,27 @@ public class DownloadController {
     }
 
     /**
-     * 获取节点颜色
+     * 社区配色，社区编号按规模降序，前几个大社区颜色区分度最高
+     */
+    private static final Color[] COMMUNITY_COLORS = {
+            new Color(59, 130, 246), new Color(16, 185, 129), new Color(245, 158, 11),
+            new Color(239, 68, 68), new Color(139, 92, 246), new Color(236, 72, 153),
+            new Color(6, 182, 212), new Color(132, 204, 22), new Color(249, 115, 22),
+            new Color(20, 184, 166)
+    };
+
+    /**
+     * 获取节点颜色：已完成社区发现的节点按社区着色，否则按类型着色
+     */
+    private Color getNodeColor(NodeDto node) {
+        if (node.getCommunityId() != null) {
+            return COMMUNITY_COLORS[Math.floorMod(node.getCommunityId(), COMMUNITY_COLORS.length)];
+        }
+        return getNodeColor(node.getType());
+    }
+
+    /**
+     * 按类型获取节点颜色
      */
     private Color getNodeColor(String type) {
         if (type == null) return new Color(107, 114, 128);
@@ -0,0 +1,390 @@
+package com.sdu.kgplatform.controller;
+
+import com.sdu.kgplatform.analytics.LinkPrediction;
+import com.sdu.kgplatform.common.SecurityUtils;
+import com.sdu.kgplatform.dto.EntityMergeDto;
+import com.sdu.kgplatform.entity.Role;
+import com.sdu.kgplatform.repository.UserRepository;
+import com.sdu.kgplatform.service.GraphCentralityService;
+import com.sdu.kgplatform.service.GraphClusteringService;
+import com.sdu.kgplatform.service.GraphCommunityService;
+import com.sdu.kgplatform.service.GraphEmbeddingService;
+import com.sdu.kgplatform.service.GraphEntityResolutionService;
+import com.sdu.kgplatform.service.GraphHealthService;
+import com.sdu.kgplatform.service.GraphLinkSuggestionService;
+import com.sdu.kgplatform.service.GraphReachabilityService;
+import com.sdu.kgplatform.service.GraphService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 图谱分析控制器 - 预计算的图结构分析结果
+ */
+@RestController
+@RequestMapping("/api/graph/{graphId}/analytics")
+public class GraphAnalyticsController {
+
+    private final GraphCentralityService centralityService;
+    private final GraphCommunityService communityService;
+    private final GraphClusteringService clusteringService;
+    private final GraphHealthService healthService;
+    private final GraphLinkSuggestionService linkSuggestionService;
+    private final GraphReachabilityService reachabilityService;
+    private final GraphEmbeddingService embeddingService;
+    private final GraphEntityResolutionService entityResolutionService;
+    private final GraphService graphService;
+    private final UserRepository userRepository;
+
+    public GraphAnalyticsController(GraphCentralityService centralityService,
+            GraphCommunityService communityService,
+            GraphClusteringService clusteringService,
+            GraphHealthService healthService,
+            GraphLinkSuggestionService linkSuggestionService,
+            GraphReachabilityService reachabilityService,
+            GraphEmbeddingService embeddingService,
+            GraphEntityResolutionService entityResolutionService,
+            GraphService graphService,
+            UserRepository userRepository) {
+        this.centralityService = centralityService;
+        this.communityService = communityService;
+        this.clusteringService = clusteringService;
+        this.healthService = healthService;
+        this.linkSuggestionService = linkSuggestionService;
+        this.reachabilityService = reachabilityService;
+        this.embeddingService = embeddingService;
+        this.entityResolutionService = entityResolutionService;
+        this.graphService = graphService;
+        this.userRepository = userRepository;
+    }
+
+    // ==================== 中心性 ====================
+
+    /**
+     * 获取中心性排行
+     * GET /api/graph/{graphId}/analytics/centrality?metric=pagerank|betweenness|degree&k=20
+     */
+    @GetMapping("/centrality")
+    public ResponseEntity<?> getCentralityTop(@PathVariable Integer graphId,
+            @RequestParam(defaultValue = "pagerank") String metric,
+            @RequestParam(defaultValue = "20") int k) {
+        try {
+            return ResponseEntity.ok(centralityService.getTop(graphId, GraphCentralityService.Metric.parse(metric), k));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即重新计算中心性（异步执行，图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/centrality/compute
+     */
+    @PostMapping("/centrality/compute")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> computeCentrality(@PathVariable Integer graphId) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            boolean submitted = centralityService.submit(graphId);
+            return ResponseEntity.accepted().body(Map.of(
+                    "success", submitted,
+                    "message", submitted ? "中心性计算任务已提交" : "中心性计算任务正在执行中"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 社区 ====================
+
+    /**
+     * 获取社区摘要（规模、核心成员、社区间关系数）
+     * GET /api/graph/{graphId}/analytics/communities?limit=20
+     */
+    @GetMapping("/communities")
+    public ResponseEntity<?> getCommunities(@PathVariable Integer graphId,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(communityService.getSummaries(graphId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即重新计算社区（异步执行，图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/communities/compute
+     */
+    @PostMapping("/communities/compute")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> computeCommunities(@PathVariable Integer graphId) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            boolean submitted = communityService.submit(graphId);
+            return ResponseEntity.accepted().body(Map.of(
+                    "success", submitted,
+                    "message", submitted ? "社区发现任务已提交" : "社区发现任务正在执行中"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 聚类系数 ====================
+
+    /**
+     * 获取三角形数与全局 / 平均局部聚类系数
+     * GET /api/graph/{graphId}/analytics/clustering
+     */
+    @GetMapping("/clustering")
+    public ResponseEntity<?> getClustering(@PathVariable Integer graphId) {
+        try {
+            return ResponseEntity.ok(clusteringService.getMetrics(graphId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即重新计算聚类系数（异步执行，图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/clustering/compute
+     */
+    @PostMapping("/clustering/compute")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> computeClustering(@PathVariable Integer graphId) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            boolean submitted = clusteringService.submit(graphId);
+            return ResponseEntity.accepted().body(Map.of(
+                    "success", submitted,
+                    "message", submitted ? "聚类系数计算任务已提交" : "聚类系数计算任务正在执行中"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 健康报告 ====================
+
+    /**
+     * 获取图谱健康报告（连通分量、孤立节点、自环、重复关系）
+     * GET /api/graph/{graphId}/analytics/health
+     */
+    @GetMapping("/health")
+    public ResponseEntity<?> getHealthReport(@PathVariable Integer graphId) {
+        try {
+            return healthService.getReport(graphId)
+                    .<ResponseEntity<?>>map(report -> ResponseEntity.ok(Map.of(
+                            "available", true,
+                            "pending", healthService.isPending(graphId),
+                            "report", report)))
+                    .orElseGet(() -> ResponseEntity.ok(Map.of(
+                            "available", false,
+                            "pending", healthService.isPending(graphId))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即重新检查（异步执行，图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/health/compute
+     */
+    @PostMapping("/health/compute")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> computeHealthReport(@PathVariable Integer graphId) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            healthService.submit(graphId);
+            return ResponseEntity.accepted().body(Map.of("success", true, "message", "健康检查任务已提交"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 关系建议 ====================
+
+    /**
+     * 建议可能缺失的关系；指定 nodeId 时只为该节点建议，否则在全图范围内建议
+     * GET /api/graph/{graphId}/analytics/link-suggestions?nodeId=&measure=adamic_adar|common_neighbors|jaccard&k=10
+     */
+    @GetMapping("/link-suggestions")
+    public ResponseEntity<?> getLinkSuggestions(@PathVariable Integer graphId,
+            @RequestParam(required = false) String nodeId,
+            @RequestParam(defaultValue = "adamic_adar") String measure,
+            @RequestParam(defaultValue = "10") int k) {
+        try {
+            LinkPrediction.Measure parsed = LinkPrediction.Measure.parse(measure);
+            if (nodeId != null && !nodeId.isBlank()) {
+                return ResponseEntity.ok(Map.of(
+                        "suggestions", linkSuggestionService.suggestForNode(graphId, nodeId, parsed, k),
+                        "complete", true));
+            }
+            return ResponseEntity.ok(linkSuggestionService.suggestForGraph(graphId, parsed, k));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 层级可达性 ====================
+
+    /**
+     * 判断 from 能否沿指定关系类型到达 to；类型前加 "~" 表示逆向使用
+     * GET /api/graph/{graphId}/analytics/reachability?from=&to=&types=~属于,包含
+     */
+    @GetMapping("/reachability")
+    public ResponseEntity<?> isReachable(@PathVariable Integer graphId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam String types) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "reachable", reachabilityService.isReachable(graphId, types, from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取节点的后代（从该节点可达的节点）
+     * GET /api/graph/{graphId}/analytics/reachability/descendants?nodeId=&types=&limit=100
+     */
+    @GetMapping("/reachability/descendants")
+    public ResponseEntity<?> getDescendants(@PathVariable Integer graphId,
+            @RequestParam String nodeId,
+            @RequestParam String types,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(reachabilityService.getDescendants(graphId, types, nodeId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取节点的祖先（可到达该节点的节点）
+     * GET /api/graph/{graphId}/analytics/reachability/ancestors?nodeId=&types=&limit=100
+     */
+    @GetMapping("/reachability/ancestors")
+    public ResponseEntity<?> getAncestors(@PathVariable Integer graphId,
+            @RequestParam String nodeId,
+            @RequestParam String types,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(reachabilityService.getAncestors(graphId, types, nodeId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 相似实体 ====================
+
+    /**
+     * 按节点嵌入向量查询相似实体；尚未训练时返回 available=false（训练由夜间任务或 embedding/compute 触发）
+     * GET /api/graph/{graphId}/analytics/similar?nodeId=&k=10
+     */
+    @GetMapping("/similar")
+    public ResponseEntity<?> getSimilarEntities(@PathVariable Integer graphId,
+            @RequestParam String nodeId,
+            @RequestParam(defaultValue = "10") int k) {
+        try {
+            return ResponseEntity.ok(embeddingService.findSimilar(graphId, nodeId, k));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即重新训练节点嵌入（异步执行，图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/embedding/compute
+     */
+    @PostMapping("/embedding/compute")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> computeEmbedding(@PathVariable Integer graphId) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            boolean submitted = embeddingService.submit(graphId);
+            return ResponseEntity.accepted().body(Map.of(
+                    "success", submitted,
+                    "message", submitted ? "嵌入训练任务已提交" : "嵌入训练任务正在执行中"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 实体查重 ====================
+
+    /**
+     * 获取疑似重复实体的合并建议；尚未计算时返回 available=false（计算由夜间任务或 duplicates/compute 触发）
+     * GET /api/graph/{graphId}/analytics/duplicates
+     */
+    @GetMapping("/duplicates")
+    public ResponseEntity<?> getDuplicates(@PathVariable Integer graphId) {
+        try {
+            return ResponseEntity.ok(entityResolutionService.getSuggestions(graphId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即重新查重（异步执行，图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/duplicates/compute
+     */
+    @PostMapping("/duplicates/compute")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> computeDuplicates(@PathVariable Integer graphId) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            boolean submitted = entityResolutionService.submit(graphId);
+            return ResponseEntity.accepted().body(Map.of(
+                    "success", submitted,
+                    "message", submitted ? "实体查重任务已提交" : "实体查重任务正在执行中"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 批量合并实体：源节点的关系改接到目标节点后删除源节点（图谱创建者或管理员可用）
+     * POST /api/graph/{graphId}/analytics/duplicates/merge
+     */
+    @PostMapping("/duplicates/merge")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> mergeDuplicates(@PathVariable Integer graphId, @RequestBody EntityMergeDto dto) {
+        if (!canManage(graphId)) {
+            return ResponseEntity.status(403).body(Map.of("error", "无权操作此图谱"));
+        }
+        try {
+            Map<String, Object> result = entityResolutionService.merge(graphId, dto.getGroups());
+            return ResponseEntity.ok(Map.of("success", true, "result", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private boolean canManage(Integer graphId) {
+        Integer userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            return false;
+        }
+        if (graphService.isGraphOwner(graphId, userId)) {
+            return true;
+        }
+        return userRepository.findById(userId)
+                .map(user -> user.getRole() == Role.ADMIN)
+                .orElse(false);
+    }
+}
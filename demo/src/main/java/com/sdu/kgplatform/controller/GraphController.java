@@ -3,6 +3,7 @@ package com.sdu.kgplatform.controller;
 import com.sdu.kgplatform.dto.GraphCreateDto;
 import com.sdu.kgplatform.dto.GraphDetailDto;
 import com.sdu.kgplatform.dto.GraphListDto;
+import com.sdu.kgplatform.dto.GraphMergeDto;
 import com.sdu.kgplatform.dto.GraphUpdateDto;
 import com.sdu.kgplatform.entity.GraphFavorite;
 import com.sdu.kgplatform.entity.GraphFavoriteId;
@@ -12,7 +13,10 @@ import com.sdu.kgplatform.entity.User;
 import com.sdu.kgplatform.repository.GraphFavoriteRepository;
 import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
 import com.sdu.kgplatform.repository.UserRepository;
+import com.sdu.kgplatform.service.GraphForkService;
+import com.sdu.kgplatform.service.GraphMergeService;
 import com.sdu.kgplatform.service.GraphService;
+import com.sdu.kgplatform.service.GraphSimilarityService;
 import com.sdu.kgplatform.common.SecurityUtils;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -37,16 +41,25 @@ public class GraphController {
     private final GraphFavoriteRepository graphFavoriteRepository;
     private final KnowledgeGraphRepository knowledgeGraphRepository;
     private final com.sdu.kgplatform.service.HistoryService historyService;
+    private final GraphSimilarityService similarityService;
+    private final GraphMergeService mergeService;
+    private final GraphForkService forkService;
 
     public GraphController(GraphService graphService, UserRepository userRepository,
             GraphFavoriteRepository graphFavoriteRepository,
             KnowledgeGraphRepository knowledgeGraphRepository,
-            com.sdu.kgplatform.service.HistoryService historyService) {
+            com.sdu.kgplatform.service.HistoryService historyService,
+            GraphSimilarityService similarityService,
+            GraphMergeService mergeService,
+            GraphForkService forkService) {
         this.graphService = graphService;
         this.userRepository = userRepository;
         this.graphFavoriteRepository = graphFavoriteRepository;
         this.knowledgeGraphRepository = knowledgeGraphRepository;
         this.historyService = historyService;
+        this.similarityService = similarityService;
+        this.mergeService = mergeService;
+        this.forkService = forkService;
     }
 
     // ==================== 创建图谱 ====================
@@ -74,6 +87,70 @@ public class GraphController {
         }
     }
 
+    /**
+     * 复刻图谱到当前用户名下（草稿），请求体可选 {"name": "..."}
+     * POST /api/graph/{id}/fork
+     */
+    @PostMapping("/{id}/fork")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> forkGraph(@PathVariable("id") Integer graphId,
+            @RequestBody(required = false) Map<String, String> request) {
+        Integer userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "未登录"));
+        }
+
+        try {
+            GraphDetailDto forked = forkService.fork(graphId, userId, request != null ? request.get("name") : null);
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "图谱复刻成功",
+                    "data", forked));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 合并多个图谱为新图谱（后台任务），返回任务状态
+     * POST /api/graph/merge
+     */
+    @PostMapping("/merge")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> mergeGraphs(@Valid @RequestBody GraphMergeDto dto) {
+        Integer userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "未登录"));
+        }
+
+        try {
+            return ResponseEntity.accepted().body(mergeService.submit(userId, dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询图谱后台任务进度
+     * GET /api/graph/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<?> getJob(@PathVariable("jobId") String jobId) {
+        Integer userId = getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "未登录"));
+        }
+
+        try {
+            return ResponseEntity.ok(mergeService.getJob(jobId, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // ==================== 查询图谱 ====================
 
     /**
@@ -104,23 +181,55 @@ public class GraphController {
     }
 
     /**
-     * 获取图谱可视化数据 (轻量级优化接口)
+     * 获取图谱可视化数据 (轻量级优化接口，按图谱版本缓存序列化结果)
      * GET /api/graph/{id}/visualization
      */
     @GetMapping("/{id}/visualization")
     public ResponseEntity<?> getGraphVisualization(@PathVariable("id") Integer graphId) {
         try {
-            Map<String, Object> data = graphService.getGraphVisualization(graphId);
+            byte[] payload = graphService.getGraphVisualizationPayload(graphId);
 
             // 增加浏览量（可选：如果可视化被视为一次浏览）
             // graphService.incrementViewCount(graphId);
 
-            return ResponseEntity.ok(data);
+            return ResponseEntity.ok()
+                    .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                    .body(payload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取图谱自某版本以来的增量变更（打开中的视图增量同步）
+     * GET /api/graph/{id}/changes?epoch=&since=
+     */
+    @GetMapping("/{id}/changes")
+    public ResponseEntity<?> getGraphChanges(@PathVariable("id") Integer graphId,
+            @RequestParam(value = "epoch", required = false) Long epoch,
+            @RequestParam(value = "since", defaultValue = "0") long since) {
+        try {
+            return ResponseEntity.ok(graphService.getGraphChanges(graphId, epoch, since));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * 获取结构相似的相关图谱（按节点名称、类型与关系类型分布的 MinHash 签名）
+     * GET /api/graph/{id}/related?size=6
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<?> getRelatedGraphs(@PathVariable("id") Integer graphId,
+            @RequestParam(value = "size", defaultValue = "6") int size) {
+        try {
+            return ResponseEntity.ok(similarityService.getRelatedGraphs(graphId,
+                    Math.min(size, GraphSimilarityService.MAX_K)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * 根据分享链接获取图谱
      * GET /api/graph/share/{shareLink}
@@ -264,6 +373,9 @@ public class GraphController {
         } else if ("hot".equals(sortBy)) {
             sort = org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
                     "hotScore"); // Assuming hotScore exists or use formula
+        } else if ("clustering".equals(sortBy)) {
+            sort = org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
+                    "averageClustering");
         }
 
         // 修正排序：GraphService 内部虽然有 createPageable 但 searchPublicGraphs 重载版直接接受 Pageable
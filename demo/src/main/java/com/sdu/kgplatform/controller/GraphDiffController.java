@@ -0,0 +1,69 @@
+package com.sdu.kgplatform.controller;
+
+import com.sdu.kgplatform.service.GraphDiffService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 图谱差异控制器 - 比较两个图谱（如同一图谱的修订版）的节点与关系差异
+ */
+@RestController
+@RequestMapping("/api/graph/diff")
+public class GraphDiffController {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphDiffController.class);
+
+    private final GraphDiffService diffService;
+
+    public GraphDiffController(GraphDiffService diffService) {
+        this.diffService = diffService;
+    }
+
+    /**
+     * 分页获取差异，按键升序；nextCursor 为 null 表示已到末尾
+     * GET /api/graph/diff?base=&target=&section=nodes|relations&cursor=&size=100
+     */
+    @GetMapping
+    public ResponseEntity<?> getDiff(@RequestParam Integer base,
+            @RequestParam Integer target,
+            @RequestParam(defaultValue = "nodes") String section,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(diffService.getDiffPage(base, target, section, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 下载完整差异报告（CSV，流式输出）；图谱不存在时由全局异常处理返回 400
+     * GET /api/graph/diff/report?base=&target=
+     */
+    @GetMapping("/report")
+    public ResponseEntity<StreamingResponseBody> downloadReport(@RequestParam Integer base,
+            @RequestParam Integer target) {
+        diffService.validateGraphs(base, target);
+        StreamingResponseBody body = out -> {
+            try {
+                diffService.writeReport(base, target, out);
+            } catch (RuntimeException e) {
+                log.error("差异报告生成失败 - base={}, target={}: {}", base, target, e.getMessage());
+                throw e;
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment", "diff_" + base + "_" + target + ".csv");
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sdu.kgplatform.controller;
+
+import com.sdu.kgplatform.common.SecurityUtils;
+import com.sdu.kgplatform.dto.CypherQueryDto;
+import com.sdu.kgplatform.exception.BusinessException;
+import com.sdu.kgplatform.service.GraphQueryConsoleService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * 图谱查询控制台控制器 - 在单个图谱内执行只读 Cypher
+ */
+@RestController
+@RequestMapping("/api/graph")
+public class GraphQueryController {
+
+    private final GraphQueryConsoleService consoleService;
+
+    public GraphQueryController(GraphQueryConsoleService consoleService) {
+        this.consoleService = consoleService;
+    }
+
+    /**
+     * 执行只读查询，结果以 NDJSON 流式返回（header / rows / summary 或 error）；
+     * 查询不合法时由全局异常处理返回 400
+     * POST /api/graph/{id}/query
+     */
+    @PostMapping("/{id}/query")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<ResponseBodyEmitter> query(@PathVariable("id") Integer graphId,
+            @RequestBody CypherQueryDto dto) {
+        Integer userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw BusinessException.unauthorized(null);
+        }
+        if (!consoleService.canQuery(graphId, userId)) {
+            throw new BusinessException(403, "无权操作此图谱");
+        }
+
+        // 返回类型需声明为 ResponseBodyEmitter，MVC 才会按流式响应处理
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(consoleService.execute(graphId, dto));
+        } catch (IllegalStateException e) {
+            throw new BusinessException(503, e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.sdu.kgplatform.controller;
 
+import com.sdu.kgplatform.analytics.SearchTimeoutException;
+import com.sdu.kgplatform.dto.EgoNetworkDto;
 import com.sdu.kgplatform.dto.NodeDto;
+import com.sdu.kgplatform.dto.PathDto;
+import com.sdu.kgplatform.dto.PatternQueryDto;
 import com.sdu.kgplatform.dto.RelationshipDto;
+import com.sdu.kgplatform.service.GraphExplorationService;
+import com.sdu.kgplatform.service.GraphMetricsService;
+import com.sdu.kgplatform.service.GraphPathService;
+import com.sdu.kgplatform.service.GraphPatternService;
 import com.sdu.kgplatform.service.GraphService;
 import com.sdu.kgplatform.service.NodeService;
 import com.sdu.kgplatform.service.RelationshipService;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -25,13 +35,25 @@ public class NodeController {
     private final NodeService nodeService;
     private final RelationshipService relationshipService;
     private final GraphService graphService;
+    private final GraphExplorationService explorationService;
+    private final GraphPathService pathService;
+    private final GraphPatternService patternService;
+    private final GraphMetricsService metricsService;
 
     public NodeController(NodeService nodeService,
             RelationshipService relationshipService,
-            GraphService graphService) {
+            GraphService graphService,
+            GraphExplorationService explorationService,
+            GraphPathService pathService,
+            GraphPatternService patternService,
+            GraphMetricsService metricsService) {
         this.nodeService = nodeService;
         this.relationshipService = relationshipService;
         this.graphService = graphService;
+        this.explorationService = explorationService;
+        this.pathService = pathService;
+        this.patternService = patternService;
+        this.metricsService = metricsService;
     }
 
     // ==================== 节点接口 ====================
@@ -115,12 +137,7 @@ public class NodeController {
             switch (direction.toLowerCase()) {
                 case "out" -> neighbors = nodeService.getOutgoingNeighbors(nodeId);
                 case "in" -> neighbors = nodeService.getIncomingNeighbors(nodeId);
-                default -> {
-                    List<NodeDto> outgoing = nodeService.getOutgoingNeighbors(nodeId);
-                    List<NodeDto> incoming = nodeService.getIncomingNeighbors(nodeId);
-                    outgoing.addAll(incoming);
-                    neighbors = outgoing.stream().distinct().toList();
-                }
+                default -> neighbors = nodeService.getNeighbors(nodeId);
             }
             return ResponseEntity.ok(neighbors);
         } catch (IllegalArgumentException e) {
@@ -128,6 +145,85 @@ public class NodeController {
         }
     }
 
+    /**
+     * 展开节点的 k 跳邻域（每跳按度数加权采样，限制扇出）
+     * GET /api/graph/{graphId}/nodes/{nodeId}/expand?depth=1&fanout=50&nodeTypes=&relationTypes=&direction=all
+     */
+    @GetMapping("/nodes/{nodeId}/expand")
+    public ResponseEntity<?> expandNode(@PathVariable Integer graphId,
+            @PathVariable String nodeId,
+            @RequestParam(defaultValue = "1") int depth,
+            @RequestParam(defaultValue = "50") int fanout,
+            @RequestParam(required = false) List<String> nodeTypes,
+            @RequestParam(required = false) List<String> relationTypes,
+            @RequestParam(defaultValue = "all") String direction) {
+        try {
+            EgoNetworkDto network = explorationService.expand(graphId, nodeId, depth, fanout,
+                    nodeTypes, relationTypes, GraphExplorationService.Direction.parse(direction));
+            return ResponseEntity.ok(network);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询两个节点之间的路径（内存双向 BFS）
+     * GET /api/graph/{graphId}/path?from=&to=&mode=shortest|all|k&k=5&relationTypes=&directed=false&maxDepth=6
+     */
+    @GetMapping("/path")
+    public ResponseEntity<?> findPath(@PathVariable Integer graphId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "shortest") String mode,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) List<String> relationTypes,
+            @RequestParam(defaultValue = "false") boolean directed,
+            @RequestParam(defaultValue = "6") int maxDepth) {
+        try {
+            List<PathDto> paths = pathService.findPaths(graphId, from, to, GraphPathService.Mode.parse(mode), k,
+                    relationTypes, directed, maxDepth);
+            return ResponseEntity.ok(Map.of(
+                    "paths", paths,
+                    "count", paths.size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (SearchTimeoutException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * 枚举两个节点之间的有界简单路径（双向会合搜索，NDJSON 流式返回）；参数错误由全局异常处理返回 400
+     * GET /api/graph/{graphId}/paths?from=&to=&maxLength=4&relationTypes=&directed=false&fanout=50&limit=100
+     */
+    @GetMapping("/paths")
+    public ResponseEntity<StreamingResponseBody> enumeratePaths(@PathVariable Integer graphId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) List<String> relationTypes,
+            @RequestParam(defaultValue = "false") boolean directed,
+            @RequestParam(defaultValue = "4") int maxLength,
+            @RequestParam(defaultValue = "50") int fanout,
+            @RequestParam(defaultValue = "100") int limit) {
+        // 返回类型需声明为 StreamingResponseBody，MVC 才会按流式响应处理
+        StreamingResponseBody body = pathService.enumeratePaths(graphId, from, to, relationTypes, directed,
+                maxLength, fanout, limit);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * 模式查询（内存匹配），如 人物 -[任职]-> 组织 -[位于]-> 地点
+     * POST /api/graph/{graphId}/pattern
+     */
+    @PostMapping("/pattern")
+    public ResponseEntity<?> matchPattern(@PathVariable Integer graphId, @RequestBody PatternQueryDto dto) {
+        try {
+            return ResponseEntity.ok(patternService.match(graphId, dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * 创建节点
      * POST /api/graph/{graphId}/nodes
@@ -332,6 +428,15 @@ public class NodeController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * 获取图谱类型目录：实体类型、关系类型与 (源类型, 关系类型, 目标类型) 的数量
+     * GET /api/graph/{graphId}/schema
+     */
+    @GetMapping("/schema")
+    public ResponseEntity<?> getSchema(@PathVariable Integer graphId) {
+        return ResponseEntity.ok(metricsService.getSchema(graphId));
+    }
+
     /**
      * 创建关系
      * POST /api/graph/{graphId}/relations
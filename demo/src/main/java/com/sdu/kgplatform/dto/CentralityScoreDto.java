@@ -0,0 +1,20 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 节点中心性得分 DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CentralityScoreDto {
+    private String nodeId;
+    private String name;
+    private String type;
+    private double score;
+}
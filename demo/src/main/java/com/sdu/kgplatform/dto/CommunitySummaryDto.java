@@ -0,0 +1,34 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 社区摘要 DTO - 社区规模、核心成员与社区间关系数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommunitySummaryDto {
+    private int communityId;
+    private int size;
+    private long internalEdges;
+    private List<LiteNodeDto> topMembers;
+    private List<NeighborCommunity> neighbors;
+
+    /**
+     * 相邻社区及两者之间的关系数
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NeighborCommunity {
+        private int communityId;
+        private long edgeCount;
+    }
+}
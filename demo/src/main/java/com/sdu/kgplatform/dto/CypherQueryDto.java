@@ -0,0 +1,29 @@
+package com.sdu.kgplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 只读查询控制台请求 DTO
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CypherQueryDto {
+
+    /**
+     * 只读 Cypher，执行前自动限定在当前图谱内
+     */
+    private String cypher;
+
+    /**
+     * 查询参数
+     */
+    private Map<String, Object> params;
+
+    /**
+     * 最多返回行数，不超过服务端上限
+     */
+    private Integer maxRows;
+}
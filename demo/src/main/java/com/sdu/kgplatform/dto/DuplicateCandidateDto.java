@@ -0,0 +1,21 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 疑似重复实体 DTO - keep 为建议保留的节点，merge 为建议并入 keep 的节点
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateCandidateDto {
+    private LiteNodeDto keep;
+    private LiteNodeDto merge;
+    private double score;
+    private double nameSimilarity;
+    private double neighborSimilarity;
+}
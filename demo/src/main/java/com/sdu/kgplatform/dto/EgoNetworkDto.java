@@ -0,0 +1,26 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 节点 k 跳邻域 DTO - 用于交互式"展开节点"
+ * truncated 记录邻居被采样截断的节点及其符合条件的邻居总数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EgoNetworkDto {
+    private String centerNodeId;
+    private int depth;
+    private int fanout;
+    private List<LiteNodeDto> nodes;
+    private List<LiteRelationshipDto> links;
+    private Map<String, Long> truncated;
+}
@@ -0,0 +1,22 @@
+package com.sdu.kgplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 实体合并请求 DTO - 每组把 sourceNodeIds 并入 targetNodeId，关系改接到目标节点后删除源节点
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EntityMergeDto {
+    private List<MergeGroup> groups;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MergeGroup {
+        private String targetNodeId;
+        private List<String> sourceNodeIds;
+    }
+}
@@ -0,0 +1,29 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 图谱增量变更 DTO - 用于打开中的图谱视图增量同步
+ * 客户端按 id 幂等地应用：先删除再新增/更新；删除节点时其关联关系也出现在 removedLinkIds 中。
+ * 下次请求时带回 epoch 与 version，epoch 变化（服务重启）时服务端返回全量快照
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphDeltaDto {
+    private boolean full;
+    private long epoch;
+    private long sinceVersion;
+    private long version;
+    private List<LiteNodeDto> addedNodes;
+    private List<LiteNodeDto> updatedNodes;
+    private List<String> removedNodeIds;
+    private List<LiteRelationshipDto> addedLinks;
+    private List<String> removedLinkIds;
+}
@@ -42,6 +42,9 @@ public class GraphDetailDto {
     private BigDecimal density;
     private BigDecimal relationRichness;
     private BigDecimal entityRichness;
+    private Long triangleCount;
+    private BigDecimal globalClustering;
+    private BigDecimal averageClustering;
 
     // 缓存信息
     private String cachedFilePath;
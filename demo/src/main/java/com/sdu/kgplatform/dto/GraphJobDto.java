@@ -0,0 +1,32 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 图谱后台任务状态 DTO - 合并等长任务的进度与结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphJobDto {
+    private String jobId;
+    private String type;
+    /** PENDING / RUNNING / COMPLETED / FAILED */
+    private String status;
+    private String phase;
+    private int completedSteps;
+    private int totalSteps;
+    private double progress;
+    private Integer resultGraphId;
+    private Integer nodeCount;
+    private Integer relationCount;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
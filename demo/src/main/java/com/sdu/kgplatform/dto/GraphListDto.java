@@ -36,6 +36,7 @@ public class GraphListDto {
     private Integer relationCount;
     private Integer downloadCount;
     private BigDecimal density;
+    private BigDecimal averageClustering;
 
     // 分类信息
     private Integer categoryId;
@@ -0,0 +1,41 @@
+package com.sdu.kgplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图谱合并请求 DTO - 把多个源图谱合并为一个新图谱
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GraphMergeDto {
+
+    private List<Integer> sourceGraphIds;
+
+    /**
+     * 节点匹配策略：NAME（名称相同）、NAME_TYPE（名称与类型均相同）、MAPPING（按 mapping 给出的规范名称）
+     */
+    private String policy;
+
+    /**
+     * MAPPING 策略下源节点 nodeId → 规范名称，未出现的节点按原名称匹配
+     */
+    private Map<String, String> mapping;
+
+    @NotBlank(message = "图谱名称不能为空")
+    @Size(max = 255, message = "图谱名称不能超过255个字符")
+    private String name;
+
+    @Size(max = 900, message = "描述不能超过900个字符")
+    private String description;
+
+    /**
+     * 领域分类代码，为空时取第一个源图谱的领域
+     */
+    private String domain;
+}
@@ -0,0 +1,49 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 图谱类型目录 DTO - 实体类型、关系类型及 (源类型, 关系类型, 目标类型) 组合的数量
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphSchemaDto {
+    private Integer graphId;
+    private List<TypeCount> nodeTypes;
+    private List<TypeCount> relationTypes;
+    private List<TypePair> typePairs;
+    /** 目录最近一次全量重算的时间，之后的变更已增量计入 */
+    private LocalDateTime updatedAt;
+
+    /**
+     * 类型及其数量
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypeCount {
+        private String type;
+        private long count;
+    }
+
+    /**
+     * 类型对及其关系数
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypePair {
+        private String sourceType;
+        private String relationType;
+        private String targetType;
+        private long count;
+    }
+}
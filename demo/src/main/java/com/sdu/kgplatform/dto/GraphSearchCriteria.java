@@ -26,6 +26,8 @@ public class GraphSearchCriteria {
     private BigDecimal maxEntityRichness;
     private BigDecimal minRelationRichness;
     private BigDecimal maxRelationRichness;
+    private BigDecimal minClustering;
+    private BigDecimal maxClustering;
 
     // Popularity
     private Integer minViewCount;
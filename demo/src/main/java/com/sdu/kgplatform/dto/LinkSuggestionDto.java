@@ -0,0 +1,20 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 关系建议 DTO - 可能缺失的一条关系及其相似度得分
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LinkSuggestionDto {
+    private LiteNodeDto source;
+    private LiteNodeDto target;
+    private double score;
+    private int commonNeighbors;
+}
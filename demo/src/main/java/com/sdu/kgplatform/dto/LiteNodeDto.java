@@ -17,4 +17,5 @@ public class LiteNodeDto {
     private String nodeId;
     private String name;
     private String type;
+    private Integer communityId;
 }
@@ -27,4 +27,5 @@ public class NodeDto {
     private Integer outDegree;
     private Integer inDegree;
     private Integer totalDegree;
+    private Integer communityId; // 社区发现结果，未计算时为空
 }
@@ -0,0 +1,22 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 路径 DTO - 有序的节点序列与连接它们的关系序列
+ * links[i] 连接 nodes[i] 与 nodes[i+1]，无向搜索时关系方向可能与行进方向相反
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PathDto {
+    private int length;
+    private List<LiteNodeDto> nodes;
+    private List<LiteRelationshipDto> links;
+}
@@ -0,0 +1,46 @@
+package com.sdu.kgplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 模式查询请求 DTO - 以别名描述节点约束，边按别名连接节点，例如
+ * 人物 -[任职]-> 组织 -[位于]-> 地点
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PatternQueryDto {
+    private List<NodePattern> nodes;
+    private List<EdgePattern> edges;
+    private Integer limit;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class NodePattern {
+        private String alias;
+        private String type;
+        private String nodeId;
+        /** 名称完全相同 */
+        private String name;
+        /** 名称包含（不区分大小写） */
+        private String nameContains;
+        private Integer minDegree;
+        private Integer maxDegree;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class EdgePattern {
+        private String from;
+        private String to;
+        /** 允许的关系类型，为空表示任意类型 */
+        private List<String> types;
+        /** 跳数范围，默认 1..1，按最短距离判断 */
+        private Integer minHops;
+        private Integer maxHops;
+        /** 是否按 from -> to 的方向匹配，默认 true */
+        private Boolean directed;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 相关图谱 DTO - 图谱列表信息及与当前图谱的结构相似度
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedGraphDto {
+    private GraphListDto graph;
+    private double similarity;
+}
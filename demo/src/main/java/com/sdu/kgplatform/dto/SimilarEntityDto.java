@@ -0,0 +1,20 @@
+package com.sdu.kgplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 相似实体 DTO（嵌入向量余弦相似度）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarEntityDto {
+    private String nodeId;
+    private String name;
+    private String type;
+    private double similarity;
+}
@@ -0,0 +1,57 @@
+package com.sdu.kgplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 图谱健康报告实体类 - 对应数据库 graph_health_report 表
+ * 每个图谱一行，记录最近一次结构检查的结果
+ */
+@Entity
+@Table(name = "graph_health_report")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphHealthReport {
+
+    @Id
+    @Column(name = "graph_id")
+    private Integer graphId;
+
+    @Column(name = "node_count")
+    private Integer nodeCount;
+
+    @Column(name = "edge_count")
+    private Integer edgeCount;
+
+    @Column(name = "weak_component_count")
+    private Integer weakComponentCount;
+
+    /** 最大弱连通分量节点数占比 */
+    @Column(name = "largest_weak_component_share", precision = 5, scale = 4)
+    private BigDecimal largestWeakComponentShare;
+
+    @Column(name = "strong_component_count")
+    private Integer strongComponentCount;
+
+    /** 最大强连通分量节点数占比 */
+    @Column(name = "largest_strong_component_share", precision = 5, scale = 4)
+    private BigDecimal largestStrongComponentShare;
+
+    @Column(name = "isolated_node_count")
+    private Integer isolatedNodeCount;
+
+    @Column(name = "self_loop_count")
+    private Integer selfLoopCount;
+
+    @Column(name = "duplicate_edge_count")
+    private Integer duplicateEdgeCount;
+
+    @Column(name = "computed_at")
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,36 @@
+package com.sdu.kgplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 图谱类型计数实体类 - 对应数据库 graph_type_count 表
+ * 记录每个图谱中各实体类型 / 关系类型的数量
+ */
+@Entity
+@Table(name = "graph_type_count", uniqueConstraints = @UniqueConstraint(
+        name = "uk_graph_type_count", columnNames = {"graph_id", "kind", "type_name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphTypeCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "graph_id", nullable = false)
+    private Integer graphId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 16)
+    private TypeCountKind kind;
+
+    @Column(name = "type_name", nullable = false, length = 100)
+    private String typeName;
+
+    @Column(name = "count", nullable = false)
+    private Long count;
+}
@@ -0,0 +1,39 @@
+package com.sdu.kgplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 图谱类型对计数实体类 - 对应数据库 graph_type_pair_count 表
+ * 记录每个图谱中 (源实体类型, 关系类型, 目标实体类型) 组合的关系数量
+ */
+@Entity
+@Table(name = "graph_type_pair_count", uniqueConstraints = @UniqueConstraint(
+        name = "uk_graph_type_pair_count",
+        columnNames = {"graph_id", "source_type", "relation_type", "target_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphTypePairCount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "graph_id", nullable = false)
+    private Integer graphId;
+
+    @Column(name = "source_type", nullable = false, length = 100)
+    private String sourceType;
+
+    @Column(name = "relation_type", nullable = false, length = 100)
+    private String relationType;
+
+    @Column(name = "target_type", nullable = false, length = 100)
+    private String targetType;
+
+    @Column(name = "count", nullable = false)
+    private Long count;
+}
@@ -88,6 +88,19 @@ public class KnowledgeGraph {
     @Column(name = "entity_richness", precision = 5, scale = 2)
     private BigDecimal entityRichness;
 
+    /** 类型目录（graph_type_count / graph_type_pair_count）最近一次全量重算时间，null 表示尚未建立 */
+    @Column(name = "type_catalog_updated_at")
+    private LocalDateTime typeCatalogUpdatedAt;
+
+    @Column(name = "triangle_count")
+    private Long triangleCount;
+
+    @Column(name = "global_clustering", precision = 5, scale = 4)
+    private BigDecimal globalClustering;
+
+    @Column(name = "average_clustering", precision = 5, scale = 4)
+    private BigDecimal averageClustering;
+
     @Column(name = "category_id")
     private Integer categoryId;
 
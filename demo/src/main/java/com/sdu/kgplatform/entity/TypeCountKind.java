@@ -0,0 +1,9 @@
+package com.sdu.kgplatform.entity;
+
+/**
+ * 类型计数的类别
+ */
+public enum TypeCountKind {
+    NODE,
+    RELATION
+}
@@ -0,0 +1,9 @@
+package com.sdu.kgplatform.repository;
+
+import com.sdu.kgplatform.entity.GraphHealthReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GraphHealthReportRepository extends JpaRepository<GraphHealthReport, Integer> {
+}
@@ -90,6 +90,14 @@ public class GraphSpecification {
                 predicates.add(cb.lessThanOrEqualTo(root.get("relationRichness"), criteria.getMaxRelationRichness()));
             }
 
+            // Average Clustering
+            if (criteria.getMinClustering() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("averageClustering"), criteria.getMinClustering()));
+            }
+            if (criteria.getMaxClustering() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("averageClustering"), criteria.getMaxClustering()));
+            }
+
             // View Count
             if (criteria.getMinViewCount() != null) {
                 predicates.add(cb.greaterThanOrEqualTo(root.get("viewCount"), criteria.getMinViewCount()));
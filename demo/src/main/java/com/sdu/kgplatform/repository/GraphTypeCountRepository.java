@@ -0,0 +1,60 @@
+package com.sdu.kgplatform.repository;
+
+import com.sdu.kgplatform.entity.GraphTypeCount;
+import com.sdu.kgplatform.entity.TypeCountKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GraphTypeCountRepository extends JpaRepository<GraphTypeCount, Integer> {
+
+        /**
+         * 获取图谱某类别的类型计数（按数量降序）
+         */
+        List<GraphTypeCount> findByGraphIdAndKindOrderByCountDesc(Integer graphId, TypeCountKind kind);
+
+        /**
+         * 统计图谱某类别的类型数（即丰富度）
+         */
+        long countByGraphIdAndKind(Integer graphId, TypeCountKind kind);
+
+        /**
+         * 按增量累加已存在的类型计数，返回更新的行数
+         */
+        @Modifying
+        @Query("UPDATE GraphTypeCount t SET t.count = t.count + :delta " +
+                        "WHERE t.graphId = :graphId AND t.kind = :kind AND t.typeName = :typeName")
+        int incrementCount(@Param("graphId") Integer graphId,
+                        @Param("kind") TypeCountKind kind,
+                        @Param("typeName") String typeName,
+                        @Param("delta") long delta);
+
+        /**
+         * 按增量累加类型计数，不存在时插入（JPQL 实现，MySQL 与 PostgreSQL 通用）
+         * 同一图谱的目录更新由调用方的目录锁串行化，不会并发插入同一类型
+         */
+        default void addCount(Integer graphId, TypeCountKind kind, String typeName, long delta) {
+                if (incrementCount(graphId, kind, typeName, delta) == 0) {
+                        save(new GraphTypeCount(null, graphId, kind, typeName, delta));
+                }
+        }
+
+        /**
+         * 删除计数已归零的类型
+         */
+        @Modifying
+        @Query("DELETE FROM GraphTypeCount t WHERE t.graphId = :graphId AND t.count <= 0")
+        void deleteEmpty(@Param("graphId") Integer graphId);
+
+        /**
+         * 删除图谱的全部类型计数
+         */
+        @Modifying
+        @Query("DELETE FROM GraphTypeCount t WHERE t.graphId = :graphId")
+        void deleteByGraphId(@Param("graphId") Integer graphId);
+}
@@ -0,0 +1,57 @@
+package com.sdu.kgplatform.repository;
+
+import com.sdu.kgplatform.entity.GraphTypePairCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GraphTypePairCountRepository extends JpaRepository<GraphTypePairCount, Integer> {
+
+        /**
+         * 获取图谱的类型对计数（按数量降序）
+         */
+        List<GraphTypePairCount> findByGraphIdOrderByCountDesc(Integer graphId);
+
+        /**
+         * 按增量累加已存在的类型对计数，返回更新的行数
+         */
+        @Modifying
+        @Query("UPDATE GraphTypePairCount t SET t.count = t.count + :delta WHERE t.graphId = :graphId " +
+                        "AND t.sourceType = :sourceType AND t.relationType = :relationType " +
+                        "AND t.targetType = :targetType")
+        int incrementCount(@Param("graphId") Integer graphId,
+                        @Param("sourceType") String sourceType,
+                        @Param("relationType") String relationType,
+                        @Param("targetType") String targetType,
+                        @Param("delta") long delta);
+
+        /**
+         * 按增量累加类型对计数，不存在时插入（JPQL 实现，MySQL 与 PostgreSQL 通用）
+         * 同一图谱的目录更新由调用方的目录锁串行化，不会并发插入同一组合
+         */
+        default void addCount(Integer graphId, String sourceType, String relationType, String targetType,
+                        long delta) {
+                if (incrementCount(graphId, sourceType, relationType, targetType, delta) == 0) {
+                        save(new GraphTypePairCount(null, graphId, sourceType, relationType, targetType, delta));
+                }
+        }
+
+        /**
+         * 删除计数已归零的类型对
+         */
+        @Modifying
+        @Query("DELETE FROM GraphTypePairCount t WHERE t.graphId = :graphId AND t.count <= 0")
+        void deleteEmpty(@Param("graphId") Integer graphId);
+
+        /**
+         * 删除图谱的全部类型对计数
+         */
+        @Modifying
+        @Query("DELETE FROM GraphTypePairCount t WHERE t.graphId = :graphId")
+        void deleteByGraphId(@Param("graphId") Integer graphId);
+}
@@ -2,15 +2,22 @@ package com.sdu.kgplatform.repository;
 
 import com.sdu.kgplatform.entity.GraphStatus;
 import com.sdu.kgplatform.entity.KnowledgeGraph;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 知识图谱 Repository
@@ -84,6 +91,79 @@ public interface KnowledgeGraphRepository
                         "LOWER(g.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
         Page<KnowledgeGraph> searchPublicGraphs(@Param("keyword") String keyword, Pageable pageable);
 
+        /**
+         * 获取包含节点的图谱ID（后台分析任务遍历用）
+         */
+        @Query("SELECT g.graphId FROM KnowledgeGraph g WHERE g.nodeCount > 0")
+        List<Integer> findNonEmptyGraphIds();
+
+        /**
+         * 只更新聚类指标列，避免覆盖其他任务并发写入的字段
+         */
+        @Modifying
+        @Transactional
+        @Query("UPDATE KnowledgeGraph g SET g.triangleCount = :triangleCount, " +
+                        "g.globalClustering = :globalClustering, g.averageClustering = :averageClustering " +
+                        "WHERE g.graphId = :graphId")
+        int updateClusteringMetrics(@Param("graphId") Integer graphId,
+                        @Param("triangleCount") Long triangleCount,
+                        @Param("globalClustering") BigDecimal globalClustering,
+                        @Param("averageClustering") BigDecimal averageClustering);
+
+        /**
+         * 类型目录最近一次全量重算的时间，为 null 表示目录尚未建立
+         */
+        @Query("SELECT g.typeCatalogUpdatedAt FROM KnowledgeGraph g WHERE g.graphId = :graphId")
+        LocalDateTime findTypeCatalogUpdatedAt(@Param("graphId") Integer graphId);
+
+        /**
+         * 只更新丰富度列，避免覆盖其他请求并发写入的计数
+         */
+        @Modifying
+        @Transactional
+        @Query("UPDATE KnowledgeGraph g SET g.entityRichness = :entityRichness, " +
+                        "g.relationRichness = :relationRichness WHERE g.graphId = :graphId")
+        int updateRichness(@Param("graphId") Integer graphId,
+                        @Param("entityRichness") BigDecimal entityRichness,
+                        @Param("relationRichness") BigDecimal relationRichness);
+
+        /**
+         * 加行锁读取图谱，串行化同一图谱的计数刷新
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT g FROM KnowledgeGraph g WHERE g.graphId = :graphId")
+        Optional<KnowledgeGraph> findByIdForUpdate(@Param("graphId") Integer graphId);
+
+        /**
+         * 只更新计数、密度与修改时间列，避免整实体保存覆盖并发写入的丰富度、聚类指标等字段
+         */
+        @Modifying
+        @Transactional
+        @Query("UPDATE KnowledgeGraph g SET g.nodeCount = :nodeCount, g.relationCount = :relationCount, " +
+                        "g.density = :density, g.lastModified = :lastModified WHERE g.graphId = :graphId")
+        int updateCounts(@Param("graphId") Integer graphId,
+                        @Param("nodeCount") Integer nodeCount,
+                        @Param("relationCount") Integer relationCount,
+                        @Param("density") BigDecimal density,
+                        @Param("lastModified") LocalDateTime lastModified);
+
+        /**
+         * 全量重算结果只写计数、密度、丰富度与目录时间列，不覆盖浏览量、点赞、聚类指标等其他字段
+         */
+        @Modifying
+        @Transactional
+        @Query("UPDATE KnowledgeGraph g SET g.nodeCount = :nodeCount, g.relationCount = :relationCount, " +
+                        "g.density = :density, g.entityRichness = :entityRichness, " +
+                        "g.relationRichness = :relationRichness, g.typeCatalogUpdatedAt = :typeCatalogUpdatedAt " +
+                        "WHERE g.graphId = :graphId")
+        int updateRecomputedMetrics(@Param("graphId") Integer graphId,
+                        @Param("nodeCount") Integer nodeCount,
+                        @Param("relationCount") Integer relationCount,
+                        @Param("density") BigDecimal density,
+                        @Param("entityRichness") BigDecimal entityRichness,
+                        @Param("relationRichness") BigDecimal relationRichness,
+                        @Param("typeCatalogUpdatedAt") LocalDateTime typeCatalogUpdatedAt);
+
         /**
          * 根据分享链接查找图谱
          */
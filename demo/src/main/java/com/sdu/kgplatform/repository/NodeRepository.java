@@ -34,6 +34,11 @@ public interface NodeRepository extends Neo4jRepository<NodeEntity, Long> {
      */
     Optional<NodeEntity> findByGraphIdAndName(Integer graphId, String name);
 
+    /**
+     * 判断图谱中是否存在同名节点（不加载实体）
+     */
+    boolean existsByGraphIdAndName(Integer graphId, String name);
+
     /**
      * 根据类型查找节点
      */
@@ -72,13 +77,6 @@ public interface NodeRepository extends Neo4jRepository<NodeEntity, Long> {
     @Query("MATCH (n:Entity)<-[:RELATES_TO]-(m:Entity) WHERE n.nodeId = $nodeId RETURN m")
     List<NodeEntity> findIncomingNeighbors(String nodeId);
 
-    /**
-     * 查找两个节点之间的最短路径
-     */
-    @Query("MATCH path = shortestPath((a:Entity)-[:RELATES_TO*]-(b:Entity)) " +
-            "WHERE a.nodeId = $startNodeId AND b.nodeId = $endNodeId RETURN path")
-    List<NodeEntity> findShortestPath(String startNodeId, String endNodeId);
-
     /**
      * 获取轻量级节点列表 (可视化专用)
      */
@@ -52,9 +52,12 @@ public interface RelationshipRepository extends Neo4jRepository<RelationshipEnti
        long countByGraphId(Integer graphId);
 
        /**
-        * 删除图谱中的所有关系（通过节点的graphId筛选）
+        * 删除图谱中的所有关系（通过节点的graphId筛选），并将图谱内节点度数归零
         */
-       @Query("MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId DELETE r")
+       @Query("MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId DELETE r " +
+                     "WITH count(*) AS deleted " +
+                     "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+                     "SET n.outDegree = 0, n.inDegree = 0, n.totalDegree = 0")
        void deleteByGraphId(Integer graphId);
 
        /**
@@ -64,19 +67,6 @@ public interface RelationshipRepository extends Neo4jRepository<RelationshipEnti
                      "WHERE a.nodeId = $sourceNodeId AND b.nodeId = $targetNodeId RETURN r")
        List<RelationshipEntity> findBetweenNodes(String sourceNodeId, String targetNodeId);
 
-       /**
-        * 获取图谱中所有关系类型
-        */
-       @Query("MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE r.graphId = $graphId RETURN DISTINCT r.type")
-       List<String> findDistinctTypesByGraphId(Integer graphId);
-
-       /**
-        * 统计各关系类型的数量
-        */
-       @Query("MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId " +
-                     "RETURN r.type as type, count(r) as count")
-       List<Object[]> countByTypeForGraph(Integer graphId);
-
        /**
         * 统计所有关系数量
         */
@@ -91,6 +81,9 @@ public interface RelationshipRepository extends Neo4jRepository<RelationshipEnti
 
        @Query("MATCH (a:Entity {nodeId: $sourceNodeId}), (b:Entity {nodeId: $targetNodeId}) " +
                      "CREATE (a)-[r:RELATES_TO {type: $type, graphId: $graphId}]->(b) " +
+                     "SET a.outDegree = coalesce(a.outDegree, 0) + 1, a.totalDegree = coalesce(a.totalDegree, 0) + 1 " +
+                     "WITH a, b, r " +
+                     "SET b.inDegree = coalesce(b.inDegree, 0) + 1, b.totalDegree = coalesce(b.totalDegree, 0) + 1 " +
                      "RETURN id(r)")
        Long createRelationCypher(String sourceNodeId, String targetNodeId, String type, Integer graphId);
 
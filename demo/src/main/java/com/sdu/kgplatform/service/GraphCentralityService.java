@@ -0,0 +1,274 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.Centrality;
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.dto.CentralityScoreDto;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 图谱中心性服务
+ * 在 CSR 投影上离线计算 PageRank、抽样介数与度中心性，分值写回节点属性，
+ * 排行榜在计算完成时一并生成并缓存，查询时不做实时排序
+ */
+@Service
+public class GraphCentralityService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphCentralityService.class);
+
+    /** 每个指标缓存的排行榜长度，也是 top 接口的上限 */
+    public static final int MAX_TOP_K = 100;
+
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final double DAMPING = 0.85;
+    private static final double TOLERANCE = 1e-6;
+
+    private static final String WRITE_CYPHER = "UNWIND $rows AS row " +
+            "MATCH (n:Entity {nodeId: row.nodeId}) WHERE n.graphId = $graphId " +
+            "SET n.pageRank = row.pageRank, n.betweenness = row.betweenness, n.degreeCentrality = row.degree";
+
+    /**
+     * 中心性指标，property 为写回节点的属性名
+     */
+    public enum Metric {
+        PAGERANK("pageRank"), BETWEENNESS("betweenness"), DEGREE("degreeCentrality");
+
+        private final String property;
+
+        Metric(String property) {
+            this.property = property;
+        }
+
+        public String property() {
+            return property;
+        }
+
+        public static Metric parse(String value) {
+            if (value == null) {
+                return PAGERANK;
+            }
+            return switch (value.toLowerCase()) {
+                case "betweenness" -> BETWEENNESS;
+                case "degree" -> DEGREE;
+                case "pagerank" -> PAGERANK;
+                default -> throw new IllegalArgumentException("不支持的中心性指标: " + value);
+            };
+        }
+    }
+
+    /**
+     * 一次计算的结果摘要
+     */
+    private record Ranking(long version, LocalDateTime computedAt, Map<Metric, List<CentralityScoreDto>> top) {
+    }
+
+    private final GraphProjectionService projectionService;
+    private final GraphVersionService graphVersionService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final Driver neo4jDriver;
+    private final Neo4jClient neo4jClient;
+    private final ForkJoinPool analyticsPool;
+    private final int betweennessSamples;
+    private final int pageRankIterations;
+    private final long timeoutMillis;
+
+    private final ConcurrentHashMap<Integer, Ranking> rankings = new ConcurrentHashMap<>();
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+    public GraphCentralityService(GraphProjectionService projectionService,
+                                  GraphVersionService graphVersionService,
+                                  KnowledgeGraphRepository graphRepository,
+                                  Driver neo4jDriver,
+                                  Neo4jClient neo4jClient,
+                                  @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool,
+                                  @Value("${app.analytics.centrality.betweenness-samples:256}") int betweennessSamples,
+                                  @Value("${app.analytics.centrality.pagerank-iterations:50}") int pageRankIterations,
+                                  @Value("${app.analytics.centrality.timeout-ms:60000}") long timeoutMillis) {
+        this.projectionService = projectionService;
+        this.graphVersionService = graphVersionService;
+        this.graphRepository = graphRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.neo4jClient = neo4jClient;
+        this.analyticsPool = analyticsPool;
+        this.betweennessSamples = betweennessSamples;
+        this.pageRankIterations = pageRankIterations;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // ==================== 提交计算 ====================
+
+    /**
+     * 提交单个图谱的计算任务，同一图谱已在计算中时返回 false
+     */
+    public boolean submit(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        return enqueue(graphId);
+    }
+
+    /**
+     * 为排行榜缺失或已过期（图谱版本变化）的图谱提交计算，返回提交数量
+     */
+    public int refreshStale() {
+        int submitted = 0;
+        for (Integer graphId : graphRepository.findNonEmptyGraphIds()) {
+            Ranking ranking = rankings.get(graphId);
+            if (ranking == null || ranking.version() != graphVersionService.currentVersion(graphId)) {
+                if (enqueue(graphId)) {
+                    submitted++;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    public boolean isRunning(Integer graphId) {
+        return running.contains(graphId);
+    }
+
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            rankings.remove(event.graphId());
+        }
+    }
+
+    // ==================== 查询排行 ====================
+
+    /**
+     * 获取某指标得分最高的 k 个节点
+     * 优先使用计算时生成的排行榜；服务重启后排行榜丢失时按已写回的节点属性查询
+     */
+    public Map<String, Object> getTop(Integer graphId, Metric metric, int k) {
+        if (k < 1 || k > MAX_TOP_K) {
+            throw new IllegalArgumentException("k 必须在 1 到 " + MAX_TOP_K + " 之间");
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("metric", metric.name().toLowerCase());
+        result.put("running", isRunning(graphId));
+
+        Ranking ranking = rankings.get(graphId);
+        if (ranking != null) {
+            List<CentralityScoreDto> top = ranking.top().get(metric);
+            result.put("scores", top.subList(0, Math.min(k, top.size())));
+            result.put("computedAt", ranking.computedAt());
+            result.put("stale", ranking.version() != graphVersionService.currentVersion(graphId));
+            return result;
+        }
+
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        // 属性名来自枚举常量，不存在注入风险
+        String cypher = "MATCH (n:Entity) WHERE n.graphId = $graphId AND n." + metric.property() + " IS NOT NULL " +
+                "RETURN n.nodeId AS nodeId, n.name AS name, n.type AS type, n." + metric.property() + " AS score " +
+                "ORDER BY score DESC LIMIT $k";
+        List<CentralityScoreDto> scores = new ArrayList<>(neo4jClient.query(cypher)
+                .bind(graphId).to("graphId")
+                .bind(k).to("k")
+                .fetchAs(CentralityScoreDto.class)
+                .mappedBy((typeSystem, record) -> CentralityScoreDto.builder()
+                        .nodeId(record.get("nodeId").asString())
+                        .name(record.get("name").isNull() ? null : record.get("name").asString())
+                        .type(record.get("type").isNull() ? null : record.get("type").asString())
+                        .score(record.get("score").asDouble())
+                        .build())
+                .all());
+        result.put("scores", scores);
+        result.put("computedAt", null);
+        result.put("stale", true);
+        return result;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private boolean enqueue(Integer graphId) {
+        if (!running.add(graphId)) {
+            return false;
+        }
+        analyticsPool.execute(() -> {
+            try {
+                compute(graphId);
+            } catch (Exception e) {
+                log.error("中心性计算失败 - graphId={}: {}", graphId, e.getMessage());
+            } finally {
+                running.remove(graphId);
+            }
+        });
+        return true;
+    }
+
+    private void compute(Integer graphId) {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(graphId);
+        int n = graph.nodeCount();
+
+        double[] pageRank = Centrality.pageRank(graph, DAMPING, pageRankIterations, TOLERANCE);
+        Centrality.Betweenness betweenness = Centrality.betweenness(graph, betweennessSamples, graphId,
+                System.nanoTime() + timeoutMillis * 1_000_000L);
+        double[] degree = Centrality.degree(graph);
+
+        writeBack(graphId, graph, pageRank, betweenness.scores(), degree);
+
+        Map<Metric, List<CentralityScoreDto>> top = new EnumMap<>(Metric.class);
+        top.put(Metric.PAGERANK, toScores(graph, pageRank));
+        top.put(Metric.BETWEENNESS, toScores(graph, betweenness.scores()));
+        top.put(Metric.DEGREE, toScores(graph, degree));
+        rankings.put(graphId, new Ranking(graph.version(), LocalDateTime.now(), top));
+
+        log.info("中心性计算完成 - graphId={}, nodes={}, 介数样本={}, 耗时={}ms",
+                graphId, n, betweenness.samples(), System.currentTimeMillis() - start);
+    }
+
+    private void writeBack(Integer graphId, CsrGraph graph, double[] pageRank, double[] betweenness,
+                           double[] degree) {
+        try (Session session = neo4jDriver.session()) {
+            List<Map<String, Object>> rows = new ArrayList<>(WRITE_BATCH_SIZE);
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                rows.add(Map.of(
+                        "nodeId", graph.nodeId(v),
+                        "pageRank", pageRank[v],
+                        "betweenness", betweenness[v],
+                        "degree", degree[v]));
+                if (rows.size() == WRITE_BATCH_SIZE || v == graph.nodeCount() - 1) {
+                    Map<String, Object> params = Map.of("graphId", graphId, "rows", rows);
+                    session.executeWrite(tx -> tx.run(WRITE_CYPHER, params).consume());
+                    rows = new ArrayList<>(WRITE_BATCH_SIZE);
+                }
+            }
+        }
+    }
+
+    private static List<CentralityScoreDto> toScores(CsrGraph graph, double[] scores) {
+        int[] top = Centrality.topK(scores, MAX_TOP_K);
+        List<CentralityScoreDto> result = new ArrayList<>(top.length);
+        for (int v : top) {
+            result.add(CentralityScoreDto.builder()
+                    .nodeId(graph.nodeId(v))
+                    .name(graph.name(v))
+                    .type(graph.nodeType(v))
+                    .score(scores[v])
+                    .build());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,282 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.common.TransactionUtils;
+import com.sdu.kgplatform.dto.GraphDeltaDto;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.dto.LiteRelationshipDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 图谱变更日志服务
+ * 记录每个图谱最近的节点/关系增删改，并负责递增图谱版本；
+ * 打开中的图谱视图据此按版本做增量同步，日志被压缩后退化为全量快照；
+ * 每次版本递增后发布 GraphChangedEvent，供指标等派生数据延迟刷新。
+ * 在写事务中调用时，递增版本、追加日志与发布事件都推迟到事务提交之后：
+ * 读者看到新版本时数据已经可见，回滚的写入不会留下版本号与日志记录
+ */
+@Service
+public class GraphChangeLogService {
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeKind {
+        NODE_ADDED, NODE_UPDATED, NODE_REMOVED, LINK_ADDED, LINK_REMOVED
+    }
+
+    /**
+     * 单条变更记录，payload 为 LiteNodeDto / LiteRelationshipDto，删除类变更为 null
+     */
+    public record ChangeEntry(long version, ChangeKind kind, String id, Object payload) {
+    }
+
+    private final GraphVersionService graphVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxEntriesPerGraph;
+    private final ConcurrentHashMap<Integer, GraphLog> logs = new ConcurrentHashMap<>();
+
+    public GraphChangeLogService(GraphVersionService graphVersionService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.graph.change-log.max-entries:2000}") int maxEntriesPerGraph) {
+        this.graphVersionService = graphVersionService;
+        this.eventPublisher = eventPublisher;
+        this.maxEntriesPerGraph = maxEntriesPerGraph;
+    }
+
+    // ==================== 记录变更 ====================
+
+    public void recordNodeAdded(Integer graphId, LiteNodeDto node) {
+        record(graphId, List.of(new PendingChange(ChangeKind.NODE_ADDED, node.getNodeId(), node)));
+    }
+
+    /**
+     * 批量新增节点，共用一个版本号
+     */
+    public void recordNodesAdded(Integer graphId, Collection<LiteNodeDto> nodes) {
+        List<PendingChange> changes = new ArrayList<>(nodes.size());
+        for (LiteNodeDto node : nodes) {
+            changes.add(new PendingChange(ChangeKind.NODE_ADDED, node.getNodeId(), node));
+        }
+        record(graphId, changes);
+    }
+
+    public void recordNodeUpdated(Integer graphId, LiteNodeDto node) {
+        record(graphId, List.of(new PendingChange(ChangeKind.NODE_UPDATED, node.getNodeId(), node)));
+    }
+
+    /**
+     * 删除节点，同时记录被级联删除的关系
+     */
+    public void recordNodeRemoved(Integer graphId, String nodeId, Collection<String> incidentRelationIds) {
+        List<PendingChange> changes = new ArrayList<>();
+        for (String relationId : incidentRelationIds) {
+            changes.add(new PendingChange(ChangeKind.LINK_REMOVED, relationId, null));
+        }
+        changes.add(new PendingChange(ChangeKind.NODE_REMOVED, nodeId, null));
+        record(graphId, changes);
+    }
+
+    public void recordLinkAdded(Integer graphId, LiteRelationshipDto link) {
+        record(graphId, List.of(new PendingChange(ChangeKind.LINK_ADDED, link.getRelationId(), link)));
+    }
+
+    public void recordLinkRemoved(Integer graphId, String relationId) {
+        record(graphId, List.of(new PendingChange(ChangeKind.LINK_REMOVED, relationId, null)));
+    }
+
+    /**
+     * 无法逐条描述的批量变更（清空图谱、服务端批处理等）：
+     * 递增版本并压缩日志，之后早于该版本的客户端将拿到全量快照
+     */
+    public void recordReset(Integer graphId) {
+        if (graphId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            GraphLog log = logFor(graphId);
+            long version;
+            synchronized (log) {
+                version = graphVersionService.bump(graphId);
+                log.entries.clear();
+                log.compactedThrough = version;
+            }
+            eventPublisher.publishEvent(new GraphChangedEvent(graphId, version, false, true));
+        });
+    }
+
+    /**
+     * 移除图谱的变更日志（图谱被删除时调用）
+     */
+    public void clear(Integer graphId) {
+        TransactionUtils.afterCommit(() -> {
+            logs.remove(graphId);
+            eventPublisher.publishEvent(new GraphChangedEvent(graphId, graphVersionService.currentVersion(graphId),
+                    true, false));
+        });
+    }
+
+    // ==================== 查询变更 ====================
+
+    /**
+     * 获取某版本之后的原始变更记录（按版本升序）
+     * 若所需记录已被压缩或客户端版本不可识别，返回 empty
+     */
+    public Optional<List<ChangeEntry>> entriesSince(Integer graphId, long since) {
+        long current = graphVersionService.currentVersion(graphId);
+        if (since == current) {
+            return Optional.of(List.of());
+        }
+        if (since > current) {
+            // 版本号来自其他进程（服务重启之前）
+            return Optional.empty();
+        }
+        GraphLog log = logs.get(graphId);
+        if (log == null) {
+            return Optional.empty();
+        }
+        synchronized (log) {
+            if (since < log.compactedThrough) {
+                return Optional.empty();
+            }
+            List<ChangeEntry> result = new ArrayList<>();
+            for (ChangeEntry entry : log.entries) {
+                if (entry.version() > since) {
+                    result.add(entry);
+                }
+            }
+            return Optional.of(result);
+        }
+    }
+
+    /**
+     * 计算某版本之后的增量，同一对象的多次变更折叠为最终状态
+     * 客户端版本的 epoch 与本进程不同（服务重启之前取得）时返回 empty，即使版本号看起来落在日志范围内
+     */
+    public Optional<GraphDeltaDto> changesSince(Integer graphId, long epoch, long since) {
+        if (epoch != graphVersionService.epoch()) {
+            return Optional.empty();
+        }
+        long current = graphVersionService.currentVersion(graphId);
+        Optional<List<ChangeEntry>> entries = entriesSince(graphId, since);
+        if (entries.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, ChangeEntry> nodeStates = new LinkedHashMap<>();
+        Map<String, ChangeEntry> linkStates = new LinkedHashMap<>();
+        long version = current;
+        for (ChangeEntry entry : entries.get()) {
+            version = Math.max(version, entry.version());
+            switch (entry.kind()) {
+                case NODE_ADDED -> nodeStates.put(entry.id(), entry);
+                case NODE_UPDATED -> {
+                    ChangeEntry previous = nodeStates.get(entry.id());
+                    // 本窗口内新增后又修改，仍视为新增
+                    if (previous != null && previous.kind() == ChangeKind.NODE_ADDED) {
+                        nodeStates.put(entry.id(), new ChangeEntry(entry.version(), ChangeKind.NODE_ADDED,
+                                entry.id(), entry.payload()));
+                    } else {
+                        nodeStates.put(entry.id(), entry);
+                    }
+                }
+                case NODE_REMOVED -> {
+                    ChangeEntry previous = nodeStates.get(entry.id());
+                    if (previous != null && previous.kind() == ChangeKind.NODE_ADDED) {
+                        nodeStates.remove(entry.id());
+                    } else {
+                        nodeStates.put(entry.id(), entry);
+                    }
+                }
+                case LINK_ADDED -> linkStates.put(entry.id(), entry);
+                case LINK_REMOVED -> {
+                    ChangeEntry previous = linkStates.get(entry.id());
+                    if (previous != null && previous.kind() == ChangeKind.LINK_ADDED) {
+                        linkStates.remove(entry.id());
+                    } else {
+                        linkStates.put(entry.id(), entry);
+                    }
+                }
+            }
+        }
+
+        GraphDeltaDto delta = GraphDeltaDto.builder()
+                .full(false)
+                .epoch(epoch)
+                .sinceVersion(since)
+                .version(version)
+                .addedNodes(new ArrayList<>())
+                .updatedNodes(new ArrayList<>())
+                .removedNodeIds(new ArrayList<>())
+                .addedLinks(new ArrayList<>())
+                .removedLinkIds(new ArrayList<>())
+                .build();
+        for (ChangeEntry entry : nodeStates.values()) {
+            switch (entry.kind()) {
+                case NODE_ADDED -> delta.getAddedNodes().add((LiteNodeDto) entry.payload());
+                case NODE_UPDATED -> delta.getUpdatedNodes().add((LiteNodeDto) entry.payload());
+                default -> delta.getRemovedNodeIds().add(entry.id());
+            }
+        }
+        for (ChangeEntry entry : linkStates.values()) {
+            if (entry.kind() == ChangeKind.LINK_ADDED) {
+                delta.getAddedLinks().add((LiteRelationshipDto) entry.payload());
+            } else {
+                delta.getRemovedLinkIds().add(entry.id());
+            }
+        }
+        return Optional.of(delta);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void record(Integer graphId, List<PendingChange> changes) {
+        if (graphId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            GraphLog log = logFor(graphId);
+            long version;
+            synchronized (log) {
+                // 在锁内递增版本，保证日志按版本有序
+                version = graphVersionService.bump(graphId);
+                for (PendingChange change : changes) {
+                    log.entries.addLast(new ChangeEntry(version, change.kind(), change.id(), change.payload()));
+                }
+                while (log.entries.size() > maxEntriesPerGraph) {
+                    ChangeEntry dropped = log.entries.removeFirst();
+                    log.compactedThrough = dropped.version();
+                }
+            }
+            // 监听者可能较慢，放在锁外发布
+            eventPublisher.publishEvent(new GraphChangedEvent(graphId, version, false, false));
+        });
+    }
+
+    private GraphLog logFor(Integer graphId) {
+        // 日志创建前的版本没有记录可查，视为已压缩
+        return logs.computeIfAbsent(graphId, id -> new GraphLog(graphVersionService.currentVersion(id)));
+    }
+
+    private record PendingChange(ChangeKind kind, String id, Object payload) {
+    }
+
+    private static final class GraphLog {
+        private final ArrayDeque<ChangeEntry> entries = new ArrayDeque<>();
+        private long compactedThrough;
+
+        private GraphLog(long compactedThrough) {
+            this.compactedThrough = compactedThrough;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.sdu.kgplatform.service;
+
+/**
+ * 图谱内容变更事件，由 GraphChangeLogService 在版本递增后发布
+ *
+ * @param graphId 图谱ID
+ * @param version 变更后的图谱版本
+ * @param deleted 图谱是否已被删除
+ * @param reset   是否为无法逐条描述的批量变更（清空、合并、实体消解等）
+ */
+public record GraphChangedEvent(Integer graphId, long version, boolean deleted, boolean reset) {
+}
@@ -0,0 +1,174 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.Triangles;
+import com.sdu.kgplatform.analytics.UndirectedAdjacency;
+import com.sdu.kgplatform.entity.KnowledgeGraph;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 图谱聚类系数服务
+ * 在 CSR 投影的无向视图上做三角形计数，全局 / 平均局部聚类系数写入 knowledge_graph，
+ * 节点级三角形数与局部聚类系数写回节点属性 triangles / clustering
+ */
+@Service
+public class GraphClusteringService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphClusteringService.class);
+
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private static final String WRITE_CYPHER = "UNWIND $rows AS row " +
+            "MATCH (n:Entity {nodeId: row.nodeId}) WHERE n.graphId = $graphId " +
+            "SET n.triangles = row.triangles, n.clustering = row.clustering";
+
+    private final GraphProjectionService projectionService;
+    private final GraphVersionService graphVersionService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final Driver neo4jDriver;
+    private final ForkJoinPool analyticsPool;
+
+    /** 最近一次计算所基于的图谱版本 */
+    private final ConcurrentHashMap<Integer, Long> computedVersions = new ConcurrentHashMap<>();
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+    public GraphClusteringService(GraphProjectionService projectionService,
+                                  GraphVersionService graphVersionService,
+                                  KnowledgeGraphRepository graphRepository,
+                                  Driver neo4jDriver,
+                                  @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool) {
+        this.projectionService = projectionService;
+        this.graphVersionService = graphVersionService;
+        this.graphRepository = graphRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.analyticsPool = analyticsPool;
+    }
+
+    /**
+     * 提交单个图谱的计算任务，同一图谱已在计算中时返回 false
+     */
+    public boolean submit(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        return enqueue(graphId);
+    }
+
+    /**
+     * 为未计算过或已变化的图谱提交计算，返回提交数量
+     */
+    public int refreshStale() {
+        int submitted = 0;
+        for (Integer graphId : graphRepository.findNonEmptyGraphIds()) {
+            Long version = computedVersions.get(graphId);
+            if (version == null || version != graphVersionService.currentVersion(graphId)) {
+                if (enqueue(graphId)) {
+                    submitted++;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * 获取图谱级聚类指标；尚未计算过时 available=false
+     */
+    public Map<String, Object> getMetrics(Integer graphId) {
+        KnowledgeGraph graph = graphRepository.findById(graphId)
+                .orElseThrow(() -> new IllegalArgumentException("图谱不存在: " + graphId));
+        Long version = computedVersions.get(graphId);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("available", graph.getTriangleCount() != null);
+        result.put("running", running.contains(graphId));
+        result.put("stale", version == null || version != graphVersionService.currentVersion(graphId));
+        result.put("triangleCount", graph.getTriangleCount());
+        result.put("globalClustering", graph.getGlobalClustering());
+        result.put("averageClustering", graph.getAverageClustering());
+        return result;
+    }
+
+    public boolean isRunning(Integer graphId) {
+        return running.contains(graphId);
+    }
+
+    /**
+     * 图谱删除时丢弃版本记录
+     */
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            computedVersions.remove(event.graphId());
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private boolean enqueue(Integer graphId) {
+        if (!running.add(graphId)) {
+            return false;
+        }
+        analyticsPool.execute(() -> {
+            try {
+                compute(graphId);
+            } catch (Exception e) {
+                log.error("聚类系数计算失败 - graphId={}: {}", graphId, e.getMessage());
+            } finally {
+                running.remove(graphId);
+            }
+        });
+        return true;
+    }
+
+    private void compute(Integer graphId) {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(graphId);
+        UndirectedAdjacency adjacency = UndirectedAdjacency.of(graph);
+        // 在分析线程池内执行，并行流使用同一个池
+        Triangles.Result result = Triangles.count(adjacency, true);
+
+        writeBack(graphId, graph, adjacency, result);
+        graphRepository.updateClusteringMetrics(graphId, result.total(),
+                BigDecimal.valueOf(result.globalClustering()).setScale(4, RoundingMode.HALF_UP),
+                BigDecimal.valueOf(result.averageClustering()).setScale(4, RoundingMode.HALF_UP));
+        computedVersions.put(graphId, graph.version());
+
+        log.info("聚类系数计算完成 - graphId={}, 三角形={}, 全局={}, 平均局部={}, 耗时={}ms",
+                graphId, result.total(), result.globalClustering(), result.averageClustering(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void writeBack(Integer graphId, CsrGraph graph, UndirectedAdjacency adjacency, Triangles.Result result) {
+        try (Session session = neo4jDriver.session()) {
+            List<Map<String, Object>> rows = new ArrayList<>(WRITE_BATCH_SIZE);
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                rows.add(Map.of(
+                        "nodeId", graph.nodeId(v),
+                        "triangles", result.perNode()[v],
+                        "clustering", Triangles.localClustering(adjacency, result, v)));
+                if (rows.size() == WRITE_BATCH_SIZE || v == graph.nodeCount() - 1) {
+                    Map<String, Object> params = Map.of("graphId", graphId, "rows", rows);
+                    session.executeWrite(tx -> tx.run(WRITE_CYPHER, params).consume());
+                    rows = new ArrayList<>(WRITE_BATCH_SIZE);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.Communities;
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.dto.CommunitySummaryDto;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 图谱社区发现服务
+ * 在 CSR 投影上做限时标签传播，社区编号写回节点的 communityId 属性供可视化分组/折叠，
+ * 社区摘要在计算完成时生成并缓存
+ */
+@Service
+public class GraphCommunityService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphCommunityService.class);
+
+    public static final int MAX_COMMUNITIES = 200;
+
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final int MAX_ITERATIONS = 50;
+    private static final int TOP_MEMBERS = 5;
+    private static final int MAX_NEIGHBORS = 10;
+
+    private static final String WRITE_CYPHER = "UNWIND $rows AS row " +
+            "MATCH (n:Entity {nodeId: row.nodeId}) WHERE n.graphId = $graphId " +
+            "SET n.communityId = row.communityId";
+
+    /**
+     * 一次计算的结果
+     */
+    private record Detection(long version, LocalDateTime computedAt, int communityCount, boolean converged,
+                             List<CommunitySummaryDto> summaries) {
+    }
+
+    private final GraphProjectionService projectionService;
+    private final GraphVersionService graphVersionService;
+    private final GraphVisualizationCache visualizationCache;
+    private final KnowledgeGraphRepository graphRepository;
+    private final Driver neo4jDriver;
+    private final ForkJoinPool analyticsPool;
+    private final long timeoutMillis;
+
+    private final ConcurrentHashMap<Integer, Detection> detections = new ConcurrentHashMap<>();
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+    public GraphCommunityService(GraphProjectionService projectionService,
+                                 GraphVersionService graphVersionService,
+                                 GraphVisualizationCache visualizationCache,
+                                 KnowledgeGraphRepository graphRepository,
+                                 Driver neo4jDriver,
+                                 @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool,
+                                 @Value("${app.analytics.community.timeout-ms:30000}") long timeoutMillis) {
+        this.projectionService = projectionService;
+        this.graphVersionService = graphVersionService;
+        this.visualizationCache = visualizationCache;
+        this.graphRepository = graphRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.analyticsPool = analyticsPool;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // ==================== 提交计算 ====================
+
+    /**
+     * 提交单个图谱的社区发现任务，同一图谱已在计算中时返回 false
+     */
+    public boolean submit(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        return enqueue(graphId);
+    }
+
+    /**
+     * 为结果缺失或已过期的图谱提交计算，返回提交数量
+     */
+    public int refreshStale() {
+        int submitted = 0;
+        for (Integer graphId : graphRepository.findNonEmptyGraphIds()) {
+            Detection detection = detections.get(graphId);
+            if (detection == null || detection.version() != graphVersionService.currentVersion(graphId)) {
+                if (enqueue(graphId)) {
+                    submitted++;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    public boolean isRunning(Integer graphId) {
+        return running.contains(graphId);
+    }
+
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            detections.remove(event.graphId());
+        }
+    }
+
+    // ==================== 查询摘要 ====================
+
+    /**
+     * 获取社区摘要（按规模降序）；尚无结果时返回 available=false，不提交计算
+     */
+    public Map<String, Object> getSummaries(Integer graphId, int limit) {
+        if (limit < 1 || limit > MAX_COMMUNITIES) {
+            throw new IllegalArgumentException("limit 必须在 1 到 " + MAX_COMMUNITIES + " 之间");
+        }
+        Map<String, Object> result = new HashMap<>();
+        Detection detection = detections.get(graphId);
+        if (detection == null) {
+            result.put("available", false);
+            result.put("running", isRunning(graphId));
+            return result;
+        }
+        result.put("available", true);
+        result.put("running", isRunning(graphId));
+        result.put("computedAt", detection.computedAt());
+        result.put("stale", detection.version() != graphVersionService.currentVersion(graphId));
+        result.put("converged", detection.converged());
+        result.put("communityCount", detection.communityCount());
+        List<CommunitySummaryDto> summaries = detection.summaries();
+        result.put("communities", summaries.subList(0, Math.min(limit, summaries.size())));
+        return result;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private boolean enqueue(Integer graphId) {
+        if (!running.add(graphId)) {
+            return false;
+        }
+        analyticsPool.execute(() -> {
+            try {
+                detect(graphId);
+            } catch (Exception e) {
+                log.error("社区发现失败 - graphId={}: {}", graphId, e.getMessage());
+            } finally {
+                running.remove(graphId);
+            }
+        });
+        return true;
+    }
+
+    private void detect(Integer graphId) {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(graphId);
+        Communities.Result result = Communities.labelPropagation(graph, MAX_ITERATIONS, graphId,
+                System.nanoTime() + timeoutMillis * 1_000_000L);
+
+        writeBack(graphId, graph, result.membership());
+        // 可视化快照包含 communityId，写回不递增版本，需主动失效
+        visualizationCache.evict(graphId);
+
+        List<Communities.Summary> summaries = Communities.summarize(graph, result, TOP_MEMBERS, MAX_NEIGHBORS);
+        List<CommunitySummaryDto> dtos = new ArrayList<>(Math.min(summaries.size(), MAX_COMMUNITIES));
+        for (Communities.Summary summary : summaries.subList(0, Math.min(summaries.size(), MAX_COMMUNITIES))) {
+            dtos.add(toDto(graph, summary));
+        }
+        detections.put(graphId, new Detection(graph.version(), LocalDateTime.now(), result.count(),
+                result.converged(), dtos));
+
+        log.info("社区发现完成 - graphId={}, nodes={}, 社区数={}, 迭代={}, 收敛={}, 耗时={}ms",
+                graphId, graph.nodeCount(), result.count(), result.iterations(), result.converged(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void writeBack(Integer graphId, CsrGraph graph, int[] membership) {
+        try (Session session = neo4jDriver.session()) {
+            List<Map<String, Object>> rows = new ArrayList<>(WRITE_BATCH_SIZE);
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                rows.add(Map.of("nodeId", graph.nodeId(v), "communityId", membership[v]));
+                if (rows.size() == WRITE_BATCH_SIZE || v == graph.nodeCount() - 1) {
+                    Map<String, Object> params = Map.of("graphId", graphId, "rows", rows);
+                    session.executeWrite(tx -> tx.run(WRITE_CYPHER, params).consume());
+                    rows = new ArrayList<>(WRITE_BATCH_SIZE);
+                }
+            }
+        }
+    }
+
+    private static CommunitySummaryDto toDto(CsrGraph graph, Communities.Summary summary) {
+        List<LiteNodeDto> members = new ArrayList<>(summary.topMembers().length);
+        for (int v : summary.topMembers()) {
+            members.add(LiteNodeDto.builder()
+                    .nodeId(graph.nodeId(v))
+                    .name(graph.name(v))
+                    .type(graph.nodeType(v))
+                    .communityId(summary.id())
+                    .build());
+        }
+        List<CommunitySummaryDto.NeighborCommunity> neighbors = new ArrayList<>(summary.neighbors().size());
+        for (long[] neighbor : summary.neighbors()) {
+            neighbors.add(new CommunitySummaryDto.NeighborCommunity((int) neighbor[0], neighbor[1]));
+        }
+        return CommunitySummaryDto.builder()
+                .communityId(summary.id())
+                .size(summary.size())
+                .internalEdges(summary.internalEdges())
+                .topMembers(members)
+                .neighbors(neighbors)
+                .build();
+    }
+}
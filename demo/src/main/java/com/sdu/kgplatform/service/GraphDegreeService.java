@@ -0,0 +1,88 @@
+package com.sdu.kgplatform.service;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 节点度数回填服务
+ * 日常写路径在创建/删除关系的同一条 Cypher 中增量维护 outDegree / inDegree / totalDegree，
+ * 这里负责对历史数据（或怀疑计数漂移的图谱）按实际关系重新计算
+ */
+@Service
+public class GraphDegreeService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphDegreeService.class);
+
+    /**
+     * 按图谱重算度数，分批提交避免大图谱单事务过大（需在自动提交事务中执行）
+     */
+    private static final String RECOMPUTE_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "CALL { WITH n " +
+            "WITH n, COUNT { (n)-[:RELATES_TO]->() } AS outDeg, COUNT { (n)<-[:RELATES_TO]-() } AS inDeg " +
+            "SET n.outDegree = outDeg, n.inDegree = inDeg, n.totalDegree = outDeg + inDeg " +
+            "} IN TRANSACTIONS OF 1000 ROWS";
+
+    private static final String GRAPH_IDS_CYPHER = "MATCH (n:Entity) WHERE n.graphId IS NOT NULL " +
+            "RETURN DISTINCT n.graphId AS graphId";
+
+    private final Driver neo4jDriver;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
+
+    public GraphDegreeService(Driver neo4jDriver) {
+        this.neo4jDriver = neo4jDriver;
+    }
+
+    /**
+     * 重算单个图谱的节点度数
+     */
+    public void recomputeDegrees(Integer graphId) {
+        try (Session session = neo4jDriver.session()) {
+            session.run(RECOMPUTE_CYPHER, Map.of("graphId", graphId)).consume();
+        }
+        log.info("图谱节点度数已重算 - graphId={}", graphId);
+    }
+
+    /**
+     * 异步回填所有图谱的节点度数（一次性任务，重复触发时直接返回）
+     */
+    @Async
+    public void backfillAll() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            log.info("度数回填任务已在执行中，忽略本次触发");
+            return;
+        }
+        try {
+            List<Integer> graphIds;
+            try (Session session = neo4jDriver.session()) {
+                graphIds = session.run(GRAPH_IDS_CYPHER).list(r -> r.get("graphId").asInt());
+            }
+            log.info("开始回填节点度数 - 共 {} 个图谱", graphIds.size());
+            for (Integer graphId : graphIds) {
+                try {
+                    recomputeDegrees(graphId);
+                } catch (Exception e) {
+                    // 单个图谱失败不影响其他
+                    log.error("回填节点度数失败 - graphId={}: {}", graphId, e.getMessage());
+                }
+            }
+            log.info("节点度数回填完成");
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    /**
+     * 回填任务是否正在执行
+     */
+    public boolean isBackfillRunning() {
+        return backfillRunning.get();
+    }
+}
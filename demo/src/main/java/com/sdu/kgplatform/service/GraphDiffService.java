@@ -0,0 +1,343 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.GraphDiff;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 图谱差异服务
+ * 两个图谱的节点（按名称）与关系（按源节点名称、类型、目标节点名称）由 Neo4j 排序后分批读出，
+ * 在应用端归并连接。每批查询都带 LIMIT 并从上一批最后一个键之后继续：批起点由 (graphId, name) 复合索引
+ * （见 DatabaseInitializer）定位，服务端只做保留一批行的 Top-K 排序，应用端每侧也只持有一批记录。
+ * 分页以最后处理的键为游标，下一页从游标之后重新查询
+ */
+@Service
+public class GraphDiffService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphDiffService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * 分页查询每批在页大小之外多取的行数（两侧相同的行不计入页内差异）
+     */
+    private static final int PAGE_SLACK = 500;
+
+    /**
+     * 生成完整报告时每批读取的行数
+     */
+    private static final int REPORT_BATCH = 10_000;
+
+    /**
+     * $inclusive 为 true 时包含等于 $name 的行（上一批末尾被截断的同键行）
+     */
+    private static final String NODES_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $graphId AND n.name >= $name " +
+            "AND ($inclusive OR n.name > $name) " +
+            "RETURN n.name AS name, coalesce(n.type, '') AS type, coalesce(n.description, '') AS description " +
+            "ORDER BY name, type, description LIMIT $limit";
+
+    private static final String EDGES_CYPHER = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) " +
+            "WHERE a.graphId = $graphId AND a.name >= $source AND b.name IS NOT NULL " +
+            "WITH a.name AS source, coalesce(r.type, '') AS type, b.name AS target " +
+            "WHERE source > $source OR (source = $source AND (type > $type OR (type = $type " +
+            "AND (target > $target OR ($inclusive AND target = $target))))) " +
+            "RETURN source, type, target ORDER BY source, type, target LIMIT $limit";
+
+    private final KnowledgeGraphRepository graphRepository;
+    private final Driver neo4jDriver;
+
+    public GraphDiffService(KnowledgeGraphRepository graphRepository, Driver neo4jDriver) {
+        this.graphRepository = graphRepository;
+        this.neo4jDriver = neo4jDriver;
+    }
+
+    /**
+     * 校验两个图谱均存在
+     */
+    public void validateGraphs(Integer baseGraphId, Integer targetGraphId) {
+        for (Integer graphId : new Integer[]{baseGraphId, targetGraphId}) {
+            if (graphId == null || !graphRepository.existsById(graphId)) {
+                throw new IllegalArgumentException("图谱不存在: " + graphId);
+            }
+        }
+    }
+
+    /**
+     * 获取一页差异
+     *
+     * @param section nodes 或 relations
+     * @param cursor  上一页返回的 nextCursor，首页为 null
+     * @return items 本页差异，nextCursor 下一页游标（已到末尾时为 null）
+     */
+    public Map<String, Object> getDiffPage(Integer baseGraphId, Integer targetGraphId, String section,
+                                           String cursor, int size) {
+        validateGraphs(baseGraphId, targetGraphId);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size 必须在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        List<GraphDiff.Entry<?>> items = new ArrayList<>(size);
+        String nextCursor;
+        if ("nodes".equals(section)) {
+            String[] after = decodeCursor(cursor, 1);
+            GraphDiff.NodeRow last = diffNodes(baseGraphId, targetGraphId, after[0], size + PAGE_SLACK, entry -> {
+                items.add(entry);
+                return items.size() < size;
+            });
+            nextCursor = last == null ? null : encodeCursor(last.name());
+        } else if ("relations".equals(section)) {
+            String[] after = decodeCursor(cursor, 3);
+            GraphDiff.EdgeRow last = diffEdges(baseGraphId, targetGraphId, after, size + PAGE_SLACK, entry -> {
+                items.add(entry);
+                return items.size() < size;
+            });
+            nextCursor = last == null ? null : encodeCursor(last.source(), last.type(), last.target());
+        } else {
+            throw new IllegalArgumentException("不支持的差异类别: " + section);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("section", section);
+        result.put("items", items);
+        result.put("nextCursor", nextCursor);
+        return result;
+    }
+
+    /**
+     * 把完整差异以 CSV 写入输出流（带 BOM 以便 Excel 识别 UTF-8），末尾附统计
+     */
+    public void writeReport(Integer baseGraphId, Integer targetGraphId, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+        Map<GraphDiff.Change, Long> nodeCounts = new EnumMap<>(GraphDiff.Change.class);
+        Map<GraphDiff.Change, Long> edgeCounts = new EnumMap<>(GraphDiff.Change.class);
+        try {
+            writer.write("# 节点差异\n变更,节点名称,原类型,新类型,原描述,新描述\n");
+            diffNodes(baseGraphId, targetGraphId, "", REPORT_BATCH, entry -> {
+                GraphDiff.NodeRow before = entry.before();
+                GraphDiff.NodeRow after = entry.after();
+                GraphDiff.NodeRow any = before != null ? before : after;
+                writeLine(writer, entry.change().name(), any.name(),
+                        before != null ? before.type() : "", after != null ? after.type() : "",
+                        before != null ? before.description() : "", after != null ? after.description() : "");
+                nodeCounts.merge(entry.change(), 1L, Long::sum);
+                return true;
+            });
+
+            writer.write("\n# 关系差异\n变更,源节点,关系类型,目标节点\n");
+            diffEdges(baseGraphId, targetGraphId, new String[]{"", "", ""}, REPORT_BATCH, entry -> {
+                GraphDiff.EdgeRow row = entry.before() != null ? entry.before() : entry.after();
+                writeLine(writer, entry.change().name(), row.source(), row.type(), row.target());
+                edgeCounts.merge(entry.change(), 1L, Long::sum);
+                return true;
+            });
+
+            writer.write("\n# 统计\n类别,新增,删除,修改\n");
+            writeLine(writer, "节点", count(nodeCounts, GraphDiff.Change.ADDED),
+                    count(nodeCounts, GraphDiff.Change.REMOVED), count(nodeCounts, GraphDiff.Change.CHANGED));
+            writeLine(writer, "关系", count(edgeCounts, GraphDiff.Change.ADDED),
+                    count(edgeCounts, GraphDiff.Change.REMOVED), "0");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("图谱差异报告已生成 - base={}, target={}, 耗时={}ms",
+                baseGraphId, targetGraphId, System.currentTimeMillis() - start);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private GraphDiff.NodeRow diffNodes(Integer baseGraphId, Integer targetGraphId, String afterName, int batchSize,
+                                        Predicate<GraphDiff.Entry<GraphDiff.NodeRow>> sink) {
+        // 两侧各占一个会话，各自分批拉取
+        try (Session baseSession = neo4jDriver.session();
+             Session targetSession = neo4jDriver.session()) {
+            Map<String, Object> start = Map.of("name", afterName);
+            Function<GraphDiff.NodeRow, Map<String, Object>> keyParams = row -> Map.of("name", row.name());
+            return GraphDiff.diff(
+                    new BatchedRows<>(baseSession, NODES_CYPHER, baseGraphId, start, batchSize,
+                            GraphDiffService::toNodeRow, GraphDiff.NODE_KEY, keyParams),
+                    new BatchedRows<>(targetSession, NODES_CYPHER, targetGraphId, start, batchSize,
+                            GraphDiffService::toNodeRow, GraphDiff.NODE_KEY, keyParams),
+                    GraphDiff.NODE_KEY, sink);
+        }
+    }
+
+    private GraphDiff.EdgeRow diffEdges(Integer baseGraphId, Integer targetGraphId, String[] after, int batchSize,
+                                        Predicate<GraphDiff.Entry<GraphDiff.EdgeRow>> sink) {
+        try (Session baseSession = neo4jDriver.session();
+             Session targetSession = neo4jDriver.session()) {
+            Map<String, Object> start = Map.of("source", after[0], "type", after[1], "target", after[2]);
+            Function<GraphDiff.EdgeRow, Map<String, Object>> keyParams =
+                    row -> Map.of("source", row.source(), "type", row.type(), "target", row.target());
+            return GraphDiff.diff(
+                    new BatchedRows<>(baseSession, EDGES_CYPHER, baseGraphId, start, batchSize,
+                            GraphDiffService::toEdgeRow, GraphDiff.EDGE_KEY, keyParams),
+                    new BatchedRows<>(targetSession, EDGES_CYPHER, targetGraphId, start, batchSize,
+                            GraphDiffService::toEdgeRow, GraphDiff.EDGE_KEY, keyParams),
+                    GraphDiff.EDGE_KEY, sink);
+        }
+    }
+
+    private static GraphDiff.NodeRow toNodeRow(Record record) {
+        return new GraphDiff.NodeRow(record.get("name").asString(), record.get("type").asString(),
+                record.get("description").asString());
+    }
+
+    private static GraphDiff.EdgeRow toEdgeRow(Record record) {
+        return new GraphDiff.EdgeRow(record.get("source").asString(), record.get("type").asString(),
+                record.get("target").asString());
+    }
+
+    /**
+     * 游标为各键分量以 \0 连接后的 URL 安全 Base64
+     */
+    private static String encodeCursor(String... parts) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("\u0000", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, int parts) {
+        if (cursor == null || cursor.isEmpty()) {
+            String[] empty = new String[parts];
+            Arrays.fill(empty, "");
+            return empty;
+        }
+        try {
+            String[] decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\u0000", -1);
+            if (decoded.length == parts) {
+                return decoded;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // 落到下面统一报错
+        }
+        throw new IllegalArgumentException("无效的分页游标");
+    }
+
+    private static void writeLine(Writer writer, String... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escapeCsv(values[i]));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String count(Map<GraphDiff.Change, Long> counts, GraphDiff.Change change) {
+        return String.valueOf(counts.getOrDefault(change, 0L));
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+    /**
+     * 单侧的分批有序输入：每批 LIMIT batchSize 行，耗尽后从本批最后一个键继续查询
+     * 满批末尾与最后一行同键的行留到下一批以“大于等于该键”整组取回，保证同键行不会被批边界拆开；
+     * 整批都是同一个键时加倍批大小重试
+     */
+    private static final class BatchedRows<T> implements Iterator<T> {
+
+        private final Session session;
+        private final String cypher;
+        private final Integer graphId;
+        private final Function<Record, T> mapper;
+        private final Comparator<T> key;
+        private final Function<T, Map<String, Object>> keyParams;
+        private final ArrayDeque<T> buffer = new ArrayDeque<>();
+        private Map<String, Object> after;
+        private boolean inclusive;
+        private int batchSize;
+        private boolean exhausted;
+
+        BatchedRows(Session session, String cypher, Integer graphId, Map<String, Object> after, int batchSize,
+                    Function<Record, T> mapper, Comparator<T> key, Function<T, Map<String, Object>> keyParams) {
+            this.session = session;
+            this.cypher = cypher;
+            this.graphId = graphId;
+            this.after = after;
+            this.batchSize = batchSize;
+            this.mapper = mapper;
+            this.key = key;
+            this.keyParams = keyParams;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (buffer.isEmpty() && !exhausted) {
+                fetch();
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer.poll();
+        }
+
+        private void fetch() {
+            Map<String, Object> params = new HashMap<>(after);
+            params.put("graphId", graphId);
+            params.put("inclusive", inclusive);
+            params.put("limit", batchSize);
+            List<T> batch = session.run(cypher, params).list(mapper::apply);
+            if (batch.size() < batchSize) {
+                buffer.addAll(batch);
+                exhausted = true;
+                return;
+            }
+            T last = batch.get(batch.size() - 1);
+            int end = batch.size();
+            while (end > 0 && key.compare(batch.get(end - 1), last) == 0) {
+                end--;
+            }
+            if (end == 0) {
+                batchSize *= 2;
+                return;
+            }
+            buffer.addAll(batch.subList(0, end));
+            after = keyParams.apply(last);
+            inclusive = true;
+        }
+    }
+}
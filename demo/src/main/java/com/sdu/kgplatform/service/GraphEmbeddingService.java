@@ -0,0 +1,362 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.Hnsw;
+import com.sdu.kgplatform.analytics.NodeEmbedding;
+import com.sdu.kgplatform.analytics.UndirectedAdjacency;
+import com.sdu.kgplatform.dto.SimilarEntityDto;
+import com.sdu.kgplatform.entity.KnowledgeGraph;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 节点嵌入服务
+ * 在分析线程池中对图谱做 DeepWalk 训练并建立 HNSW 索引，索引写入 {dir}/graph-{graphId}.emb 后以只读内存映射提供查询；
+ * 启动时映射已有文件，查询不依赖堆内副本。文件布局（小端序）：
+ * [magic, 格式版本, graphId, 保留] [训练时图谱版本 long] [HNSW 区] [节点数, (UTF-8 长度, nodeId 字节)...]
+ */
+@Service
+public class GraphEmbeddingService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphEmbeddingService.class);
+
+    public static final int MAX_K = 100;
+
+    private static final int MAGIC = 0x4B47454D;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final String FILE_SUFFIX = ".emb";
+
+    /** 训练完成的模型：映射中的索引与下标到 nodeId 的对应 */
+    private record Model(long version, LocalDateTime trainedAt, Hnsw index, String[] nodeIds,
+                         Map<String, Integer> indexOf) {
+    }
+
+    private final GraphProjectionService projectionService;
+    private final GraphVersionService graphVersionService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final ForkJoinPool analyticsPool;
+    private final String storageDir;
+    private final NodeEmbedding.Params embeddingParams;
+    private final Hnsw.Params indexParams;
+    private final int efSearch;
+    private final long timeoutMillis;
+
+    private Path root;
+    private final ConcurrentHashMap<Integer, Model> models = new ConcurrentHashMap<>();
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+    public GraphEmbeddingService(GraphProjectionService projectionService,
+                                 GraphVersionService graphVersionService,
+                                 KnowledgeGraphRepository graphRepository,
+                                 @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool,
+                                 @Value("${app.analytics.embedding.dir:data/embeddings}") String storageDir,
+                                 @Value("${app.analytics.embedding.dimensions:64}") int dimensions,
+                                 @Value("${app.analytics.embedding.walks-per-node:8}") int walksPerNode,
+                                 @Value("${app.analytics.embedding.walk-length:30}") int walkLength,
+                                 @Value("${app.analytics.embedding.window:4}") int window,
+                                 @Value("${app.analytics.embedding.negatives:5}") int negatives,
+                                 @Value("${app.analytics.embedding.hnsw-m:16}") int hnswM,
+                                 @Value("${app.analytics.embedding.ef-construction:100}") int efConstruction,
+                                 @Value("${app.analytics.embedding.ef-search:64}") int efSearch,
+                                 @Value("${app.analytics.embedding.timeout-ms:600000}") long timeoutMillis) {
+        if (dimensions < 1 || walksPerNode < 1 || walkLength < 2 || window < 1 || negatives < 0 || hnswM < 2) {
+            throw new IllegalArgumentException("嵌入训练参数无效");
+        }
+        this.projectionService = projectionService;
+        this.graphVersionService = graphVersionService;
+        this.graphRepository = graphRepository;
+        this.analyticsPool = analyticsPool;
+        this.storageDir = storageDir;
+        this.embeddingParams = new NodeEmbedding.Params(dimensions, walksPerNode, walkLength, window, negatives,
+                0.025f, 42L);
+        this.indexParams = new Hnsw.Params(hnswM, efConstruction, 42L);
+        this.efSearch = efSearch;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 创建存储目录并映射已持久化的索引；对应图谱已删除的文件一并清理
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            root = Paths.get(storageDir);
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not initialize embedding storage", e);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "graph-*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                loadPersisted(file);
+            }
+        } catch (IOException e) {
+            log.warn("读取嵌入索引目录失败: {}", e.getMessage());
+        }
+        log.info("已加载 {} 个图谱的嵌入索引", models.size());
+    }
+
+    // ==================== 提交训练 ====================
+
+    /**
+     * 提交单个图谱的训练任务，同一图谱已在训练中时返回 false
+     */
+    public boolean submit(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        return enqueue(graphId);
+    }
+
+    /**
+     * 为没有模型或模型已过期的图谱提交训练，返回提交数量
+     */
+    public int refreshStale() {
+        int submitted = 0;
+        for (Integer graphId : graphRepository.findNonEmptyGraphIds()) {
+            Model model = models.get(graphId);
+            if (model == null || model.version() != graphVersionService.currentVersion(graphId)) {
+                if (enqueue(graphId)) {
+                    submitted++;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    public boolean isRunning(Integer graphId) {
+        return running.contains(graphId);
+    }
+
+    /**
+     * 图谱删除时丢弃模型并删除索引文件
+     */
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            models.remove(event.graphId());
+            try {
+                Files.deleteIfExists(fileFor(event.graphId()));
+            } catch (IOException e) {
+                log.warn("删除嵌入索引文件失败 - graphId={}: {}", event.graphId(), e.getMessage());
+            }
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 查询与指定实体最相似的 k 个实体；尚无模型时返回 available=false，不提交训练
+     */
+    public Map<String, Object> findSimilar(Integer graphId, String nodeId, int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k 必须在 1 到 " + MAX_K + " 之间");
+        }
+        Map<String, Object> result = new HashMap<>();
+        Model model = models.get(graphId);
+        if (model == null) {
+            result.put("available", false);
+            result.put("running", isRunning(graphId));
+            return result;
+        }
+        Integer index = model.indexOf().get(nodeId);
+        if (index == null) {
+            throw new IllegalArgumentException("节点尚无嵌入向量（训练后新增或不存在）: " + nodeId);
+        }
+
+        // 名称、类型取自当前投影，训练后已删除的节点不返回
+        CsrGraph graph = projectionService.getProjection(graphId);
+        List<SimilarEntityDto> similar = new ArrayList<>(k);
+        for (Hnsw.Neighbor neighbor : model.index().similarTo(index, k * 2, Math.max(efSearch, k * 2))) {
+            int v = graph.indexOf(model.nodeIds()[neighbor.id()]);
+            if (v < 0) {
+                continue;
+            }
+            similar.add(SimilarEntityDto.builder()
+                    .nodeId(graph.nodeId(v))
+                    .name(graph.name(v))
+                    .type(graph.nodeType(v))
+                    .similarity(neighbor.similarity())
+                    .build());
+            if (similar.size() == k) {
+                break;
+            }
+        }
+        result.put("available", true);
+        result.put("stale", model.version() != graphVersionService.currentVersion(graphId));
+        result.put("running", isRunning(graphId));
+        result.put("trainedAt", model.trainedAt());
+        result.put("similar", similar);
+        return result;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private boolean enqueue(Integer graphId) {
+        if (!running.add(graphId)) {
+            return false;
+        }
+        analyticsPool.execute(() -> {
+            try {
+                train(graphId);
+            } catch (Exception e) {
+                log.error("嵌入训练失败 - graphId={}: {}", graphId, e.getMessage());
+            } finally {
+                running.remove(graphId);
+            }
+        });
+        return true;
+    }
+
+    private void train(Integer graphId) throws IOException {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(graphId);
+        UndirectedAdjacency adjacency = UndirectedAdjacency.of(graph);
+        float[] vectors = NodeEmbedding.train(adjacency, embeddingParams, true,
+                System.nanoTime() + timeoutMillis * 1_000_000L);
+        long trained = System.currentTimeMillis();
+        Hnsw index = Hnsw.build(vectors, embeddingParams.dimensions(), indexParams);
+
+        String[] nodeIds = new String[graph.nodeCount()];
+        for (int v = 0; v < nodeIds.length; v++) {
+            nodeIds[v] = graph.nodeId(v);
+        }
+        Path file = fileFor(graphId);
+        Path temp = root.resolve(file.getFileName() + ".tmp");
+        write(temp, graphId, graph.version(), index, nodeIds);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // 以映射后的文件替换堆内索引，训练产生的数组随即可回收
+        Model model = map(file, graph.version());
+        if (graphRepository.existsById(graphId)) {
+            models.put(graphId, model);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        log.info("嵌入训练完成 - graphId={}, nodes={}, 训练={}ms, 建索引={}ms", graphId, nodeIds.length,
+                trained - start, System.currentTimeMillis() - trained);
+    }
+
+    private void write(Path file, Integer graphId, long version, Hnsw index, String[] nodeIds) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(graphId).putInt(0).putLong(version).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            index.writeTo(channel);
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(nodeIds.length);
+            for (String nodeId : nodeIds) {
+                byte[] bytes = nodeId.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 4 + bytes.length) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                    if (buffer.remaining() < 4 + bytes.length) {
+                        buffer = ByteBuffer.allocate(4 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                }
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * 只读映射索引文件；version 为 null 时沿用文件中的训练版本
+     */
+    private Model map(Path file, Long version) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 映射在通道关闭后依然有效
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("不是可识别的嵌入索引文件: " + file);
+        }
+        long storedVersion = buffer.getLong(16);
+        Hnsw index = Hnsw.wrap(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+
+        ByteBuffer names = buffer.slice((int) (HEADER_BYTES + index.byteSize()),
+                (int) (buffer.capacity() - HEADER_BYTES - index.byteSize())).order(ByteOrder.LITTLE_ENDIAN);
+        String[] nodeIds = new String[names.getInt()];
+        Map<String, Integer> indexOf = new HashMap<>(nodeIds.length * 2);
+        for (int v = 0; v < nodeIds.length; v++) {
+            byte[] bytes = new byte[names.getInt()];
+            names.get(bytes);
+            nodeIds[v] = new String(bytes, StandardCharsets.UTF_8);
+            indexOf.put(nodeIds[v], v);
+        }
+        LocalDateTime trainedAt = LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(),
+                ZoneId.systemDefault());
+        return new Model(version != null ? version : storedVersion, trainedAt, index, nodeIds, indexOf);
+    }
+
+    /**
+     * 启动时加载：进程内版本号已重置，节点数与图谱一致时视为最新，否则标记为过期等待定时刷新
+     */
+    private void loadPersisted(Path file) {
+        try {
+            Integer graphId;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                channel.read(header, 0);
+                graphId = header.getInt(8);
+            }
+            KnowledgeGraph graph = graphRepository.findById(graphId).orElse(null);
+            if (graph == null) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            Model model = map(file, graphVersionService.currentVersion(graphId));
+            if (graph.getNodeCount() == null || graph.getNodeCount() != model.nodeIds().length) {
+                model = new Model(-1L, model.trainedAt(), model.index(), model.nodeIds(), model.indexOf());
+            }
+            models.put(graphId, model);
+        } catch (IOException | RuntimeException e) {
+            log.warn("加载嵌入索引失败，已忽略 - {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileFor(Integer graphId) {
+        return root.resolve("graph-" + graphId + FILE_SUFFIX);
+    }
+}
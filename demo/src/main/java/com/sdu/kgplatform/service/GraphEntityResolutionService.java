@@ -0,0 +1,332 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.EntityResolution;
+import com.sdu.kgplatform.analytics.UndirectedAdjacency;
+import com.sdu.kgplatform.dto.DuplicateCandidateDto;
+import com.sdu.kgplatform.dto.EntityMergeDto;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 实体消解服务
+ * 后台在 CSR 投影上用 MinHash/LSH 分块找出疑似重复节点（名称变体、缩写、邻居高度重合），
+ * 结果作为合并建议保存在内存中；批量合并时把源节点的关系改接到目标节点后删除源节点
+ */
+@Service
+public class GraphEntityResolutionService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphEntityResolutionService.class);
+
+    public static final int MAX_MERGE_NODES = 10000;
+
+    private static final int MERGE_BATCH_SIZE = 200;
+
+    private static final String DESCRIPTIONS_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "AND n.description IS NOT NULL RETURN n.nodeId AS nodeId, n.description AS description";
+
+    private static final String EXISTING_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "AND n.nodeId IN $nodeIds RETURN n.nodeId AS nodeId";
+
+    /**
+     * 源节点的出 / 入关系改接到目标节点（目标已有同类型同端点关系时跳过），
+     * 源与目标之间的关系及源节点自环合并后失去意义，随源节点一并删除
+     */
+    private static final String MERGE_CYPHER = "UNWIND $rows AS row " +
+            "MATCH (s:Entity {nodeId: row.source}) WHERE s.graphId = $graphId " +
+            "MATCH (t:Entity {nodeId: row.target}) WHERE t.graphId = $graphId " +
+            "CALL { WITH s, t MATCH (s)-[r:RELATES_TO]->(o:Entity) WHERE o <> s AND o <> t " +
+            "AND NOT EXISTS { MATCH (t)-[x:RELATES_TO]->(o) WHERE x.type = r.type } " +
+            "CREATE (t)-[r2:RELATES_TO]->(o) SET r2 = properties(r) RETURN count(r2) AS outMoved } " +
+            "CALL { WITH s, t MATCH (s)<-[r:RELATES_TO]-(o:Entity) WHERE o <> s AND o <> t " +
+            "AND NOT EXISTS { MATCH (o)-[x:RELATES_TO]->(t) WHERE x.type = r.type } " +
+            "CREATE (o)-[r2:RELATES_TO]->(t) SET r2 = properties(r) RETURN count(r2) AS inMoved } " +
+            "SET t.description = coalesce(t.description, s.description), t.type = coalesce(t.type, s.type) " +
+            "DETACH DELETE s " +
+            "RETURN count(*) AS merged, sum(outMoved + inMoved) AS moved";
+
+    private record Suggestions(long version, LocalDateTime computedAt, List<DuplicateCandidateDto> candidates) {
+    }
+
+    private final GraphProjectionService projectionService;
+    private final GraphVersionService graphVersionService;
+    private final GraphChangeLogService changeLogService;
+    private final GraphDegreeService degreeService;
+    private final GraphService graphService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final Driver neo4jDriver;
+    private final ForkJoinPool analyticsPool;
+    private final EntityResolution.Params params;
+
+    private final ConcurrentHashMap<Integer, Suggestions> suggestions = new ConcurrentHashMap<>();
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+    public GraphEntityResolutionService(GraphProjectionService projectionService,
+                                        GraphVersionService graphVersionService,
+                                        GraphChangeLogService changeLogService,
+                                        GraphDegreeService degreeService,
+                                        GraphService graphService,
+                                        KnowledgeGraphRepository graphRepository,
+                                        Driver neo4jDriver,
+                                        @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool,
+                                        @Value("${app.analytics.dedupe.threshold:0.6}") double threshold,
+                                        @Value("${app.analytics.dedupe.max-suggestions:500}") int maxSuggestions,
+                                        @Value("${app.analytics.dedupe.max-bucket:50}") int maxBucket) {
+        this.projectionService = projectionService;
+        this.graphVersionService = graphVersionService;
+        this.changeLogService = changeLogService;
+        this.degreeService = degreeService;
+        this.graphService = graphService;
+        this.graphRepository = graphRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.analyticsPool = analyticsPool;
+        this.params = new EntityResolution.Params(threshold, maxSuggestions, maxBucket, 42L);
+    }
+
+    /**
+     * 提交单个图谱的查重任务，同一图谱已在计算中时返回 false
+     */
+    public boolean submit(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        return enqueue(graphId);
+    }
+
+    /**
+     * 为未计算过或已变化的图谱提交查重，返回提交数量
+     */
+    public int refreshStale() {
+        int submitted = 0;
+        for (Integer graphId : graphRepository.findNonEmptyGraphIds()) {
+            Suggestions current = suggestions.get(graphId);
+            if (current == null || current.version() != graphVersionService.currentVersion(graphId)) {
+                if (enqueue(graphId)) {
+                    submitted++;
+                }
+            }
+        }
+        return submitted;
+    }
+
+    public boolean isRunning(Integer graphId) {
+        return running.contains(graphId);
+    }
+
+    /**
+     * 获取合并建议；尚未计算过时返回 available=false
+     * 只读：不提交计算，由夜间任务或已授权的计算接口负责
+     */
+    public Map<String, Object> getSuggestions(Integer graphId) {
+        Map<String, Object> result = new HashMap<>();
+        Suggestions current = suggestions.get(graphId);
+        if (current == null) {
+            result.put("available", false);
+            result.put("running", isRunning(graphId));
+            return result;
+        }
+        result.put("available", true);
+        result.put("stale", current.version() != graphVersionService.currentVersion(graphId));
+        result.put("running", isRunning(graphId));
+        result.put("computedAt", current.computedAt());
+        result.put("candidates", current.candidates());
+        return result;
+    }
+
+    /**
+     * 批量合并实体：每组的源节点并入目标节点
+     *
+     * @return merged 实际删除的源节点数，relationsMoved 改接的关系数
+     */
+    public Map<String, Object> merge(Integer graphId, List<EntityMergeDto.MergeGroup> groups) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        List<Map<String, Object>> rows = toMergeRows(groups);
+        ensureNodesExist(graphId, rows);
+
+        long merged = 0;
+        long moved = 0;
+        try (Session session = neo4jDriver.session()) {
+            for (int from = 0; from < rows.size(); from += MERGE_BATCH_SIZE) {
+                Map<String, Object> batchParams = Map.of("graphId", graphId,
+                        "rows", rows.subList(from, Math.min(rows.size(), from + MERGE_BATCH_SIZE)));
+                Record record = session.executeWrite(tx -> tx.run(MERGE_CYPHER, batchParams).single());
+                merged += record.get("merged").asLong();
+                moved += record.get("moved").asLong(0);
+            }
+        } catch (RuntimeException e) {
+            log.error("实体合并中途失败 - graphId={}, 已合并节点={}: {}", graphId, merged, e.getMessage());
+            throw e;
+        } finally {
+            // 每批单独提交，中途失败时已提交的批次同样需要刷新度数、计数、版本与合并建议；
+            // 各步骤互不影响，失败只记录日志，不覆盖合并本身的异常
+            runMaintenance(graphId, "度数重算", () -> degreeService.recomputeDegrees(graphId));
+            runMaintenance(graphId, "统计刷新", () -> graphService.updateGraphStats(graphId));
+            runMaintenance(graphId, "版本重置", () -> changeLogService.recordReset(graphId));
+            suggestions.remove(graphId);
+        }
+        log.info("实体合并完成 - graphId={}, 合并节点={}, 改接关系={}", graphId, merged, moved);
+        return Map.of("merged", merged, "relationsMoved", moved);
+    }
+
+    /**
+     * 图谱删除时丢弃合并建议
+     */
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            suggestions.remove(event.graphId());
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void runMaintenance(Integer graphId, String step, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.error("实体合并后{}失败 - graphId={}: {}", step, graphId, e.getMessage());
+        }
+    }
+
+    private boolean enqueue(Integer graphId) {
+        if (!running.add(graphId)) {
+            return false;
+        }
+        analyticsPool.execute(() -> {
+            try {
+                compute(graphId);
+            } catch (Exception e) {
+                log.error("实体查重失败 - graphId={}: {}", graphId, e.getMessage());
+            } finally {
+                running.remove(graphId);
+            }
+        });
+        return true;
+    }
+
+    private void compute(Integer graphId) {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(graphId);
+        int n = graph.nodeCount();
+        String[] names = new String[n];
+        String[] types = new String[n];
+        for (int v = 0; v < n; v++) {
+            names[v] = graph.name(v);
+            types[v] = graph.nodeType(v);
+        }
+        String[] descriptions = loadDescriptions(graphId, graph);
+
+        // 在分析线程池内执行，并行流使用同一个池
+        List<EntityResolution.Candidate> candidates = EntityResolution.findDuplicates(
+                names, descriptions, types, UndirectedAdjacency.of(graph), params, true);
+        List<DuplicateCandidateDto> dtos = new ArrayList<>(candidates.size());
+        for (EntityResolution.Candidate candidate : candidates) {
+            dtos.add(DuplicateCandidateDto.builder()
+                    .keep(toLiteNode(graph, candidate.keep()))
+                    .merge(toLiteNode(graph, candidate.merge()))
+                    .score(candidate.score())
+                    .nameSimilarity(candidate.nameSimilarity())
+                    .neighborSimilarity(candidate.neighborSimilarity())
+                    .build());
+        }
+        suggestions.put(graphId, new Suggestions(graph.version(), LocalDateTime.now(), dtos));
+        log.info("实体查重完成 - graphId={}, 节点={}, 疑似重复={}, 耗时={}ms",
+                graphId, n, dtos.size(), System.currentTimeMillis() - start);
+    }
+
+    private String[] loadDescriptions(Integer graphId, CsrGraph graph) {
+        String[] descriptions = new String[graph.nodeCount()];
+        try (Session session = neo4jDriver.session()) {
+            session.executeRead(tx -> {
+                tx.run(DESCRIPTIONS_CYPHER, Map.of("graphId", graphId)).forEachRemaining(record -> {
+                    int v = graph.indexOf(record.get("nodeId").asString());
+                    if (v >= 0) {
+                        descriptions[v] = record.get("description").asString();
+                    }
+                });
+                return null;
+            });
+        }
+        return descriptions;
+    }
+
+    /**
+     * 校验合并分组并展开为 {source, target} 行：同一节点不能出现在多个分组中，目标不能同时是源
+     */
+    private static List<Map<String, Object>> toMergeRows(List<EntityMergeDto.MergeGroup> groups) {
+        if (groups == null || groups.isEmpty()) {
+            throw new IllegalArgumentException("合并分组不能为空");
+        }
+        Set<String> seen = new HashSet<>();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (EntityMergeDto.MergeGroup group : groups) {
+            String target = group.getTargetNodeId();
+            if (target == null || target.isBlank()) {
+                throw new IllegalArgumentException("目标节点不能为空");
+            }
+            if (group.getSourceNodeIds() == null || group.getSourceNodeIds().isEmpty()) {
+                throw new IllegalArgumentException("源节点不能为空: " + target);
+            }
+            if (!seen.add(target)) {
+                throw new IllegalArgumentException("节点出现在多个合并分组中: " + target);
+            }
+            for (String source : group.getSourceNodeIds()) {
+                if (source == null || !seen.add(source)) {
+                    throw new IllegalArgumentException("节点出现在多个合并分组中: " + source);
+                }
+                rows.add(Map.of("source", source, "target", target));
+            }
+        }
+        if (rows.size() > MAX_MERGE_NODES) {
+            throw new IllegalArgumentException("单次最多合并 " + MAX_MERGE_NODES + " 个节点");
+        }
+        return rows;
+    }
+
+    private void ensureNodesExist(Integer graphId, List<Map<String, Object>> rows) {
+        Set<String> nodeIds = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            nodeIds.add((String) row.get("source"));
+            nodeIds.add((String) row.get("target"));
+        }
+        List<String> existing;
+        try (Session session = neo4jDriver.session()) {
+            existing = session.executeRead(tx -> tx.run(EXISTING_CYPHER,
+                    Map.of("graphId", graphId, "nodeIds", new ArrayList<>(nodeIds)))
+                    .list(r -> r.get("nodeId").asString()));
+        }
+        nodeIds.removeAll(existing);
+        if (!nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("节点不存在: " + nodeIds.iterator().next());
+        }
+    }
+
+    private static LiteNodeDto toLiteNode(CsrGraph graph, int v) {
+        return LiteNodeDto.builder()
+                .nodeId(graph.nodeId(v))
+                .name(graph.name(v))
+                .type(graph.nodeType(v))
+                .build();
+    }
+}
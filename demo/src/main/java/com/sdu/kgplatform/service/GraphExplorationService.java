@@ -0,0 +1,237 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.dto.EgoNetworkDto;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.dto.LiteRelationshipDto;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.TransactionContext;
+import org.neo4j.driver.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图谱探索服务
+ * 提供面向交互式浏览的有界邻域展开
+ */
+@Service
+public class GraphExplorationService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphExplorationService.class);
+
+    public static final int MAX_DEPTH = 3;
+    public static final int MAX_FANOUT = 200;
+
+    /**
+     * 单次展开返回的节点总数上限
+     */
+    private static final int MAX_NODES = 2000;
+
+    /**
+     * 单次展开返回的关系总数上限
+     */
+    private static final int MAX_LINKS = 10000;
+
+    /**
+     * 单跳展开：对整层 frontier 一次查询，每个节点按度数加权随机采样至多 $fanout 个未访问邻居。
+     * 采样键 rand()^(1/w)（加权水库抽样），w = 邻居度数 + 1，度数高的邻居更容易被保留；
+     * 这里只决定收录哪些节点，关系在全部跳展开后统一查询；{pattern} 由方向枚举生成，不接受外部输入
+     */
+    private static final String EXPAND_HOP_CYPHER = "UNWIND $frontier AS fid " +
+            "MATCH (f:Entity {nodeId: fid}){pattern}(m:Entity) " +
+            "WHERE m.graphId = $graphId AND NOT m.nodeId IN $visited " +
+            "AND ($relationTypes IS NULL OR r.type IN $relationTypes) " +
+            "AND ($nodeTypes IS NULL OR m.type IN $nodeTypes) " +
+            "WITH DISTINCT f, m " +
+            "WITH f, m, rand() ^ (1.0 / (coalesce(m.totalDegree, 0) + 1)) AS sampleKey " +
+            "ORDER BY sampleKey DESC " +
+            "WITH f, collect(m)[..$fanout] AS picked, count(*) AS available " +
+            "UNWIND picked AS m " +
+            "RETURN f.nodeId AS fromId, available, m.nodeId AS nodeId, m.name AS name, m.type AS type";
+
+    /**
+     * 已收录节点之间的全部关系（导出子图），包括同层节点之间、指回更早层的关系
+     */
+    private static final String INDUCED_LINKS_CYPHER = "UNWIND $nodeIds AS id " +
+            "MATCH (a:Entity {nodeId: id})-[r:RELATES_TO]->(b:Entity) " +
+            "WHERE a.graphId = $graphId AND b.nodeId IN $nodeIds " +
+            "AND ($relationTypes IS NULL OR r.type IN $relationTypes) " +
+            "RETURN elementId(r) AS relationId, r.type AS relationType, " +
+            "a.nodeId AS sourceNodeId, b.nodeId AS targetNodeId " +
+            "LIMIT $maxLinks";
+
+    private static final String CENTER_CYPHER = "MATCH (n:Entity {nodeId: $nodeId}) WHERE n.graphId = $graphId " +
+            "RETURN n.nodeId AS nodeId, n.name AS name, n.type AS type";
+
+    /**
+     * 展开方向
+     */
+    public enum Direction {
+        OUT("-[r:RELATES_TO]->"),
+        IN("<-[r:RELATES_TO]-"),
+        ALL("-[r:RELATES_TO]-");
+
+        private final String pattern;
+
+        Direction(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public static Direction parse(String value) {
+            if (value == null) {
+                return ALL;
+            }
+            return switch (value.toLowerCase()) {
+                case "out" -> OUT;
+                case "in" -> IN;
+                default -> ALL;
+            };
+        }
+    }
+
+    private final Driver neo4jDriver;
+
+    public GraphExplorationService(Driver neo4jDriver) {
+        this.neo4jDriver = neo4jDriver;
+    }
+
+    // ==================== 邻域展开 ====================
+
+    /**
+     * 以某节点为中心展开 k 跳邻域
+     * 所有跳在同一个只读事务中执行，每跳对整层节点只发一次查询，最后一次查询取回收录节点之间的全部关系
+     *
+     * @param depth         跳数 (1..3)
+     * @param fanout        每个节点每跳最多保留的邻居数 (1..200)
+     * @param nodeTypes     邻居节点类型过滤，null 或空表示不过滤
+     * @param relationTypes 关系类型过滤，null 或空表示不过滤
+     */
+    public EgoNetworkDto expand(Integer graphId, String nodeId, int depth, int fanout,
+                                List<String> nodeTypes, List<String> relationTypes, Direction direction) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("展开深度必须在 1 到 " + MAX_DEPTH + " 之间");
+        }
+        if (fanout < 1 || fanout > MAX_FANOUT) {
+            throw new IllegalArgumentException("每跳邻居数必须在 1 到 " + MAX_FANOUT + " 之间");
+        }
+        List<String> nodeTypeFilter = nodeTypes == null || nodeTypes.isEmpty() ? null : nodeTypes;
+        List<String> relationTypeFilter = relationTypes == null || relationTypes.isEmpty() ? null : relationTypes;
+        String hopCypher = EXPAND_HOP_CYPHER.replace("{pattern}", direction.pattern);
+
+        SessionConfig config = SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build();
+        try (Session session = neo4jDriver.session(config)) {
+            return session.executeRead(tx -> {
+                List<Record> centers = tx.run(CENTER_CYPHER, Map.of("nodeId", nodeId, "graphId", graphId)).list();
+                if (centers.isEmpty()) {
+                    throw new IllegalArgumentException("节点不存在: " + nodeId);
+                }
+
+                Map<String, LiteNodeDto> nodes = new LinkedHashMap<>();
+                Map<String, Long> truncated = new LinkedHashMap<>();
+                Set<String> visited = new HashSet<>();
+
+                Record center = centers.get(0);
+                nodes.put(nodeId, toLiteNode(center));
+                visited.add(nodeId);
+                List<String> frontier = List.of(nodeId);
+
+                for (int hop = 1; hop <= depth && !frontier.isEmpty() && nodes.size() < MAX_NODES; hop++) {
+                    frontier = expandHop(tx, hopCypher, graphId, frontier, visited, fanout,
+                            nodeTypeFilter, relationTypeFilter, nodes, truncated);
+                }
+                List<LiteRelationshipDto> links = inducedLinks(tx, graphId, nodes.keySet(), relationTypeFilter);
+                log.debug("邻域展开完成 - graphId={}, center={}, nodes={}, links={}",
+                        graphId, nodeId, nodes.size(), links.size());
+
+                return EgoNetworkDto.builder()
+                        .centerNodeId(nodeId)
+                        .depth(depth)
+                        .fanout(fanout)
+                        .nodes(new ArrayList<>(nodes.values()))
+                        .links(links)
+                        .truncated(truncated)
+                        .build();
+            });
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 执行一跳展开，返回下一层 frontier
+     */
+    private List<String> expandHop(TransactionContext tx, String hopCypher, Integer graphId,
+                                   List<String> frontier, Set<String> visited, int fanout,
+                                   List<String> nodeTypes, List<String> relationTypes,
+                                   Map<String, LiteNodeDto> nodes, Map<String, Long> truncated) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("frontier", frontier);
+        params.put("visited", new ArrayList<>(visited));
+        params.put("graphId", graphId);
+        params.put("fanout", fanout);
+        params.put("nodeTypes", nodeTypes);
+        params.put("relationTypes", relationTypes);
+
+        List<String> next = new ArrayList<>();
+        for (Record record : tx.run(hopCypher, params).list()) {
+            long available = record.get("available").asLong();
+            if (available > fanout) {
+                truncated.put(record.get("fromId").asString(), available);
+            }
+            String neighborId = record.get("nodeId").asString();
+            // 同一邻居可能被多个 frontier 节点采到，只在首次出现时加入下一层
+            if (visited.add(neighborId) && nodes.size() < MAX_NODES) {
+                nodes.put(neighborId, toLiteNode(record));
+                next.add(neighborId);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 查询已收录节点之间的关系
+     */
+    private List<LiteRelationshipDto> inducedLinks(TransactionContext tx, Integer graphId, Set<String> nodeIds,
+                                                   List<String> relationTypes) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("nodeIds", new ArrayList<>(nodeIds));
+        params.put("graphId", graphId);
+        params.put("relationTypes", relationTypes);
+        params.put("maxLinks", MAX_LINKS);
+
+        List<LiteRelationshipDto> links = new ArrayList<>();
+        for (Record record : tx.run(INDUCED_LINKS_CYPHER, params).list()) {
+            links.add(LiteRelationshipDto.builder()
+                    .relationId(record.get("relationId").asString())
+                    .type(stringOrNull(record.get("relationType")))
+                    .sourceNodeId(stringOrNull(record.get("sourceNodeId")))
+                    .targetNodeId(stringOrNull(record.get("targetNodeId")))
+                    .build());
+        }
+        return links;
+    }
+
+    private static LiteNodeDto toLiteNode(Record record) {
+        return LiteNodeDto.builder()
+                .nodeId(stringOrNull(record.get("nodeId")))
+                .name(stringOrNull(record.get("name")))
+                .type(stringOrNull(record.get("type")))
+                .build();
+    }
+
+    private static String stringOrNull(Value value) {
+        return value == null || value.isNull() ? null : value.asString();
+    }
+}
@@ -0,0 +1,138 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.dto.GraphCreateDto;
+import com.sdu.kgplatform.dto.GraphDetailDto;
+import com.sdu.kgplatform.entity.GraphStatus;
+import com.sdu.kgplatform.entity.KnowledgeGraph;
+import com.sdu.kgplatform.entity.Role;
+import com.sdu.kgplatform.entity.User;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import com.sdu.kgplatform.repository.UserRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * 图谱复刻服务
+ * 在 Neo4j 内分批复制源图谱的节点与关系到新 graphId：节点属性整体复制并生成新的 nodeId，
+ * 复制期间以原 nodeId 作临时 mergeKey（与 graphId 组合索引）供关系阶段定位新节点，结束后移除。
+ * 节点度数随属性一并复制，无需重算
+ */
+@Service
+public class GraphForkService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphForkService.class);
+
+    private static final String FORK_SUFFIX = "（副本）";
+    private static final int MAX_NAME_ATTEMPTS = 100;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    /**
+     * 节点阶段（需在自动提交事务中执行）
+     */
+    private static final String COPY_NODES_CYPHER = "MATCH (s:Entity) WHERE s.graphId = $sourceGraphId " +
+            "CALL { WITH s " +
+            "CREATE (t:Entity) SET t = properties(s), t.graphId = $targetGraphId, t.nodeId = randomUUID(), " +
+            "t.mergeKey = coalesce(s.nodeId, elementId(s)) " +
+            "} IN TRANSACTIONS OF 5000 ROWS";
+
+    private static final String COPY_RELATIONS_CYPHER = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) " +
+            "WHERE a.graphId = $sourceGraphId AND b.graphId = $sourceGraphId " +
+            "CALL { WITH a, r, b " +
+            "MATCH (ta:Entity {graphId: $targetGraphId, mergeKey: coalesce(a.nodeId, elementId(a))}) " +
+            "MATCH (tb:Entity {graphId: $targetGraphId, mergeKey: coalesce(b.nodeId, elementId(b))}) " +
+            "CREATE (ta)-[r2:RELATES_TO]->(tb) SET r2 = properties(r), r2.graphId = $targetGraphId " +
+            "} IN TRANSACTIONS OF 5000 ROWS";
+
+    private static final String CLEANUP_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $targetGraphId " +
+            "CALL { WITH n REMOVE n.mergeKey } IN TRANSACTIONS OF 5000 ROWS";
+
+    private final GraphService graphService;
+    private final GraphChangeLogService changeLogService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final UserRepository userRepository;
+    private final Driver neo4jDriver;
+
+    public GraphForkService(GraphService graphService,
+                            GraphChangeLogService changeLogService,
+                            KnowledgeGraphRepository graphRepository,
+                            UserRepository userRepository,
+                            Driver neo4jDriver) {
+        this.graphService = graphService;
+        this.changeLogService = changeLogService;
+        this.graphRepository = graphRepository;
+        this.userRepository = userRepository;
+        this.neo4jDriver = neo4jDriver;
+    }
+
+    /**
+     * 复刻图谱到当前用户名下，新图谱为草稿
+     *
+     * @param name 新图谱名称，为空时取“原名称（副本）”并在重名时追加序号
+     * @throws IllegalArgumentException 源图谱不存在、无权读取或名称重复
+     */
+    public GraphDetailDto fork(Integer sourceGraphId, Integer userId, String name) {
+        KnowledgeGraph source = graphRepository.findById(sourceGraphId)
+                .orElseThrow(() -> new IllegalArgumentException("图谱不存在: " + sourceGraphId));
+        if (source.getStatus() != GraphStatus.PUBLISHED && !source.getUploaderId().equals(userId)
+                && !isAdmin(userId)) {
+            throw new IllegalArgumentException("无权复刻此图谱");
+        }
+
+        // 封面文件随图谱删除而删除，不与源图谱共享
+        GraphCreateDto createDto = GraphCreateDto.builder()
+                .name(name != null && !name.isBlank() ? name.trim() : defaultName(userId, source.getName()))
+                .description(source.getDescription())
+                .status(GraphStatus.DRAFT.name())
+                .categoryId(source.getCategoryId())
+                .domain(source.getDomain())
+                .build();
+        GraphDetailDto target = graphService.createGraph(userId, createDto);
+        Integer targetGraphId = target.getGraphId();
+
+        long start = System.currentTimeMillis();
+        Map<String, Object> params = Map.of("sourceGraphId", sourceGraphId, "targetGraphId", targetGraphId);
+        try (Session session = neo4jDriver.session()) {
+            session.run(COPY_NODES_CYPHER, params).consume();
+            session.run(COPY_RELATIONS_CYPHER, params).consume();
+            session.run(CLEANUP_CYPHER, params).consume();
+        } catch (RuntimeException e) {
+            log.error("图谱复刻失败 - source={}, target={}: {}", sourceGraphId, targetGraphId, e.getMessage());
+            try {
+                graphService.deleteGraph(targetGraphId, userId);
+            } catch (Exception cleanup) {
+                log.error("清理复刻目标图谱失败 - graphId={}: {}", targetGraphId, cleanup.getMessage());
+            }
+            throw e;
+        }
+
+        graphService.updateGraphStats(targetGraphId);
+        changeLogService.recordReset(targetGraphId);
+        log.info("图谱复刻完成 - source={}, target={}, 耗时={}ms", sourceGraphId, targetGraphId,
+                System.currentTimeMillis() - start);
+        return graphService.getGraphById(targetGraphId);
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private String defaultName(Integer userId, String sourceName) {
+        int room = MAX_NAME_LENGTH - FORK_SUFFIX.length() - 3;
+        String base = (sourceName.length() > room ? sourceName.substring(0, room) : sourceName) + FORK_SUFFIX;
+        String candidate = base;
+        for (int i = 2; graphRepository.existsByUploaderIdAndName(userId, candidate); i++) {
+            if (i > MAX_NAME_ATTEMPTS) {
+                throw new IllegalArgumentException("您已有同名图谱: " + base);
+            }
+            candidate = base + i;
+        }
+        return candidate;
+    }
+
+    private boolean isAdmin(Integer userId) {
+        return userRepository.findById(userId).map(User::getRole).orElse(null) == Role.ADMIN;
+    }
+}
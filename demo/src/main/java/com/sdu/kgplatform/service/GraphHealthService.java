@@ -0,0 +1,175 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.GraphHealth;
+import com.sdu.kgplatform.entity.GraphHealthReport;
+import com.sdu.kgplatform.repository.GraphHealthReportRepository;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 图谱健康检查服务
+ * 图谱变更（含导入）后防抖执行一次结构检查：弱/强连通分量、孤立节点、自环与重复关系，
+ * 结果保存在 graph_health_report 表中
+ */
+@Service
+public class GraphHealthService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphHealthService.class);
+
+    private final GraphProjectionService projectionService;
+    private final GraphHealthReportRepository reportRepository;
+    private final KnowledgeGraphRepository graphRepository;
+    private final TaskScheduler scheduler;
+    private final ForkJoinPool analyticsPool;
+    private final Duration debounce;
+
+    /** 已排期但尚未开始执行的检查 */
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    public GraphHealthService(GraphProjectionService projectionService,
+                              GraphHealthReportRepository reportRepository,
+                              KnowledgeGraphRepository graphRepository,
+                              @Qualifier("graphMaintenanceScheduler") TaskScheduler scheduler,
+                              @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool,
+                              @Value("${app.analytics.health.debounce-ms:10000}") long debounceMillis) {
+        this.projectionService = projectionService;
+        this.reportRepository = reportRepository;
+        this.graphRepository = graphRepository;
+        this.scheduler = scheduler;
+        this.analyticsPool = analyticsPool;
+        this.debounce = Duration.ofMillis(debounceMillis);
+    }
+
+    // ==================== 触发检查 ====================
+
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.graphId() == null) {
+            return;
+        }
+        if (event.deleted()) {
+            pending.remove(event.graphId());
+            // 报告删除失败不能影响其他监听器的清理
+            try {
+                if (reportRepository.existsById(event.graphId())) {
+                    reportRepository.deleteById(event.graphId());
+                }
+            } catch (RuntimeException e) {
+                log.error("删除图谱健康报告失败 - graphId={}: {}", event.graphId(), e.getMessage());
+            }
+            return;
+        }
+        schedule(event.graphId(), debounce);
+    }
+
+    /**
+     * 立即提交一次检查（已排期的检查不会重复提交）
+     */
+    public void submit(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        schedule(graphId, Duration.ZERO);
+    }
+
+    /**
+     * 为尚无报告的非空图谱提交检查（图谱变更后的检查由事件触发），返回提交数量
+     */
+    public int refreshMissing() {
+        int submitted = 0;
+        for (Integer graphId : graphRepository.findNonEmptyGraphIds()) {
+            if (!pending.contains(graphId) && !reportRepository.existsById(graphId)) {
+                schedule(graphId, Duration.ZERO);
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    // ==================== 查询报告 ====================
+
+    /**
+     * 获取图谱的健康报告；尚未检查过时返回 empty，不提交检查
+     */
+    public Optional<GraphHealthReport> getReport(Integer graphId) {
+        return reportRepository.findById(graphId);
+    }
+
+    public boolean isPending(Integer graphId) {
+        return pending.contains(graphId);
+    }
+
+    // ==================== 执行检查 ====================
+
+    /**
+     * 在投影上执行检查并保存报告
+     */
+    public GraphHealthReport check(Integer graphId) {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(graphId);
+        GraphHealth.Report result = GraphHealth.analyze(graph);
+
+        GraphHealthReport report = new GraphHealthReport();
+        report.setGraphId(graphId);
+        report.setNodeCount(result.nodeCount());
+        report.setEdgeCount(result.edgeCount());
+        report.setWeakComponentCount(result.weakComponents());
+        report.setLargestWeakComponentShare(share(result.largestWeakComponent(), result.nodeCount()));
+        report.setStrongComponentCount(result.strongComponents());
+        report.setLargestStrongComponentShare(share(result.largestStrongComponent(), result.nodeCount()));
+        report.setIsolatedNodeCount(result.isolatedNodes());
+        report.setSelfLoopCount(result.selfLoops());
+        report.setDuplicateEdgeCount(result.duplicateEdges());
+        report.setComputedAt(LocalDateTime.now());
+        // 检查期间图谱被删除时不再写入
+        if (!graphRepository.existsById(graphId)) {
+            return report;
+        }
+        reportRepository.save(report);
+
+        log.debug("图谱健康检查完成 - graphId={}, 弱连通分量={}, 孤立节点={}, 耗时={}ms",
+                graphId, result.weakComponents(), result.isolatedNodes(), System.currentTimeMillis() - start);
+        return report;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void schedule(Integer graphId, Duration delay) {
+        if (!pending.add(graphId)) {
+            return;
+        }
+        // 调度线程只负责计时，计算交给分析线程池
+        scheduler.schedule(() -> analyticsPool.execute(() -> {
+            pending.remove(graphId);
+            try {
+                check(graphId);
+            } catch (Exception e) {
+                log.error("图谱健康检查失败 - graphId={}: {}", graphId, e.getMessage());
+            }
+        }), Instant.now().plus(delay));
+    }
+
+    private static BigDecimal share(int part, int total) {
+        if (total == 0) {
+            return BigDecimal.ZERO.setScale(4);
+        }
+        return BigDecimal.valueOf(part).divide(BigDecimal.valueOf(total), 4, RoundingMode.HALF_UP);
+    }
+}
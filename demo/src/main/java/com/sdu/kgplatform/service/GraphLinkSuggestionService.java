@@ -0,0 +1,99 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.LinkPrediction;
+import com.sdu.kgplatform.analytics.UndirectedAdjacency;
+import com.sdu.kgplatform.dto.LinkSuggestionDto;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 关系建议服务
+ * 在 CSR 投影的无向视图上按公共邻居 / Adamic-Adar / Jaccard 给两跳内未相连的节点对打分
+ */
+@Service
+public class GraphLinkSuggestionService {
+
+    public static final int MAX_K = 100;
+
+    /** 全图模式下每个节点保留的候选数 */
+    private static final int PER_NODE = 5;
+
+    private final GraphProjectionService projectionService;
+    private final int maxHubDegree;
+    private final long timeoutMillis;
+
+    public GraphLinkSuggestionService(GraphProjectionService projectionService,
+                                      @Value("${app.analytics.suggestion.max-hub-degree:1000}") int maxHubDegree,
+                                      @Value("${app.analytics.suggestion.timeout-ms:3000}") long timeoutMillis) {
+        this.projectionService = projectionService;
+        this.maxHubDegree = maxHubDegree;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 为单个节点建议 k 条可能缺失的关系
+     */
+    public List<LinkSuggestionDto> suggestForNode(Integer graphId, String nodeId, LinkPrediction.Measure measure,
+                                                  int k) {
+        validateK(k);
+        CsrGraph graph = projectionService.getProjection(graphId);
+        int u = graph.indexOf(nodeId);
+        if (u < 0) {
+            throw new IllegalArgumentException("节点不存在: " + nodeId);
+        }
+        UndirectedAdjacency adjacency = UndirectedAdjacency.of(graph);
+        return toDtos(graph, LinkPrediction.forNode(adjacency, u, measure, k, maxHubDegree));
+    }
+
+    /**
+     * 全图建议得分最高的 k 条关系；超出时间预算时返回已处理部分的结果并标记 complete=false
+     */
+    public Map<String, Object> suggestForGraph(Integer graphId, LinkPrediction.Measure measure, int k) {
+        validateK(k);
+        CsrGraph graph = projectionService.getProjection(graphId);
+        UndirectedAdjacency adjacency = UndirectedAdjacency.of(graph);
+        LinkPrediction.Result result = LinkPrediction.forGraph(adjacency, measure, PER_NODE, k, maxHubDegree,
+                System.nanoTime() + timeoutMillis * 1_000_000L);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("suggestions", toDtos(graph, result.suggestions()));
+        response.put("complete", result.complete());
+        return response;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static void validateK(int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k 必须在 1 到 " + MAX_K + " 之间");
+        }
+    }
+
+    private static List<LinkSuggestionDto> toDtos(CsrGraph graph, List<LinkPrediction.Suggestion> suggestions) {
+        List<LinkSuggestionDto> result = new ArrayList<>(suggestions.size());
+        for (LinkPrediction.Suggestion suggestion : suggestions) {
+            result.add(LinkSuggestionDto.builder()
+                    .source(toLiteNode(graph, suggestion.source()))
+                    .target(toLiteNode(graph, suggestion.target()))
+                    .score(suggestion.score())
+                    .commonNeighbors(suggestion.commonNeighbors())
+                    .build());
+        }
+        return result;
+    }
+
+    private static LiteNodeDto toLiteNode(CsrGraph graph, int v) {
+        return LiteNodeDto.builder()
+                .nodeId(graph.nodeId(v))
+                .name(graph.name(v))
+                .type(graph.nodeType(v))
+                .build();
+    }
+}
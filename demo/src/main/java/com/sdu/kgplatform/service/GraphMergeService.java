@@ -0,0 +1,331 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.dto.GraphCreateDto;
+import com.sdu.kgplatform.dto.GraphDetailDto;
+import com.sdu.kgplatform.dto.GraphJobDto;
+import com.sdu.kgplatform.dto.GraphMergeDto;
+import com.sdu.kgplatform.entity.GraphStatus;
+import com.sdu.kgplatform.entity.KnowledgeGraph;
+import com.sdu.kgplatform.entity.Role;
+import com.sdu.kgplatform.entity.User;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import com.sdu.kgplatform.repository.UserRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 图谱合并服务
+ * 把多个源图谱合并为一个新图谱：按匹配策略为每个节点计算合并键（mergeKey），
+ * 在 Neo4j 内以 MERGE 分批写入目标图谱，再把各源图谱的关系连到对应的合并节点上。
+ * 数据全程不经过应用内存，合并以后台任务执行，进度按步骤（每个源图谱的节点 / 关系阶段各一步）上报
+ */
+@Service
+public class GraphMergeService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphMergeService.class);
+
+    public static final int MAX_SOURCES = 10;
+    public static final int MAX_MAPPING_SIZE = 100_000;
+
+    /** 已结束的任务保留时长 */
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+
+    public enum Policy {
+        /** 名称相同即为同一实体 */
+        NAME,
+        /** 名称与类型均相同才为同一实体 */
+        NAME_TYPE,
+        /** 按请求给出的 nodeId → 规范名称映射，未映射的节点按原名称 */
+        MAPPING
+    }
+
+    /**
+     * 节点阶段：KEY 与 NAME 两处占位按策略替换（需在自动提交事务中执行）
+     */
+    private static final String NODES_CYPHER_TEMPLATE = "MATCH (s:Entity) WHERE s.graphId = $sourceGraphId " +
+            "AND s.name IS NOT NULL " +
+            "CALL { WITH s " +
+            "WITH s, %1$s AS mergeKey " +
+            "MERGE (t:Entity {graphId: $targetGraphId, mergeKey: mergeKey}) " +
+            "ON CREATE SET t.nodeId = randomUUID(), t.name = %2$s, t.type = s.type, " +
+            "t.description = s.description " +
+            "ON MATCH SET t.type = coalesce(t.type, s.type), t.description = coalesce(t.description, s.description) " +
+            "} IN TRANSACTIONS OF 1000 ROWS";
+
+    /**
+     * 关系阶段：同一对合并节点间同类型的关系只保留一条，合并到同一节点的两端产生的自环丢弃
+     */
+    private static final String EDGES_CYPHER_TEMPLATE = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) " +
+            "WHERE a.graphId = $sourceGraphId AND a.name IS NOT NULL AND b.name IS NOT NULL " +
+            "CALL { WITH a, r, b " +
+            "MATCH (ta:Entity {graphId: $targetGraphId, mergeKey: %1$s}) " +
+            "MATCH (tb:Entity {graphId: $targetGraphId, mergeKey: %2$s}) " +
+            "WITH r, ta, tb WHERE ta <> tb " +
+            "MERGE (ta)-[:RELATES_TO {type: coalesce(r.type, '关联'), graphId: $targetGraphId}]->(tb) " +
+            "} IN TRANSACTIONS OF 1000 ROWS";
+
+    private static final String CLEANUP_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $targetGraphId " +
+            "CALL { WITH n REMOVE n.mergeKey } IN TRANSACTIONS OF 1000 ROWS";
+
+    private final GraphService graphService;
+    private final GraphDegreeService degreeService;
+    private final GraphChangeLogService changeLogService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final UserRepository userRepository;
+    private final Driver neo4jDriver;
+    private final ThreadPoolTaskExecutor jobExecutor;
+
+    private final Map<String, MergeJob> jobs = new ConcurrentHashMap<>();
+
+    public GraphMergeService(GraphService graphService,
+                             GraphDegreeService degreeService,
+                             GraphChangeLogService changeLogService,
+                             KnowledgeGraphRepository graphRepository,
+                             UserRepository userRepository,
+                             Driver neo4jDriver,
+                             @Qualifier("graphJobExecutor") ThreadPoolTaskExecutor jobExecutor) {
+        this.graphService = graphService;
+        this.degreeService = degreeService;
+        this.changeLogService = changeLogService;
+        this.graphRepository = graphRepository;
+        this.userRepository = userRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.jobExecutor = jobExecutor;
+    }
+
+    // ==================== 提交与查询 ====================
+
+    /**
+     * 校验请求并创建目标图谱（草稿），合并本身提交到后台任务线程池
+     *
+     * @throws IllegalArgumentException 参数非法、源图谱不存在或无权读取
+     * @throws IllegalStateException    任务队列已满
+     */
+    public GraphJobDto submit(Integer userId, GraphMergeDto dto) {
+        List<Integer> sourceIds = validateSources(userId, dto.getSourceGraphIds());
+        Policy policy = parsePolicy(dto.getPolicy());
+        Map<String, String> mapping = dto.getMapping() != null ? dto.getMapping() : Map.of();
+        if (policy == Policy.MAPPING && mapping.isEmpty()) {
+            throw new IllegalArgumentException("MAPPING 策略需要提供 mapping");
+        }
+        if (mapping.size() > MAX_MAPPING_SIZE) {
+            throw new IllegalArgumentException("mapping 不能超过 " + MAX_MAPPING_SIZE + " 项");
+        }
+
+        GraphCreateDto createDto = GraphCreateDto.builder()
+                .name(dto.getName())
+                .description(dto.getDescription())
+                .status(GraphStatus.DRAFT.name())
+                .domain(dto.getDomain() != null ? dto.getDomain()
+                        : graphRepository.findById(sourceIds.get(0)).map(KnowledgeGraph::getDomain).orElse(null))
+                .build();
+        GraphDetailDto target = graphService.createGraph(userId, createDto);
+
+        pruneJobs();
+        MergeJob job = new MergeJob(UUID.randomUUID().toString(), userId, target.getGraphId(), 2 * sourceIds.size() + 1);
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, sourceIds, policy, mapping));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            graphService.deleteGraph(target.getGraphId(), userId);
+            throw new IllegalStateException("合并任务过多，请稍后重试");
+        }
+        log.info("图谱合并任务已提交 - jobId={}, sources={}, policy={}, target={}",
+                job.id, sourceIds, policy, target.getGraphId());
+        return job.toDto();
+    }
+
+    /**
+     * 查询任务状态；只有任务发起者与管理员可见
+     */
+    public GraphJobDto getJob(String jobId, Integer userId) {
+        MergeJob job = jobs.get(jobId);
+        if (job == null || !(job.userId.equals(userId) || isAdmin(userId))) {
+            throw new IllegalArgumentException("任务不存在: " + jobId);
+        }
+        return job.toDto();
+    }
+
+    // ==================== 执行合并 ====================
+
+    private void run(MergeJob job, List<Integer> sourceIds, Policy policy, Map<String, String> mapping) {
+        long start = System.currentTimeMillis();
+        job.status = "RUNNING";
+        Map<String, Object> params = new HashMap<>();
+        params.put("targetGraphId", job.targetGraphId);
+        params.put("mapping", mapping);
+        try (Session session = neo4jDriver.session()) {
+            String nodesCypher = String.format(NODES_CYPHER_TEMPLATE, mergeKey("s", policy),
+                    policy == Policy.MAPPING ? "mergeKey" : "s.name");
+            for (Integer sourceId : sourceIds) {
+                job.phase = "合并节点: 图谱 " + sourceId;
+                params.put("sourceGraphId", sourceId);
+                session.run(nodesCypher, params).consume();
+                job.completedSteps++;
+            }
+
+            String edgesCypher = String.format(EDGES_CYPHER_TEMPLATE, mergeKey("a", policy), mergeKey("b", policy));
+            for (Integer sourceId : sourceIds) {
+                job.phase = "合并关系: 图谱 " + sourceId;
+                params.put("sourceGraphId", sourceId);
+                session.run(edgesCypher, params).consume();
+                job.completedSteps++;
+            }
+
+            job.phase = "收尾";
+            session.run(CLEANUP_CYPHER, Map.of("targetGraphId", job.targetGraphId)).consume();
+        } catch (Exception e) {
+            fail(job, e);
+            return;
+        }
+
+        try {
+            degreeService.recomputeDegrees(job.targetGraphId);
+            graphService.updateGraphStats(job.targetGraphId);
+            changeLogService.recordReset(job.targetGraphId);
+            graphRepository.findById(job.targetGraphId).ifPresent(graph -> {
+                job.nodeCount = graph.getNodeCount();
+                job.relationCount = graph.getRelationCount();
+            });
+        } catch (Exception e) {
+            fail(job, e);
+            return;
+        }
+        job.completedSteps++;
+        job.phase = null;
+        job.finishedAt = LocalDateTime.now();
+        job.status = "COMPLETED";
+        log.info("图谱合并完成 - jobId={}, target={}, 节点={}, 关系={}, 耗时={}ms", job.id, job.targetGraphId,
+                job.nodeCount, job.relationCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 合并失败时删除半成品目标图谱
+     */
+    private void fail(MergeJob job, Exception e) {
+        log.error("图谱合并失败 - jobId={}, target={}: {}", job.id, job.targetGraphId, e.getMessage());
+        job.error = e.getMessage();
+        job.finishedAt = LocalDateTime.now();
+        job.status = "FAILED";
+        try {
+            graphService.deleteGraph(job.targetGraphId, job.userId);
+        } catch (Exception cleanup) {
+            log.error("清理合并目标图谱失败 - graphId={}: {}", job.targetGraphId, cleanup.getMessage());
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 节点变量的合并键表达式；NAME_TYPE 以 \0 分隔名称与类型
+     */
+    private static String mergeKey(String var, Policy policy) {
+        return switch (policy) {
+            case NAME -> var + ".name";
+            case NAME_TYPE -> var + ".name + '\\u0000' + coalesce(" + var + ".type, '')";
+            case MAPPING -> "coalesce($mapping[" + var + ".nodeId], " + var + ".name)";
+        };
+    }
+
+    private List<Integer> validateSources(Integer userId, List<Integer> sourceGraphIds) {
+        if (sourceGraphIds == null) {
+            throw new IllegalArgumentException("请选择要合并的图谱");
+        }
+        List<Integer> sourceIds = new ArrayList<>(new LinkedHashSet<>(sourceGraphIds));
+        if (sourceIds.size() < 2 || sourceIds.size() > MAX_SOURCES) {
+            throw new IllegalArgumentException("需要选择 2 到 " + MAX_SOURCES + " 个不同的图谱");
+        }
+        boolean admin = isAdmin(userId);
+        for (Integer graphId : sourceIds) {
+            KnowledgeGraph graph = graphId == null ? null : graphRepository.findById(graphId).orElse(null);
+            if (graph == null) {
+                throw new IllegalArgumentException("图谱不存在: " + graphId);
+            }
+            if (graph.getStatus() != GraphStatus.PUBLISHED && !graph.getUploaderId().equals(userId) && !admin) {
+                throw new IllegalArgumentException("无权读取图谱: " + graphId);
+            }
+        }
+        return sourceIds;
+    }
+
+    private static Policy parsePolicy(String policy) {
+        if (policy == null || policy.isEmpty()) {
+            return Policy.NAME;
+        }
+        try {
+            return Policy.valueOf(policy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的匹配策略: " + policy);
+        }
+    }
+
+    private boolean isAdmin(Integer userId) {
+        return userRepository.findById(userId).map(User::getRole).orElse(null) == Role.ADMIN;
+    }
+
+    private void pruneJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * 任务状态，由任务线程写、查询线程读
+     */
+    private static final class MergeJob {
+
+        final String id;
+        final Integer userId;
+        final Integer targetGraphId;
+        final int totalSteps;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile String status = "PENDING";
+        volatile String phase;
+        volatile int completedSteps;
+        volatile Integer nodeCount;
+        volatile Integer relationCount;
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        MergeJob(String id, Integer userId, Integer targetGraphId, int totalSteps) {
+            this.id = id;
+            this.userId = userId;
+            this.targetGraphId = targetGraphId;
+            this.totalSteps = totalSteps;
+        }
+
+        GraphJobDto toDto() {
+            return GraphJobDto.builder()
+                    .jobId(id)
+                    .type("MERGE")
+                    .status(status)
+                    .phase(phase)
+                    .completedSteps(completedSteps)
+                    .totalSteps(totalSteps)
+                    .progress((double) completedSteps / totalSteps)
+                    .resultGraphId(targetGraphId)
+                    .nodeCount(nodeCount)
+                    .relationCount(relationCount)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.common.TransactionUtils;
+import com.sdu.kgplatform.dto.GraphSchemaDto;
+import com.sdu.kgplatform.entity.GraphTypeCount;
+import com.sdu.kgplatform.entity.GraphTypePairCount;
+import com.sdu.kgplatform.entity.KnowledgeGraph;
+import com.sdu.kgplatform.entity.TypeCountKind;
+import com.sdu.kgplatform.repository.GraphTypeCountRepository;
+import com.sdu.kgplatform.repository.GraphTypePairCountRepository;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 图谱质量指标服务
+ * 维护 knowledge_graph 上的 density / entityRichness / relationRichness 以及类型目录
+ * （graph_type_count 的实体类型、关系类型计数与 graph_type_pair_count 的类型对计数）：
+ * 节点数、关系数变化时按计数增量更新密度；节点与关系的逐条增删由写路径提交 {@link TypeDelta} 增量维护目录，
+ * 只有无法逐条描述的批量变更才防抖全量重算。筛选下拉与模式视图直接读目录表，不再扫描图谱
+ */
+@Service
+public class GraphMetricsService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphMetricsService.class);
+
+    /**
+     * DECIMAL(5,2) 可表示的最大值
+     */
+    private static final BigDecimal MAX_METRIC = new BigDecimal("999.99");
+
+    private static final String TYPE_COUNTS_CYPHER =
+            "CALL { MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "  WITH n.type AS type, count(*) AS c RETURN collect({type: type, count: c}) AS nodeTypes } " +
+            "CALL { MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId " +
+            "  WITH a.type AS sourceType, r.type AS type, b.type AS targetType, count(*) AS c " +
+            "  RETURN collect({sourceType: sourceType, type: type, targetType: targetType, count: c}) AS typePairs } " +
+            "RETURN nodeTypes, typePairs";
+
+    private final KnowledgeGraphRepository graphRepository;
+    private final GraphTypeCountRepository typeCountRepository;
+    private final GraphTypePairCountRepository pairCountRepository;
+    private final Neo4jClient neo4jClient;
+    private final TaskScheduler scheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration debounce;
+
+    /** 已排期但尚未开始执行的重算 */
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recomputeAllRunning = new AtomicBoolean(false);
+
+    /** 每个图谱一把目录锁，串行化增量更新与全量重算 */
+    private final ConcurrentHashMap<Integer, Object> catalogLocks = new ConcurrentHashMap<>();
+
+    public GraphMetricsService(KnowledgeGraphRepository graphRepository,
+                               GraphTypeCountRepository typeCountRepository,
+                               GraphTypePairCountRepository pairCountRepository,
+                               Neo4jClient neo4jClient,
+                               @Qualifier("graphMaintenanceScheduler") TaskScheduler scheduler,
+                               @Qualifier("transactionManager") PlatformTransactionManager transactionManager,
+                               @Value("${app.graph.metrics.debounce-ms:5000}") long debounceMillis) {
+        this.graphRepository = graphRepository;
+        this.typeCountRepository = typeCountRepository;
+        this.pairCountRepository = pairCountRepository;
+        this.neo4jClient = neo4jClient;
+        this.scheduler = scheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.debounce = Duration.ofMillis(debounceMillis);
+    }
+
+    // ==================== 增量公式 ====================
+
+    /**
+     * 图谱密度：关系数 / 无向完全图边数 n(n-1)/2，与前端展示口径一致
+     * 多重边可能使密度大于 1，结果截断到列可表示的范围
+     */
+    public static BigDecimal density(Integer nodeCount, Integer relationCount) {
+        long n = nodeCount != null ? nodeCount : 0;
+        long m = relationCount != null ? relationCount : 0;
+        if (n < 2 || m <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        BigDecimal maxEdges = BigDecimal.valueOf(n * (n - 1) / 2);
+        return clamp(BigDecimal.valueOf(m).divide(maxEdges, 2, RoundingMode.HALF_UP));
+    }
+
+    // ==================== 增量维护 ====================
+
+    /**
+     * 写入节点数、关系数并按新计数刷新密度，只更新这几列，不覆盖丰富度、聚类指标等并发维护的字段
+     * 传 null 的计数保持库中现值；读取现值时持有行锁，保证密度与两个计数一致
+     */
+    public void updateCounts(Integer graphId, Integer nodeCount, Integer relationCount) {
+        transactionTemplate.executeWithoutResult(status ->
+                graphRepository.findByIdForUpdate(graphId).ifPresent(graph -> {
+                    Integer nodes = nodeCount != null ? nodeCount : graph.getNodeCount();
+                    Integer relations = relationCount != null ? relationCount : graph.getRelationCount();
+                    graphRepository.updateCounts(graphId, nodes, relations, density(nodes, relations),
+                            LocalDateTime.now());
+                }));
+    }
+
+    /**
+     * 清空类操作的计数在事务提交后写入，回滚时不写；随后的重置事件会排期重算校正计数
+     */
+    public void updateCountsAfterCommit(Integer graphId, Integer nodeCount, Integer relationCount) {
+        TransactionUtils.afterCommit(() -> updateCounts(graphId, nodeCount, relationCount));
+    }
+
+    /**
+     * 按增量调整节点数、关系数并刷新密度，供逐条增删的写路径使用
+     * 事务提交后在行锁下累加，多个写事务无论按什么顺序提交，结果都等于各自增量之和；回滚时不调整
+     */
+    public void addCounts(Integer graphId, long nodeDelta, long relationDelta) {
+        if (graphId == null || (nodeDelta == 0 && relationDelta == 0)) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> transactionTemplate.executeWithoutResult(status ->
+                graphRepository.findByIdForUpdate(graphId).ifPresent(graph -> {
+                    int nodes = (int) Math.max(0, countOrZero(graph.getNodeCount()) + nodeDelta);
+                    int relations = (int) Math.max(0, countOrZero(graph.getRelationCount()) + relationDelta);
+                    graphRepository.updateCounts(graphId, nodes, relations, density(nodes, relations),
+                            LocalDateTime.now());
+                })));
+    }
+
+    /**
+     * 应用一次写操作引起的类型计数变化，并刷新丰富度
+     * 调用方处于写事务中时推迟到提交之后应用，回滚的写操作不会计入目录；
+     * 目录尚未建立（历史图谱、新建图谱）或更新失败时改为排期全量重算
+     */
+    public void applyTypeDelta(Integer graphId, TypeDelta delta) {
+        if (graphId == null || delta.isEmpty()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> doApplyTypeDelta(graphId, delta));
+    }
+
+    private void doApplyTypeDelta(Integer graphId, TypeDelta delta) {
+        try {
+            synchronized (lockFor(graphId)) {
+                Boolean applied = transactionTemplate.execute(status -> {
+                    if (graphRepository.findTypeCatalogUpdatedAt(graphId) == null) {
+                        return false;
+                    }
+                    delta.nodes.forEach((type, count) -> {
+                        if (count != 0) {
+                            typeCountRepository.addCount(graphId, TypeCountKind.NODE, type, count);
+                        }
+                    });
+                    delta.relations.forEach((type, count) -> {
+                        if (count != 0) {
+                            typeCountRepository.addCount(graphId, TypeCountKind.RELATION, type, count);
+                        }
+                    });
+                    delta.pairs.forEach((pair, count) -> {
+                        if (count != 0) {
+                            pairCountRepository.addCount(graphId, pair.get(0), pair.get(1), pair.get(2), count);
+                        }
+                    });
+                    typeCountRepository.deleteEmpty(graphId);
+                    pairCountRepository.deleteEmpty(graphId);
+                    graphRepository.updateRichness(graphId,
+                            richness(typeCountRepository.countByGraphIdAndKind(graphId, TypeCountKind.NODE)),
+                            richness(typeCountRepository.countByGraphIdAndKind(graphId, TypeCountKind.RELATION)));
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(applied)) {
+                    scheduleRecompute(graphId);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("类型目录增量更新失败，改为全量重算 - graphId={}: {}", graphId, e.getMessage());
+            scheduleRecompute(graphId);
+        }
+    }
+
+    // ==================== 防抖重算 ====================
+
+    /**
+     * 批量变更后排期一次重算，窗口内的多次变更合并为一次；逐条增删已由写路径增量维护
+     */
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.graphId() == null) {
+            return;
+        }
+        if (event.deleted()) {
+            pending.remove(event.graphId());
+            catalogLocks.remove(event.graphId());
+            // 同步监听器的异常会中断后续监听器的通知，这里只记录日志
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    typeCountRepository.deleteByGraphId(event.graphId());
+                    pairCountRepository.deleteByGraphId(event.graphId());
+                });
+            } catch (RuntimeException e) {
+                log.error("删除图谱类型目录失败 - graphId={}: {}", event.graphId(), e.getMessage());
+            }
+            return;
+        }
+        if (event.reset()) {
+            scheduleRecompute(event.graphId());
+        }
+    }
+
+    public void scheduleRecompute(Integer graphId) {
+        if (!pending.add(graphId)) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            // 先移出再计算，计算期间的新变更会再排期一次
+            pending.remove(graphId);
+            try {
+                recompute(graphId);
+            } catch (Exception e) {
+                log.error("图谱指标重算失败 - graphId={}: {}", graphId, e.getMessage());
+            }
+        }, Instant.now().plus(debounce));
+    }
+
+    // ==================== 全量重算 ====================
+
+    /**
+     * 按 Neo4j 中的实际数据重算单个图谱的计数、密度、丰富度与类型目录
+     * 持有目录锁期间执行，重算过程中到达的增量等待重算写入后再应用
+     */
+    public void recompute(Integer graphId) {
+        if (!graphRepository.existsById(graphId)) {
+            return;
+        }
+        synchronized (lockFor(graphId)) {
+            TypeDistribution distribution = neo4jClient.query(TYPE_COUNTS_CYPHER)
+                    .bind(graphId).to("graphId")
+                    .fetchAs(TypeDistribution.class)
+                    .mappedBy((typeSystem, record) -> new TypeDistribution(
+                            record.get("nodeTypes").asList(v -> v.asMap()),
+                            record.get("typePairs").asList(v -> v.asMap())))
+                    .one()
+                    .orElse(new TypeDistribution(List.of(), List.of()));
+
+            // 未设置类型的对象计入总数但不计入目录与丰富度
+            TypeDelta catalog = new TypeDelta();
+            long nodeCount = 0;
+            for (Map<String, Object> group : distribution.nodeTypes()) {
+                long count = ((Number) group.get("count")).longValue();
+                nodeCount += count;
+                catalog.node(stringOrNull(group.get("type")), count);
+            }
+            long relationCount = 0;
+            for (Map<String, Object> group : distribution.typePairs()) {
+                long count = ((Number) group.get("count")).longValue();
+                relationCount += count;
+                catalog.relation(stringOrNull(group.get("sourceType")), stringOrNull(group.get("type")),
+                        stringOrNull(group.get("targetType")), count);
+            }
+            long totalNodes = nodeCount;
+            long totalRelations = relationCount;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                graphRepository.updateRecomputedMetrics(graphId, (int) totalNodes, (int) totalRelations,
+                        density((int) totalNodes, (int) totalRelations),
+                        richness(catalog.nodes.size()), richness(catalog.relations.size()), LocalDateTime.now());
+                typeCountRepository.deleteByGraphId(graphId);
+                typeCountRepository.saveAll(catalog.toTypeCounts(graphId));
+                pairCountRepository.deleteByGraphId(graphId);
+                pairCountRepository.saveAll(catalog.toPairCounts(graphId));
+            });
+            log.debug("图谱指标已重算 - graphId={}, nodes={}, relations={}", graphId, nodeCount, relationCount);
+        }
+    }
+
+    /**
+     * 异步重算所有图谱的指标（用于历史数据回填，重复触发时直接返回）
+     */
+    @Async
+    public void recomputeAll() {
+        if (!recomputeAllRunning.compareAndSet(false, true)) {
+            log.info("图谱指标重算任务已在执行中，忽略本次触发");
+            return;
+        }
+        try {
+            List<KnowledgeGraph> graphs = graphRepository.findAll();
+            log.info("开始重算图谱指标 - 共 {} 个图谱", graphs.size());
+            for (KnowledgeGraph graph : graphs) {
+                try {
+                    recompute(graph.getGraphId());
+                } catch (Exception e) {
+                    // 单个图谱失败不影响其他
+                    log.error("图谱指标重算失败 - graphId={}: {}", graph.getGraphId(), e.getMessage());
+                }
+            }
+            log.info("图谱指标重算完成");
+        } finally {
+            recomputeAllRunning.set(false);
+        }
+    }
+
+    public boolean isRecomputeAllRunning() {
+        return recomputeAllRunning.get();
+    }
+
+    // ==================== 类型目录查询 ====================
+
+    /**
+     * 获取图谱某类别的类型计数（按数量降序）
+     */
+    public List<GraphTypeCount> getTypeCounts(Integer graphId, TypeCountKind kind) {
+        ensureCatalog(graphId);
+        return typeCountRepository.findByGraphIdAndKindOrderByCountDesc(graphId, kind);
+    }
+
+    /**
+     * 获取图谱某类别的类型名称（按数量降序）
+     */
+    public List<String> getTypeNames(Integer graphId, TypeCountKind kind) {
+        return getTypeCounts(graphId, kind).stream()
+                .map(GraphTypeCount::getTypeName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取图谱的类型目录：实体类型、关系类型与类型对的计数
+     */
+    public GraphSchemaDto getSchema(Integer graphId) {
+        ensureCatalog(graphId);
+        return GraphSchemaDto.builder()
+                .graphId(graphId)
+                .nodeTypes(toTypeCountDtos(typeCountRepository.findByGraphIdAndKindOrderByCountDesc(
+                        graphId, TypeCountKind.NODE)))
+                .relationTypes(toTypeCountDtos(typeCountRepository.findByGraphIdAndKindOrderByCountDesc(
+                        graphId, TypeCountKind.RELATION)))
+                .typePairs(pairCountRepository.findByGraphIdOrderByCountDesc(graphId).stream()
+                        .map(pair -> new GraphSchemaDto.TypePair(pair.getSourceType(), pair.getRelationType(),
+                                pair.getTargetType(), pair.getCount()))
+                        .collect(Collectors.toList()))
+                .updatedAt(graphRepository.findTypeCatalogUpdatedAt(graphId))
+                .build();
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 目录尚未建立时同步重算一次（功能上线前的历史图谱），之后只做增量维护
+     */
+    private void ensureCatalog(Integer graphId) {
+        if (graphRepository.findTypeCatalogUpdatedAt(graphId) != null) {
+            return;
+        }
+        synchronized (lockFor(graphId)) {
+            // 等锁期间可能已被其他线程重算
+            if (graphRepository.findTypeCatalogUpdatedAt(graphId) == null) {
+                recompute(graphId);
+            }
+        }
+    }
+
+    private Object lockFor(Integer graphId) {
+        return catalogLocks.computeIfAbsent(graphId, id -> new Object());
+    }
+
+    private static List<GraphSchemaDto.TypeCount> toTypeCountDtos(List<GraphTypeCount> rows) {
+        return rows.stream()
+                .map(row -> new GraphSchemaDto.TypeCount(row.getTypeName(), row.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    private static long countOrZero(Integer count) {
+        return count != null ? count : 0L;
+    }
+
+    private static BigDecimal richness(long typeCount) {
+        return clamp(BigDecimal.valueOf(typeCount).setScale(2));
+    }
+
+    private static BigDecimal clamp(BigDecimal value) {
+        return value.compareTo(MAX_METRIC) > 0 ? MAX_METRIC : value;
+    }
+
+    private static String stringOrNull(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private record TypeDistribution(List<Map<String, Object>> nodeTypes, List<Map<String, Object>> typePairs) {
+    }
+
+    /**
+     * 类型计数变化：写路径按增删的节点与关系累加，全量重算时也用它汇总聚合结果
+     * 空类型不计入目录；类型对只记录两端与关系都有类型的关系
+     */
+    public static final class TypeDelta {
+
+        private final Map<String, Long> nodes = new HashMap<>();
+        private final Map<String, Long> relations = new HashMap<>();
+        private final Map<List<String>, Long> pairs = new HashMap<>();
+
+        public TypeDelta node(String type, long delta) {
+            if (!isBlank(type)) {
+                nodes.merge(type, delta, Long::sum);
+            }
+            return this;
+        }
+
+        /**
+         * 一条（或 delta 条）源类型 -[关系类型]-> 目标类型 的关系
+         */
+        public TypeDelta relation(String sourceType, String relationType, String targetType, long delta) {
+            if (isBlank(relationType)) {
+                return this;
+            }
+            relations.merge(relationType, delta, Long::sum);
+            if (!isBlank(sourceType) && !isBlank(targetType)) {
+                pairs.merge(List.of(sourceType, relationType, targetType), delta, Long::sum);
+            }
+            return this;
+        }
+
+        /**
+         * 节点类型从 oldType 改为 newType：节点计数与所有关联关系的类型对随之迁移
+         *
+         * @param before 修改前的关联关系 [源类型, 关系类型, 目标类型]
+         * @param after  修改后的关联关系 [源类型, 关系类型, 目标类型]
+         */
+        public TypeDelta retype(String oldType, String newType, List<List<String>> before, List<List<String>> after) {
+            if (Objects.equals(oldType, newType)) {
+                return this;
+            }
+            node(oldType, -1);
+            node(newType, 1);
+            before.forEach(triple -> relation(triple.get(0), triple.get(1), triple.get(2), -1));
+            after.forEach(triple -> relation(triple.get(0), triple.get(1), triple.get(2), 1));
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return nodes.values().stream().allMatch(count -> count == 0)
+                    && relations.values().stream().allMatch(count -> count == 0)
+                    && pairs.values().stream().allMatch(count -> count == 0);
+        }
+
+        List<GraphTypeCount> toTypeCounts(Integer graphId) {
+            List<GraphTypeCount> rows = new ArrayList<>(nodes.size() + relations.size());
+            nodes.forEach((type, count) ->
+                    rows.add(new GraphTypeCount(null, graphId, TypeCountKind.NODE, type, count)));
+            relations.forEach((type, count) ->
+                    rows.add(new GraphTypeCount(null, graphId, TypeCountKind.RELATION, type, count)));
+            return rows;
+        }
+
+        List<GraphTypePairCount> toPairCounts(Integer graphId) {
+            List<GraphTypePairCount> rows = new ArrayList<>(pairs.size());
+            pairs.forEach((pair, count) ->
+                    rows.add(new GraphTypePairCount(null, graphId, pair.get(0), pair.get(1), pair.get(2), count)));
+            return rows;
+        }
+
+        private static boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.sdu.kgplatform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.PathEnumerator;
+import com.sdu.kgplatform.analytics.ShortestPaths;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.dto.LiteRelationshipDto;
+import com.sdu.kgplatform.dto.PathDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图谱路径服务
+ * 在内存 CSR 投影上做双向 BFS，不再向 Neo4j 下发无界的 [:RELATES_TO*] 展开
+ */
+@Service
+public class GraphPathService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphPathService.class);
+
+    public static final int MAX_DEPTH = 12;
+    public static final int MAX_PATHS = 50;
+    public static final int MAX_ENUMERATED_PATHS = 1000;
+    public static final int MAX_FANOUT = 1000;
+
+    /**
+     * 路径查询模式
+     */
+    public enum Mode {
+        SHORTEST, ALL, K;
+
+        public static Mode parse(String value) {
+            if (value == null) {
+                return SHORTEST;
+            }
+            return switch (value.toLowerCase()) {
+                case "all" -> ALL;
+                case "k" -> K;
+                default -> SHORTEST;
+            };
+        }
+    }
+
+    private final GraphProjectionService projectionService;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final long enumerateTimeoutMillis;
+
+    public GraphPathService(GraphProjectionService projectionService,
+                            ObjectMapper objectMapper,
+                            @Value("${app.analytics.path.timeout-ms:2000}") long timeoutMillis,
+                            @Value("${app.analytics.path.enumerate-timeout-ms:5000}") long enumerateTimeoutMillis) {
+        this.projectionService = projectionService;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.enumerateTimeoutMillis = enumerateTimeoutMillis;
+    }
+
+    /**
+     * 查询两个节点之间的路径
+     *
+     * @param mode          SHORTEST 一条最短路径；ALL 全部最短路径；K 前 k 条最短简单路径
+     * @param k             ALL / K 模式下最多返回的路径数
+     * @param relationTypes 只允许经过的关系类型，null 或空表示不过滤
+     * @param directed      是否按关系方向搜索
+     * @param maxDepth      路径最大边数
+     */
+    public List<PathDto> findPaths(Integer graphId, String fromNodeId, String toNodeId, Mode mode, int k,
+                                   List<String> relationTypes, boolean directed, int maxDepth) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("路径最大深度必须在 1 到 " + MAX_DEPTH + " 之间");
+        }
+        if (k < 1 || k > MAX_PATHS) {
+            throw new IllegalArgumentException("路径数量必须在 1 到 " + MAX_PATHS + " 之间");
+        }
+
+        CsrGraph graph = projectionService.getProjection(graphId);
+        int source = requireNode(graph, fromNodeId);
+        int target = requireNode(graph, toNodeId);
+
+        ShortestPaths.Options options = new ShortestPaths.Options(directed, graph.relationTypeMask(relationTypes),
+                maxDepth, System.nanoTime() + timeoutMillis * 1_000_000L);
+        List<ShortestPaths.Path> paths = switch (mode) {
+            case SHORTEST -> {
+                ShortestPaths.Path path = ShortestPaths.shortest(graph, source, target, options);
+                yield path != null ? List.of(path) : List.of();
+            }
+            case ALL -> ShortestPaths.allShortest(graph, source, target, options, k);
+            case K -> ShortestPaths.kShortest(graph, source, target, options, k);
+        };
+
+        List<PathDto> result = new ArrayList<>(paths.size());
+        for (ShortestPaths.Path path : paths) {
+            result.add(toDto(graph, path));
+        }
+        return result;
+    }
+
+    // ==================== 路径枚举 ====================
+
+    /**
+     * 枚举两个节点之间长度不超过 maxLength 的简单路径（双向会合搜索，见 {@link PathEnumerator}），
+     * 以 NDJSON 流式返回：每找到一条路径输出一行 {"type":"path","path":{...}}，按长度升序，
+     * 最后一行 summary 给出数量以及是否截断、剪枝、超时。参数在开始输出前校验
+     *
+     * @param fanout 每个节点最多展开的边数，限制枢纽节点带来的组合爆炸
+     * @param limit  最多返回的路径数
+     * @throws IllegalArgumentException 参数不合法或节点不存在
+     */
+    public StreamingResponseBody enumeratePaths(Integer graphId, String fromNodeId, String toNodeId,
+                                                List<String> relationTypes, boolean directed, int maxLength,
+                                                int fanout, int limit) {
+        if (maxLength < 1 || maxLength > PathEnumerator.MAX_LENGTH) {
+            throw new IllegalArgumentException("路径最大长度必须在 1 到 " + PathEnumerator.MAX_LENGTH + " 之间");
+        }
+        if (fanout < 1 || fanout > MAX_FANOUT) {
+            throw new IllegalArgumentException("展开上限必须在 1 到 " + MAX_FANOUT + " 之间");
+        }
+        if (limit < 1 || limit > MAX_ENUMERATED_PATHS) {
+            throw new IllegalArgumentException("路径数量必须在 1 到 " + MAX_ENUMERATED_PATHS + " 之间");
+        }
+
+        CsrGraph graph = projectionService.getProjection(graphId);
+        int source = requireNode(graph, fromNodeId);
+        int target = requireNode(graph, toNodeId);
+        boolean[] mask = graph.relationTypeMask(relationTypes);
+
+        return out -> {
+            long start = System.currentTimeMillis();
+            PathEnumerator.Options options = new PathEnumerator.Options(directed, mask, maxLength, fanout,
+                    System.nanoTime() + enumerateTimeoutMillis * 1_000_000L);
+            PathEnumerator.Result result;
+            try {
+                result = PathEnumerator.enumerate(graph, source, target, options, limit, path -> {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("type", "path");
+                    line.put("path", toDto(graph, path));
+                    writeLine(out, line);
+                    return true;
+                });
+            } catch (UncheckedIOException e) {
+                log.info("路径枚举客户端已断开 - graphId={}", graphId);
+                return;
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("type", "summary");
+            summary.put("count", result.found());
+            summary.put("truncated", result.truncated());
+            summary.put("pruned", result.pruned());
+            summary.put("timedOut", result.timedOut());
+            summary.put("elapsedMs", System.currentTimeMillis() - start);
+            writeLine(out, summary);
+            log.debug("路径枚举完成 - graphId={}, 路径数={}, 剪枝={}, 超时={}, 耗时={}ms", graphId,
+                    result.found(), result.pruned(), result.timedOut(), System.currentTimeMillis() - start);
+        };
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static int requireNode(CsrGraph graph, String nodeId) {
+        int index = graph.indexOf(nodeId);
+        if (index < 0) {
+            throw new IllegalArgumentException("节点不存在: " + nodeId);
+        }
+        return index;
+    }
+
+    /**
+     * 写出一行并立即刷新，使路径找到即可送达客户端；写失败（客户端断开）时以 UncheckedIOException 中止枚举
+     */
+    private void writeLine(OutputStream out, Object message) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(message));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PathDto toDto(CsrGraph graph, ShortestPaths.Path path) {
+        List<LiteNodeDto> nodes = new ArrayList<>(path.nodes().length);
+        for (int v : path.nodes()) {
+            nodes.add(LiteNodeDto.builder()
+                    .nodeId(graph.nodeId(v))
+                    .name(graph.name(v))
+                    .type(graph.nodeType(v))
+                    .build());
+        }
+        List<LiteRelationshipDto> links = new ArrayList<>(path.length());
+        for (int e : path.edges()) {
+            links.add(LiteRelationshipDto.builder()
+                    .relationId(graph.edgeId(e))
+                    .sourceNodeId(graph.nodeId(graph.edgeSource(e)))
+                    .targetNodeId(graph.nodeId(graph.edgeTarget(e)))
+                    .type(graph.relationType(e))
+                    .build());
+        }
+        return PathDto.builder()
+                .length(path.length())
+                .nodes(nodes)
+                .links(links)
+                .build();
+    }
+}
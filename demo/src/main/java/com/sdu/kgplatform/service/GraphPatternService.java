@@ -0,0 +1,91 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.PatternMatcher;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.dto.PatternQueryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图谱模式查询服务
+ * 把 JSON 模式编译后在内存 CSR 投影上匹配，常见的结构查询不再访问 Neo4j
+ */
+@Service
+public class GraphPatternService {
+
+    public static final int MAX_LIMIT = 1000;
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final GraphProjectionService projectionService;
+    private final long timeoutMillis;
+
+    public GraphPatternService(GraphProjectionService projectionService,
+                               @Value("${app.analytics.pattern.timeout-ms:3000}") long timeoutMillis) {
+        this.projectionService = projectionService;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 执行模式查询
+     *
+     * @return matches 每条匹配为 别名 → 节点；plan 为绑定顺序；truncated / timedOut 表示结果不完整
+     */
+    public Map<String, Object> match(Integer graphId, PatternQueryDto dto) {
+        int limit = dto.getLimit() != null ? dto.getLimit() : DEFAULT_LIMIT;
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit 必须在 1 到 " + MAX_LIMIT + " 之间");
+        }
+        List<PatternMatcher.NodeSpec> nodes = new ArrayList<>();
+        if (dto.getNodes() != null) {
+            for (PatternQueryDto.NodePattern node : dto.getNodes()) {
+                nodes.add(new PatternMatcher.NodeSpec(node.getAlias(), node.getType(), node.getNodeId(),
+                        node.getName(), node.getNameContains(), node.getMinDegree(), node.getMaxDegree()));
+            }
+        }
+        List<PatternMatcher.EdgeSpec> edges = new ArrayList<>();
+        if (dto.getEdges() != null) {
+            for (PatternQueryDto.EdgePattern edge : dto.getEdges()) {
+                int minHops = edge.getMinHops() != null ? edge.getMinHops() : 1;
+                int maxHops = edge.getMaxHops() != null ? edge.getMaxHops() : minHops;
+                edges.add(new PatternMatcher.EdgeSpec(edge.getFrom(), edge.getTo(), edge.getTypes(), minHops, maxHops,
+                        edge.getDirected() == null || edge.getDirected()));
+            }
+        }
+
+        CsrGraph graph = projectionService.getProjection(graphId);
+        long start = System.currentTimeMillis();
+        PatternMatcher.Result result = PatternMatcher.match(graph, nodes, edges, limit,
+                System.nanoTime() + timeoutMillis * 1_000_000L);
+
+        // 同一节点在多条匹配中出现时复用同一个 DTO
+        Map<Integer, LiteNodeDto> nodeCache = new HashMap<>();
+        List<Map<String, LiteNodeDto>> matches = new ArrayList<>(result.matches().size());
+        for (int[] match : result.matches()) {
+            Map<String, LiteNodeDto> row = new LinkedHashMap<>();
+            for (int i = 0; i < match.length; i++) {
+                row.put(result.aliases().get(i), nodeCache.computeIfAbsent(match[i], v -> LiteNodeDto.builder()
+                        .nodeId(graph.nodeId(v))
+                        .name(graph.name(v))
+                        .type(graph.nodeType(v))
+                        .build()));
+            }
+            matches.add(row);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("matches", matches);
+        response.put("count", matches.size());
+        response.put("plan", result.order());
+        response.put("truncated", result.truncated());
+        response.put("timedOut", result.timedOut());
+        response.put("elapsedMs", System.currentTimeMillis() - start);
+        return response;
+    }
+}
@@ -0,0 +1,204 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图谱投影服务
+ * 将图谱一次性加载为内存 CSR 投影，按 (graphId, 图谱版本) 缓存；
+ * 缓存容量按估算字节数限制，超出上限时按 LRU 顺序淘汰
+ */
+@Service
+public class GraphProjectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphProjectionService.class);
+
+    /**
+     * 历史数据中可能存在没有 nodeId 的节点，以 elementId 代替，节点与关系两端取值一致
+     */
+    private static final String NODES_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "RETURN coalesce(n.nodeId, elementId(n)) AS nodeId, n.name AS name, n.type AS type";
+
+    private static final String EDGES_CYPHER = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId " +
+            "RETURN elementId(r) AS relationId, coalesce(a.nodeId, elementId(a)) AS sourceNodeId, " +
+            "coalesce(b.nodeId, elementId(b)) AS targetNodeId, r.type AS type";
+
+    private final Driver neo4jDriver;
+    private final GraphVersionService graphVersionService;
+    private final long maxBytes;
+
+    // accessOrder = true，迭代顺序即 LRU 顺序
+    private final LinkedHashMap<Integer, CsrGraph> projections = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    // 每个图谱一把加载锁，避免同一版本被并发重复加载
+    private final ConcurrentHashMap<Integer, Object> loadLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GraphProjectionService(Driver neo4jDriver,
+                                  GraphVersionService graphVersionService,
+                                  @Value("${app.analytics.projection.max-bytes:268435456}") long maxBytes) {
+        this.neo4jDriver = neo4jDriver;
+        this.graphVersionService = graphVersionService;
+        this.maxBytes = maxBytes;
+    }
+
+    // ==================== 获取投影 ====================
+
+    /**
+     * 获取图谱当前版本的 CSR 投影，未命中时从 Neo4j 加载
+     */
+    public CsrGraph getProjection(Integer graphId) {
+        long version = graphVersionService.currentVersion(graphId);
+        CsrGraph cached = lookup(graphId, version);
+        if (cached != null) {
+            return cached;
+        }
+
+        synchronized (loadLocks.computeIfAbsent(graphId, id -> new Object())) {
+            // 等锁期间可能已被其他线程加载
+            cached = lookup(graphId, version);
+            if (cached != null) {
+                return cached;
+            }
+            long start = System.nanoTime();
+            CsrGraph projection = load(graphId, version);
+            loads.increment();
+            log.debug("图谱投影加载完成 - graphId={}, version={}, nodes={}, edges={}, bytes={}, {}ms",
+                    graphId, version, projection.nodeCount(), projection.edgeCount(),
+                    projection.estimatedBytes(), (System.nanoTime() - start) / 1_000_000);
+            store(projection);
+            return projection;
+        }
+    }
+
+    /**
+     * 主动移除某个图谱的投影
+     */
+    public synchronized void evict(Integer graphId) {
+        CsrGraph removed = projections.remove(graphId);
+        if (removed != null) {
+            currentBytes -= removed.estimatedBytes();
+        }
+    }
+
+    /**
+     * 图谱删除后立即释放其投影占用的缓存容量
+     */
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            evict(event.graphId());
+            loadLocks.remove(event.graphId());
+        }
+    }
+
+    /**
+     * 投影缓存统计信息
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", projections.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private synchronized CsrGraph lookup(Integer graphId, long version) {
+        CsrGraph cached = projections.get(graphId);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.version() != version) {
+            projections.remove(graphId);
+            currentBytes -= cached.estimatedBytes();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    private synchronized void store(CsrGraph projection) {
+        long size = projection.estimatedBytes();
+        if (size > maxBytes) {
+            // 超出整个预算的投影只返回给调用方使用，不缓存
+            log.warn("图谱投影超出缓存容量，不缓存 - graphId={}, bytes={}", projection.graphId(), size);
+            return;
+        }
+        CsrGraph previous = projections.put(projection.graphId(), projection);
+        if (previous != null) {
+            currentBytes -= previous.estimatedBytes();
+        }
+        currentBytes += size;
+
+        Iterator<Map.Entry<Integer, CsrGraph>> it = projections.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Integer, CsrGraph> eldest = it.next();
+            if (eldest.getKey().equals(projection.graphId())) {
+                continue;
+            }
+            currentBytes -= eldest.getValue().estimatedBytes();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 在同一个只读事务中流式读取节点与关系并构建 CSR
+     */
+    private CsrGraph load(Integer graphId, long version) {
+        SessionConfig config = SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build();
+        try (Session session = neo4jDriver.session(config)) {
+            return session.executeRead(tx -> {
+                CsrGraph.Builder builder = CsrGraph.builder(graphId, version);
+                Map<String, Object> params = Map.of("graphId", graphId);
+
+                Result nodes = tx.run(NODES_CYPHER, params);
+                while (nodes.hasNext()) {
+                    Record record = nodes.next();
+                    builder.addNode(record.get("nodeId").asString(),
+                            stringOrNull(record.get("name")),
+                            stringOrNull(record.get("type")));
+                }
+
+                Result edges = tx.run(EDGES_CYPHER, params);
+                while (edges.hasNext()) {
+                    Record record = edges.next();
+                    builder.addEdge(record.get("relationId").asString(),
+                            record.get("sourceNodeId").asString(),
+                            record.get("targetNodeId").asString(),
+                            stringOrNull(record.get("type")));
+                }
+                return builder.build();
+            });
+        }
+    }
+
+    private static String stringOrNull(org.neo4j.driver.Value value) {
+        return value == null || value.isNull() ? null : value.asString();
+    }
+}
@@ -0,0 +1,286 @@
+package com.sdu.kgplatform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sdu.kgplatform.analytics.CypherScope;
+import com.sdu.kgplatform.dto.CypherQueryDto;
+import com.sdu.kgplatform.entity.GraphStatus;
+import com.sdu.kgplatform.entity.KnowledgeGraph;
+import com.sdu.kgplatform.entity.Role;
+import com.sdu.kgplatform.entity.User;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import com.sdu.kgplatform.repository.UserRepository;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Path;
+import org.neo4j.driver.types.Relationship;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图谱只读查询控制台服务
+ * 查询经 {@link CypherScope} 限定到单个图谱后，在 READ 访问模式的显式事务中执行（服务端拒绝写入），
+ * 事务带服务端超时；结果按驱动的拉取批次逐页读取，以 NDJSON 逐页推送给客户端，
+ * 达到行数或字节上限时提前结束并丢弃剩余结果。查询在独立的有界线程池中执行，满载时拒绝
+ */
+@Service
+public class GraphQueryConsoleService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphQueryConsoleService.class);
+
+    private static final int MAX_PARAMS = 100;
+    private static final byte[] NEWLINE = {'\n'};
+    private static final byte[] ROWS_PREFIX = "{\"type\":\"rows\",\"rows\":".getBytes(StandardCharsets.UTF_8);
+
+    private final KnowledgeGraphRepository graphRepository;
+    private final UserRepository userRepository;
+    private final Driver neo4jDriver;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor consoleExecutor;
+    private final Duration timeout;
+    private final int maxRows;
+    private final long maxBytes;
+    private final int pageSize;
+
+    public GraphQueryConsoleService(KnowledgeGraphRepository graphRepository,
+                                    UserRepository userRepository,
+                                    Driver neo4jDriver,
+                                    ObjectMapper objectMapper,
+                                    @Qualifier("graphConsoleExecutor") ThreadPoolTaskExecutor consoleExecutor,
+                                    @Value("${app.graph.console.timeout-ms:10000}") long timeoutMillis,
+                                    @Value("${app.graph.console.max-rows:10000}") int maxRows,
+                                    @Value("${app.graph.console.max-bytes:16777216}") long maxBytes,
+                                    @Value("${app.graph.console.page-size:500}") int pageSize) {
+        this.graphRepository = graphRepository;
+        this.userRepository = userRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.objectMapper = objectMapper;
+        this.consoleExecutor = consoleExecutor;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 已发布图谱对登录用户开放，其余只对所有者与管理员开放
+     */
+    public boolean canQuery(Integer graphId, Integer userId) {
+        KnowledgeGraph graph = graphRepository.findById(graphId)
+                .orElseThrow(() -> new IllegalArgumentException("图谱不存在: " + graphId));
+        return graph.getStatus() == GraphStatus.PUBLISHED || graph.getUploaderId().equals(userId)
+                || userRepository.findById(userId).map(User::getRole).orElse(null) == Role.ADMIN;
+    }
+
+    /**
+     * 校验并提交查询，结果通过返回的 emitter 以 NDJSON 推送：
+     * 首行 header（列名），随后每批一行 rows，最后一行 summary 或 error
+     *
+     * @throws IllegalArgumentException 查询不合法
+     * @throws IllegalStateException    控制台并发已满
+     */
+    public ResponseBodyEmitter execute(Integer graphId, CypherQueryDto dto) {
+        String cypher = CypherScope.scope(dto.getCypher());
+        Map<String, Object> params = new HashMap<>();
+        if (dto.getParams() != null) {
+            if (dto.getParams().size() > MAX_PARAMS) {
+                throw new IllegalArgumentException("查询参数不能超过 " + MAX_PARAMS + " 个");
+            }
+            if (dto.getParams().containsKey(CypherScope.GRAPH_PARAM)) {
+                throw new IllegalArgumentException("参数名 " + CypherScope.GRAPH_PARAM + " 为保留名称");
+            }
+            params.putAll(dto.getParams());
+        }
+        params.put(CypherScope.GRAPH_PARAM, graphId);
+        int rowLimit = dto.getMaxRows() != null ? Math.max(1, Math.min(dto.getMaxRows(), maxRows)) : maxRows;
+
+        // 留出推送最后一批结果的余量
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.toMillis() + 30_000);
+        try {
+            consoleExecutor.execute(() -> run(graphId, cypher, params, rowLimit, emitter));
+        } catch (TaskRejectedException e) {
+            throw new IllegalStateException("查询控制台繁忙，请稍后重试");
+        }
+        return emitter;
+    }
+
+    // ==================== 执行查询 ====================
+
+    private void run(Integer graphId, String cypher, Map<String, Object> params, int rowLimit,
+                     ResponseBodyEmitter emitter) {
+        long start = System.currentTimeMillis();
+        SessionConfig sessionConfig = SessionConfig.builder()
+                .withDefaultAccessMode(AccessMode.READ)
+                .withFetchSize(pageSize)
+                .build();
+        TransactionConfig txConfig = TransactionConfig.builder()
+                .withTimeout(timeout)
+                .withMetadata(Map.of("app", "query-console", "graphId", graphId))
+                .build();
+        int rows = 0;
+        long bytes = 0;
+        String truncated = null;
+        // 显式事务不做自动重试，避免重放已推送的结果
+        try (Session session = neo4jDriver.session(sessionConfig);
+             Transaction tx = session.beginTransaction(txConfig)) {
+            Result result = tx.run(cypher, params);
+            bytes += send(emitter, Map.of("type", "header", "columns", result.keys()));
+
+            ByteArrayOutputStream page = new ByteArrayOutputStream();
+            int pageRows = 0;
+            while (result.hasNext()) {
+                if (rows >= rowLimit) {
+                    truncated = "rows";
+                    break;
+                }
+                byte[] row = objectMapper.writeValueAsBytes(toRow(result.next()));
+                if (bytes + page.size() + row.length > maxBytes) {
+                    truncated = "bytes";
+                    break;
+                }
+                page.write(pageRows == 0 ? '[' : ',');
+                page.write(row);
+                pageRows++;
+                rows++;
+                if (pageRows == pageSize) {
+                    bytes += sendPage(emitter, page);
+                    pageRows = 0;
+                }
+            }
+            if (pageRows > 0) {
+                bytes += sendPage(emitter, page);
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("type", "summary");
+            summary.put("rows", rows);
+            summary.put("truncated", truncated);
+            summary.put("elapsedMs", System.currentTimeMillis() - start);
+            send(emitter, summary);
+            emitter.complete();
+            log.info("控制台查询完成 - graphId={}, 行数={}, 截断={}, 耗时={}ms",
+                    graphId, rows, truncated, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            // 客户端断开，事务随会话关闭回滚
+            log.info("控制台查询客户端已断开 - graphId={}, 已返回行数={}", graphId, rows);
+            emitter.completeWithError(e);
+        } catch (Neo4jException e) {
+            log.info("控制台查询失败 - graphId={}: {}", graphId, e.getMessage());
+            sendError(emitter, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("控制台查询异常 - graphId={}: {}", graphId, e.getMessage());
+            sendError(emitter, "查询执行失败");
+        }
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private long send(ResponseBodyEmitter emitter, Object message) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(message);
+        emitter.send(line, MediaType.APPLICATION_NDJSON);
+        emitter.send(NEWLINE, MediaType.APPLICATION_NDJSON);
+        return line.length + 1L;
+    }
+
+    /**
+     * 已拼好的 [row,row...] 包装为一行 {"type":"rows","rows":[...]} 推送，然后清空缓冲
+     */
+    private long sendPage(ResponseBodyEmitter emitter, ByteArrayOutputStream page) throws IOException {
+        page.write(']');
+        page.write('}');
+        page.write('\n');
+        emitter.send(ROWS_PREFIX, MediaType.APPLICATION_NDJSON);
+        emitter.send(page.toByteArray(), MediaType.APPLICATION_NDJSON);
+        long sent = ROWS_PREFIX.length + (long) page.size();
+        page.reset();
+        return sent;
+    }
+
+    private void sendError(ResponseBodyEmitter emitter, String message) {
+        try {
+            send(emitter, Map.of("type", "error", "message", message != null ? message : "查询执行失败"));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static List<Object> toRow(Record record) {
+        List<Object> values = new ArrayList<>(record.size());
+        for (int i = 0; i < record.size(); i++) {
+            values.add(toJson(record.get(i).asObject()));
+        }
+        return values;
+    }
+
+    /**
+     * 驱动返回的对象转换为可 JSON 序列化的结构：节点、关系、路径展开为映射，时间与空间类型转为字符串
+     */
+    private static Object toJson(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Node node) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("elementId", node.elementId());
+            json.put("labels", node.labels());
+            json.put("properties", toJson(node.asMap()));
+            return json;
+        }
+        if (value instanceof Relationship relationship) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("elementId", relationship.elementId());
+            json.put("type", relationship.type());
+            json.put("start", relationship.startNodeElementId());
+            json.put("end", relationship.endNodeElementId());
+            json.put("properties", toJson(relationship.asMap()));
+            return json;
+        }
+        if (value instanceof Path path) {
+            List<Object> nodes = new ArrayList<>();
+            List<Object> relationships = new ArrayList<>();
+            path.nodes().forEach(node -> nodes.add(toJson(node)));
+            path.relationships().forEach(relationship -> relationships.add(toJson(relationship)));
+            return Map.of("nodes", nodes, "relationships", relationships);
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            map.forEach((key, item) -> json.put(String.valueOf(key), toJson(item)));
+            return json;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> json = new ArrayList<>(list.size());
+            list.forEach(item -> json.add(toJson(item)));
+            return json;
+        }
+        if (value instanceof byte[] || value instanceof TemporalAccessor) {
+            return value;
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,317 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.CsrGraph;
+import com.sdu.kgplatform.analytics.Reachability;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.dto.LiteRelationshipDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 层级关系可达性服务
+ * 按 (图谱, 关系类型集合) 在 CSR 投影上按需建立可达性索引并缓存；类型名前加 "~" 表示逆向使用该关系
+ * （如 "~属于,包含" 统一为 上位 -> 下位 方向）。图谱变化后在下次查询时按变更日志追平：
+ * 新增关系在索引上增量合并，删除关系、形成新环或日志已被压缩时全量重建
+ */
+@Service
+public class GraphReachabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphReachabilityService.class);
+
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * 索引键，types 为规范化（排序去重）后的类型说明
+     */
+    private record Key(Integer graphId, String types) {
+    }
+
+    /**
+     * 索引快照
+     *
+     * @param relationIds 参与索引的关系 ID，仅在持有键锁时读写
+     */
+    private record Snapshot(long version, CsrGraph graph, Reachability index, Set<String> relationIds) {
+    }
+
+    private final GraphProjectionService projectionService;
+    private final GraphVersionService graphVersionService;
+    private final GraphChangeLogService changeLogService;
+    private final long maxIntervals;
+
+    /** 访问序 LRU，超过容量淘汰最久未用的索引 */
+    private final Map<Key, Snapshot> snapshots;
+    private final ConcurrentHashMap<Key, Object> locks = new ConcurrentHashMap<>();
+
+    public GraphReachabilityService(GraphProjectionService projectionService,
+                                    GraphVersionService graphVersionService,
+                                    GraphChangeLogService changeLogService,
+                                    @Value("${app.analytics.reachability.max-indexes:32}") int maxIndexes,
+                                    @Value("${app.analytics.reachability.max-intervals:5000000}") long maxIntervals) {
+        this.projectionService = projectionService;
+        this.graphVersionService = graphVersionService;
+        this.changeLogService = changeLogService;
+        this.maxIntervals = maxIntervals;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Snapshot> eldest) {
+                return size() > maxIndexes;
+            }
+        };
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 判断 from 是否可沿指定关系到达 to
+     */
+    public boolean isReachable(Integer graphId, String types, String fromNodeId, String toNodeId) {
+        Snapshot snapshot = getSnapshot(graphId, types);
+        return snapshot.index().reachable(indexOf(snapshot, fromNodeId), indexOf(snapshot, toNodeId));
+    }
+
+    /**
+     * 获取节点的全部后代（从该节点可达的节点）
+     */
+    public Map<String, Object> getDescendants(Integer graphId, String types, String nodeId, int limit) {
+        validateLimit(limit);
+        Snapshot snapshot = getSnapshot(graphId, types);
+        int u = indexOf(snapshot, nodeId);
+        return toResponse(snapshot, snapshot.index().descendants(u, limit), snapshot.index().descendantCount(u));
+    }
+
+    /**
+     * 获取节点的全部祖先（可到达该节点的节点）
+     */
+    public Map<String, Object> getAncestors(Integer graphId, String types, String nodeId, int limit) {
+        validateLimit(limit);
+        Snapshot snapshot = getSnapshot(graphId, types);
+        int u = indexOf(snapshot, nodeId);
+        return toResponse(snapshot, snapshot.index().ancestors(u, limit), snapshot.index().ancestorCount(u));
+    }
+
+    /**
+     * 图谱删除时丢弃其全部索引
+     */
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.deleted()) {
+            synchronized (snapshots) {
+                snapshots.keySet().removeIf(key -> key.graphId().equals(event.graphId()));
+            }
+        }
+    }
+
+    // ==================== 索引维护 ====================
+
+    private Snapshot getSnapshot(Integer graphId, String types) {
+        Key key = new Key(graphId, normalize(types));
+        Snapshot snapshot = cached(key);
+        if (snapshot != null && snapshot.version() == graphVersionService.currentVersion(graphId)) {
+            return snapshot;
+        }
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            snapshot = cached(key);
+            long current = graphVersionService.currentVersion(graphId);
+            if (snapshot != null && snapshot.version() == current) {
+                return snapshot;
+            }
+            Snapshot updated = snapshot != null ? catchUp(key, snapshot) : null;
+            if (updated == null) {
+                updated = rebuild(key);
+            }
+            synchronized (snapshots) {
+                snapshots.put(key, updated);
+            }
+            return updated;
+        }
+    }
+
+    private Snapshot cached(Key key) {
+        synchronized (snapshots) {
+            return snapshots.get(key);
+        }
+    }
+
+    private Snapshot rebuild(Key key) {
+        long start = System.currentTimeMillis();
+        CsrGraph graph = projectionService.getProjection(key.graphId());
+        TypeSpec spec = TypeSpec.parse(key.types());
+        int n = graph.nodeCount();
+
+        int[] offsets = new int[n + 1];
+        Set<String> relationIds = new HashSet<>();
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            int direction = spec.direction(graph.relationType(e));
+            if (direction != 0) {
+                offsets[(direction > 0 ? graph.edgeSource(e) : graph.edgeTarget(e)) + 1]++;
+                relationIds.add(graph.edgeId(e));
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            int direction = spec.direction(graph.relationType(e));
+            if (direction > 0) {
+                targets[cursor[graph.edgeSource(e)]++] = graph.edgeTarget(e);
+            } else if (direction < 0) {
+                targets[cursor[graph.edgeTarget(e)]++] = graph.edgeSource(e);
+            }
+        }
+
+        Reachability index = Reachability.build(n, offsets, targets, maxIntervals);
+        if (index == null) {
+            throw new IllegalArgumentException("关系结构过于稠密，无法为该关系类型组合建立可达性索引");
+        }
+        log.info("可达性索引构建完成 - graphId={}, types={}, nodes={}, 分量={}, 区间={}, 耗时={}ms",
+                key.graphId(), key.types(), n, index.componentCount(), index.intervalCount(),
+                System.currentTimeMillis() - start);
+        return new Snapshot(graph.version(), graph, index, relationIds);
+    }
+
+    /**
+     * 按变更日志追平索引，无法增量处理时返回 null
+     */
+    private Snapshot catchUp(Key key, Snapshot snapshot) {
+        Optional<List<GraphChangeLogService.ChangeEntry>> entries =
+                changeLogService.entriesSince(key.graphId(), snapshot.version());
+        if (entries.isEmpty()) {
+            return null;
+        }
+        TypeSpec spec = TypeSpec.parse(key.types());
+        Reachability index = snapshot.index();
+        long version = snapshot.version();
+        for (GraphChangeLogService.ChangeEntry entry : entries.get()) {
+            version = entry.version();
+            switch (entry.kind()) {
+                case LINK_ADDED -> {
+                    LiteRelationshipDto link = (LiteRelationshipDto) entry.payload();
+                    int direction = spec.direction(link.getType());
+                    if (direction == 0) {
+                        continue;
+                    }
+                    int source = snapshot.graph().indexOf(link.getSourceNodeId());
+                    int target = snapshot.graph().indexOf(link.getTargetNodeId());
+                    if (source < 0 || target < 0) {
+                        // 关系连接了索引建立之后新增的节点
+                        return null;
+                    }
+                    index = direction > 0 ? index.withEdge(source, target, maxIntervals)
+                            : index.withEdge(target, source, maxIntervals);
+                    if (index == null) {
+                        return null;
+                    }
+                    snapshot.relationIds().add(link.getRelationId());
+                }
+                case LINK_REMOVED -> {
+                    if (snapshot.relationIds().contains(entry.id())) {
+                        return null;
+                    }
+                }
+                default -> {
+                    // 节点增删改本身不改变已索引节点间的可达性，被删节点的关系以 LINK_REMOVED 记录
+                }
+            }
+        }
+        return new Snapshot(version, snapshot.graph(), index, snapshot.relationIds());
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private static String normalize(String types) {
+        if (types == null || types.isBlank()) {
+            throw new IllegalArgumentException("必须指定关系类型");
+        }
+        Set<String> parts = new TreeSet<>();
+        for (String part : types.split(",")) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("必须指定关系类型");
+        }
+        return String.join(",", parts);
+    }
+
+    private static int indexOf(Snapshot snapshot, String nodeId) {
+        int v = snapshot.graph().indexOf(nodeId);
+        if (v < 0) {
+            throw new IllegalArgumentException("节点不存在: " + nodeId);
+        }
+        return v;
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit 必须在 1 到 " + MAX_LIMIT + " 之间");
+        }
+    }
+
+    private static Map<String, Object> toResponse(Snapshot snapshot, int[] nodes, long total) {
+        CsrGraph graph = snapshot.graph();
+        List<LiteNodeDto> result = new ArrayList<>(nodes.length);
+        for (int v : nodes) {
+            result.add(LiteNodeDto.builder()
+                    .nodeId(graph.nodeId(v))
+                    .name(graph.name(v))
+                    .type(graph.nodeType(v))
+                    .build());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("nodes", result);
+        response.put("total", total);
+        response.put("truncated", total > nodes.length);
+        return response;
+    }
+
+    /**
+     * 解析后的类型说明：正向类型与逆向（"~" 前缀）类型
+     */
+    private record TypeSpec(Set<String> forward, Set<String> reverse) {
+
+        static TypeSpec parse(String normalized) {
+            Set<String> forward = new HashSet<>();
+            Set<String> reverse = new HashSet<>();
+            for (String part : normalized.split(",")) {
+                if (part.startsWith("~")) {
+                    reverse.add(part.substring(1));
+                } else {
+                    forward.add(part);
+                }
+            }
+            return new TypeSpec(forward, reverse);
+        }
+
+        /**
+         * 1 表示按原方向，-1 表示逆向，0 表示不参与
+         */
+        int direction(String type) {
+            if (type == null) {
+                return 0;
+            }
+            if (forward.contains(type)) {
+                return 1;
+            }
+            return reverse.contains(type) ? -1 : 0;
+        }
+    }
+}
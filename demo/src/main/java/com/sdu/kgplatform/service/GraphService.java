@@ -1,6 +1,10 @@
 package com.sdu.kgplatform.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sdu.kgplatform.common.TransactionUtils;
 import com.sdu.kgplatform.dto.GraphCreateDto;
+import com.sdu.kgplatform.dto.GraphDeltaDto;
 import com.sdu.kgplatform.dto.GraphDetailDto;
 import com.sdu.kgplatform.dto.GraphListDto;
 import com.sdu.kgplatform.dto.GraphUpdateDto;
@@ -12,6 +16,12 @@ import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
 import com.sdu.kgplatform.repository.NodeRepository;
 import com.sdu.kgplatform.repository.RelationshipRepository;
 import com.sdu.kgplatform.repository.UserRepository;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +34,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * 知识图谱服务层
@@ -39,6 +52,25 @@ public class GraphService {
     private final com.sdu.kgplatform.repository.BrowsingHistoryRepository browsingHistoryRepository;
 
     private final RelationshipRepository relationshipRepository;
+    private final GraphVersionService graphVersionService;
+    private final GraphChangeLogService changeLogService;
+    private final GraphVisualizationCache visualizationCache;
+    private final GraphMetricsService metricsService;
+    private final ObjectMapper objectMapper;
+    private final Driver neo4jDriver;
+    private final Executor graphQueryExecutor;
+
+    /**
+     * 可视化快照查询：两个 collect 子查询在同一读事务内一次往返返回节点与关系
+     */
+    private static final String VISUALIZATION_SNAPSHOT_CYPHER = "CALL { " +
+            "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "RETURN collect({nodeId: n.nodeId, name: n.name, type: n.type, communityId: n.communityId}) AS nodes } " +
+            "CALL { " +
+            "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId " +
+            "RETURN collect({relationId: elementId(r), type: r.type, " +
+            "sourceNodeId: a.nodeId, targetNodeId: b.nodeId}) AS links } " +
+            "RETURN nodes, links";
 
     public GraphService(KnowledgeGraphRepository graphRepository,
             UserRepository userRepository,
@@ -46,7 +78,14 @@ public class GraphService {
             RelationshipRepository relationshipRepository,
             com.sdu.kgplatform.repository.CategoryRepository categoryRepository,
             FileStorageService fileStorageService,
-            com.sdu.kgplatform.repository.BrowsingHistoryRepository browsingHistoryRepository) {
+            com.sdu.kgplatform.repository.BrowsingHistoryRepository browsingHistoryRepository,
+            GraphVersionService graphVersionService,
+            GraphChangeLogService changeLogService,
+            GraphVisualizationCache visualizationCache,
+            GraphMetricsService metricsService,
+            ObjectMapper objectMapper,
+            Driver neo4jDriver,
+            @Qualifier("graphQueryExecutor") Executor graphQueryExecutor) {
         this.graphRepository = graphRepository;
         this.userRepository = userRepository;
         this.nodeRepository = nodeRepository;
@@ -54,6 +93,13 @@ public class GraphService {
         this.categoryRepository = categoryRepository;
         this.fileStorageService = fileStorageService;
         this.browsingHistoryRepository = browsingHistoryRepository;
+        this.graphVersionService = graphVersionService;
+        this.changeLogService = changeLogService;
+        this.visualizationCache = visualizationCache;
+        this.metricsService = metricsService;
+        this.objectMapper = objectMapper;
+        this.neo4jDriver = neo4jDriver;
+        this.graphQueryExecutor = graphQueryExecutor;
     }
 
     // ==================== 创建图谱 ====================
@@ -255,29 +301,61 @@ public class GraphService {
     }
 
     /**
-     * 获取图谱可视化数据（轻量级 - 阶段一优化）
+     * 按给定顺序获取已发布图谱的列表信息，不存在或未发布的图谱跳过（相关图谱等已排好序的场景）
      */
-    public Map<String, Object> getGraphVisualization(Integer graphId) {
-        KnowledgeGraph graph = graphRepository.findById(graphId)
-                .orElseThrow(() -> new IllegalArgumentException("图谱不存在: " + graphId));
+    public List<GraphListDto> getPublishedGraphs(List<Integer> graphIds) {
+        Map<Integer, KnowledgeGraph> graphs = new java.util.HashMap<>();
+        graphRepository.findAllById(graphIds).forEach(g -> {
+            if (g.getStatus() == GraphStatus.PUBLISHED) {
+                graphs.put(g.getGraphId(), g);
+            }
+        });
+
+        List<Integer> userIds = graphs.values().stream()
+                .map(KnowledgeGraph::getUploaderId)
+                .distinct()
+                .toList();
+
+        Map<Integer, String> userNames = new java.util.HashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(user -> userNames.put(user.getUserId(), user.getUserName()));
+        }
 
-        // 1. 获取轻量级节点
-        List<com.sdu.kgplatform.dto.LiteNodeDto> nodes = nodeRepository.findLiteNodesByGraphId(graphId);
+        return graphIds.stream()
+                .map(graphs::get)
+                .filter(java.util.Objects::nonNull)
+                .map(g -> convertToListDto(g, userNames.getOrDefault(g.getUploaderId(), "未知用户")))
+                .toList();
+    }
 
-        // 2. 获取轻量级关系
-        List<com.sdu.kgplatform.dto.LiteRelationshipDto> relations = relationshipRepository
-                .findLiteRelationshipsByGraphId(graphId);
+    /**
+     * 获取图谱可视化数据（轻量级）
+     * 节点与关系在同一个 Neo4j 读事务中一次查询取回（快照一致），
+     * MySQL 元数据（图谱 + 分类名称）在独立线程中并发获取
+     */
+    public Map<String, Object> getGraphVisualization(Integer graphId) {
+        // 1. 并发获取 MySQL 元数据
+        CompletableFuture<KnowledgeGraph> graphFuture = CompletableFuture.supplyAsync(
+                () -> graphRepository.findById(graphId).orElse(null), graphQueryExecutor);
+        CompletableFuture<String> categoryFuture = graphFuture.thenApply(
+                graph -> graph != null ? getCategoryName(graph.getCategoryId()) : null);
 
-        // 3. 获取分类名称
-        String categoryName = getCategoryName(graph.getCategoryId());
+        // 2. 单事务单次往返获取节点与关系
+        VisualizationSnapshot snapshot = fetchVisualizationSnapshot(graphId);
 
-        // 4. 组装返回
+        KnowledgeGraph graph = joinFuture(graphFuture);
+        if (graph == null) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        String categoryName = joinFuture(categoryFuture);
+
+        // 3. 组装返回
         java.util.Map<String, Object> result = new java.util.HashMap<>();
-        result.put("nodes", nodes);
-        result.put("links", relations);
+        result.put("nodes", snapshot.nodes());
+        result.put("links", snapshot.links());
         result.put("count", Map.of(
-                "nodes", nodes.size(),
-                "links", relations.size()));
+                "nodes", snapshot.nodes().size(),
+                "links", snapshot.links().size()));
         result.put("name", graph.getName());
         result.put("description", graph.getDescription());
         result.put("categoryId", graph.getCategoryId());
@@ -286,6 +364,63 @@ public class GraphService {
         return result;
     }
 
+    /**
+     * 获取序列化后的图谱可视化数据（带缓存）
+     * 以 (graphId, 图谱版本) 为键缓存 JSON 字节，命中时不访问 Neo4j 与 MySQL
+     */
+    public byte[] getGraphVisualizationPayload(Integer graphId) {
+        // 版本在写事务提交后才递增，先读版本再查数据，缓存在版本 V 下的数据不会早于 V；
+        // 构建期间若有写入提交，结果只会落在旧版本下，下次读取自然失效
+        long version = graphVersionService.currentVersion(graphId);
+        byte[] cached = visualizationCache.get(graphId, version);
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<String, Object> data = getGraphVisualization(graphId);
+        data.put("epoch", graphVersionService.epoch());
+        data.put("version", version);
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(data);
+            visualizationCache.put(graphId, version, payload);
+            return payload;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("可视化数据序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取图谱自某版本以来的增量变更
+     * 变更日志已被压缩、客户端版本不可识别或 epoch 缺失/不一致时返回 full = true 的全量快照，
+     * 客户端应整体替换本地数据
+     */
+    public GraphDeltaDto getGraphChanges(Integer graphId, Long epoch, long since) {
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        if (epoch != null) {
+            java.util.Optional<GraphDeltaDto> delta = changeLogService.changesSince(graphId, epoch, since);
+            if (delta.isPresent()) {
+                return delta.get();
+            }
+        }
+
+        // 与可视化缓存相同：先读版本再取快照
+        long version = graphVersionService.currentVersion(graphId);
+        VisualizationSnapshot snapshot = fetchVisualizationSnapshot(graphId);
+        return GraphDeltaDto.builder()
+                .full(true)
+                .epoch(graphVersionService.epoch())
+                .sinceVersion(since)
+                .version(version)
+                .addedNodes(snapshot.nodes())
+                .updatedNodes(List.of())
+                .removedNodeIds(List.of())
+                .addedLinks(snapshot.links())
+                .removedLinkIds(List.of())
+                .build();
+    }
+
     // ==================== 更新图谱 ====================
 
     /**
@@ -333,6 +468,8 @@ public class GraphService {
 
         graph.setLastModified(LocalDateTime.now());
         KnowledgeGraph saved = graphRepository.save(graph);
+        // 名称、描述、分类属于可视化数据的一部分，提交后再失效，避免并发读取把旧数据重新写回缓存
+        TransactionUtils.afterCommit(() -> visualizationCache.evict(graphId));
         return convertToDetailDto(saved, getUserName(saved.getUploaderId()), getUserAvatar(saved.getUploaderId()));
     }
 
@@ -399,17 +536,8 @@ public class GraphService {
      */
     @Transactional
     public void updateGraphStats(Integer graphId) {
-        KnowledgeGraph graph = graphRepository.findById(graphId).orElse(null);
-        if (graph != null) {
-            long nodeCount = nodeRepository.countByGraphId(graphId);
-            graph.setNodeCount((int) nodeCount);
-
-            long relationCount = relationshipRepository.countByGraphId(graphId);
-            graph.setRelationCount((int) relationCount);
-
-            graph.setLastModified(LocalDateTime.now());
-            graphRepository.save(graph);
-        }
+        metricsService.updateCounts(graphId, (int) nodeRepository.countByGraphId(graphId),
+                (int) relationshipRepository.countByGraphId(graphId));
     }
 
     /**
@@ -417,13 +545,7 @@ public class GraphService {
      */
     @Transactional
     public void updateGraphStats(Integer graphId, int nodeCount, int relationCount) {
-        KnowledgeGraph graph = graphRepository.findById(graphId).orElse(null);
-        if (graph != null) {
-            graph.setNodeCount(nodeCount);
-            graph.setRelationCount(relationCount);
-            graph.setLastModified(LocalDateTime.now());
-            graphRepository.save(graph);
-        }
+        metricsService.updateCounts(graphId, nodeCount, relationCount);
     }
 
     // ==================== 删除图谱 ====================
@@ -453,6 +575,11 @@ public class GraphService {
 
         // 删除图谱元数据
         graphRepository.delete(graph);
+        TransactionUtils.afterCommit(() -> {
+            graphVersionService.bump(graphId);
+            visualizationCache.evict(graphId);
+        });
+        changeLogService.clear(graphId);
     }
 
     /**
@@ -474,6 +601,11 @@ public class GraphService {
         }
 
         graphRepository.delete(graph);
+        TransactionUtils.afterCommit(() -> {
+            graphVersionService.bump(graphId);
+            visualizationCache.evict(graphId);
+        });
+        changeLogService.clear(graphId);
     }
 
     // ==================== 批量操作 ====================
@@ -535,6 +667,11 @@ public class GraphService {
                     }
                     // 删除图谱元数据
                     graphRepository.delete(graph);
+                    TransactionUtils.afterCommit(() -> {
+                        graphVersionService.bump(graphId);
+                        visualizationCache.evict(graphId);
+                    });
+                    changeLogService.clear(graphId);
                     successCount++;
                 }
             } catch (Exception e) {
@@ -623,6 +760,52 @@ public class GraphService {
         return PageRequest.of(page, size, sort);
     }
 
+    /**
+     * 在只读事务中执行可视化快照查询
+     */
+    private VisualizationSnapshot fetchVisualizationSnapshot(Integer graphId) {
+        SessionConfig config = SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build();
+        try (Session session = neo4jDriver.session(config)) {
+            return session.executeRead(tx -> {
+                var record = tx.run(VISUALIZATION_SNAPSHOT_CYPHER, Map.of("graphId", graphId)).single();
+                List<com.sdu.kgplatform.dto.LiteNodeDto> nodes = record.get("nodes").asList(
+                        v -> com.sdu.kgplatform.dto.LiteNodeDto.builder()
+                                .nodeId(stringOrNull(v.get("nodeId")))
+                                .name(stringOrNull(v.get("name")))
+                                .type(stringOrNull(v.get("type")))
+                                .communityId(v.get("communityId").isNull() ? null : v.get("communityId").asInt())
+                                .build());
+                List<com.sdu.kgplatform.dto.LiteRelationshipDto> links = record.get("links").asList(
+                        v -> com.sdu.kgplatform.dto.LiteRelationshipDto.builder()
+                                .relationId(stringOrNull(v.get("relationId")))
+                                .type(stringOrNull(v.get("type")))
+                                .sourceNodeId(stringOrNull(v.get("sourceNodeId")))
+                                .targetNodeId(stringOrNull(v.get("targetNodeId")))
+                                .build());
+                return new VisualizationSnapshot(nodes, links);
+            });
+        }
+    }
+
+    private static String stringOrNull(Value value) {
+        return value == null || value.isNull() ? null : value.asString();
+    }
+
+    private static <T> T joinFuture(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record VisualizationSnapshot(List<com.sdu.kgplatform.dto.LiteNodeDto> nodes,
+            List<com.sdu.kgplatform.dto.LiteRelationshipDto> links) {
+    }
+
     private GraphDetailDto convertToDetailDto(KnowledgeGraph graph, String uploaderName, String uploaderAvatar) {
         return GraphDetailDto.builder()
                 .graphId(graph.getGraphId())
@@ -645,6 +828,9 @@ public class GraphService {
                 .density(graph.getDensity())
                 .relationRichness(graph.getRelationRichness())
                 .entityRichness(graph.getEntityRichness())
+                .triangleCount(graph.getTriangleCount())
+                .globalClustering(graph.getGlobalClustering())
+                .averageClustering(graph.getAverageClustering())
                 .cachedFilePath(graph.getCachedFilePath())
                 .cachedFileFormat(graph.getCachedFileFormat() != null ? graph.getCachedFileFormat().name() : null)
                 .cachedGenerationDatetime(graph.getCachedGenerationDatetime())
@@ -680,6 +866,7 @@ public class GraphService {
                 .relationCount(graph.getRelationCount())
                 .downloadCount(graph.getDownloadCount())
                 .density(graph.getDensity())
+                .averageClustering(graph.getAverageClustering())
                 .categoryId(graph.getCategoryId())
                 .categoryName(getCategoryName(graph.getCategoryId()))
                 .domain(graph.getDomain())
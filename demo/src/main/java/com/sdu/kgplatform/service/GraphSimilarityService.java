@@ -0,0 +1,193 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.analytics.GraphSimilarity;
+import com.sdu.kgplatform.dto.GraphListDto;
+import com.sdu.kgplatform.dto.RelatedGraphDto;
+import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 相关图谱服务
+ * 为每个图谱维护节点名称、节点类型与关系类型直方图的 MinHash 签名，放入 LSH 索引；
+ * 图谱变更后防抖重算该图谱的签名并替换索引项，查询相关图谱只需一次索引查找
+ */
+@Service
+public class GraphSimilarityService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphSimilarityService.class);
+
+    public static final int MAX_K = 20;
+
+    /** 候选过多时按相似度取前若干个，再过滤未发布的图谱 */
+    private static final int OVERFETCH = 3;
+
+    private static final String NODES_CYPHER = "MATCH (n:Entity) WHERE n.graphId = $graphId " +
+            "RETURN n.name AS name, n.type AS type";
+
+    private static final String RELATION_TYPES_CYPHER = "MATCH (a:Entity)-[r:RELATES_TO]->(:Entity) " +
+            "WHERE a.graphId = $graphId RETURN r.type AS type, count(*) AS count";
+
+    private final GraphService graphService;
+    private final KnowledgeGraphRepository graphRepository;
+    private final Driver neo4jDriver;
+    private final TaskScheduler scheduler;
+    private final ForkJoinPool analyticsPool;
+    private final Duration debounce;
+    private final double minSimilarity;
+
+    private final GraphSimilarity.Index index = new GraphSimilarity.Index();
+    /** 已排期但尚未开始执行的签名计算 */
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    public GraphSimilarityService(GraphService graphService,
+                                  KnowledgeGraphRepository graphRepository,
+                                  Driver neo4jDriver,
+                                  @Qualifier("graphMaintenanceScheduler") TaskScheduler scheduler,
+                                  @Qualifier("graphAnalyticsPool") ForkJoinPool analyticsPool,
+                                  @Value("${app.analytics.related.debounce-ms:10000}") long debounceMillis,
+                                  @Value("${app.analytics.related.min-similarity:0.2}") double minSimilarity) {
+        this.graphService = graphService;
+        this.graphRepository = graphRepository;
+        this.neo4jDriver = neo4jDriver;
+        this.scheduler = scheduler;
+        this.analyticsPool = analyticsPool;
+        this.debounce = Duration.ofMillis(debounceMillis);
+        this.minSimilarity = minSimilarity;
+    }
+
+    // ==================== 维护索引 ====================
+
+    /**
+     * 启动后在分析线程池中为所有非空图谱建立签名
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        analyticsPool.execute(() -> {
+            long start = System.currentTimeMillis();
+            List<Integer> graphIds = graphRepository.findNonEmptyGraphIds();
+            for (Integer graphId : graphIds) {
+                try {
+                    refresh(graphId);
+                } catch (Exception e) {
+                    log.error("图谱签名计算失败 - graphId={}: {}", graphId, e.getMessage());
+                }
+            }
+            log.info("相关图谱索引已建立 - 图谱数={}, 耗时={}ms", graphIds.size(), System.currentTimeMillis() - start);
+        });
+    }
+
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.graphId() == null) {
+            return;
+        }
+        if (event.deleted()) {
+            pending.remove(event.graphId());
+            index.remove(event.graphId());
+            return;
+        }
+        schedule(event.graphId(), debounce);
+    }
+
+    /**
+     * 重新计算单个图谱的签名并替换索引项
+     */
+    public void refresh(Integer graphId) {
+        GraphSimilarity.Features features = new GraphSimilarity.Features();
+        Map<String, Object> params = Map.of("graphId", graphId);
+        try (Session session = neo4jDriver.session()) {
+            session.executeRead(tx -> {
+                tx.run(NODES_CYPHER, params).forEachRemaining(record -> features.addNode(
+                        record.get("name").isNull() ? null : record.get("name").asString(),
+                        record.get("type").isNull() ? null : record.get("type").asString()));
+                tx.run(RELATION_TYPES_CYPHER, params).forEachRemaining(record -> features.addRelations(
+                        record.get("type").isNull() ? null : record.get("type").asString(),
+                        record.get("count").asLong()));
+                return null;
+            });
+        }
+        // 计算期间图谱被删除时不再写入
+        if (!graphRepository.existsById(graphId)) {
+            return;
+        }
+        index.put(graphId, features.sign());
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 获取与图谱结构最相似的已发布图谱；签名尚未建立时提交计算并返回 available=false
+     */
+    public Map<String, Object> getRelatedGraphs(Integer graphId, int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k 必须在 1 到 " + MAX_K + " 之间");
+        }
+        if (!graphRepository.existsById(graphId)) {
+            throw new IllegalArgumentException("图谱不存在: " + graphId);
+        }
+        Map<String, Object> result = new HashMap<>();
+        if (!index.contains(graphId)) {
+            schedule(graphId, Duration.ZERO);
+            result.put("available", false);
+            result.put("related", List.of());
+            return result;
+        }
+
+        List<GraphSimilarity.Match> matches = index.similar(graphId, k * OVERFETCH, minSimilarity);
+        Map<Integer, Double> similarities = new HashMap<>();
+        List<Integer> graphIds = new ArrayList<>(matches.size());
+        for (GraphSimilarity.Match match : matches) {
+            similarities.put(match.id(), match.similarity());
+            graphIds.add(match.id());
+        }
+        List<RelatedGraphDto> related = new ArrayList<>(k);
+        for (GraphListDto graph : graphService.getPublishedGraphs(graphIds)) {
+            related.add(RelatedGraphDto.builder()
+                    .graph(graph)
+                    .similarity(similarities.get(graph.getGraphId()))
+                    .build());
+            if (related.size() == k) {
+                break;
+            }
+        }
+        result.put("available", true);
+        result.put("related", related);
+        return result;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private void schedule(Integer graphId, Duration delay) {
+        if (!pending.add(graphId)) {
+            return;
+        }
+        // 调度线程只负责计时，计算交给分析线程池
+        scheduler.schedule(() -> analyticsPool.execute(() -> {
+            pending.remove(graphId);
+            try {
+                refresh(graphId);
+            } catch (Exception e) {
+                log.error("图谱签名计算失败 - graphId={}: {}", graphId, e.getMessage());
+            }
+        }), Instant.now().plus(delay));
+    }
+}
@@ -0,0 +1,53 @@
+package com.sdu.kgplatform.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图谱版本服务
+ * 为每个图谱维护进程内单调递增的版本号，节点/关系的每次写操作都会递增版本，
+ * 以 (graphId, version) 为键的缓存据此判断数据是否过期。
+ * 版本号只在本进程内有意义，重启后从 0 重新计数；交给客户端的版本需同时携带 epoch（进程启动时间），
+ * epoch 不同的版本号不可比较
+ */
+@Service
+public class GraphVersionService {
+
+    private final ConcurrentHashMap<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final long epoch;
+
+    public GraphVersionService() {
+        this(System.currentTimeMillis());
+    }
+
+    GraphVersionService(long epoch) {
+        this.epoch = epoch;
+    }
+
+    /**
+     * 本进程的版本纪元
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * 获取图谱当前版本（从未修改过的图谱为 0）
+     */
+    public long currentVersion(Integer graphId) {
+        AtomicLong version = versions.get(graphId);
+        return version != null ? version.get() : 0L;
+    }
+
+    /**
+     * 递增图谱版本并返回新版本号
+     */
+    public long bump(Integer graphId) {
+        if (graphId == null) {
+            return 0L;
+        }
+        return versions.computeIfAbsent(graphId, id -> new AtomicLong()).incrementAndGet();
+    }
+}
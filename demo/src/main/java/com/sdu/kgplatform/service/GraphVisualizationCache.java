@@ -0,0 +1,123 @@
+package com.sdu.kgplatform.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图谱可视化响应缓存
+ * 缓存已序列化的可视化 JSON，按 (graphId, version) 判断有效性，
+ * 容量按字节而非条目数限制，超出上限时按 LRU 顺序淘汰
+ */
+@Component
+public class GraphVisualizationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphVisualizationCache.class);
+
+    /**
+     * 每个条目的固定开销估算（Map 节点、对象头、版本号等）
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long maxBytes;
+
+    // accessOrder = true，迭代顺序即 LRU 顺序
+    private final LinkedHashMap<Integer, CachedPayload> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public GraphVisualizationCache(@Value("${app.cache.visualization.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 获取缓存的可视化数据，版本不一致视为未命中并移除旧条目
+     */
+    public synchronized byte[] get(Integer graphId, long version) {
+        CachedPayload cached = entries.get(graphId);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (cached.version() != version) {
+            removeEntry(graphId);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.payload();
+    }
+
+    /**
+     * 写入缓存，单条超过总容量的数据不缓存
+     */
+    public synchronized void put(Integer graphId, long version, byte[] payload) {
+        long size = sizeOf(payload);
+        if (size > maxBytes) {
+            rejections.increment();
+            log.debug("可视化数据过大，跳过缓存 - graphId={}, bytes={}", graphId, payload.length);
+            return;
+        }
+        removeEntry(graphId);
+        entries.put(graphId, new CachedPayload(version, payload));
+        currentBytes += size;
+
+        Iterator<Map.Entry<Integer, CachedPayload>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Integer, CachedPayload> eldest = it.next();
+            currentBytes -= sizeOf(eldest.getValue().payload());
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 主动移除某个图谱的缓存（图谱元数据变化或删除时调用）
+     */
+    public synchronized void evict(Integer graphId) {
+        removeEntry(graphId);
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public synchronized Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("rejections", rejections.sum());
+        return stats;
+    }
+
+    private void removeEntry(Integer graphId) {
+        CachedPayload removed = entries.remove(graphId);
+        if (removed != null) {
+            currentBytes -= sizeOf(removed.payload());
+        }
+    }
+
+    private static long sizeOf(byte[] payload) {
+        return payload.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private record CachedPayload(long version, byte[] payload) {
+    }
+}
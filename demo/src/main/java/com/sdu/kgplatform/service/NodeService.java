@@ -1,17 +1,23 @@
 package com.sdu.kgplatform.service;
 
+import com.sdu.kgplatform.dto.LiteNodeDto;
 import com.sdu.kgplatform.dto.NodeDto;
-import com.sdu.kgplatform.entity.KnowledgeGraph;
 import com.sdu.kgplatform.entity.NodeEntity;
+import com.sdu.kgplatform.entity.TypeCountKind;
 import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
 import com.sdu.kgplatform.repository.NodeRepository;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -24,10 +30,32 @@ public class NodeService {
 
     private final NodeRepository nodeRepository;
     private final KnowledgeGraphRepository graphRepository;
+    private final GraphChangeLogService changeLogService;
+    private final GraphMetricsService metricsService;
+    private final Neo4jClient neo4jClient;
 
-    public NodeService(NodeRepository nodeRepository, KnowledgeGraphRepository graphRepository) {
+    /**
+     * 读路径统一返回的节点列
+     */
+    private static final String NODE_COLUMNS = "n.nodeId AS nodeId, n.name AS name, n.type AS type, " +
+            "n.description AS description, n.outDegree AS outDegree, n.inDegree AS inDegree, " +
+            "n.totalDegree AS totalDegree, n.communityId AS communityId";
+
+    /**
+     * 节点 n 的全部关联关系，每条表示为 [源类型, 关系类型, 目标类型]（自环只计一次），用于维护类型对计数
+     */
+    private static final String INCIDENT_TYPE_PAIRS =
+            "[(n)-[r:RELATES_TO]->(m:Entity) | [n.type, r.type, m.type]] + " +
+            "[(m:Entity)-[r:RELATES_TO]->(n) WHERE m <> n | [m.type, r.type, n.type]]";
+
+    public NodeService(NodeRepository nodeRepository, KnowledgeGraphRepository graphRepository,
+                       GraphChangeLogService changeLogService, GraphMetricsService metricsService,
+                       Neo4jClient neo4jClient) {
         this.nodeRepository = nodeRepository;
         this.graphRepository = graphRepository;
+        this.changeLogService = changeLogService;
+        this.metricsService = metricsService;
+        this.neo4jClient = neo4jClient;
     }
 
     // ==================== 创建节点 ====================
@@ -41,7 +69,7 @@ public class NodeService {
 
         // 检查同名节点（带异常处理，防止Neo4j连接问题）
         try {
-        if (nodeRepository.findByGraphIdAndName(graphId, dto.getName()).isPresent()) {
+        if (nodeRepository.existsByGraphIdAndName(graphId, dto.getName())) {
             throw new IllegalArgumentException("该图谱中已存在同名节点: " + dto.getName());
             }
         } catch (IllegalArgumentException e) {
@@ -66,7 +94,9 @@ public class NodeService {
             log.debug("Creating node - nodeId={}, name={}", node.getNodeId(), node.getName());
         NodeEntity saved = nodeRepository.save(node);
             log.debug("Saved node - nodeId={}, id={}, name={}", saved.getNodeId(), saved.getId(), saved.getName());
-        updateGraphNodeCount(graphId);
+            metricsService.addCounts(graphId, 1, 0);
+            metricsService.applyTypeDelta(graphId, new GraphMetricsService.TypeDelta().node(saved.getType(), 1));
+            changeLogService.recordNodeAdded(graphId, toLiteDto(saved));
             NodeDto result = convertToDto(saved);
             log.debug("Returning DTO - nodeId={}", result.getNodeId());
             return result;
@@ -98,127 +128,195 @@ public class NodeService {
         }).collect(Collectors.toList());
 
         List<NodeEntity> saved = nodeRepository.saveAll(nodes);
-        updateGraphNodeCount(graphId);
+        metricsService.addCounts(graphId, saved.size(), 0);
+        GraphMetricsService.TypeDelta delta = new GraphMetricsService.TypeDelta();
+        saved.forEach(node -> delta.node(node.getType(), 1));
+        metricsService.applyTypeDelta(graphId, delta);
+        changeLogService.recordNodesAdded(graphId, saved.stream().map(this::toLiteDto).collect(Collectors.toList()));
         return saved.stream().map(this::convertToDto).collect(Collectors.toList());
     }
 
     // ==================== 查询节点 ====================
+    // 读路径直接映射扁平行，不经过 SDN 实体，避免水合 outgoingRelations/incomingRelations
 
     /**
      * 获取图谱的所有节点
      */
     public List<NodeDto> getNodesByGraphId(Integer graphId) {
-        List<NodeEntity> nodes = nodeRepository.findByGraphId(graphId);
-        return nodes.stream().map(this::convertToDto).collect(Collectors.toList());
+        return queryNodes("MATCH (n:Entity) WHERE n.graphId = $graphId RETURN " + NODE_COLUMNS,
+                Map.of("graphId", graphId));
     }
 
     /**
      * 根据ID获取节点
      */
     public NodeDto getNodeById(String nodeId) {
-        NodeEntity node = nodeRepository.findByNodeId(nodeId)
+        return queryNodes("MATCH (n:Entity {nodeId: $nodeId}) RETURN " + NODE_COLUMNS,
+                Map.of("nodeId", nodeId)).stream()
+                .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("节点不存在: " + nodeId));
-        return convertToDto(node);
     }
 
     /**
      * 根据名称查找节点
      */
     public NodeDto getNodeByName(Integer graphId, String name) {
-        NodeEntity node = nodeRepository.findByGraphIdAndName(graphId, name)
+        return queryNodes("MATCH (n:Entity) WHERE n.graphId = $graphId AND n.name = $name RETURN " + NODE_COLUMNS,
+                Map.of("graphId", graphId, "name", name)).stream()
+                .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("节点不存在: " + name));
-        return convertToDto(node);
     }
 
     /**
      * 根据类型查找节点
      */
     public List<NodeDto> getNodesByType(Integer graphId, String type) {
-        List<NodeEntity> nodes = nodeRepository.findByGraphIdAndType(graphId, type);
-        return nodes.stream().map(this::convertToDto).collect(Collectors.toList());
+        return queryNodes("MATCH (n:Entity) WHERE n.graphId = $graphId AND n.type = $type RETURN " + NODE_COLUMNS,
+                Map.of("graphId", graphId, "type", type));
     }
 
     /**
      * 模糊搜索节点
      */
     public List<NodeDto> searchNodes(Integer graphId, String keyword) {
-        List<NodeEntity> nodes = nodeRepository.findByGraphIdAndNameContaining(graphId, keyword);
-        return nodes.stream().map(this::convertToDto).collect(Collectors.toList());
+        return queryNodes("MATCH (n:Entity) WHERE n.graphId = $graphId AND n.name CONTAINS $keyword RETURN "
+                + NODE_COLUMNS, Map.of("graphId", graphId, "keyword", keyword));
     }
 
     /**
      * 获取节点的出边邻居
      */
     public List<NodeDto> getOutgoingNeighbors(String nodeId) {
-        List<NodeEntity> neighbors = nodeRepository.findOutgoingNeighbors(nodeId);
-        return neighbors.stream().map(this::convertToDto).collect(Collectors.toList());
+        return queryNodes("MATCH (:Entity {nodeId: $nodeId})-[:RELATES_TO]->(n:Entity) RETURN DISTINCT "
+                + NODE_COLUMNS, Map.of("nodeId", nodeId));
     }
 
     /**
      * 获取节点的入边邻居
      */
     public List<NodeDto> getIncomingNeighbors(String nodeId) {
-        List<NodeEntity> neighbors = nodeRepository.findIncomingNeighbors(nodeId);
-        return neighbors.stream().map(this::convertToDto).collect(Collectors.toList());
+        return queryNodes("MATCH (:Entity {nodeId: $nodeId})<-[:RELATES_TO]-(n:Entity) RETURN DISTINCT "
+                + NODE_COLUMNS, Map.of("nodeId", nodeId));
+    }
+
+    /**
+     * 获取节点的全部邻居（单次无向查询）
+     */
+    public List<NodeDto> getNeighbors(String nodeId) {
+        return queryNodes("MATCH (:Entity {nodeId: $nodeId})-[:RELATES_TO]-(n:Entity) RETURN DISTINCT "
+                + NODE_COLUMNS, Map.of("nodeId", nodeId));
     }
 
     /**
-     * 获取图谱中所有节点类型
+     * 获取图谱中所有节点类型（按数量降序，读类型目录，不扫描图谱）
      */
     public List<String> getNodeTypes(Integer graphId) {
-        List<NodeEntity> nodes = nodeRepository.findByGraphId(graphId);
-        return nodes.stream()
-                .map(NodeEntity::getType)
-                .filter(type -> type != null && !type.isEmpty())
-                .distinct()
-                .collect(Collectors.toList());
+        return metricsService.getTypeNames(graphId, TypeCountKind.NODE);
     }
 
     // ==================== 更新节点 ====================
 
     /**
      * 更新节点
+     * 只 SET 变更的属性，不经过实体保存，避免覆盖并发维护的度数字段
      */
     @Transactional("neo4jTransactionManager")
     public NodeDto updateNode(String nodeId, NodeDto dto) {
-        NodeEntity node = nodeRepository.findByNodeId(nodeId)
+        Map<String, Object> current = neo4jClient.query(
+                        "MATCH (n:Entity {nodeId: $nodeId}) " +
+                        "RETURN n.graphId AS graphId, n.name AS name, n.type AS type")
+                .bind(nodeId).to("nodeId")
+                .fetch().one()
                 .orElseThrow(() -> new IllegalArgumentException("节点不存在: " + nodeId));
+        Integer graphId = ((Number) current.get("graphId")).intValue();
 
+        String name = null;
         if (dto.getName() != null && !dto.getName().trim().isEmpty()) {
             // 检查新名称是否与其他节点冲突
-            if (!node.getName().equals(dto.getName())) {
-                nodeRepository.findByGraphIdAndName(node.getGraphId(), dto.getName())
-                        .ifPresent(existing -> {
-                            throw new IllegalArgumentException("该图谱中已存在同名节点: " + dto.getName());
-                        });
+            if (!dto.getName().equals(current.get("name"))) {
+                if (nodeRepository.existsByGraphIdAndName(graphId, dto.getName())) {
+                    throw new IllegalArgumentException("该图谱中已存在同名节点: " + dto.getName());
+                }
             }
-            node.setName(dto.getName().trim());
+            name = dto.getName().trim();
         }
 
-        if (dto.getType() != null) {
-            node.setType(dto.getType());
+        Map<String, Object> params = new HashMap<>();
+        params.put("nodeId", nodeId);
+        params.put("name", name);
+        params.put("type", dto.getType());
+        params.put("description", dto.getDescription());
+        String set = "SET n.name = coalesce($name, n.name), n.type = coalesce($type, n.type), " +
+                "n.description = coalesce($description, n.description) ";
+        NodeDto updated;
+        Object oldType = current.get("type");
+        if (dto.getType() == null || dto.getType().equals(oldType)) {
+            updated = queryNodes("MATCH (n:Entity {nodeId: $nodeId}) " + set + "RETURN " + NODE_COLUMNS, params)
+                    .get(0);
+        } else {
+            // 类型变化时，关联关系的类型对随之迁移：在同一语句中取修改前后的关联类型对
+            Retyped retyped = neo4jClient.query("MATCH (n:Entity {nodeId: $nodeId}) " +
+                            "WITH n, " + INCIDENT_TYPE_PAIRS + " AS before " + set +
+                            "WITH n, before, " + INCIDENT_TYPE_PAIRS + " AS after " +
+                            "RETURN " + NODE_COLUMNS + ", before, after")
+                    .bindAll(params)
+                    .fetchAs(Retyped.class)
+                    .mappedBy((typeSystem, record) -> new Retyped(mapNodeRow(record),
+                            typePairs(record.get("before")), typePairs(record.get("after"))))
+                    .one()
+                    .orElseThrow(() -> new IllegalArgumentException("节点不存在: " + nodeId));
+            updated = retyped.node();
+            metricsService.applyTypeDelta(graphId, new GraphMetricsService.TypeDelta().retype(
+                    oldType != null ? oldType.toString() : null, updated.getType(), retyped.before(), retyped.after()));
         }
 
-        if (dto.getDescription() != null) {
-            node.setDescription(dto.getDescription());
-        }
-
-        NodeEntity saved = nodeRepository.save(node);
-        return convertToDto(saved);
+        changeLogService.recordNodeUpdated(graphId, LiteNodeDto.builder()
+                .nodeId(updated.getNodeId())
+                .name(updated.getName())
+                .type(updated.getType())
+                .build());
+        return updated;
     }
 
     // ==================== 删除节点 ====================
 
     /**
      * 删除单个节点
+     * 在同一条语句中递减所有邻居的度数，再 DETACH DELETE，并返回被级联删除的关系
      */
     @Transactional("neo4jTransactionManager")
     public void deleteNode(String nodeId) {
-        NodeEntity node = nodeRepository.findByNodeId(nodeId)
+        String cypher = "MATCH (n:Entity {nodeId: $nodeId}) " +
+                "CALL { WITH n MATCH (n)-[:RELATES_TO]->(m:Entity) WHERE m <> n " +
+                "WITH m, count(*) AS c " +
+                "SET m.inDegree = coalesce(m.inDegree, c) - c, m.totalDegree = coalesce(m.totalDegree, c) - c } " +
+                "CALL { WITH n MATCH (n)<-[:RELATES_TO]-(m:Entity) WHERE m <> n " +
+                "WITH m, count(*) AS c " +
+                "SET m.outDegree = coalesce(m.outDegree, c) - c, m.totalDegree = coalesce(m.totalDegree, c) - c } " +
+                "WITH n, n.graphId AS graphId, n.type AS type, " +
+                "[(n)-[r:RELATES_TO]-() | elementId(r)] AS relationIds, " + INCIDENT_TYPE_PAIRS + " AS typePairs " +
+                "DETACH DELETE n " +
+                "RETURN graphId, type, relationIds, typePairs";
+
+        DeletedNode deleted = neo4jClient.query(cypher)
+                .bind(nodeId).to("nodeId")
+                .fetchAs(DeletedNode.class)
+                .mappedBy((typeSystem, record) -> new DeletedNode(
+                        record.get("graphId").asInt(),
+                        stringOrNull(record.get("type")),
+                        record.get("relationIds").asList(Value::asString),
+                        typePairs(record.get("typePairs"))))
+                .one()
                 .orElseThrow(() -> new IllegalArgumentException("节点不存在: " + nodeId));
-        Integer graphId = node.getGraphId();
-        nodeRepository.delete(node);
-        updateGraphNodeCount(graphId);
+
+        // 自环在无向模式中会出现两次
+        List<String> relationIds = deleted.relationIds().stream().distinct().collect(Collectors.toList());
+        // DETACH DELETE 同时删除了关联关系，关系数一并扣除
+        metricsService.addCounts(deleted.graphId(), -1, -relationIds.size());
+        GraphMetricsService.TypeDelta delta = new GraphMetricsService.TypeDelta().node(deleted.type(), -1);
+        deleted.typePairs().forEach(triple -> delta.relation(triple.get(0), triple.get(1), triple.get(2), -1));
+        metricsService.applyTypeDelta(deleted.graphId(), delta);
+        changeLogService.recordNodeRemoved(deleted.graphId(), nodeId, relationIds);
     }
 
     /**
@@ -227,7 +325,8 @@ public class NodeService {
     @Transactional("neo4jTransactionManager")
     public void deleteNodesByGraphId(Integer graphId) {
         nodeRepository.deleteByGraphId(graphId);
-        updateGraphNodeCount(graphId);
+        metricsService.updateCountsAfterCommit(graphId, 0, 0);
+        changeLogService.recordReset(graphId);
     }
 
     // ==================== 统计方法 ====================
@@ -247,13 +346,46 @@ public class NodeService {
         }
     }
 
-    private void updateGraphNodeCount(Integer graphId) {
-        graphRepository.findById(graphId).ifPresent(graph -> {
-            long count = nodeRepository.countByGraphId(graphId);
-            graph.setNodeCount((int) count);
-            graph.setLastModified(LocalDateTime.now());
-            graphRepository.save(graph);
-        });
+    private List<NodeDto> queryNodes(String cypher, Map<String, Object> params) {
+        return new ArrayList<>(neo4jClient.query(cypher)
+                .bindAll(params)
+                .fetchAs(NodeDto.class)
+                .mappedBy((typeSystem, record) -> mapNodeRow(record))
+                .all());
+    }
+
+    private static NodeDto mapNodeRow(Record record) {
+        return NodeDto.builder()
+                .nodeId(stringOrNull(record.get("nodeId")))
+                .name(stringOrNull(record.get("name")))
+                .type(stringOrNull(record.get("type")))
+                .description(stringOrNull(record.get("description")))
+                .outDegree(intOrNull(record.get("outDegree")))
+                .inDegree(intOrNull(record.get("inDegree")))
+                .totalDegree(intOrNull(record.get("totalDegree")))
+                .communityId(intOrNull(record.get("communityId")))
+                .build();
+    }
+
+    private static String stringOrNull(Value value) {
+        return value == null || value.isNull() ? null : value.asString();
+    }
+
+    private static Integer intOrNull(Value value) {
+        return value == null || value.isNull() ? null : value.asInt();
+    }
+
+    /**
+     * [[源类型, 关系类型, 目标类型], ...]，类型可能为 null
+     */
+    private static List<List<String>> typePairs(Value value) {
+        return value.asList(triple -> triple.asList(NodeService::stringOrNull));
+    }
+
+    private record DeletedNode(Integer graphId, String type, List<String> relationIds, List<List<String>> typePairs) {
+    }
+
+    private record Retyped(NodeDto node, List<List<String>> before, List<List<String>> after) {
     }
 
     private NodeDto convertToDto(NodeEntity node) {
@@ -267,4 +399,12 @@ public class NodeService {
                 .totalDegree(node.getTotalDegree())
                 .build();
     }
+
+    private LiteNodeDto toLiteDto(NodeEntity node) {
+        return LiteNodeDto.builder()
+                .nodeId(node.getNodeId())
+                .name(node.getName())
+                .type(node.getType())
+                .build();
+    }
 }
@@ -1,12 +1,16 @@
 package com.sdu.kgplatform.service;
 
+import com.sdu.kgplatform.dto.LiteRelationshipDto;
 import com.sdu.kgplatform.dto.RelationshipDto;
+import com.sdu.kgplatform.entity.GraphTypeCount;
 import com.sdu.kgplatform.entity.NodeEntity;
 import com.sdu.kgplatform.entity.RelationshipEntity;
+import com.sdu.kgplatform.entity.TypeCountKind;
 import com.sdu.kgplatform.repository.KnowledgeGraphRepository;
 import com.sdu.kgplatform.repository.NodeRepository;
 import com.sdu.kgplatform.repository.RelationshipRepository;
 import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.Result;
 import org.slf4j.Logger;
@@ -15,8 +19,8 @@ import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,17 +39,38 @@ public class RelationshipService {
     private final KnowledgeGraphRepository graphRepository;
     private final Neo4jClient neo4jClient;
     private final Driver neo4jDriver;
+    private final GraphChangeLogService changeLogService;
+    private final GraphMetricsService metricsService;
+
+    /**
+     * 删除关系后在同一语句中递减两端度数（需要上文提供 a、b、graphId、elementId、type）
+     */
+    private static final String DECREMENT_DEGREES =
+            "SET a.outDegree = coalesce(a.outDegree, 1) - 1, a.totalDegree = coalesce(a.totalDegree, 1) - 1 " +
+            "WITH a, b, graphId, elementId, type " +
+            "SET b.inDegree = coalesce(b.inDegree, 1) - 1, b.totalDegree = coalesce(b.totalDegree, 1) - 1 ";
+
+    /**
+     * 读路径统一返回的关系列（a 为源节点，b 为目标节点）
+     */
+    private static final String RELATION_COLUMNS = "elementId(r) as relationId, r.type as type, " +
+            "a.nodeId as sourceNodeId, a.name as sourceNodeName, " +
+            "b.nodeId as targetNodeId, b.name as targetNodeName";
 
     public RelationshipService(RelationshipRepository relationshipRepository,
                                NodeRepository nodeRepository,
                                KnowledgeGraphRepository graphRepository,
                                Neo4jClient neo4jClient,
-                               Driver neo4jDriver) {
+                               Driver neo4jDriver,
+                               GraphChangeLogService changeLogService,
+                               GraphMetricsService metricsService) {
         this.relationshipRepository = relationshipRepository;
         this.nodeRepository = nodeRepository;
         this.graphRepository = graphRepository;
         this.neo4jClient = neo4jClient;
         this.neo4jDriver = neo4jDriver;
+        this.changeLogService = changeLogService;
+        this.metricsService = metricsService;
     }
 
     // ==================== 创建关系 ====================
@@ -62,14 +87,21 @@ public class RelationshipService {
         
         log.debug("Creating relation via Neo4j Driver: {} -> {} [{}]", sourceNodeId, targetNodeId, type);
 
-        // 使用 Neo4j Driver 直接执行写操作，确保立即提交
+        // 使用 Neo4j Driver 直接执行写操作，确保立即提交；
+        // 度数在同一条语句中维护，两端分两次 SET，自环时 totalDegree 正确加 2
         String cypher = "MATCH (a:Entity {nodeId: $sourceNodeId}), (b:Entity {nodeId: $targetNodeId}) " +
                        "CREATE (a)-[r:RELATES_TO {type: $type, graphId: $graphId}]->(b) " +
-                       "RETURN elementId(r) as relationId, a.name as sourceName, b.name as targetName";
+                       "SET a.outDegree = coalesce(a.outDegree, 0) + 1, a.totalDegree = coalesce(a.totalDegree, 0) + 1 " +
+                       "WITH a, b, r " +
+                       "SET b.inDegree = coalesce(b.inDegree, 0) + 1, b.totalDegree = coalesce(b.totalDegree, 0) + 1 " +
+                       "RETURN elementId(r) as relationId, a.name as sourceName, b.name as targetName, " +
+                       "a.type as sourceType, b.type as targetType";
         
         String relationId = null;
         String sourceName = null;
         String targetName = null;
+        String sourceType = null;
+        String targetType = null;
         
         try (Session session = neo4jDriver.session()) {
             Result result = session.run(cypher, 
@@ -83,21 +115,25 @@ public class RelationshipService {
                 relationId = record.get("relationId").asString();
                 sourceName = record.get("sourceName").asString();
                 targetName = record.get("targetName").asString();
+                sourceType = stringOrNull(record, "sourceType");
+                targetType = stringOrNull(record, "targetType");
                 log.debug("Created relation with Neo4j elementId: {}", relationId);
             } else {
                 log.warn("No result returned - nodes may not exist");
             }
-            
-            // 验证关系数量
-            Result countResult = session.run("MATCH ()-[r:RELATES_TO]->() RETURN count(r) as cnt");
-            if (countResult.hasNext()) {
-                long count = countResult.next().get("cnt").asLong();
-                log.debug("Total relations after creation: {}", count);
-            }
         }
 
-        // 更新图谱关系数量（使用 JPA 事务）
-        updateGraphRelationCount(graphId);
+        if (relationId != null) {
+            metricsService.addCounts(graphId, 0, 1);
+            metricsService.applyTypeDelta(graphId,
+                    new GraphMetricsService.TypeDelta().relation(sourceType, type, targetType, 1));
+            changeLogService.recordLinkAdded(graphId, LiteRelationshipDto.builder()
+                    .relationId(relationId)
+                    .sourceNodeId(sourceNodeId)
+                    .targetNodeId(targetNodeId)
+                    .type(type)
+                    .build());
+        }
 
         return RelationshipDto.builder()
                 .relationId(relationId)
@@ -126,44 +162,11 @@ public class RelationshipService {
      */
     @Transactional(value = "neo4jTransactionManager", readOnly = true)
     public List<RelationshipDto> getRelationshipsByGraphId(Integer graphId) {
-        log.debug("Fetching relations for graphId: {}", graphId);
-        
-        // 调试：统计数量
-        Long totalNodes = relationshipRepository.countAllNodes();
-        Long totalRelations = relationshipRepository.countAllRelations();
-        log.debug("Total nodes in Neo4j: {}", totalNodes);
-        log.debug("Total relations in Neo4j: {}", totalRelations);
-        
-        // 调试：查看节点的实际属性
-        String debugCypher = "MATCH (n:Entity) WHERE n.graphId = $graphId RETURN n.nodeId as nodeId, n.name as name LIMIT 3";
-        Collection<String> sampleNodes = neo4jClient.query(debugCypher)
-                .bind(graphId).to("graphId")
-                .fetchAs(String.class)
-                .mappedBy((ts, record) -> "nodeId=" + record.get("nodeId") + ", name=" + record.get("name"))
-                .all();
-        log.debug("Sample nodes in Neo4j: {}", sampleNodes);
-        
-        // 使用 Neo4jClient 查询关系
         String cypher = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE a.graphId = $graphId " +
-                       "RETURN elementId(r) as relationId, r.type as type, " +
-                       "a.nodeId as sourceNodeId, a.name as sourceNodeName, " +
-                       "b.nodeId as targetNodeId, b.name as targetNodeName";
-        
-        Collection<RelationshipDto> relations = neo4jClient.query(cypher)
-                .bind(graphId).to("graphId")
-                .fetchAs(RelationshipDto.class)
-                .mappedBy((typeSystem, record) -> RelationshipDto.builder()
-                        .relationId(record.get("relationId").asString())
-                        .type(record.get("type").isNull() ? null : record.get("type").asString())
-                        .sourceNodeId(record.get("sourceNodeId").isNull() ? null : record.get("sourceNodeId").asString())
-                        .sourceNodeName(record.get("sourceNodeName").isNull() ? null : record.get("sourceNodeName").asString())
-                        .targetNodeId(record.get("targetNodeId").isNull() ? null : record.get("targetNodeId").asString())
-                        .targetNodeName(record.get("targetNodeName").isNull() ? null : record.get("targetNodeName").asString())
-                        .build())
-                .all();
-        
+                       "RETURN " + RELATION_COLUMNS;
+        List<RelationshipDto> relations = queryRelations(cypher, Map.of("graphId", graphId));
         log.debug("Found {} relations for graphId {}", relations.size(), graphId);
-        return relations.stream().collect(Collectors.toList());
+        return relations;
     }
 
     /**
@@ -173,51 +176,36 @@ public class RelationshipService {
     public List<RelationshipDto> getRelationshipsByType(Integer graphId, String type) {
         String cypher = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) " +
                        "WHERE a.graphId = $graphId AND r.type = $type " +
-                       "RETURN elementId(r) as relationId, r.type as type, " +
-                       "a.nodeId as sourceNodeId, a.name as sourceNodeName, " +
-                       "b.nodeId as targetNodeId, b.name as targetNodeName";
-        
-        Collection<RelationshipDto> relations = neo4jClient.query(cypher)
-                .bind(graphId).to("graphId")
-                .bind(type).to("type")
-                .fetchAs(RelationshipDto.class)
-                .mappedBy((typeSystem, record) -> RelationshipDto.builder()
-                        .relationId(record.get("relationId").asString())
-                        .type(record.get("type").isNull() ? null : record.get("type").asString())
-                        .sourceNodeId(record.get("sourceNodeId").isNull() ? null : record.get("sourceNodeId").asString())
-                        .sourceNodeName(record.get("sourceNodeName").isNull() ? null : record.get("sourceNodeName").asString())
-                        .targetNodeId(record.get("targetNodeId").isNull() ? null : record.get("targetNodeId").asString())
-                        .targetNodeName(record.get("targetNodeName").isNull() ? null : record.get("targetNodeName").asString())
-                        .build())
-                .all();
-        
-        return relations.stream().collect(Collectors.toList());
+                       "RETURN " + RELATION_COLUMNS;
+        return queryRelations(cypher, Map.of("graphId", graphId, "type", type));
     }
 
     /**
      * 获取两个节点之间的关系
      */
     public List<RelationshipDto> getRelationshipsBetweenNodes(String sourceNodeId, String targetNodeId) {
-        List<RelationshipEntity> relations = relationshipRepository.findBetweenNodes(sourceNodeId, targetNodeId);
-        return relations.stream().map(this::convertToDto).collect(Collectors.toList());
+        String cypher = "MATCH (a:Entity {nodeId: $sourceNodeId})-[r:RELATES_TO]->(b:Entity {nodeId: $targetNodeId}) " +
+                       "RETURN " + RELATION_COLUMNS;
+        return queryRelations(cypher, Map.of("sourceNodeId", sourceNodeId, "targetNodeId", targetNodeId));
     }
 
     /**
-     * 获取图谱中所有关系类型
+     * 获取图谱中所有关系类型（按数量降序，读类型目录，不扫描图谱）
      */
     public List<String> getRelationshipTypes(Integer graphId) {
-        return relationshipRepository.findDistinctTypesByGraphId(graphId);
+        return metricsService.getTypeNames(graphId, TypeCountKind.RELATION);
     }
 
     /**
-     * 获取关系类型统计
+     * 获取关系类型统计（按数量降序，读类型目录，不扫描图谱）
      */
     public Map<String, Long> getRelationshipTypeStats(Integer graphId) {
-        List<Object[]> results = relationshipRepository.countByTypeForGraph(graphId);
-        return results.stream()
+        return metricsService.getTypeCounts(graphId, TypeCountKind.RELATION).stream()
                 .collect(Collectors.toMap(
-                        arr -> (String) arr[0],
-                        arr -> (Long) arr[1]
+                        GraphTypeCount::getTypeName,
+                        GraphTypeCount::getCount,
+                        (a, b) -> a,
+                        LinkedHashMap::new
                 ));
     }
 
@@ -228,11 +216,25 @@ public class RelationshipService {
      */
     @Transactional("neo4jTransactionManager")
     public void deleteRelationship(Long relationId) {
-        RelationshipEntity relation = relationshipRepository.findById(relationId)
-                .orElseThrow(() -> new IllegalArgumentException("关系不存在: " + relationId));
-        Integer graphId = relation.getGraphId();
-        relationshipRepository.delete(relation);
-        updateGraphRelationCount(graphId);
+        String cypher = "MATCH (a:Entity)-[r:RELATES_TO]->(b:Entity) WHERE id(r) = $relationId " +
+                       "WITH a, b, r, r.graphId as graphId, elementId(r) as elementId, r.type as type " +
+                       "DELETE r " +
+                       DECREMENT_DEGREES +
+                       "RETURN graphId, elementId, type, a.type as sourceType, b.type as targetType";
+
+        try (Session session = neo4jDriver.session()) {
+            Result result = session.run(cypher, Map.of("relationId", relationId));
+            if (!result.hasNext()) {
+                throw new IllegalArgumentException("关系不存在: " + relationId);
+            }
+            var record = result.next();
+            Integer graphId = record.get("graphId").isNull() ? null : record.get("graphId").asInt();
+            if (graphId != null) {
+                metricsService.addCounts(graphId, 0, -1);
+                applyRemoval(graphId, record);
+                changeLogService.recordLinkRemoved(graphId, record.get("elementId").asString());
+            }
+        }
     }
 
     /**
@@ -241,7 +243,8 @@ public class RelationshipService {
     @Transactional("neo4jTransactionManager")
     public void deleteRelationshipsByGraphId(Integer graphId) {
         relationshipRepository.deleteByGraphId(graphId);
-        updateGraphRelationCount(graphId);
+        metricsService.updateCountsAfterCommit(graphId, null, 0);
+        changeLogService.recordReset(graphId);
     }
 
     /**
@@ -249,19 +252,27 @@ public class RelationshipService {
      */
     @Transactional("neo4jTransactionManager")
     public void deleteRelationshipByElementId(String elementId) {
-        String cypher = "MATCH ()-[r]->() WHERE elementId(r) = $elementId " +
-                       "WITH r, r.graphId as graphId " +
+        String cypher = "MATCH (a:Entity)-[r]->(b:Entity) WHERE elementId(r) = $elementId " +
+                       "WITH a, b, r, r.graphId as graphId, elementId(r) as elementId, r.type as type " +
                        "DELETE r " +
-                       "RETURN graphId";
+                       DECREMENT_DEGREES +
+                       "RETURN graphId, type, a.type as sourceType, b.type as targetType";
         
         try (Session session = neo4jDriver.session()) {
             Result result = session.run(cypher, Map.of("elementId", elementId));
             if (result.hasNext()) {
-                Object graphIdObj = result.next().get("graphId").asObject();
+                var record = result.next();
+                Object graphIdObj = record.get("graphId").asObject();
+                Integer graphId = null;
                 if (graphIdObj instanceof Long) {
-                    updateGraphRelationCount(((Long) graphIdObj).intValue());
+                    graphId = ((Long) graphIdObj).intValue();
                 } else if (graphIdObj instanceof Integer) {
-                    updateGraphRelationCount((Integer) graphIdObj);
+                    graphId = (Integer) graphIdObj;
+                }
+                if (graphId != null) {
+                    metricsService.addCounts(graphId, 0, -1);
+                    applyRemoval(graphId, record);
+                    changeLogService.recordLinkRemoved(graphId, elementId);
                 }
             }
         }
@@ -284,22 +295,32 @@ public class RelationshipService {
         }
     }
 
-    private void updateGraphRelationCount(Integer graphId) {
-        graphRepository.findById(graphId).ifPresent(graph -> {
-            long count = relationshipRepository.countByGraphId(graphId);
-            graph.setRelationCount((int) count);
-            graph.setLastModified(LocalDateTime.now());
-            graphRepository.save(graph);
-        });
+    /**
+     * 被删除关系的类型计数递减（记录需包含 type、sourceType、targetType）
+     */
+    private void applyRemoval(Integer graphId, Record record) {
+        metricsService.applyTypeDelta(graphId, new GraphMetricsService.TypeDelta().relation(
+                stringOrNull(record, "sourceType"), stringOrNull(record, "type"), stringOrNull(record, "targetType"),
+                -1));
+    }
+
+    private static String stringOrNull(Record record, String key) {
+        return record.get(key).isNull() ? null : record.get(key).asString();
     }
 
-    private RelationshipDto convertToDto(RelationshipEntity relation) {
-        return RelationshipDto.builder()
-                .relationId(relation.getId() != null ? relation.getId().toString() : null)
-                .targetNodeId(relation.getTargetNode() != null ? relation.getTargetNode().getNodeId() : null)
-                .targetNodeName(relation.getTargetNode() != null ? relation.getTargetNode().getName() : null)
-                .type(relation.getType())
-                .build();
+    private List<RelationshipDto> queryRelations(String cypher, Map<String, Object> params) {
+        return new ArrayList<>(neo4jClient.query(cypher)
+                .bindAll(params)
+                .fetchAs(RelationshipDto.class)
+                .mappedBy((typeSystem, record) -> RelationshipDto.builder()
+                        .relationId(record.get("relationId").asString())
+                        .type(record.get("type").isNull() ? null : record.get("type").asString())
+                        .sourceNodeId(record.get("sourceNodeId").isNull() ? null : record.get("sourceNodeId").asString())
+                        .sourceNodeName(record.get("sourceNodeName").isNull() ? null : record.get("sourceNodeName").asString())
+                        .targetNodeId(record.get("targetNodeId").isNull() ? null : record.get("targetNodeId").asString())
+                        .targetNodeName(record.get("targetNodeName").isNull() ? null : record.get("targetNodeName").asString())
+                        .build())
+                .all());
     }
 
     /**
@@ -0,0 +1,121 @@
+package com.sdu.kgplatform.task;
+
+import com.sdu.kgplatform.service.GraphCentralityService;
+import com.sdu.kgplatform.service.GraphClusteringService;
+import com.sdu.kgplatform.service.GraphCommunityService;
+import com.sdu.kgplatform.service.GraphEmbeddingService;
+import com.sdu.kgplatform.service.GraphEntityResolutionService;
+import com.sdu.kgplatform.service.GraphHealthService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 图谱分析定时任务
+ * 只为结果缺失或图谱已变化的图谱重新计算，计算本身在分析线程池中并行执行
+ */
+@Component
+public class GraphAnalyticsTask {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphAnalyticsTask.class);
+
+    private final GraphCentralityService centralityService;
+    private final GraphCommunityService communityService;
+    private final GraphClusteringService clusteringService;
+    private final GraphEmbeddingService embeddingService;
+    private final GraphEntityResolutionService entityResolutionService;
+    private final GraphHealthService healthService;
+
+    public GraphAnalyticsTask(GraphCentralityService centralityService,
+                              GraphCommunityService communityService,
+                              GraphClusteringService clusteringService,
+                              GraphEmbeddingService embeddingService,
+                              GraphEntityResolutionService entityResolutionService,
+                              GraphHealthService healthService) {
+        this.centralityService = centralityService;
+        this.communityService = communityService;
+        this.clusteringService = clusteringService;
+        this.embeddingService = embeddingService;
+        this.entityResolutionService = entityResolutionService;
+        this.healthService = healthService;
+    }
+
+    /**
+     * 定时刷新中心性，默认每天凌晨 3 点
+     */
+    @Scheduled(cron = "${app.analytics.centrality.cron:0 0 3 * * *}")
+    public void refreshCentrality() {
+        try {
+            int submitted = centralityService.refreshStale();
+            log.info("中心性刷新任务已提交 {} 个图谱", submitted);
+        } catch (Exception e) {
+            log.error("中心性刷新任务提交失败", e);
+        }
+    }
+
+    /**
+     * 定时刷新社区划分，默认每天凌晨 3 点 30 分
+     */
+    @Scheduled(cron = "${app.analytics.community.cron:0 30 3 * * *}")
+    public void refreshCommunities() {
+        try {
+            int submitted = communityService.refreshStale();
+            log.info("社区发现任务已提交 {} 个图谱", submitted);
+        } catch (Exception e) {
+            log.error("社区发现任务提交失败", e);
+        }
+    }
+
+    /**
+     * 定时刷新三角形数与聚类系数，默认每天凌晨 4 点
+     */
+    @Scheduled(cron = "${app.analytics.clustering.cron:0 0 4 * * *}")
+    public void refreshClustering() {
+        try {
+            int submitted = clusteringService.refreshStale();
+            log.info("聚类系数刷新任务已提交 {} 个图谱", submitted);
+        } catch (Exception e) {
+            log.error("聚类系数刷新任务提交失败", e);
+        }
+    }
+
+    /**
+     * 定时重新训练节点嵌入，默认每天凌晨 4 点 30 分
+     */
+    @Scheduled(cron = "${app.analytics.embedding.cron:0 30 4 * * *}")
+    public void refreshEmbeddings() {
+        try {
+            int submitted = embeddingService.refreshStale();
+            log.info("嵌入训练任务已提交 {} 个图谱", submitted);
+        } catch (Exception e) {
+            log.error("嵌入训练任务提交失败", e);
+        }
+    }
+
+    /**
+     * 定时刷新疑似重复实体的合并建议，默认每天凌晨 5 点
+     */
+    @Scheduled(cron = "${app.analytics.dedupe.cron:0 0 5 * * *}")
+    public void refreshDuplicates() {
+        try {
+            int submitted = entityResolutionService.refreshStale();
+            log.info("实体查重任务已提交 {} 个图谱", submitted);
+        } catch (Exception e) {
+            log.error("实体查重任务提交失败", e);
+        }
+    }
+
+    /**
+     * 为尚无健康报告的图谱补做检查，默认每天凌晨 5 点 30 分
+     */
+    @Scheduled(cron = "${app.analytics.health.cron:0 30 5 * * *}")
+    public void refreshHealthReports() {
+        try {
+            int submitted = healthService.refreshMissing();
+            log.info("健康检查任务已提交 {} 个图谱", submitted);
+        } catch (Exception e) {
+            log.error("健康检查任务提交失败", e);
+        }
+    }
+}
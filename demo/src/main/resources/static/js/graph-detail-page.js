@@ -561,6 +561,51 @@
         }
     }
 
+    // Load structurally similar graphs (MinHash index lookup on the server)
+    async function loadRelatedGraphs(graphId) {
+        const container = document.getElementById('relatedGraphsContainer');
+        if (!container || !graphId) return;
+
+        try {
+            const response = await fetch(`/api/graph/${graphId}/related?size=8`);
+            if (!response.ok) throw new Error('Failed to load related graphs');
+            const data = await response.json();
+
+            if (!data.related || data.related.length === 0) {
+                container.innerHTML = `
+                    <div class="col-span-full flex flex-col items-center justify-center py-8">
+                        <span class="iconify text-base-content/30" data-icon="heroicons:squares-2x2" data-width="48"></span>
+                        <p class="mt-3 text-sm text-base-content/50">${data.available === false ? '相关图谱计算中，请稍后刷新' : '暂无相关图谱'}</p>
+                    </div>`;
+                return;
+            }
+
+            container.innerHTML = data.related.map(function(item) {
+                var graph = item.graph;
+                var percent = Math.round(item.similarity * 100);
+                return '<div class="card bg-base-100 shadow-sm hover:shadow-md transition-shadow cursor-pointer" onclick="window.location.href=\'/graph/graph_detail.html?id=' + graph.graphId + '\'">' +
+                    '<div class="card-body p-4">' +
+                        '<div class="flex items-start justify-between gap-2">' +
+                            '<h3 class="font-semibold text-sm line-clamp-2 flex-1">' + (graph.name || '未命名图谱') + '</h3>' +
+                            '<span class="badge badge-primary badge-sm">' + percent + '%</span>' +
+                        '</div>' +
+                        '<p class="text-xs text-base-content/60 line-clamp-2 mt-1">' + (graph.description || '') + '</p>' +
+                        '<div class="flex items-center justify-between mt-3 text-xs text-base-content/50">' +
+                            '<div class="flex items-center gap-1">' +
+                                '<span class="iconify" data-icon="heroicons:user-circle" data-width="14"></span>' +
+                                '<span>' + (graph.uploaderName || '未知用户') + '</span>' +
+                            '</div>' +
+                            '<span>' + (graph.nodeCount || 0) + ' 节点 · ' + (graph.relationCount || 0) + ' 关系</span>' +
+                        '</div>' +
+                    '</div>' +
+                '</div>';
+            }).join('');
+        } catch (e) {
+            console.error('加载相关图谱失败:', e);
+            container.innerHTML = '<div class="col-span-full text-center py-4 text-sm text-base-content/50">加载相关图谱失败</div>';
+        }
+    }
+
     // Initialize page
     document.addEventListener('DOMContentLoaded', async function () {
         const params = getGraphParamsFromUrl();
@@ -575,8 +620,9 @@
 
         if (data) {
             updatePageWithGraphData(data);
-            // 加载相关帖子
+            // 加载相关帖子与相关图谱
             loadRelatedPosts(data.id);
+            loadRelatedGraphs(data.id);
         }
 
         initializeGraph();
@@ -0,0 +1,60 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Centrality 单元测试
+ */
+class CentralityTest {
+
+    private CsrGraph graph;
+    private int center;
+
+    @BeforeEach
+    void setUp() {
+        // a,b -> c -> d,e
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : new String[]{"a", "b", "c", "d", "e"}) {
+            builder.addNode(id, id, null);
+        }
+        builder.addEdge("1", "a", "c", "r");
+        builder.addEdge("2", "b", "c", "r");
+        builder.addEdge("3", "c", "d", "r");
+        builder.addEdge("4", "c", "e", "r");
+        graph = builder.build();
+        center = graph.indexOf("c");
+    }
+
+    @Test
+    @DisplayName("PageRank - 分值和为 1 且中心节点最高")
+    void pageRank_SumsToOne() {
+        double[] rank = Centrality.pageRank(graph, 0.85, 100, 1e-9);
+        double sum = 0;
+        for (double r : rank) {
+            sum += r;
+        }
+        assertEquals(1.0, sum, 1e-9);
+        assertEquals(center, Centrality.topK(rank, 1)[0]);
+    }
+
+    @Test
+    @DisplayName("介数 - 样本覆盖全部节点时为精确值")
+    void betweenness_ExactWhenFullySampled() {
+        Centrality.Betweenness result = Centrality.betweenness(graph, 100, 1L, Long.MAX_VALUE);
+        assertEquals(5, result.samples());
+        // 经过 c 的最短路径对：(a,d) (a,e) (b,d) (b,e)，归一化因子 (n-1)(n-2) = 12
+        assertEquals(4.0 / 12, result.scores()[center], 1e-9);
+        assertEquals(0.0, result.scores()[graph.indexOf("a")], 1e-9);
+    }
+
+    @Test
+    @DisplayName("topK - 降序且同分按下标升序")
+    void topK_OrderedWithStableTies() {
+        assertArrayEquals(new int[]{1, 3, 2, 5}, Centrality.topK(new double[]{1, 5, 3, 5, 0, 2}, 4));
+        assertEquals(0, Centrality.topK(new double[0], 3).length);
+    }
+}
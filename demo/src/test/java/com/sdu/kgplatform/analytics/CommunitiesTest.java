@@ -0,0 +1,64 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Communities 单元测试
+ */
+class CommunitiesTest {
+
+    private CsrGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // 两个团 {a1..a4}、{b1..b3} 由 a4-b1 相连，x 为带自环的孤立节点
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : new String[]{"a1", "a2", "a3", "a4", "b1", "b2", "b3", "x"}) {
+            builder.addNode(id, id, null);
+        }
+        String[][] edges = {{"a1", "a2"}, {"a1", "a3"}, {"a1", "a4"}, {"a2", "a3"}, {"a2", "a4"}, {"a3", "a4"},
+                {"b1", "b2"}, {"b2", "b3"}, {"b1", "b3"}, {"a4", "b1"}, {"x", "x"}};
+        for (int i = 0; i < edges.length; i++) {
+            builder.addEdge(String.valueOf(i), edges[i][0], edges[i][1], "r");
+        }
+        graph = builder.build();
+    }
+
+    @Test
+    @DisplayName("标签传播 - 识别两个团且按规模编号")
+    void labelPropagation_FindsCliques() {
+        Communities.Result result = Communities.labelPropagation(graph, 50, 7L, Long.MAX_VALUE);
+        int[] membership = result.membership();
+        assertTrue(result.converged());
+        assertEquals(3, result.count());
+        assertEquals(0, membership[graph.indexOf("a1")]);
+        assertEquals(membership[graph.indexOf("a1")], membership[graph.indexOf("a4")]);
+        assertEquals(1, membership[graph.indexOf("b1")]);
+        assertEquals(membership[graph.indexOf("b1")], membership[graph.indexOf("b3")]);
+        assertEquals(2, membership[graph.indexOf("x")]);
+    }
+
+    @Test
+    @DisplayName("社区摘要 - 规模、内部关系与社区间关系")
+    void summarize_CountsEdges() {
+        Communities.Result result = Communities.labelPropagation(graph, 50, 7L, Long.MAX_VALUE);
+        List<Communities.Summary> summaries = Communities.summarize(graph, result, 2, 5);
+        assertEquals(3, summaries.size());
+
+        Communities.Summary first = summaries.get(0);
+        assertEquals(4, first.size());
+        assertEquals(6, first.internalEdges());
+        assertEquals(graph.indexOf("a4"), first.topMembers()[0]);
+        assertEquals(1, first.neighbors().size());
+        assertArrayEquals(new long[]{1, 1}, first.neighbors().get(0));
+
+        assertEquals(1, summaries.get(2).internalEdges());
+        assertTrue(summaries.get(2).neighbors().isEmpty());
+    }
+}
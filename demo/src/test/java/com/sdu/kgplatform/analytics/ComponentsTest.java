@@ -0,0 +1,66 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Components / GraphHealth 单元测试
+ */
+class ComponentsTest {
+
+    private CsrGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // 环 a->b->c->a，c->d，d<->e；f 仅有自环，g 孤立；a->b 另有一条同类型重复关系
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : new String[]{"a", "b", "c", "d", "e", "f", "g"}) {
+            builder.addNode(id, id, null);
+        }
+        builder.addEdge("1", "a", "b", "r");
+        builder.addEdge("2", "b", "c", "r");
+        builder.addEdge("3", "c", "a", "r");
+        builder.addEdge("4", "c", "d", "r");
+        builder.addEdge("5", "d", "e", "r");
+        builder.addEdge("6", "e", "d", "r");
+        builder.addEdge("7", "a", "b", "r");
+        builder.addEdge("8", "a", "b", "q");
+        builder.addEdge("9", "f", "f", "r");
+        graph = builder.build();
+    }
+
+    @Test
+    @DisplayName("弱连通分量 - 按规模编号")
+    void weak_GroupsIgnoringDirection() {
+        Components.Result result = Components.weak(graph);
+        assertEquals(3, result.count());
+        assertEquals(5, result.largestSize());
+        assertEquals(0, result.component()[graph.indexOf("e")]);
+        assertNotEquals(result.component()[graph.indexOf("f")], result.component()[graph.indexOf("g")]);
+    }
+
+    @Test
+    @DisplayName("强连通分量 - 环与互指节点各成一个分量")
+    void strong_FindsCycles() {
+        Components.Result result = Components.strong(graph);
+        assertEquals(4, result.count());
+        assertEquals(3, result.largestSize());
+        int[] component = result.component();
+        assertEquals(component[graph.indexOf("a")], component[graph.indexOf("c")]);
+        assertEquals(component[graph.indexOf("d")], component[graph.indexOf("e")]);
+        assertNotEquals(component[graph.indexOf("c")], component[graph.indexOf("d")]);
+    }
+
+    @Test
+    @DisplayName("健康报告 - 孤立节点、自环与重复关系")
+    void analyze_CountsAnomalies() {
+        GraphHealth.Report report = GraphHealth.analyze(graph);
+        assertEquals(1, report.isolatedNodes());
+        assertEquals(1, report.selfLoops());
+        assertEquals(1, report.duplicateEdges());
+        assertEquals(9, report.edgeCount());
+    }
+}
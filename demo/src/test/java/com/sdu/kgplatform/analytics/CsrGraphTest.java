@@ -0,0 +1,103 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CsrGraph 单元测试
+ */
+class CsrGraphTest {
+
+    private CsrGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // a -> b, a -> c, b -> c, c -> a（自环 c -> c）
+        CsrGraph.Builder builder = CsrGraph.builder(1, 7L);
+        builder.addNode("a", "A", "人物");
+        builder.addNode("b", "B", "人物");
+        builder.addNode("c", "C", "地点");
+        builder.addEdge("e1", "a", "b", "认识");
+        builder.addEdge("e2", "a", "c", "位于");
+        builder.addEdge("e3", "b", "c", "位于");
+        builder.addEdge("e4", "c", "a", null);
+        builder.addEdge("e5", "c", "c", "认识");
+        graph = builder.build();
+    }
+
+    @Test
+    @DisplayName("构建 - 节点与边计数、下标映射")
+    void build_CountsAndIndexes() {
+        assertEquals(1, graph.graphId());
+        assertEquals(7L, graph.version());
+        assertEquals(3, graph.nodeCount());
+        assertEquals(5, graph.edgeCount());
+        assertEquals(0, graph.indexOf("a"));
+        assertEquals(2, graph.indexOf("c"));
+        assertEquals(-1, graph.indexOf("missing"));
+        assertEquals("地点", graph.nodeType(2));
+        assertEquals(List.of("人物", "地点"), graph.nodeTypeDictionary());
+    }
+
+    @Test
+    @DisplayName("构建 - 出入边 CSR 与度数")
+    void build_Adjacency() {
+        int a = graph.indexOf("a");
+        int c = graph.indexOf("c");
+
+        Set<String> outOfA = new HashSet<>();
+        for (int k = graph.outStart(a); k < graph.outEnd(a); k++) {
+            outOfA.add(graph.nodeId(graph.outTarget(k)));
+            assertEquals(a, graph.edgeSource(graph.outEdge(k)));
+        }
+        assertEquals(Set.of("b", "c"), outOfA);
+
+        Set<String> intoC = new HashSet<>();
+        for (int k = graph.inStart(c); k < graph.inEnd(c); k++) {
+            intoC.add(graph.nodeId(graph.inSource(k)));
+        }
+        assertEquals(Set.of("a", "b", "c"), intoC);
+
+        assertEquals(2, graph.outDegree(a));
+        assertEquals(1, graph.inDegree(a));
+        assertEquals(2, graph.outDegree(c));
+        assertEquals(3, graph.inDegree(c));
+        assertEquals(5, graph.degree(c));
+    }
+
+    @Test
+    @DisplayName("关系类型 - 编码与掩码过滤")
+    void relationTypeMask_FiltersEdges() {
+        boolean[] mask = graph.relationTypeMask(List.of("位于", "不存在的类型"));
+        int allowed = 0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (graph.edgeAllowed(e, mask)) {
+                allowed++;
+                assertEquals("位于", graph.relationType(e));
+            }
+        }
+        assertEquals(2, allowed);
+        assertNull(graph.relationTypeMask(List.of()));
+        assertTrue(graph.edgeAllowed(3, null));
+        assertFalse(graph.edgeAllowed(3, mask));
+    }
+
+    @Test
+    @DisplayName("构建 - 端点不存在的边被忽略")
+    void addEdge_UnknownEndpointIgnored() {
+        CsrGraph.Builder builder = CsrGraph.builder(2, 0L);
+        builder.addNode("x", "X", null);
+        assertEquals(-1, builder.addEdge("e", "x", "y", "t"));
+        CsrGraph g = builder.build();
+        assertEquals(0, g.edgeCount());
+        assertNull(g.nodeType(0));
+        assertTrue(g.estimatedBytes() > 0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CypherScope 单元测试
+ */
+class CypherScopeTest {
+
+    @Test
+    @DisplayName("作用域改写 - 节点与关系模式追加 graphId 谓词，函数调用与字符串不受影响")
+    void scope_AddsGraphPredicate() {
+        assertEquals("MATCH (n:Entity {graphId: $scopeGraphId})-[r:RELATES_TO {graphId: $scopeGraphId}]->"
+                        + "(m {name: 'a(b)', graphId: $scopeGraphId}) RETURN count(m)",
+                CypherScope.scope("MATCH (n:Entity)-[r:RELATES_TO]->(m {name: 'a(b)'}) RETURN count(m);"));
+        assertEquals("MATCH p = shortestPath((a {graphId: $scopeGraphId})-[*..3 {graphId: $scopeGraphId}]-"
+                        + "(b {graphId: $scopeGraphId})) RETURN p",
+                CypherScope.scope("MATCH p = shortestPath((a)-[*..3]-(b {})) RETURN p"));
+        assertEquals("MATCH (n IS Person {graphId: $scopeGraphId}) WHERE n.x IS NULL RETURN (n.x + 1)",
+                CypherScope.scope("MATCH (n IS Person) WHERE n.x IS NULL RETURN (n.x + 1)"));
+    }
+
+    @Test
+    @DisplayName("只读校验 - 拒绝写操作、过程调用、扩展函数与多语句")
+    void scope_RejectsUnsafeQueries() {
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("MATCH (n) SET n.x = 1"));
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("CALL db.labels()"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CypherScope.scope("MATCH (n) RETURN apoc.cypher.runFirstColumnSingle('MATCH (m) RETURN m', {})"));
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("MATCH (n) RETURN n; MATCH (m) RETURN m"));
+        // 关键字出现在字符串、注释或属性名中不影响
+        assertEquals("MATCH (n {graphId: $scopeGraphId}) RETURN n.set, 'CREATE'",
+                CypherScope.scope("MATCH (n) RETURN n.set, 'CREATE' // DELETE"));
+    }
+
+    @Test
+    @DisplayName("无法安全限定作用域的模式写法一律拒绝")
+    void scope_RejectsAmbiguousPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("MATCH (n:(A|B)) RETURN n"));
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("MATCH (n WHERE n.x > 1) RETURN n"));
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("MATCH (n $props) RETURN n"));
+        assertThrows(IllegalArgumentException.class, () -> CypherScope.scope("MATCH (n {name: 'x'"));
+    }
+}
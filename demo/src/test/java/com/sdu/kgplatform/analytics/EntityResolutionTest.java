@@ -0,0 +1,75 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntityResolution 与 MinHash 单元测试
+ */
+class EntityResolutionTest {
+
+    private static final EntityResolution.Params PARAMS = new EntityResolution.Params(0.6, 100, 50, 42L);
+
+    @Test
+    @DisplayName("名称规范化 - 全角、大小写与空白")
+    void normalize_FoldsWidthCaseAndSpaces() {
+        assertEquals("sdu大学", EntityResolution.normalize(" ＳＤＵ 大学 "));
+        assertEquals("", EntityResolution.normalize(null));
+    }
+
+    @Test
+    @DisplayName("MinHash - 相同集合签名相同，LSH 只取相似集合")
+    void minHash_SignatureAndBanding() {
+        MinHash minHash = new MinHash(30, 7L);
+        int[] a = MinHash.shingles("knowledge graph platform", 3);
+        int[] b = MinHash.shingles("knowledge graph platforms", 3);
+        int[] c = MinHash.shingles("completely unrelated text", 3);
+
+        assertArrayEquals(minHash.signature(a), minHash.signature(a.clone()));
+        assertTrue(MinHash.jaccard(a, b) > 0.8);
+        assertNull(minHash.signature(new int[0]));
+
+        long[] pairs = MinHash.candidatePairs(new int[][]{
+                minHash.signature(a), minHash.signature(c), minHash.signature(b), null}, 10, 10);
+        assertArrayEquals(new long[]{2L}, pairs);
+    }
+
+    @Test
+    @DisplayName("查找重复 - 名称变体与缩写命中，类型不同的同名节点不配对")
+    void findDuplicates_NameVariantsAndAbbreviation() {
+        // 0 "北京大学" 与 1 "北大" 共享邻居 4、5、6；2 "Peking University" 与 3 "peking  university" 仅大小写空白不同；
+        // 7 与 2 同名但类型不同
+        String[] names = {"北京大学", "北大", "Peking University", "peking  university", "海淀区", "教育部", "蔡元培",
+                "Peking University"};
+        String[] types = {"组织", "组织", "组织", "组织", "地点", "组织", "人物", "期刊"};
+        String[] descriptions = new String[names.length];
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (int i = 0; i < names.length; i++) {
+            builder.addNode(String.valueOf(i), names[i], types[i]);
+        }
+        int[][] edges = {{0, 4}, {0, 5}, {0, 6}, {1, 4}, {1, 5}, {1, 6}, {0, 2}};
+        for (int i = 0; i < edges.length; i++) {
+            builder.addEdge("e" + i, String.valueOf(edges[i][0]), String.valueOf(edges[i][1]), "r");
+        }
+        CsrGraph graph = builder.build();
+
+        List<EntityResolution.Candidate> result = EntityResolution.findDuplicates(
+                names, descriptions, types, UndirectedAdjacency.of(graph), PARAMS, true);
+
+        assertEquals(2, result.size());
+        EntityResolution.Candidate exact = result.get(0);
+        assertEquals(graph.indexOf("2"), exact.keep());
+        assertEquals(graph.indexOf("3"), exact.merge());
+        assertEquals(0.9, exact.score(), 1e-9);
+
+        EntityResolution.Candidate abbreviation = result.get(1);
+        assertEquals(graph.indexOf("0"), abbreviation.keep());
+        assertEquals(graph.indexOf("1"), abbreviation.merge());
+        assertEquals(0.6, abbreviation.nameSimilarity(), 1e-9);
+        assertEquals(0.75, abbreviation.neighborSimilarity(), 1e-9);
+    }
+}
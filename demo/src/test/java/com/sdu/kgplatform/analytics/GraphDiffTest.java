@@ -0,0 +1,94 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GraphDiff 单元测试
+ */
+class GraphDiffTest {
+
+    private static final List<GraphDiff.NodeRow> BASE = List.of(
+            new GraphDiff.NodeRow("北京", "城市", ""),
+            new GraphDiff.NodeRow("天津", "城市", ""),
+            new GraphDiff.NodeRow("山东", "省份", "旧描述"),
+            new GraphDiff.NodeRow("河北", "省份", ""));
+
+    private static final List<GraphDiff.NodeRow> TARGET = List.of(
+            new GraphDiff.NodeRow("上海", "城市", ""),
+            new GraphDiff.NodeRow("北京", "城市", ""),
+            new GraphDiff.NodeRow("山东", "省份", "新描述"),
+            new GraphDiff.NodeRow("河北", "省份", ""));
+
+    @Test
+    @DisplayName("节点差异 - 新增、删除与修改")
+    void diff_Nodes() {
+        List<GraphDiff.Entry<GraphDiff.NodeRow>> entries = new ArrayList<>();
+        Object last = GraphDiff.diff(sorted(BASE).iterator(), sorted(TARGET).iterator(), GraphDiff.NODE_KEY,
+                entries::add);
+
+        assertNull(last);
+        assertEquals(3, entries.size());
+        assertEquals(GraphDiff.Change.ADDED, entries.get(0).change());
+        assertEquals("上海", entries.get(0).after().name());
+        assertEquals(GraphDiff.Change.REMOVED, entries.get(1).change());
+        assertEquals("天津", entries.get(1).before().name());
+        assertEquals(GraphDiff.Change.CHANGED, entries.get(2).change());
+        assertEquals("旧描述", entries.get(2).before().description());
+        assertEquals("新描述", entries.get(2).after().description());
+    }
+
+    @Test
+    @DisplayName("关系差异 - 重复关系按数量比较，分页在键组边界停止")
+    void diff_EdgesWithDuplicatesAndPaging() {
+        List<GraphDiff.EdgeRow> base = List.of(
+                new GraphDiff.EdgeRow("a", "r", "b"),
+                new GraphDiff.EdgeRow("a", "r", "c"));
+        List<GraphDiff.EdgeRow> target = List.of(
+                new GraphDiff.EdgeRow("a", "r", "b"),
+                new GraphDiff.EdgeRow("a", "r", "b"),
+                new GraphDiff.EdgeRow("b", "s", "c"));
+
+        List<GraphDiff.Entry<GraphDiff.EdgeRow>> page = new ArrayList<>();
+        GraphDiff.EdgeRow cursor = GraphDiff.diff(base.iterator(), target.iterator(), GraphDiff.EDGE_KEY,
+                entry -> {
+                    page.add(entry);
+                    return page.size() < 1;
+                });
+
+        assertEquals(1, page.size());
+        assertEquals(GraphDiff.Change.ADDED, page.get(0).change());
+        assertEquals(new GraphDiff.EdgeRow("a", "r", "b"), cursor);
+
+        // 从游标之后继续
+        List<GraphDiff.Entry<GraphDiff.EdgeRow>> rest = new ArrayList<>();
+        assertNull(GraphDiff.diff(base.subList(1, 2).iterator(), target.subList(2, 3).iterator(),
+                GraphDiff.EDGE_KEY, rest::add));
+        assertEquals(2, rest.size());
+        assertEquals(GraphDiff.Change.REMOVED, rest.get(0).change());
+        assertEquals(GraphDiff.Change.ADDED, rest.get(1).change());
+    }
+
+    @Test
+    @DisplayName("码点顺序 - 辅助平面字符排在 BMP 私用区之后，乱序输入报错")
+    void codePointOrderAndUnsortedInput() {
+        assertTrue(GraphDiff.CODE_POINT_ORDER.compare("Ａ", "😀") < 0);
+        assertTrue(GraphDiff.CODE_POINT_ORDER.compare("ab", "abc") < 0);
+
+        List<GraphDiff.NodeRow> unsorted = List.of(new GraphDiff.NodeRow("b", "", ""),
+                new GraphDiff.NodeRow("a", "", ""));
+        assertThrows(IllegalStateException.class, () -> GraphDiff.diff(unsorted.iterator(),
+                List.<GraphDiff.NodeRow>of().iterator(), GraphDiff.NODE_KEY, entry -> true));
+    }
+
+    private static List<GraphDiff.NodeRow> sorted(List<GraphDiff.NodeRow> rows) {
+        List<GraphDiff.NodeRow> copy = new ArrayList<>(rows);
+        copy.sort(GraphDiff.NODE_KEY);
+        return copy;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GraphSimilarity 单元测试
+ */
+class GraphSimilarityTest {
+
+    private GraphSimilarity.Signature universities;
+    private GraphSimilarity.Signature universitiesVariant;
+    private GraphSimilarity.Signature chemistry;
+
+    @BeforeEach
+    void setUp() {
+        universities = signature("大学", "位于", 0);
+        // 名称大体相同，只有少量差异
+        universitiesVariant = signature("大学", "位于", 5);
+        chemistry = signature("元素", "反应生成", 0);
+    }
+
+    @Test
+    @DisplayName("签名相似度 - 相近图谱高于无关图谱")
+    void similarity_RelatedGraphsScoreHigher() {
+        double related = GraphSimilarity.similarity(universities, universitiesVariant);
+        double unrelated = GraphSimilarity.similarity(universities, chemistry);
+
+        assertEquals(1.0, GraphSimilarity.similarity(universities, universities), 1e-9);
+        assertTrue(related > 0.7, "related=" + related);
+        assertTrue(unrelated < 0.2, "unrelated=" + unrelated);
+    }
+
+    @Test
+    @DisplayName("LSH 索引 - 查询、替换与删除")
+    void index_PutQueryRemove() {
+        GraphSimilarity.Index index = new GraphSimilarity.Index();
+        index.put(1, universities);
+        index.put(2, universitiesVariant);
+        index.put(3, chemistry);
+
+        List<GraphSimilarity.Match> matches = index.similar(1, 5, 0.3);
+        assertEquals(1, matches.size());
+        assertEquals(2, matches.get(0).id());
+
+        // 图谱 2 变更为化学图谱后重新写入
+        index.put(2, chemistry);
+        assertTrue(index.similar(1, 5, 0.3).isEmpty());
+        assertEquals(2, index.similar(3, 5, 0.3).get(0).id());
+
+        index.remove(3);
+        assertEquals(2, index.size());
+        assertFalse(index.contains(3));
+        assertTrue(index.similar(2, 5, 0.3).isEmpty());
+    }
+
+    private static GraphSimilarity.Signature signature(String suffix, String relation, int variant) {
+        GraphSimilarity.Features features = new GraphSimilarity.Features();
+        for (int i = 0; i < 100; i++) {
+            String name = i < variant ? "其他" + i : suffix + i;
+            features.addNode(name, i % 3 == 0 ? "地点" + suffix : "组织" + suffix);
+        }
+        features.addRelations(relation, 120);
+        features.addRelations("相关", 10);
+        return features.sign();
+    }
+}
@@ -0,0 +1,86 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hnsw 单元测试
+ */
+class HnswTest {
+
+    private static final int N = 500;
+    private static final int DIM = 8;
+
+    private float[] vectors;
+    private Hnsw index;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(1);
+        vectors = new float[N * DIM];
+        for (int v = 0; v < N; v++) {
+            double norm = 0;
+            for (int d = 0; d < DIM; d++) {
+                vectors[v * DIM + d] = (float) random.nextGaussian();
+                norm += vectors[v * DIM + d] * vectors[v * DIM + d];
+            }
+            for (int d = 0; d < DIM; d++) {
+                vectors[v * DIM + d] /= (float) Math.sqrt(norm);
+            }
+        }
+        index = Hnsw.build(vectors.clone(), DIM, new Hnsw.Params(8, 64, 7L));
+    }
+
+    @Test
+    @DisplayName("近邻查询 - 与暴力结果一致且不含自身")
+    void similarTo_MatchesBruteForce() {
+        for (int q = 0; q < 20; q++) {
+            int best = -1;
+            float bestDot = -2f;
+            for (int v = 0; v < N; v++) {
+                float dot = 0f;
+                for (int d = 0; d < DIM; d++) {
+                    dot += vectors[q * DIM + d] * vectors[v * DIM + d];
+                }
+                if (v != q && dot > bestDot) {
+                    bestDot = dot;
+                    best = v;
+                }
+            }
+            List<Hnsw.Neighbor> result = index.similarTo(q, 5, 64);
+            assertEquals(5, result.size());
+            assertEquals(best, result.get(0).id());
+            assertEquals(bestDot, result.get(0).similarity(), 1e-5);
+            for (int i = 0; i < result.size(); i++) {
+                assertNotEquals(q, result.get(i).id());
+                if (i > 0) {
+                    assertTrue(result.get(i - 1).similarity() >= result.get(i).similarity());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("序列化 - 包装写出的字节后查询结果不变")
+    void writeTo_WrapRoundTrip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(Channels.newChannel(out));
+        assertEquals(index.byteSize(), out.size());
+
+        Hnsw restored = Hnsw.wrap(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(N, restored.size());
+        assertEquals(DIM, restored.dimensions());
+        for (int q = 0; q < 20; q++) {
+            assertEquals(index.similarTo(q, 10, 32), restored.similarTo(q, 10, 32));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UndirectedAdjacency / LinkPrediction 单元测试
+ */
+class LinkPredictionTest {
+
+    private CsrGraph graph;
+    private UndirectedAdjacency adjacency;
+
+    @BeforeEach
+    void setUp() {
+        // a-b, a-c, b-d, c-d, d-e；含反向重复关系 b->a 与自环 b->b
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : new String[]{"a", "b", "c", "d", "e"}) {
+            builder.addNode(id, id, null);
+        }
+        String[][] edges = {{"a", "b"}, {"a", "c"}, {"d", "b"}, {"c", "d"}, {"d", "e"}, {"b", "a"}, {"b", "b"}};
+        for (int i = 0; i < edges.length; i++) {
+            builder.addEdge(String.valueOf(i), edges[i][0], edges[i][1], "r");
+        }
+        graph = builder.build();
+        adjacency = UndirectedAdjacency.of(graph);
+    }
+
+    @Test
+    @DisplayName("无向视图 - 邻居去重、去自环")
+    void undirectedAdjacency_Deduplicates() {
+        int b = graph.indexOf("b");
+        assertEquals(2, adjacency.degree(b));
+        assertTrue(adjacency.adjacent(b, graph.indexOf("a")));
+        assertFalse(adjacency.adjacent(b, b));
+    }
+
+    @Test
+    @DisplayName("单节点建议 - 只推荐未相连的两跳节点")
+    void forNode_ScoresTwoHopCandidates() {
+        int a = graph.indexOf("a");
+        int d = graph.indexOf("d");
+        List<LinkPrediction.Suggestion> cn = LinkPrediction.forNode(adjacency, a, LinkPrediction.Measure.COMMON_NEIGHBORS, 5, 100);
+        assertEquals(1, cn.size());
+        assertEquals(d, cn.get(0).target());
+        assertEquals(2.0, cn.get(0).score());
+
+        // |N(a) ∩ N(d)| = 2, |N(a) ∪ N(d)| = 3
+        List<LinkPrediction.Suggestion> jaccard = LinkPrediction.forNode(adjacency, a, LinkPrediction.Measure.JACCARD, 5, 100);
+        assertEquals(2.0 / 3, jaccard.get(0).score(), 1e-9);
+
+        // 公共邻居 b、c 的度均为 2
+        List<LinkPrediction.Suggestion> aa = LinkPrediction.forNode(adjacency, a, LinkPrediction.Measure.ADAMIC_ADAR, 5, 100);
+        assertEquals(2 / Math.log(2), aa.get(0).score(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("全图建议 - 每对节点只出现一次且按分值降序")
+    void forGraph_DistinctPairsOrdered() {
+        LinkPrediction.Result result = LinkPrediction.forGraph(adjacency, LinkPrediction.Measure.COMMON_NEIGHBORS,
+                3, 10, 100, Long.MAX_VALUE);
+        assertTrue(result.complete());
+        List<LinkPrediction.Suggestion> suggestions = result.suggestions();
+        assertEquals(4, suggestions.size());
+        for (LinkPrediction.Suggestion suggestion : suggestions) {
+            assertTrue(suggestion.source() < suggestion.target());
+        }
+        for (int i = 1; i < suggestions.size(); i++) {
+            assertTrue(suggestions.get(i - 1).score() >= suggestions.get(i).score());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NodeEmbedding 单元测试
+ */
+class NodeEmbeddingTest {
+
+    private static final NodeEmbedding.Params PARAMS = new NodeEmbedding.Params(16, 10, 20, 3, 5, 0.025f, 7L);
+
+    private UndirectedAdjacency adjacency;
+
+    @BeforeEach
+    void setUp() {
+        // 两个 10 节点完全子图，仅由 0-10 一条关系相连
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (int i = 0; i < 20; i++) {
+            builder.addNode("n" + i, "n" + i, null);
+        }
+        int edge = 0;
+        for (int i = 0; i < 10; i++) {
+            for (int j = i + 1; j < 10; j++) {
+                builder.addEdge(String.valueOf(edge++), "n" + i, "n" + j, "r");
+                builder.addEdge(String.valueOf(edge++), "n" + (i + 10), "n" + (j + 10), "r");
+            }
+        }
+        builder.addEdge(String.valueOf(edge), "n0", "n10", "r");
+        adjacency = UndirectedAdjacency.of(builder.build());
+    }
+
+    @Test
+    @DisplayName("训练 - 向量归一化且同一社区更相似")
+    void train_SeparatesCommunities() {
+        float[] vectors = NodeEmbedding.train(adjacency, PARAMS, false, Long.MAX_VALUE);
+
+        assertEquals(20 * 16, vectors.length);
+        assertEquals(1.0, dot(vectors, 3, 3), 1e-4);
+        assertTrue(dot(vectors, 3, 5) > dot(vectors, 3, 15));
+        assertTrue(dot(vectors, 12, 17) > dot(vectors, 12, 7));
+    }
+
+    @Test
+    @DisplayName("训练 - 串行时结果可复现")
+    void train_DeterministicWhenSequential() {
+        assertArrayEquals(NodeEmbedding.train(adjacency, PARAMS, false, Long.MAX_VALUE),
+                NodeEmbedding.train(adjacency, PARAMS, false, Long.MAX_VALUE));
+    }
+
+    private static double dot(float[] vectors, int a, int b) {
+        double sum = 0;
+        for (int d = 0; d < 16; d++) {
+            sum += vectors[a * 16 + d] * vectors[b * 16 + d];
+        }
+        return sum;
+    }
+}
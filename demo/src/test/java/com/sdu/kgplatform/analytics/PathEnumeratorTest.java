@@ -0,0 +1,157 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PathEnumerator 单元测试
+ */
+class PathEnumeratorTest {
+
+    /**
+     * A -> B -> D -> E，A -> C -> D，B -> C，A -> E（关系类型 "直达"）
+     */
+    private static CsrGraph diamond() {
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : List.of("A", "B", "C", "D", "E")) {
+            builder.addNode(id, id, "类型");
+        }
+        builder.addEdge("1", "A", "B", "关联");
+        builder.addEdge("2", "A", "C", "关联");
+        builder.addEdge("3", "B", "D", "关联");
+        builder.addEdge("4", "C", "D", "关联");
+        builder.addEdge("5", "D", "E", "关联");
+        builder.addEdge("6", "B", "C", "关联");
+        builder.addEdge("7", "A", "E", "直达");
+        return builder.build();
+    }
+
+    private static PathEnumerator.Options options(boolean directed, boolean[] mask, int maxLength, int fanout) {
+        return new PathEnumerator.Options(directed, mask, maxLength, fanout, System.nanoTime() + 1_000_000_000L);
+    }
+
+    private static List<ShortestPaths.Path> collect(CsrGraph graph, String from, String to,
+                                                    PathEnumerator.Options options, int limit,
+                                                    PathEnumerator.Result[] result) {
+        List<ShortestPaths.Path> paths = new ArrayList<>();
+        result[0] = PathEnumerator.enumerate(graph, graph.indexOf(from), graph.indexOf(to), options, limit,
+                paths::add);
+        return paths;
+    }
+
+    @Test
+    @DisplayName("有向枚举 - 按长度升序返回全部简单路径，关系类型过滤生效")
+    void enumerate_DirectedWithTypeFilter() {
+        CsrGraph graph = diamond();
+        PathEnumerator.Result[] result = new PathEnumerator.Result[1];
+
+        List<ShortestPaths.Path> paths = collect(graph, "A", "E", options(true, null, 4, 100), 100, result);
+        assertEquals(4, paths.size());
+        assertEquals(List.of(1, 3, 3, 4), paths.stream().map(ShortestPaths.Path::length).toList());
+        assertFalse(result[0].truncated());
+        assertFalse(result[0].pruned());
+
+        boolean[] mask = graph.relationTypeMask(List.of("关联"));
+        assertEquals(3, collect(graph, "A", "E", options(true, mask, 4, 100), 100, result).size());
+        assertEquals(2, collect(graph, "A", "E", options(true, mask, 3, 100), 100, result).size());
+        // 逆向不可达，无向时可达
+        assertTrue(collect(graph, "E", "A", options(true, null, 4, 100), 100, result).isEmpty());
+        assertEquals(1, collect(graph, "E", "A", options(false, null, 1, 100), 100, result).size());
+    }
+
+    @Test
+    @DisplayName("与暴力枚举结果一致 - 随机无向图上无重复、无遗漏")
+    void enumerate_MatchesBruteForce() {
+        Random random = new Random(7);
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        int n = 25;
+        for (int i = 0; i < n; i++) {
+            builder.addNode("n" + i, "n" + i, "类型");
+        }
+        for (int i = 0; i < 70; i++) {
+            builder.addEdge("e" + i, "n" + random.nextInt(n), "n" + random.nextInt(n), "关联");
+        }
+        CsrGraph graph = builder.build();
+
+        for (int maxLength = 1; maxLength <= 6; maxLength++) {
+            PathEnumerator.Result[] result = new PathEnumerator.Result[1];
+            List<ShortestPaths.Path> paths = collect(graph, "n0", "n1", options(false, null, maxLength, 1000),
+                    1_000_000, result);
+            Set<String> actual = new HashSet<>();
+            for (ShortestPaths.Path path : paths) {
+                assertTrue(actual.add(Arrays.toString(path.edges())), "路径重复");
+                assertTrue(Arrays.stream(path.nodes()).distinct().count() == path.nodes().length, "路径不是简单路径");
+            }
+            Set<String> expected = new HashSet<>();
+            boolean[] visited = new boolean[n];
+            visited[graph.indexOf("n0")] = true;
+            bruteForce(graph, graph.indexOf("n0"), graph.indexOf("n1"), maxLength, visited, new ArrayList<>(),
+                    expected);
+            assertEquals(expected, actual);
+            assertFalse(result[0].pruned());
+        }
+    }
+
+    @Test
+    @DisplayName("结果上限、展开上限与不可达")
+    void enumerate_LimitFanoutAndUnreachable() {
+        CsrGraph graph = diamond();
+        PathEnumerator.Result[] result = new PathEnumerator.Result[1];
+
+        List<ShortestPaths.Path> limited = collect(graph, "A", "E", options(true, null, 4, 100), 2, result);
+        assertEquals(2, limited.size());
+        assertEquals(1, limited.get(0).length());
+        assertTrue(result[0].truncated());
+
+        // A 只展开第一条出边 A -> B
+        List<ShortestPaths.Path> capped = collect(graph, "A", "E", options(true, null, 4, 1), 100, result);
+        assertTrue(result[0].pruned());
+        assertTrue(capped.size() < 4);
+
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        builder.addNode("x", "x", "类型");
+        builder.addNode("y", "y", "类型");
+        assertTrue(collect(builder.build(), "x", "y", options(false, null, 8, 10), 10, result).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> collect(diamond(), "A", "E", options(true, null, PathEnumerator.MAX_LENGTH + 1, 10), 10,
+                        new PathEnumerator.Result[1]));
+    }
+
+    private static void bruteForce(CsrGraph graph, int v, int target, int remaining, boolean[] visited,
+                                   List<Integer> edges, Set<String> out) {
+        if (v == target) {
+            out.add(edges.toString());
+            return;
+        }
+        if (remaining == 0) {
+            return;
+        }
+        for (int k = graph.outStart(v); k < graph.outEnd(v); k++) {
+            step(graph, graph.outTarget(k), graph.outEdge(k), target, remaining, visited, edges, out);
+        }
+        for (int k = graph.inStart(v); k < graph.inEnd(v); k++) {
+            step(graph, graph.inSource(k), graph.inEdge(k), target, remaining, visited, edges, out);
+        }
+    }
+
+    private static void step(CsrGraph graph, int w, int e, int target, int remaining, boolean[] visited,
+                             List<Integer> edges, Set<String> out) {
+        if (visited[w]) {
+            return;
+        }
+        visited[w] = true;
+        edges.add(e);
+        bruteForce(graph, w, target, remaining - 1, visited, edges, out);
+        edges.remove(edges.size() - 1);
+        visited[w] = false;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PatternMatcher 单元测试
+ */
+class PatternMatcherTest {
+
+    private CsrGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // 张三 -任职-> 山大 -位于-> 济南，李四 -任职-> 浪潮 -位于-> 济南，张三 -认识-> 李四，山大 -合作-> 浪潮
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        builder.addNode("p1", "张三", "人物");
+        builder.addNode("p2", "李四", "人物");
+        builder.addNode("o1", "山东大学", "组织");
+        builder.addNode("o2", "浪潮集团", "组织");
+        builder.addNode("l1", "济南", "地点");
+        builder.addEdge("1", "p1", "o1", "任职");
+        builder.addEdge("2", "p2", "o2", "任职");
+        builder.addEdge("3", "o1", "l1", "位于");
+        builder.addEdge("4", "o2", "l1", "位于");
+        builder.addEdge("5", "p1", "p2", "认识");
+        builder.addEdge("6", "o1", "o2", "合作");
+        graph = builder.build();
+    }
+
+    private static PatternMatcher.NodeSpec node(String alias, String type) {
+        return new PatternMatcher.NodeSpec(alias, type, null, null, null, null, null);
+    }
+
+    private static PatternMatcher.EdgeSpec edge(String from, String to, String type) {
+        return new PatternMatcher.EdgeSpec(from, to, type != null ? List.of(type) : null, 1, 1, true);
+    }
+
+    private PatternMatcher.Result match(List<PatternMatcher.NodeSpec> nodes, List<PatternMatcher.EdgeSpec> edges,
+                                        int limit) {
+        return PatternMatcher.match(graph, nodes, edges, limit, System.nanoTime() + 1_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("链式模式 - 按名称过滤并从选择性最高的节点开始")
+    void match_ChainWithNameFilter() {
+        List<PatternMatcher.NodeSpec> nodes = List.of(node("p", "人物"), node("o", "组织"),
+                new PatternMatcher.NodeSpec("l", "地点", null, "济南", null, null, null));
+        List<PatternMatcher.EdgeSpec> edges = List.of(edge("p", "o", "任职"), edge("o", "l", "位于"));
+
+        PatternMatcher.Result result = match(nodes, edges, 10);
+        assertEquals(2, result.matches().size());
+        assertEquals("l", result.order().get(0));
+        assertFalse(result.truncated());
+
+        List<PatternMatcher.NodeSpec> named = List.of(
+                new PatternMatcher.NodeSpec("p", "人物", null, null, "张", null, null), node("o", "组织"),
+                node("l", "地点"));
+        PatternMatcher.Result one = match(named, edges, 10);
+        assertEquals(1, one.matches().size());
+        assertEquals("o1", graph.nodeId(one.matches().get(0)[1]));
+    }
+
+    @Test
+    @DisplayName("多跳边与环校验 - 跳数按最短距离，两端已绑定的边作为校验")
+    void match_MultiHopAndCycleCheck() {
+        List<PatternMatcher.NodeSpec> nodes = List.of(node("p", "人物"), node("l", "地点"));
+        List<PatternMatcher.EdgeSpec> twoHops = List.of(
+                new PatternMatcher.EdgeSpec("p", "l", List.of("任职", "位于"), 2, 2, true));
+        assertEquals(2, match(nodes, twoHops, 10).matches().size());
+
+        // 两个同事（认识）分别任职的两个组织之间存在合作
+        List<PatternMatcher.NodeSpec> square = List.of(node("a", "人物"), node("b", "人物"),
+                node("x", "组织"), node("y", "组织"));
+        List<PatternMatcher.EdgeSpec> edges = List.of(edge("a", "b", "认识"), edge("a", "x", "任职"),
+                edge("b", "y", "任职"), edge("x", "y", "合作"));
+        PatternMatcher.Result result = match(square, edges, 10);
+        assertEquals(1, result.matches().size());
+        assertEquals("p1", graph.nodeId(result.matches().get(0)[0]));
+
+        // 无向时两个人物可互换
+        List<PatternMatcher.EdgeSpec> undirected = List.of(
+                new PatternMatcher.EdgeSpec("a", "b", List.of("认识"), 1, 1, false));
+        assertEquals(2, match(square.subList(0, 2), undirected, 10).matches().size());
+    }
+
+    @Test
+    @DisplayName("结果上限与模式校验")
+    void match_LimitAndValidation() {
+        PatternMatcher.Result limited = match(List.of(node("n", null)), List.of(), 3);
+        assertEquals(3, limited.matches().size());
+        assertTrue(limited.truncated());
+
+        assertTrue(match(List.of(node("n", "不存在的类型")), List.of(), 3).matches().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> match(List.of(node("a", null), node("b", null)), List.of(), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> match(List.of(node("a", null), node("a", null)), List.of(edge("a", "a", null)), 10));
+    }
+}
@@ -0,0 +1,82 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reachability 单元测试
+ */
+class ReachabilityTest {
+
+    /**
+     * 0 -> 1, 0 -> 2, 1 -> 3, 2 -> 3（菱形），3 -> 4, 4 -> 5, 5 -> 4（环），6 孤立
+     */
+    private static Reachability diamond() {
+        int[][] adjacency = {{1, 2}, {3}, {3}, {4}, {5}, {4}, {}};
+        return build(adjacency);
+    }
+
+    private static Reachability build(int[][] adjacency) {
+        int n = adjacency.length;
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + adjacency[v].length;
+        }
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(adjacency[v], 0, targets, offsets[v], adjacency[v].length);
+        }
+        return Reachability.build(n, offsets, targets, Long.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("可达判定 - 非树边与环")
+    void reachable_DagWithCycle() {
+        Reachability index = diamond();
+
+        assertTrue(index.reachable(0, 3));
+        assertTrue(index.reachable(2, 5));
+        assertTrue(index.reachable(5, 4));
+        assertFalse(index.reachable(3, 0));
+        assertFalse(index.reachable(1, 2));
+        assertFalse(index.reachable(0, 6));
+        assertTrue(index.reachable(6, 6));
+    }
+
+    @Test
+    @DisplayName("后代与祖先 - 计数与截断")
+    void descendantsAndAncestors() {
+        Reachability index = diamond();
+
+        assertEquals(5, index.descendantCount(0));
+        int[] descendants = index.descendants(0, 10);
+        Arrays.sort(descendants);
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, descendants);
+        assertEquals(2, index.descendants(0, 2).length);
+
+        // 环内节点互为祖先
+        int[] ancestors = index.ancestors(4, 10);
+        Arrays.sort(ancestors);
+        assertArrayEquals(new int[]{0, 1, 2, 3, 5}, ancestors);
+        assertEquals(0, index.ancestorCount(0));
+    }
+
+    @Test
+    @DisplayName("增量加边 - 合并区间，形成环时要求重建")
+    void withEdge_Incremental() {
+        Reachability index = diamond();
+
+        Reachability updated = index.withEdge(6, 0, Long.MAX_VALUE);
+        assertNotNull(updated);
+        assertTrue(updated.reachable(6, 5));
+        assertEquals(2, updated.ancestorCount(2));
+        assertFalse(index.reachable(6, 5));
+
+        assertSame(updated, updated.withEdge(0, 3, Long.MAX_VALUE));
+        assertNull(updated.withEdge(5, 0, Long.MAX_VALUE));
+    }
+}
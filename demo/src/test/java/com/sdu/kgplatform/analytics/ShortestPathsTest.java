@@ -0,0 +1,79 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ShortestPaths 单元测试
+ */
+class ShortestPathsTest {
+
+    private CsrGraph graph;
+    private int s;
+    private int t;
+
+    @BeforeEach
+    void setUp() {
+        // s->a->t, s->b->t, a->b, s->c->d, t->d
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : new String[]{"s", "a", "b", "c", "d", "t", "x"}) {
+            builder.addNode(id, id, null);
+        }
+        builder.addEdge("1", "s", "a", "r");
+        builder.addEdge("2", "a", "t", "r");
+        builder.addEdge("3", "s", "b", "q");
+        builder.addEdge("4", "b", "t", "r");
+        builder.addEdge("5", "s", "c", "r");
+        builder.addEdge("6", "c", "d", "r");
+        builder.addEdge("7", "t", "d", "r");
+        builder.addEdge("8", "a", "b", "r");
+        graph = builder.build();
+        s = graph.indexOf("s");
+        t = graph.indexOf("t");
+    }
+
+    private ShortestPaths.Options options(boolean directed, List<String> types) {
+        return new ShortestPaths.Options(directed, graph.relationTypeMask(types), 6,
+                System.nanoTime() + 1_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("最短路径 - 有向与无向")
+    void shortest_DirectedAndUndirected() {
+        ShortestPaths.Path path = ShortestPaths.shortest(graph, s, t, options(true, null));
+        assertNotNull(path);
+        assertEquals(2, path.length());
+        assertEquals(s, path.nodes()[0]);
+        assertEquals(t, path.nodes()[2]);
+
+        assertNull(ShortestPaths.shortest(graph, t, s, options(true, null)));
+        assertEquals(2, ShortestPaths.shortest(graph, t, s, options(false, null)).length());
+        assertNull(ShortestPaths.shortest(graph, s, graph.indexOf("x"), options(false, null)));
+    }
+
+    @Test
+    @DisplayName("全部最短路径 - 关系类型过滤")
+    void allShortest_RespectsTypeFilter() {
+        assertEquals(2, ShortestPaths.allShortest(graph, s, t, options(true, null), 10).size());
+
+        List<ShortestPaths.Path> onlyR = ShortestPaths.allShortest(graph, s, t, options(true, List.of("r")), 10);
+        assertEquals(1, onlyR.size());
+        assertEquals("1", graph.edgeId(onlyR.get(0).edges()[0]));
+    }
+
+    @Test
+    @DisplayName("k 条最短路径 - 按长度升序且互不相同")
+    void kShortest_OrderedAndDistinct() {
+        List<ShortestPaths.Path> paths = ShortestPaths.kShortest(graph, s, t, options(false, null), 5);
+        assertEquals(5, paths.size());
+        for (int i = 1; i < paths.size(); i++) {
+            assertTrue(paths.get(i - 1).length() <= paths.get(i).length());
+        }
+        assertEquals(3, paths.get(4).length());
+    }
+}
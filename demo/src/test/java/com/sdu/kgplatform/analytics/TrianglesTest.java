@@ -0,0 +1,57 @@
+package com.sdu.kgplatform.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Triangles 单元测试
+ */
+class TrianglesTest {
+
+    private CsrGraph graph;
+    private UndirectedAdjacency adjacency;
+
+    @BeforeEach
+    void setUp() {
+        // a、b、c、d 两两相连（K4），e 只连接 d；含反向重复关系 b->a
+        CsrGraph.Builder builder = CsrGraph.builder(1, 0L);
+        for (String id : new String[]{"a", "b", "c", "d", "e"}) {
+            builder.addNode(id, id, null);
+        }
+        String[][] edges = {{"a", "b"}, {"a", "c"}, {"a", "d"}, {"b", "c"}, {"b", "d"}, {"c", "d"}, {"d", "e"},
+                {"b", "a"}};
+        for (int i = 0; i < edges.length; i++) {
+            builder.addEdge(String.valueOf(i), edges[i][0], edges[i][1], "r");
+        }
+        graph = builder.build();
+        adjacency = UndirectedAdjacency.of(graph);
+    }
+
+    @Test
+    @DisplayName("三角形计数 - 每个节点参与数与总数")
+    void count_PerNodeAndTotal() {
+        Triangles.Result result = Triangles.count(adjacency, false);
+
+        assertEquals(4, result.total());
+        for (String id : new String[]{"a", "b", "c", "d"}) {
+            assertEquals(3, result.perNode()[graph.indexOf(id)]);
+        }
+        assertEquals(0, result.perNode()[graph.indexOf("e")]);
+    }
+
+    @Test
+    @DisplayName("聚类系数 - 全局与平均局部")
+    void count_ClusteringCoefficients() {
+        Triangles.Result result = Triangles.count(adjacency, true);
+
+        // 闭合三元组 12 / 全部三元组 15
+        assertEquals(0.8, result.globalClustering(), 1e-9);
+        // (1 + 1 + 1 + 0.5 + 0) / 5
+        assertEquals(0.7, result.averageClustering(), 1e-9);
+        assertEquals(0.5, Triangles.localClustering(adjacency, result, graph.indexOf("d")), 1e-9);
+        assertEquals(0.0, Triangles.localClustering(adjacency, result, graph.indexOf("e")), 1e-9);
+    }
+}
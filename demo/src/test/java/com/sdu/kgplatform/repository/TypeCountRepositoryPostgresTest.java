@@ -0,0 +1,82 @@
+package com.sdu.kgplatform.repository;
+
+import com.sdu.kgplatform.entity.GraphTypeCount;
+import com.sdu.kgplatform.entity.GraphTypePairCount;
+import com.sdu.kgplatform.entity.TypeCountKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 类型目录计数 Repository 单元测试 - 在生产环境使用的 PostgreSQL 方言下执行
+ * 需要 Docker，环境中没有 Docker 时跳过
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class TypeCountRepositoryPostgresTest {
+
+    private static final Integer GRAPH_ID = 1;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private GraphTypeCountRepository typeCountRepository;
+
+    @Autowired
+    private GraphTypePairCountRepository pairCountRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("类型计数 - 不存在时插入，存在时累加，归零后删除")
+    void addCount_UpsertsTypeCounts() {
+        typeCountRepository.addCount(GRAPH_ID, TypeCountKind.NODE, "人物", 2);
+        typeCountRepository.addCount(GRAPH_ID, TypeCountKind.NODE, "人物", 3);
+        typeCountRepository.addCount(GRAPH_ID, TypeCountKind.RELATION, "人物", 1);
+        typeCountRepository.addCount(GRAPH_ID, TypeCountKind.NODE, "地点", 1);
+        typeCountRepository.addCount(GRAPH_ID, TypeCountKind.NODE, "地点", -1);
+        typeCountRepository.deleteEmpty(GRAPH_ID);
+        entityManager.clear();
+
+        List<GraphTypeCount> nodes = typeCountRepository.findByGraphIdAndKindOrderByCountDesc(
+                GRAPH_ID, TypeCountKind.NODE);
+        assertEquals(1, nodes.size());
+        assertEquals("人物", nodes.get(0).getTypeName());
+        assertEquals(5L, nodes.get(0).getCount());
+        assertEquals(1L, typeCountRepository.countByGraphIdAndKind(GRAPH_ID, TypeCountKind.RELATION));
+    }
+
+    @Test
+    @DisplayName("类型对计数 - 不存在时插入，存在时累加")
+    void addCount_UpsertsPairCounts() {
+        pairCountRepository.addCount(GRAPH_ID, "人物", "出生于", "地点", 1);
+        pairCountRepository.addCount(GRAPH_ID, "人物", "出生于", "地点", 4);
+        pairCountRepository.addCount(GRAPH_ID, "人物", "认识", "人物", 1);
+        entityManager.clear();
+
+        List<GraphTypePairCount> pairs = pairCountRepository.findByGraphIdOrderByCountDesc(GRAPH_ID);
+        assertEquals(2, pairs.size());
+        assertEquals("出生于", pairs.get(0).getRelationType());
+        assertEquals(5L, pairs.get(0).getCount());
+    }
+}
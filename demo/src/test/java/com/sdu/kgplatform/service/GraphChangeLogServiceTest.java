@@ -0,0 +1,155 @@
+package com.sdu.kgplatform.service;
+
+import com.sdu.kgplatform.dto.GraphDeltaDto;
+import com.sdu.kgplatform.dto.LiteNodeDto;
+import com.sdu.kgplatform.dto.LiteRelationshipDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GraphChangeLogService 单元测试
+ */
+class GraphChangeLogServiceTest {
+
+    private static final Integer GRAPH_ID = 1;
+    private static final long EPOCH = 1000L;
+
+    private GraphVersionService versionService;
+    private List<Object> events;
+    private GraphChangeLogService changeLog;
+
+    @BeforeEach
+    void setUp() {
+        versionService = new GraphVersionService(EPOCH);
+        events = new ArrayList<>();
+        changeLog = new GraphChangeLogService(versionService, events::add, 100);
+    }
+
+    @Test
+    @DisplayName("增量折叠 - 同一对象的新增、修改、删除合并为最终状态")
+    void changesSince_FoldsChanges() {
+        changeLog.recordNodeAdded(GRAPH_ID, node("a", "甲"));
+        changeLog.recordNodeUpdated(GRAPH_ID, node("a", "甲2"));
+        changeLog.recordNodeAdded(GRAPH_ID, node("b", "乙"));
+        long base = versionService.currentVersion(GRAPH_ID);
+
+        changeLog.recordNodeUpdated(GRAPH_ID, node("a", "甲3"));
+        changeLog.recordNodeAdded(GRAPH_ID, node("c", "丙"));
+        changeLog.recordLinkAdded(GRAPH_ID, link("r1", "a", "c"));
+        // c 在窗口内新增又删除，连同其关系一起消失
+        changeLog.recordNodeRemoved(GRAPH_ID, "c", List.of("r1"));
+        changeLog.recordNodeRemoved(GRAPH_ID, "b", List.of());
+
+        GraphDeltaDto delta = changeLog.changesSince(GRAPH_ID, EPOCH, base).orElseThrow();
+        assertFalse(delta.isFull());
+        assertEquals(base, delta.getSinceVersion());
+        assertEquals(versionService.currentVersion(GRAPH_ID), delta.getVersion());
+        assertTrue(delta.getAddedNodes().isEmpty());
+        assertEquals(List.of("甲3"), delta.getUpdatedNodes().stream().map(LiteNodeDto::getName).toList());
+        assertEquals(List.of("b"), delta.getRemovedNodeIds());
+        assertTrue(delta.getAddedLinks().isEmpty());
+        assertTrue(delta.getRemovedLinkIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("新增后修改折叠为新增，同一版本内的批量新增一起返回")
+    void changesSince_AddThenUpdateStaysAdded() {
+        changeLog.recordNodesAdded(GRAPH_ID, List.of(node("a", "甲"), node("b", "乙")));
+        changeLog.recordNodeUpdated(GRAPH_ID, node("a", "甲2"));
+        changeLog.recordLinkAdded(GRAPH_ID, link("r1", "a", "b"));
+
+        GraphDeltaDto delta = changeLog.changesSince(GRAPH_ID, EPOCH, 0L).orElseThrow();
+        assertEquals(List.of("甲2", "乙"), delta.getAddedNodes().stream().map(LiteNodeDto::getName).toList());
+        assertTrue(delta.getUpdatedNodes().isEmpty());
+        assertEquals(List.of("r1"), delta.getAddedLinks().stream().map(LiteRelationshipDto::getRelationId).toList());
+        assertEquals(3L, delta.getVersion());
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    @DisplayName("日志压缩 - 所需记录被丢弃时返回 empty，调用方退化为 full = true 的全量快照")
+    void changesSince_CompactedFallsBackToFull() {
+        changeLog = new GraphChangeLogService(versionService, events::add, 5);
+        for (int i = 0; i < 7; i++) {
+            changeLog.recordNodeAdded(GRAPH_ID, node("n" + i, "节点" + i));
+        }
+        // 上限 5 条，版本 1、2 已被丢弃
+        assertTrue(changeLog.changesSince(GRAPH_ID, EPOCH, 0L).isEmpty());
+        assertTrue(changeLog.changesSince(GRAPH_ID, EPOCH, 1L).isEmpty());
+        GraphDeltaDto delta = changeLog.changesSince(GRAPH_ID, EPOCH, 2L).orElseThrow();
+        assertEquals(5, delta.getAddedNodes().size());
+
+        changeLog.recordReset(GRAPH_ID);
+        assertTrue(changeLog.changesSince(GRAPH_ID, EPOCH, 7L).isEmpty());
+        GraphDeltaDto empty = changeLog.changesSince(GRAPH_ID, EPOCH, 8L).orElseThrow();
+        assertTrue(empty.getAddedNodes().isEmpty());
+        assertEquals(8L, empty.getVersion());
+    }
+
+    @Test
+    @DisplayName("客户端版本大于当前版本（服务重启前的版本）时要求全量重载")
+    void changesSince_VersionFromBeforeRestart() {
+        changeLog.recordNodeAdded(GRAPH_ID, node("a", "甲"));
+        assertTrue(changeLog.changesSince(GRAPH_ID, EPOCH, 42L).isEmpty());
+        assertTrue(changeLog.changesSince(GRAPH_ID, EPOCH, 1L).orElseThrow().getAddedNodes().isEmpty());
+        assertTrue(changeLog.entriesSince(2, 0L).orElseThrow().isEmpty());
+    }
+
+    @Test
+    @DisplayName("epoch 不同（服务重启前取得的版本）时，即使版本号落在日志范围内也要求全量重载")
+    void changesSince_StaleEpochAfterRestart() {
+        for (int i = 0; i < 7; i++) {
+            changeLog.recordNodeAdded(GRAPH_ID, node("n" + i, "节点" + i));
+        }
+        // 重启前的客户端持有 v5，重启后新进程的 v5 对应完全不同的变更
+        assertTrue(changeLog.changesSince(GRAPH_ID, EPOCH - 1, 5L).isEmpty());
+        assertEquals(2, changeLog.changesSince(GRAPH_ID, EPOCH, 5L).orElseThrow().getAddedNodes().size());
+        assertEquals(EPOCH, changeLog.changesSince(GRAPH_ID, EPOCH, 5L).orElseThrow().getEpoch());
+    }
+
+    @Test
+    @DisplayName("事务中的记录推迟到提交后生效，回滚时丢弃")
+    void record_DeferredUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changeLog.recordNodeAdded(GRAPH_ID, node("a", "甲"));
+            assertEquals(0L, versionService.currentVersion(GRAPH_ID));
+            assertTrue(events.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1L, versionService.currentVersion(GRAPH_ID));
+        assertEquals(1, events.size());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changeLog.recordNodeRemoved(GRAPH_ID, "a", List.of());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1L, versionService.currentVersion(GRAPH_ID));
+        Optional<GraphDeltaDto> delta = changeLog.changesSince(GRAPH_ID, EPOCH, 1L);
+        assertTrue(delta.orElseThrow().getRemovedNodeIds().isEmpty());
+    }
+
+    private static LiteNodeDto node(String id, String name) {
+        return LiteNodeDto.builder().nodeId(id).name(name).type("类型").build();
+    }
+
+    private static LiteRelationshipDto link(String id, String source, String target) {
+        return LiteRelationshipDto.builder().relationId(id).sourceNodeId(source).targetNodeId(target).type("关联")
+                .build();
+    }
+}
@@ -45,6 +45,15 @@ class GraphServiceTest {
     @Mock
     private NodeRepository nodeRepository;
 
+    @Mock
+    private GraphVersionService graphVersionService;
+
+    @Mock
+    private GraphChangeLogService changeLogService;
+
+    @Mock
+    private GraphVisualizationCache visualizationCache;
+
     @InjectMocks
     private GraphService graphService;
 
@@ -0,0 +1,73 @@
+package com.sdu.kgplatform.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GraphVisualizationCache 单元测试
+ */
+class GraphVisualizationCacheTest {
+
+    /**
+     * 与缓存内部的单条固定开销估算一致
+     */
+    private static final long OVERHEAD = 96;
+
+    @Test
+    @DisplayName("按字节容量淘汰 - 超出上限时移除最久未访问的条目")
+    void put_EvictsLeastRecentlyUsedByBytes() {
+        GraphVisualizationCache cache = new GraphVisualizationCache(3 * (100 + OVERHEAD));
+        cache.put(1, 1L, new byte[100]);
+        cache.put(2, 1L, new byte[100]);
+        cache.put(3, 1L, new byte[100]);
+        // 访问 1 后，2 成为最久未访问的条目
+        assertNotNull(cache.get(1, 1L));
+
+        cache.put(4, 1L, new byte[100]);
+
+        assertNull(cache.get(2, 1L));
+        assertNotNull(cache.get(1, 1L));
+        assertNotNull(cache.get(3, 1L));
+        assertNotNull(cache.get(4, 1L));
+        Map<String, Object> stats = cache.stats();
+        assertEquals(3, stats.get("entries"));
+        assertEquals(3 * (100 + OVERHEAD), stats.get("bytes"));
+        assertEquals(1L, stats.get("evictions"));
+    }
+
+    @Test
+    @DisplayName("大条目一次淘汰多个小条目，超过总容量的条目不缓存")
+    void put_LargePayloads() {
+        GraphVisualizationCache cache = new GraphVisualizationCache(1000);
+        cache.put(1, 1L, new byte[200]);
+        cache.put(2, 1L, new byte[200]);
+        cache.put(3, 1L, new byte[800]);
+
+        assertNull(cache.get(1, 1L));
+        assertNull(cache.get(2, 1L));
+        assertNotNull(cache.get(3, 1L));
+        assertEquals(800 + OVERHEAD, cache.stats().get("bytes"));
+
+        cache.put(4, 1L, new byte[1000]);
+        assertNull(cache.get(4, 1L));
+        assertNotNull(cache.get(3, 1L));
+        assertEquals(1L, cache.stats().get("rejections"));
+    }
+
+    @Test
+    @DisplayName("版本不一致视为未命中并释放字节，同一图谱重复写入不重复计数")
+    void get_VersionMismatchReleasesBytes() {
+        GraphVisualizationCache cache = new GraphVisualizationCache(10_000);
+        cache.put(1, 1L, new byte[100]);
+        cache.put(1, 2L, new byte[300]);
+        assertEquals(300 + OVERHEAD, cache.stats().get("bytes"));
+
+        assertNull(cache.get(1, 3L));
+        assertEquals(0L, cache.stats().get("bytes"));
+        assertEquals(0, cache.stats().get("entries"));
+    }
+}